@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the transformation of {@link Point}s by an
+ * {@link AffineTransform}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AffineTransformBenchmark {
+
+	/**
+	 * The number of {@link Point}s to transform.
+	 */
+	@Param({ "1000", "100000" })
+	public int points;
+
+	private AffineTransform transform;
+	private Point[] input;
+
+	/**
+	 * Creates a transformation that combines a translation, rotation, and
+	 * scaling, as well as the {@link Point}s to transform.
+	 */
+	@Setup
+	public void setup() {
+		transform = new AffineTransform().translate(100, 50).rotate(0.3)
+				.scale(1.5, 0.75);
+		input = SyntheticGraphs.createPoints(points,
+				new Rectangle(0, 0, 1000, 1000));
+	}
+
+	/**
+	 * Transforms all {@link Point}s at once.
+	 *
+	 * @return The transformed {@link Point}s.
+	 */
+	@Benchmark
+	public Point[] transformArray() {
+		return transform.getTransformed(input);
+	}
+
+	/**
+	 * Transforms the {@link Point}s one by one.
+	 *
+	 * @param blackhole
+	 *            The {@link Blackhole} consuming the transformed
+	 *            {@link Point}s.
+	 */
+	@Benchmark
+	public void transformEach(Blackhole blackhole) {
+		for (Point p : input) {
+			blackhole.consume(transform.getTransformed(p));
+		}
+	}
+
+}
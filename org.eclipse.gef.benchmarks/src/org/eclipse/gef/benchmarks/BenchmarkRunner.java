@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of the executable benchmarks jar. It accepts the same
+ * arguments as the JMH command line (e.g. a regular expression selecting the
+ * benchmarks, or <code>-p nodes=1000</code>), but writes the results in JSON
+ * format to {@value #DEFAULT_RESULT_FILE} unless another result format or
+ * file is specified (<code>-rf</code>, <code>-rff</code>), so that the results
+ * of different releases can be compared.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * The file to which the results are written by default.
+	 */
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	/**
+	 * Runs the benchmarks selected by the given JMH command line arguments.
+	 *
+	 * @param args
+	 *            The JMH command line arguments.
+	 * @throws CommandLineOptionException
+	 *             if the arguments cannot be parsed.
+	 * @throws IOException
+	 *             if the help cannot be printed.
+	 * @throws RunnerException
+	 *             if running the benchmarks fails.
+	 */
+	public static void main(String[] args)
+			throws CommandLineOptionException, IOException, RunnerException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp()) {
+			commandLine.showHelp();
+			return;
+		}
+		if (commandLine.shouldList()) {
+			new Runner(commandLine).list();
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(commandLine);
+		if (!commandLine.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!commandLine.getResult().hasValue()) {
+			options.result(DEFAULT_RESULT_FILE);
+		}
+		if (commandLine.getIncludes().isEmpty()) {
+			options.include(BenchmarkRunner.class.getPackage().getName());
+		}
+		new Runner(options.build()).run();
+	}
+
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.BezierCurve;
+import org.eclipse.gef.geometry.planar.CubicCurve;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.PolyBezier;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the intersection and offset computations of {@link BezierCurve}s
+ * and {@link PolyBezier}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BezierCurveBenchmark {
+
+	/**
+	 * The number of way points of the interpolated {@link PolyBezier}s.
+	 */
+	@Param({ "10", "100" })
+	public int wayPoints;
+
+	private CubicCurve curve1;
+	private CubicCurve curve2;
+	private PolyBezier polyBezier1;
+	private PolyBezier polyBezier2;
+
+	/**
+	 * Creates two crossing {@link CubicCurve}s, and two {@link PolyBezier}s
+	 * interpolating random way points.
+	 */
+	@Setup
+	public void setup() {
+		curve1 = new CubicCurve(0, 0, 100, 300, 200, -200, 300, 100);
+		curve2 = new CubicCurve(0, 100, 100, -200, 200, 300, 300, 0);
+		Point[] points = SyntheticGraphs.createPoints(2 * wayPoints,
+				new Rectangle(0, 0, 1000, 1000));
+		Point[] wayPoints1 = new Point[wayPoints];
+		Point[] wayPoints2 = new Point[wayPoints];
+		System.arraycopy(points, 0, wayPoints1, 0, wayPoints);
+		System.arraycopy(points, wayPoints, wayPoints2, 0, wayPoints);
+		polyBezier1 = PolyBezier.interpolateCubic(wayPoints1);
+		polyBezier2 = PolyBezier.interpolateCubic(wayPoints2);
+	}
+
+	/**
+	 * Intersects two crossing {@link CubicCurve}s.
+	 *
+	 * @return The points of intersection.
+	 */
+	@Benchmark
+	public Point[] cubicCurveIntersections() {
+		return curve1.getIntersections(curve2);
+	}
+
+	/**
+	 * Computes the refined offset of a {@link CubicCurve}.
+	 *
+	 * @return The offset curve.
+	 */
+	@Benchmark
+	public PolyBezier cubicCurveOffset() {
+		return curve1.getOffset(10);
+	}
+
+	/**
+	 * Intersects two {@link PolyBezier}s.
+	 *
+	 * @return The points of intersection.
+	 */
+	@Benchmark
+	public Point[] polyBezierIntersections() {
+		return polyBezier1.getIntersections(polyBezier2);
+	}
+
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.geometry.planar.Ring;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the containment tests of {@link Polygon}s and {@link Ring}s for
+ * random query {@link Point}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContainmentBenchmark {
+
+	private static final int QUERIES = 1000;
+
+	/**
+	 * The number of vertices of the (star-shaped) {@link Polygon}.
+	 */
+	@Param({ "16", "256" })
+	public int vertices;
+
+	private Polygon polygon;
+	private Ring ring;
+	private Point[] queries;
+
+	private static Polygon createStar(int vertices, double cx, double cy,
+			double radius) {
+		Point[] points = new Point[vertices];
+		for (int i = 0; i < vertices; i++) {
+			double r = i % 2 == 0 ? radius : radius / 2;
+			double angle = 2 * Math.PI * i / vertices;
+			points[i] = new Point(cx + r * Math.cos(angle),
+					cy + r * Math.sin(angle));
+		}
+		return new Polygon(points);
+	}
+
+	/**
+	 * Creates a star-shaped {@link Polygon}, a {@link Ring} of four disjoint
+	 * star-shaped {@link Polygon}s, and the query {@link Point}s.
+	 */
+	@Setup
+	public void setup() {
+		polygon = createStar(vertices, 500, 500, 500);
+		ring = new Ring(createStar(vertices, 250, 250, 200),
+				createStar(vertices, 750, 250, 200),
+				createStar(vertices, 250, 750, 200),
+				createStar(vertices, 750, 750, 200));
+		queries = SyntheticGraphs.createPoints(QUERIES,
+				new Rectangle(0, 0, 1000, 1000));
+	}
+
+	/**
+	 * Tests the query {@link Point}s for containment in the {@link Polygon}.
+	 *
+	 * @return The number of contained {@link Point}s.
+	 */
+	@Benchmark
+	public int polygonContains() {
+		int contained = 0;
+		for (Point p : queries) {
+			if (polygon.contains(p)) {
+				contained++;
+			}
+		}
+		return contained;
+	}
+
+	/**
+	 * Tests the query {@link Point}s for containment in the {@link Ring}.
+	 *
+	 * @return The number of contained {@link Point}s.
+	 */
+	@Benchmark
+	public int ringContains() {
+		int contained = 0;
+		for (Point p : queries) {
+			if (ring.contains(p)) {
+				contained++;
+			}
+		}
+		return contained;
+	}
+
+}
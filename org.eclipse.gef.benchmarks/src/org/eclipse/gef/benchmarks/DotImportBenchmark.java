@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.dot.internal.DotImport;
+import org.eclipse.gef.graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the import of Graphviz DOT strings (parsing and transformation
+ * into a {@link Graph}) by {@link DotImport#importDot(String)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DotImportBenchmark {
+
+	/**
+	 * The number of nodes of the imported graph.
+	 */
+	@Param({ "1000", "10000", "100000" })
+	public int nodes;
+
+	private String dot;
+	private DotImport dotImport;
+
+	/**
+	 * Creates the DOT input and initializes the (lazily created) DOT parser,
+	 * so that its creation is not measured.
+	 */
+	@Setup
+	public void setup() {
+		dot = SyntheticGraphs.createDot(nodes, 1.5);
+		dotImport = new DotImport();
+		dotImport.importDot("digraph {}");
+	}
+
+	/**
+	 * Imports the DOT input.
+	 *
+	 * @return The imported {@link Graph}s.
+	 */
+	@Benchmark
+	public List<Graph> importDot() {
+		return dotImport.importDot(dot);
+	}
+
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the construction of {@link Graph}s, using the {@link Graph.Builder}
+ * as well as the {@link Graph#Graph(java.util.Collection, java.util.Collection)
+ * constructor}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GraphBenchmark {
+
+	/**
+	 * The number of nodes of the graph.
+	 */
+	@Param({ "1000", "10000", "100000" })
+	public int nodes;
+
+	/**
+	 * Builds a {@link Graph} (where each node is connected to its
+	 * predecessor and to the node at half its index) using the
+	 * {@link Graph.Builder}.
+	 *
+	 * @return The {@link Graph}.
+	 */
+	@Benchmark
+	public Graph builder() {
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < nodes; i++) {
+			builder.node(i).attr("label", "n" + i);
+		}
+		for (int i = 1; i < nodes; i++) {
+			builder.edge(i - 1, i);
+			builder.edge(i / 2, i);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Creates the same {@link Graph} as {@link #builder()} by passing the
+	 * nodes and edges to the {@link Graph} constructor.
+	 *
+	 * @return The {@link Graph}.
+	 */
+	@Benchmark
+	public Graph constructor() {
+		List<Node> nodeList = new ArrayList<>(nodes);
+		for (int i = 0; i < nodes; i++) {
+			Node node = new Node();
+			node.attributesProperty().put("label", "n" + i);
+			nodeList.add(node);
+		}
+		List<Edge> edgeList = new ArrayList<>(2 * nodes);
+		for (int i = 1; i < nodes; i++) {
+			edgeList.add(new Edge(nodeList.get(i - 1), nodeList.get(i)));
+			edgeList.add(new Edge(nodeList.get(i / 2), nodeList.get(i)));
+		}
+		return new Graph(nodeList, edgeList);
+	}
+
+}
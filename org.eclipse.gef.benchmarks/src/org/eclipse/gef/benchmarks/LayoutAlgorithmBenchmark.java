@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.RadialLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the layout algorithms on synthetic graphs of different sizes. The
+ * tree and radial layouts are applied to complete trees, while the spring and
+ * Sugiyama layouts are applied to sparse (layered) directed acyclic graphs
+ * (see {@link SyntheticGraphs}). As the larger configurations take considerable
+ * time, a subset may be selected on the command line, e.g.
+ * <code>-p algorithm=tree -p nodes=1000</code>.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class LayoutAlgorithmBenchmark {
+
+	/**
+	 * The number of iterations of the {@link SpringLayoutAlgorithm}.
+	 */
+	private static final int SPRING_ITERATIONS = 10;
+
+	/**
+	 * The Barnes-Hut approximation used by the {@link SpringLayoutAlgorithm}
+	 * (as the exact computation is quadratic in the number of nodes).
+	 */
+	private static final double SPRING_BARNES_HUT_THETA = 0.8;
+
+	/**
+	 * The number of layers of the graphs passed to the
+	 * {@link SugiyamaLayoutAlgorithm} (whose default layer provider supports
+	 * at most 10 layers).
+	 */
+	private static final int SUGIYAMA_LAYERS = 8;
+
+	/**
+	 * The layout algorithm to measure (one of <code>spring</code>,
+	 * <code>sugiyama</code>, <code>tree</code>, or <code>radial</code>).
+	 */
+	@Param({ "spring", "sugiyama", "tree", "radial" })
+	public String algorithm;
+
+	/**
+	 * The number of nodes of the graph.
+	 */
+	@Param({ "1000", "10000", "100000" })
+	public int nodes;
+
+	private Graph graph;
+	private Point[] initialLocations;
+	private LayoutContext context;
+
+	private ILayoutAlgorithm createAlgorithm() {
+		switch (algorithm) {
+		case "spring":
+			SpringLayoutAlgorithm spring = new SpringLayoutAlgorithm();
+			spring.setRandom(false);
+			spring.setSpringTimeout(0);
+			spring.setIterations(SPRING_ITERATIONS);
+			spring.setBarnesHutTheta(SPRING_BARNES_HUT_THETA);
+			return spring;
+		case "sugiyama":
+			return new SugiyamaLayoutAlgorithm();
+		case "tree":
+			return new TreeLayoutAlgorithm();
+		case "radial":
+			return new RadialLayoutAlgorithm();
+		default:
+			throw new IllegalArgumentException(
+					"Unknown layout algorithm: " + algorithm);
+		}
+	}
+
+	/**
+	 * Creates the graph and the {@link LayoutContext}.
+	 */
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		if ("tree".equals(algorithm) || "radial".equals(algorithm)) {
+			graph = SyntheticGraphs.createTree(nodes, 3);
+		} else if ("sugiyama".equals(algorithm)) {
+			graph = SyntheticGraphs.createLayeredDag(nodes, SUGIYAMA_LAYERS,
+					1.5);
+		} else {
+			graph = SyntheticGraphs.createDag(nodes, 1.5);
+		}
+		initialLocations = new Point[graph.getNodes().size()];
+		for (int i = 0; i < initialLocations.length; i++) {
+			initialLocations[i] = LayoutProperties
+					.getLocation(graph.getNodes().get(i));
+		}
+		context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(createAlgorithm());
+	}
+
+	/**
+	 * Restores the initial node locations, so that each layout pass starts
+	 * from the same state.
+	 */
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		for (int i = 0; i < initialLocations.length; i++) {
+			Node node = graph.getNodes().get(i);
+			LayoutProperties.setLocation(node, initialLocations[i]);
+		}
+	}
+
+	/**
+	 * Applies the layout algorithm.
+	 *
+	 * @return The laid out graph.
+	 */
+	@Benchmark
+	public Graph applyLayout() {
+		context.applyLayout(true);
+		return graph;
+	}
+
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.benchmarks;
+
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.layout.LayoutProperties;
+
+/**
+ * Creates the (reproducible) synthetic inputs of the benchmarks. All
+ * generators use a fixed seed, so that subsequent runs (and releases) are
+ * measured on identical inputs.
+ */
+public final class SyntheticGraphs {
+
+	/**
+	 * The seed used for all random inputs.
+	 */
+	public static final long SEED = 4711;
+
+	/**
+	 * Creates a directed acyclic {@link Graph} with the given number of nodes,
+	 * where each node (except the first) is connected to a random tree parent
+	 * with a smaller index, and additional edges (from smaller to larger
+	 * indices) are added so that there are on average
+	 * <code>edgesPerNode</code> edges per node. All nodes are given a random
+	 * location and a fixed size, and the graph is given bounds proportional
+	 * to the number of nodes.
+	 *
+	 * @param nodeCount
+	 *            The number of nodes.
+	 * @param edgesPerNode
+	 *            The average number of edges per node (at least
+	 *            <code>1</code>).
+	 * @return A new {@link Graph}.
+	 */
+	public static Graph createDag(int nodeCount, double edgesPerNode) {
+		Random random = new Random(SEED);
+		double side = 20 * Math.sqrt(nodeCount);
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < nodeCount; i++) {
+			builder.node(i)
+					.attr(LayoutProperties.LOCATION_PROPERTY,
+							new Point(side * random.nextDouble(),
+									side * random.nextDouble()))
+					.attr(LayoutProperties.SIZE_PROPERTY,
+							new Dimension(10, 10));
+		}
+		for (int i = 1; i < nodeCount; i++) {
+			builder.edge(random.nextInt(i), i);
+		}
+		long extraEdges = Math.round((edgesPerNode - 1) * nodeCount);
+		for (long e = 0; e < extraEdges && nodeCount > 1; e++) {
+			int source = random.nextInt(nodeCount - 1);
+			int target = source + 1 + random.nextInt(nodeCount - source - 1);
+			builder.edge(source, target);
+		}
+		return builder.attr(LayoutProperties.BOUNDS_PROPERTY,
+				new Rectangle(0, 0, side, side)).build();
+	}
+
+	/**
+	 * Creates a layered directed acyclic {@link Graph} with the given number
+	 * of nodes, which are evenly distributed over the given number of layers.
+	 * Each node (except the ones on the first layer) is connected to a random
+	 * node of the preceding layer, and additional edges between consecutive
+	 * layers are added so that there are on average <code>edgesPerNode</code>
+	 * edges per node. All nodes are given a random location and a fixed size,
+	 * and the graph is given bounds proportional to the number of nodes.
+	 *
+	 * @param nodeCount
+	 *            The number of nodes.
+	 * @param layerCount
+	 *            The number of layers.
+	 * @param edgesPerNode
+	 *            The average number of edges per node (at least
+	 *            <code>1</code>).
+	 * @return A new {@link Graph}.
+	 */
+	public static Graph createLayeredDag(int nodeCount, int layerCount,
+			double edgesPerNode) {
+		Random random = new Random(SEED);
+		double side = 20 * Math.sqrt(nodeCount);
+		int layerSize = Math.max(1, (nodeCount + layerCount - 1) / layerCount);
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < nodeCount; i++) {
+			builder.node(i)
+					.attr(LayoutProperties.LOCATION_PROPERTY,
+							new Point(side * random.nextDouble(),
+									side * random.nextDouble()))
+					.attr(LayoutProperties.SIZE_PROPERTY,
+							new Dimension(10, 10));
+		}
+		for (int i = layerSize; i < nodeCount; i++) {
+			int layerStart = i / layerSize * layerSize;
+			builder.edge(layerStart - layerSize + random.nextInt(layerSize),
+					i);
+		}
+		long extraEdges = Math.round((edgesPerNode - 1) * nodeCount);
+		for (long e = 0; e < extraEdges && nodeCount > layerSize; e++) {
+			int target = layerSize + random.nextInt(nodeCount - layerSize);
+			int layerStart = target / layerSize * layerSize;
+			builder.edge(layerStart - layerSize + random.nextInt(layerSize),
+					target);
+		}
+		return builder.attr(LayoutProperties.BOUNDS_PROPERTY,
+				new Rectangle(0, 0, side, side)).build();
+	}
+
+	/**
+	 * Creates a Graphviz DOT string of a directed graph with the given number
+	 * of nodes, which are connected like the nodes of
+	 * {@link #createDag(int, double)}. Each node and edge has a label
+	 * attribute, and a few graph, node, and edge default attributes are
+	 * specified.
+	 *
+	 * @param nodeCount
+	 *            The number of nodes.
+	 * @param edgesPerNode
+	 *            The average number of edges per node (at least
+	 *            <code>1</code>).
+	 * @return A DOT string.
+	 */
+	public static String createDot(int nodeCount, double edgesPerNode) {
+		Random random = new Random(SEED);
+		StringBuilder dot = new StringBuilder();
+		dot.append("digraph G {\n");
+		dot.append("\trankdir=LR\n");
+		dot.append("\tnode [shape=box, style=filled, fillcolor=\"#e0e0e0\"]\n");
+		dot.append("\tedge [arrowhead=vee]\n");
+		for (int i = 0; i < nodeCount; i++) {
+			dot.append("\tn").append(i).append(" [label=\"Node ").append(i)
+					.append("\"]\n");
+		}
+		for (int i = 1; i < nodeCount; i++) {
+			dot.append("\tn").append(random.nextInt(i)).append(" -> n")
+					.append(i).append(" [label=\"e").append(i)
+					.append("\"]\n");
+		}
+		long extraEdges = Math.round((edgesPerNode - 1) * nodeCount);
+		for (long e = 0; e < extraEdges && nodeCount > 1; e++) {
+			int source = random.nextInt(nodeCount - 1);
+			int target = source + 1 + random.nextInt(nodeCount - source - 1);
+			dot.append("\tn").append(source).append(" -> n").append(target)
+					.append("\n");
+		}
+		dot.append("}\n");
+		return dot.toString();
+	}
+
+	/**
+	 * Creates a {@link Graph} with the given number of nodes, which form a
+	 * complete tree with the given branching factor. All nodes are given a
+	 * fixed size, and the graph is given bounds proportional to the number
+	 * of nodes.
+	 *
+	 * @param nodeCount
+	 *            The number of nodes.
+	 * @param branching
+	 *            The number of children of each inner node.
+	 * @return A new {@link Graph}.
+	 */
+	public static Graph createTree(int nodeCount, int branching) {
+		double side = 20 * Math.sqrt(nodeCount);
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < nodeCount; i++) {
+			builder.node(i).attr(LayoutProperties.SIZE_PROPERTY,
+					new Dimension(10, 10));
+		}
+		for (int i = 1; i < nodeCount; i++) {
+			builder.edge((i - 1) / branching, i);
+		}
+		return builder.attr(LayoutProperties.BOUNDS_PROPERTY,
+				new Rectangle(0, 0, side, side)).build();
+	}
+
+	/**
+	 * Returns an array of the given number of random {@link Point}s within
+	 * the given {@link Rectangle}.
+	 *
+	 * @param count
+	 *            The number of {@link Point}s.
+	 * @param bounds
+	 *            The {@link Rectangle} that contains the {@link Point}s.
+	 * @return An array of random {@link Point}s.
+	 */
+	public static Point[] createPoints(int count, Rectangle bounds) {
+		Random random = new Random(SEED);
+		Point[] points = new Point[count];
+		for (int i = 0; i < count; i++) {
+			points[i] = new Point(
+					bounds.getX() + bounds.getWidth() * random.nextDouble(),
+					bounds.getY() + bounds.getHeight() * random.nextDouble());
+		}
+		return points;
+	}
+
+	private SyntheticGraphs() {
+		// utility class
+	}
+
+}
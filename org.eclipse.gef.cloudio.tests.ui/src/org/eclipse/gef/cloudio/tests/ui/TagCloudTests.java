@@ -15,10 +15,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.eclipse.gef.cloudio.internal.ui.TagCloud;
 import org.eclipse.gef.cloudio.internal.ui.Word;
+import org.eclipse.gef.cloudio.internal.ui.layout.BitmapLayouter;
+import org.eclipse.gef.cloudio.internal.ui.layout.DefaultLayouter;
+import org.eclipse.gef.cloudio.internal.ui.layout.ILayouter;
+import org.eclipse.gef.cloudio.internal.ui.util.CloudMatrix;
+import org.eclipse.gef.cloudio.internal.ui.util.RectTree;
+import org.eclipse.gef.cloudio.internal.ui.util.SmallRect;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.events.MouseListener;
@@ -28,6 +35,7 @@ import org.eclipse.swt.events.MouseWheelListener;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Composite;
@@ -287,6 +295,12 @@ public class TagCloudTests {
 
 	// Layouter
 
+	@Test
+	public void testDefaultLayouter() {
+		TagCloud cloud = new TagCloud(composite, SWT.NONE);
+		Assert.assertTrue(cloud.getLayouter() instanceof BitmapLayouter);
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testSetInvalidLayouter() {
 		TagCloud cloud = new TagCloud(composite, SWT.NONE);
@@ -623,4 +637,43 @@ public class TagCloudTests {
 
 	}
 
+	@Test
+	public void testBitmapLayouter() {
+		// the bitmap layouter has to place words at the same positions as the
+		// default layouter, regardless of its parallelism
+		List<Point> expected = layoutRandomWords(new DefaultLayouter(0, 0));
+		Assert.assertEquals(expected, layoutRandomWords(new BitmapLayouter(0, 0, 1)));
+		Assert.assertEquals(expected, layoutRandomWords(new BitmapLayouter(0, 0, 4)));
+	}
+
+	private List<Point> layoutRandomWords(ILayouter layouter) {
+		layouter.setOption(DefaultLayouter.SEED, 42L);
+		CloudMatrix matrix = new CloudMatrix(1024, 2);
+		Rectangle cloudArea = new Rectangle(0, 0, 400, 400);
+		Random random = new Random(0);
+		List<Point> positions = new ArrayList<>();
+		for (short id = 1; id <= 300; id++) {
+			Word word = new Word("word" + id);
+			word.id = id;
+			word.width = 8 + random.nextInt(40);
+			word.height = 4 + random.nextInt(16);
+			word.tree = new RectTree(new SmallRect(0, 0, 64, 64), 2);
+			for (int y = 0; y < word.height; y += 2) {
+				for (int x = 0; x < word.width; x += 2) {
+					if (random.nextInt(4) > 0) {
+						word.tree.insert(new SmallRect(x, y, 2, 2), word.id);
+					}
+				}
+			}
+			word.tree.releaseRects();
+			Point offset = layouter.getInitialOffset(word, cloudArea);
+			if (layouter.layout(offset, word, cloudArea, matrix)) {
+				positions.add(new Point(word.x, word.y));
+			} else {
+				positions.add(null);
+			}
+		}
+		return positions;
+	}
+
 }
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.tests.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.gef.cloudio.internal.ui.data.Type;
+import org.eclipse.gef.cloudio.internal.ui.data.TypeCollector;
+import org.eclipse.gef.cloudio.internal.ui.data.TypeCounter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TypeCollectorTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static void assertCounts(Map<String, Integer> expected,
+			List<Type> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (Type type : actual) {
+			assertEquals(type.getString(), expected.get(type.getString()),
+					Integer.valueOf(type.getOccurrences()));
+		}
+	}
+
+	private static void assertOrdered(List<Type> types) {
+		for (int i = 1; i < types.size(); i++) {
+			Type previous = types.get(i - 1);
+			Type current = types.get(i);
+			assertTrue(previous.getOccurrences() > current.getOccurrences()
+					|| previous.getOccurrences() == current.getOccurrences()
+							&& previous.getString()
+									.compareTo(current.getString()) < 0);
+		}
+	}
+
+	private static String word(int i) {
+		// letters only, so that each word is a token of its own
+		StringBuilder word = new StringBuilder("w");
+		do {
+			word.append((char) ('a' + i % 26));
+			i /= 26;
+		} while (i > 0);
+		return word.toString();
+	}
+
+	/**
+	 * Writes a file that spans several chunks of {@link TypeCollector} and
+	 * returns the number of occurrences of each of the contained words.
+	 */
+	private Map<String, Integer> writeWords(File file) throws IOException {
+		return writeWords(file, true);
+	}
+
+	private Map<String, Integer> writeWords(File file, boolean lineBreaks)
+			throws IOException {
+		Map<String, Integer> counts = new HashMap<>();
+		Random random = new Random(42);
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(),
+				StandardCharsets.UTF_8)) {
+			for (int line = 0; line < 150000; line++) {
+				for (int i = 0; i < 8; i++) {
+					// skewed distribution over 2000 words
+					String word = word(
+							(int) (2000 * Math.pow(random.nextDouble(), 3)));
+					writer.write(word);
+					writer.write(' ');
+					Integer count = counts.get(word);
+					counts.put(word, count == null ? 1 : count + 1);
+				}
+				if (lineBreaks) {
+					writer.newLine();
+				}
+			}
+		}
+		// TypeCollector reads chunks of about 1M characters
+		assertTrue(file.length() > 2 << 20);
+		return counts;
+	}
+
+	@Test
+	public void countParallel() throws IOException {
+		File file = folder.newFile("words.txt");
+		Map<String, Integer> expected = writeWords(file);
+		List<Type> types = TypeCollector.getData(file, "UTF-8",
+				Integer.MAX_VALUE, 4);
+		assertCounts(expected, types);
+		assertOrdered(types);
+	}
+
+	@Test
+	public void countSequential() throws IOException {
+		File file = folder.newFile("words.txt");
+		Map<String, Integer> expected = writeWords(file);
+		List<Type> types = TypeCollector.getData(file, "UTF-8",
+				Integer.MAX_VALUE, 1);
+		assertCounts(expected, types);
+		assertOrdered(types);
+
+		// the most frequent types are the head of all types
+		List<Type> mostFrequent = TypeCollector.getData(file, "UTF-8", 10);
+		assertEquals(10, mostFrequent.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(types.get(i).getString(),
+					mostFrequent.get(i).getString());
+		}
+	}
+
+	@Test
+	public void countSingleLine() throws IOException {
+		// the chunks have to be split within the line, but not within words
+		File file = folder.newFile("line.txt");
+		Map<String, Integer> expected = writeWords(file, false);
+		assertCounts(expected,
+				TypeCollector.getData(file, "UTF-8", Integer.MAX_VALUE, 1));
+		assertCounts(expected,
+				TypeCollector.getData(file, "UTF-8", Integer.MAX_VALUE, 4));
+	}
+
+	@Test
+	public void counterPrune() {
+		TypeCounter counter = new TypeCounter(100);
+		for (int i = 0; i < 1000; i++) {
+			counter.add(word(i), 1);
+			if (i % 10 == 0) {
+				counter.add("frequent", 1);
+			}
+		}
+		assertTrue(counter.size() <= 100);
+		List<Type> types = counter.getMostFrequent(1);
+		assertEquals("frequent", types.get(0).getString());
+		assertEquals(100, types.get(0).getOccurrences());
+	}
+
+	@Test
+	public void counterMerge() {
+		TypeCounter counter = new TypeCounter();
+		TypeCounter other = new TypeCounter();
+		Map<String, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 3000; i++) {
+			counter.add(word(i), i % 7 + 1);
+			other.add(word(i + 1500), 2);
+			expected.put(word(i), i % 7 + 1);
+		}
+		for (int i = 1500; i < 4500; i++) {
+			Integer count = expected.get(word(i));
+			expected.put(word(i), count == null ? 2 : count + 2);
+		}
+		counter.addAll(other);
+		assertEquals(4500, counter.size());
+		assertEquals(3000, other.size());
+		assertCounts(expected, counter.getMostFrequent(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void counterRehash() {
+		// exceeds the initial capacity several times
+		TypeCounter counter = new TypeCounter();
+		Map<String, Integer> expected = new HashMap<>();
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 5000; i++) {
+				counter.add(word(i), 1);
+				Integer count = expected.get(word(i));
+				expected.put(word(i), count == null ? 1 : count + 1);
+			}
+		}
+		counter.add(word(0), 10);
+		expected.put(word(0), 13);
+		assertEquals(5000, counter.size());
+		List<Type> types = counter.getMostFrequent(Integer.MAX_VALUE);
+		assertCounts(expected, types);
+		assertEquals(word(0), types.get(0).getString());
+	}
+
+	@Test
+	public void mostFrequentTies() {
+		TypeCounter counter = new TypeCounter();
+		for (String word : new String[] { "delta", "alpha", "echo", "charlie",
+				"bravo" }) {
+			counter.add(word, 1);
+		}
+		counter.add("echo", 1);
+
+		// ties are ordered by string
+		List<String> strings = new ArrayList<>();
+		for (Type type : counter.getMostFrequent(3)) {
+			strings.add(type.getString());
+		}
+		assertEquals("[echo, alpha, bravo]", strings.toString());
+
+		assertTrue(counter.getMostFrequent(0).isEmpty());
+		List<Type> all = counter.getMostFrequent(100);
+		assertEquals(5, all.size());
+		assertEquals("echo", all.get(0).getString());
+		assertEquals(2, all.get(0).getOccurrences());
+		assertEquals("delta", all.get(4).getString());
+		assertOrdered(all);
+	}
+
+}
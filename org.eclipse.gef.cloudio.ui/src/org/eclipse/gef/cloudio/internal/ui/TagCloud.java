@@ -25,7 +25,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.gef.cloudio.internal.ui.layout.DefaultLayouter;
+import org.eclipse.gef.cloudio.internal.ui.layout.BitmapLayouter;
 import org.eclipse.gef.cloudio.internal.ui.layout.ILayouter;
 import org.eclipse.gef.cloudio.internal.ui.util.CloudMatrix;
 import org.eclipse.gef.cloudio.internal.ui.util.RectTree;
@@ -238,7 +238,7 @@ public class TagCloud extends Canvas {
 		cloudArea = new Rectangle(0, 0, maxSize, maxSize);
 		highlightColor = new Color(getDisplay(), Display.getDefault().getSystemColor(SWT.COLOR_RED).getRGB());
 		gc = new GC(this);
-		layouter = new DefaultLayouter(accuracy, accuracy);
+		layouter = new BitmapLayouter(accuracy, accuracy);
 		setBackground(new Color(getDisplay(), Display.getDefault().getSystemColor(SWT.COLOR_WHITE).getRGB()));
 		initListeners();
 		textLayerImage = new Image(getDisplay(), 100, 100);
@@ -30,6 +30,11 @@ import org.eclipse.swt.widgets.FileDialog;
  */
 public class LoadFileAction extends AbstractTagCloudAction {
 
+	/**
+	 * The maximum number of types that are loaded from a file.
+	 */
+	private static final int MAX_TYPES = 10000;
+
 	@Override
 	public void run(IAction action) {
 		FileDialog dialog = new FileDialog(getShell(), SWT.OPEN);
@@ -40,7 +45,7 @@ public class LoadFileAction extends AbstractTagCloudAction {
 			return;
 		ProgressMonitorDialog pd = new ProgressMonitorDialog(getShell());
 		try {
-			List<Type> types = TypeCollector.getData(new File(sourceFile), "UTF-8");
+			List<Type> types = TypeCollector.getData(new File(sourceFile), "UTF-8", MAX_TYPES);
 			pd.setBlockOnOpen(false);
 			pd.open();
 			pd.getProgressMonitor().beginTask("Generating cloud...", 200);
@@ -1,5 +1,5 @@
 /******************************************************************************
- * Copyright (c) 2011, 2016 Stephan Schwiebert and others.
+ * Copyright (c) 2011, 2018 Stephan Schwiebert and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,62 +11,157 @@
  *******************************************************************************/
 package org.eclipse.gef.cloudio.internal.ui.data;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.text.BreakIterator;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Collects the {@link Type}s of a text file. The file is read in chunks of a
+ * fixed size (which are split at whitespace), and the number of distinct
+ * types that are counted is bounded, so that the memory consumption depends
+ * neither on the size of the file nor on the length of its lines. For large
+ * files, the chunks are tokenized and counted by multiple threads, and the
+ * resulting counts are merged afterwards.
  * 
  * @author sschwieb
  *
  */
 public class TypeCollector {
 
+	/**
+	 * The maximum number of characters that are tokenized at once.
+	 */
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * The maximum number of distinct types that are counted. If it is
+	 * exceeded, the least frequent types are discarded (see
+	 * {@link TypeCounter#TypeCounter(int)}).
+	 */
+	private static final int MAX_DISTINCT_TYPES = 1 << 20;
+
+	/**
+	 * The file size (in bytes) from which on the chunks are counted in
+	 * parallel.
+	 */
+	private static final long PARALLEL_THRESHOLD = 8L * CHUNK_SIZE;
+
+	/**
+	 * Marks the end of the input for the worker threads.
+	 */
+	private static final String END_OF_INPUT = new String();
+
 	private static String stopWords;
 
+	/**
+	 * Returns all {@link Type}s contained in the given file, ordered by
+	 * descending occurrences.
+	 * 
+	 * @param file
+	 *            The file to read.
+	 * @param encoding
+	 *            The encoding of the file.
+	 * @return The {@link Type}s of the file.
+	 * @throws IOException
+	 *             if the file (or the stop words file) cannot be read.
+	 */
 	public static List<Type> getData(File file, String encoding) throws IOException {
-		BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file));
-		BufferedReader br = new BufferedReader(new InputStreamReader(bis, encoding));
-		StringBuffer text = new StringBuffer();
-		String s;
-		while ((s = br.readLine()) != null) {
-			text.append(s + "\n");
-		}
-		br.close();
+		return getData(file, encoding, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the <code>maxTypes</code> most frequent {@link Type}s contained
+	 * in the given file, ordered by descending occurrences.
+	 * 
+	 * @param file
+	 *            The file to read.
+	 * @param encoding
+	 *            The encoding of the file.
+	 * @param maxTypes
+	 *            The maximum number of {@link Type}s to return.
+	 * @return The most frequent {@link Type}s of the file.
+	 * @throws IOException
+	 *             if the file (or the stop words file) cannot be read.
+	 */
+	public static List<Type> getData(File file, String encoding, int maxTypes) throws IOException {
+		int threads = file.length() < PARALLEL_THRESHOLD ? 1 : Runtime.getRuntime().availableProcessors();
+		return getData(file, encoding, maxTypes, threads);
+	}
+
+	/**
+	 * Returns the <code>maxTypes</code> most frequent {@link Type}s contained
+	 * in the given file, ordered by descending occurrences, using the given
+	 * number of threads for tokenizing and counting.
+	 * 
+	 * @param file
+	 *            The file to read.
+	 * @param encoding
+	 *            The encoding of the file.
+	 * @param maxTypes
+	 *            The maximum number of {@link Type}s to return.
+	 * @param threads
+	 *            The number of threads to use. If it is less than 2, the file
+	 *            is counted sequentially.
+	 * @return The most frequent {@link Type}s of the file.
+	 * @throws IOException
+	 *             if the file (or the stop words file) cannot be read.
+	 */
+	public static List<Type> getData(File file, String encoding, int maxTypes, int threads) throws IOException {
+		Charset charset = Charset.forName(encoding);
 		Set<String> stops = new HashSet<>();
 		if (stopWords != null) {
-			bis = new BufferedInputStream(new FileInputStream(stopWords));
-			br = new BufferedReader(new InputStreamReader(bis, encoding));
-			while ((s = br.readLine()) != null) {
-				stops.add(s.toLowerCase().trim());
+			try (BufferedReader br = Files.newBufferedReader(new File(stopWords).toPath(), charset)) {
+				String s;
+				while ((s = br.readLine()) != null) {
+					stops.add(s.toLowerCase().trim());
+				}
+			}
+		}
+		TypeCounter counter;
+		try (BufferedReader br = Files.newBufferedReader(file.toPath(), charset)) {
+			if (threads < 2) {
+				counter = new TypeCounter(MAX_DISTINCT_TYPES);
+				ChunkReader reader = new ChunkReader(br);
+				String chunk;
+				while ((chunk = reader.readChunk()) != null) {
+					count(chunk, stops, counter);
+				}
+			} else {
+				counter = countInParallel(br, stops, threads);
 			}
-			br.close();
 		}
+		return counter.getMostFrequent(maxTypes);
+	}
+
+	/**
+	 * Tokenizes the given text and counts the contained words, which are not
+	 * stop words, within the given {@link TypeCounter}.
+	 */
+	private static void count(String text, Set<String> stops, TypeCounter counter) {
 		BreakIterator iterator = BreakIterator.getWordInstance(Locale.getDefault());
-		String txt = text.toString();
-		iterator.setText(txt);
-		final Map<String, Integer> strings = new HashMap<>();
+		iterator.setText(text);
 		int boundary = iterator.first();
 		int lastBoundary = iterator.first();
 		while (boundary != BreakIterator.DONE) {
 			boundary = iterator.next();
 			if (boundary != -1) {
-				String string = txt.substring(lastBoundary, boundary).trim();
+				String string = text.substring(lastBoundary, boundary).trim();
 				if (string.length() != 0) {
 					if (!Character.isLetter(string.charAt(string.length() - 1))) {
 						string = string.substring(0, string.length() - 1);
@@ -75,37 +170,139 @@ public class TypeCollector {
 						lastBoundary = boundary;
 						continue;
 					}
-					Integer count = strings.get(string);
-					if (count == null) {
-						strings.put(string, 1);
-					} else {
-						count = count + 1;
-						strings.put(string, count);
-					}
+					counter.add(string, 1);
 				}
 			}
 			lastBoundary = boundary;
 		}
-		return getMostImportantTypes(strings);
 	}
 
-	private static List<Type> getMostImportantTypes(final Map<String, Integer> strings) {
-		List<Type> types = new ArrayList<>();
-		Iterator<Entry<String, Integer>> iterator = strings.entrySet().iterator();
-		while (iterator.hasNext()) {
-			Entry<String, Integer> entry = iterator.next();
-			Type type = new Type(entry.getKey(), entry.getValue());
-			types.add(type);
+	/**
+	 * Reads chunks from the given reader and hands them to worker threads,
+	 * each of which counts into its own {@link TypeCounter}. The number of
+	 * chunks that are pending is bounded, so that reading cannot outpace
+	 * counting.
+	 */
+	private static TypeCounter countInParallel(BufferedReader br, final Set<String> stops, int threads)
+			throws IOException {
+		final BlockingQueue<String> chunks = new ArrayBlockingQueue<>(2 * threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<TypeCounter>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					TypeCounter counter = new TypeCounter(MAX_DISTINCT_TYPES);
+					String chunk;
+					while ((chunk = chunks.take()) != END_OF_INPUT) {
+						count(chunk, stops, counter);
+					}
+					return counter;
+				}));
+			}
+			try {
+				ChunkReader reader = new ChunkReader(br);
+				String chunk;
+				while ((chunk = reader.readChunk()) != null) {
+					put(chunks, chunk, results);
+				}
+				for (int i = 0; i < threads; i++) {
+					put(chunks, END_OF_INPUT, results);
+				}
+				// merge into the largest counter to minimize re-hashing
+				List<TypeCounter> counters = new ArrayList<>();
+				TypeCounter merged = null;
+				for (Future<TypeCounter> result : results) {
+					TypeCounter counter = result.get();
+					counters.add(counter);
+					if (merged == null || counter.size() > merged.size()) {
+						merged = counter;
+					}
+				}
+				for (TypeCounter counter : counters) {
+					if (counter != merged) {
+						merged.addAll(counter);
+					}
+				}
+				return merged;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while counting types.", e);
+			} catch (ExecutionException e) {
+				throw new IOException("Failed to count types.", e.getCause());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Puts the given chunk into the given queue, waiting for space to become
+	 * available. In case a worker has failed, its exception is propagated, as
+	 * the queue might otherwise never be drained.
+	 */
+	private static void put(BlockingQueue<String> chunks, String chunk, List<Future<TypeCounter>> results)
+			throws InterruptedException, ExecutionException {
+		while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+			for (Future<TypeCounter> result : results) {
+				if (result.isDone()) {
+					result.get();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads chunks of at most {@link #CHUNK_SIZE} characters from a
+	 * {@link Reader}, independent of line breaks. A chunk ends after the last
+	 * whitespace it contains, and the remaining characters are carried over to
+	 * the next chunk, so that words are not split (unless a single word
+	 * exceeds the chunk size).
+	 */
+	private static class ChunkReader {
+
+		private final Reader reader;
+
+		private final char[] buffer = new char[CHUNK_SIZE];
+
+		private int length;
+
+		private boolean endOfInput;
+
+		public ChunkReader(Reader reader) {
+			this.reader = reader;
 		}
-		List<Type> sorted = new ArrayList<>(types);
-		Collections.sort(sorted, new Comparator<Type>() {
 
-			@Override
-			public int compare(Type o1, Type o2) {
-				return o2.getOccurrences() - o1.getOccurrences();
+		/**
+		 * Returns the next chunk, or <code>null</code> if the end of the input
+		 * has been reached.
+		 */
+		public String readChunk() throws IOException {
+			while (!endOfInput && length < buffer.length) {
+				int read = reader.read(buffer, length, buffer.length - length);
+				if (read < 0) {
+					endOfInput = true;
+				} else {
+					length += read;
+				}
 			}
-		});
-		return sorted;
+			if (length == 0) {
+				return null;
+			}
+			int end = length;
+			if (!endOfInput) {
+				int whitespace = length;
+				while (whitespace > 0 && !Character.isWhitespace(buffer[whitespace - 1])) {
+					whitespace--;
+				}
+				if (whitespace > 0) {
+					end = whitespace;
+				}
+			}
+			String chunk = new String(buffer, 0, end);
+			System.arraycopy(buffer, end, buffer, 0, length - end);
+			length -= end;
+			return chunk;
+		}
 	}
 
 	public static void setStopwords(String sourceFile) {
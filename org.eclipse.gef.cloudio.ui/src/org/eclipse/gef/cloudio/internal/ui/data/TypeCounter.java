@@ -0,0 +1,232 @@
+/******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Counts the occurrences of strings within an open-addressing hash table,
+ * which stores the counts in a primitive array (so that no boxing is needed
+ * per occurrence).
+ * <p>
+ * The number of distinct strings can be bounded. If the bound is exceeded,
+ * the least frequent strings are discarded, so that only the counts of
+ * strings that are more frequent than the discarded ones are exact.
+ */
+public class TypeCounter {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Orders {@link Type}s by descending occurrences and ascending string, so
+	 * that the order is independent of the order in which the types were
+	 * counted.
+	 */
+	public static final Comparator<Type> BY_IMPORTANCE = new Comparator<Type>() {
+		@Override
+		public int compare(Type o1, Type o2) {
+			if (o1.getOccurrences() != o2.getOccurrences()) {
+				return o2.getOccurrences() > o1.getOccurrences() ? 1 : -1;
+			}
+			return o1.getString().compareTo(o2.getString());
+		}
+	};
+
+	private String[] keys = new String[INITIAL_CAPACITY];
+
+	private int[] counts = new int[INITIAL_CAPACITY];
+
+	private int size;
+
+	private final int maxSize;
+
+	/**
+	 * Creates a new {@link TypeCounter} that does not bound the number of
+	 * distinct strings.
+	 */
+	public TypeCounter() {
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a new {@link TypeCounter} that holds at most the given number of
+	 * distinct strings. If it is exceeded, (at least) half of the distinct
+	 * strings, namely the least frequent ones, are discarded.
+	 *
+	 * @param maxSize
+	 *            The maximum number of distinct strings.
+	 */
+	public TypeCounter(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The maximum size has to be positive, but was " + maxSize);
+		}
+		this.maxSize = maxSize;
+	}
+
+	private static int indexFor(String key, int mask) {
+		int h = key.hashCode();
+		// spread the hash code, as string hashes of similar words only
+		// differ in the lower bits
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return h & mask;
+	}
+
+	/**
+	 * Adds the given number of occurrences for the given string.
+	 *
+	 * @param key
+	 *            The string.
+	 * @param occurrences
+	 *            The number of occurrences to add.
+	 */
+	public void add(String key, int occurrences) {
+		int mask = keys.length - 1;
+		int i = indexFor(key, mask);
+		while (keys[i] != null) {
+			if (keys[i].equals(key)) {
+				counts[i] += occurrences;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		counts[i] = occurrences;
+		size++;
+		if (size > maxSize) {
+			prune();
+		} else if (size * 4 > keys.length * 3) {
+			rehash(keys.length * 2);
+		}
+	}
+
+	/**
+	 * Adds all occurrences counted by the given {@link TypeCounter} to this
+	 * one.
+	 *
+	 * @param other
+	 *            The {@link TypeCounter} to merge into this one.
+	 */
+	public void addAll(TypeCounter other) {
+		for (int i = 0; i < other.keys.length; i++) {
+			if (other.keys[i] != null) {
+				add(other.keys[i], other.counts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the given number of most frequent strings as {@link Type}s,
+	 * ordered by descending occurrences. A bounded heap is used, so that only
+	 * <code>maxTypes</code> {@link Type}s are created.
+	 *
+	 * @param maxTypes
+	 *            The maximum number of {@link Type}s to return.
+	 * @return The most frequent {@link Type}s.
+	 */
+	public List<Type> getMostFrequent(int maxTypes) {
+		int capacity = Math.max(1, Math.min(maxTypes, size));
+		PriorityQueue<Type> heap = new PriorityQueue<>(capacity,
+				Collections.reverseOrder(BY_IMPORTANCE));
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == null) {
+				continue;
+			}
+			if (heap.size() < maxTypes) {
+				heap.add(new Type(keys[i], counts[i]));
+			} else if (maxTypes > 0) {
+				Type least = heap.peek();
+				if (counts[i] > least.getOccurrences()
+						|| (counts[i] == least.getOccurrences()
+								&& keys[i].compareTo(least.getString()) < 0)) {
+					heap.poll();
+					heap.add(new Type(keys[i], counts[i]));
+				}
+			}
+		}
+		List<Type> types = new ArrayList<>(heap);
+		Collections.sort(types, BY_IMPORTANCE);
+		return types;
+	}
+
+	/**
+	 * Discards the less frequent half of the distinct strings. In case of
+	 * ties, all strings with the median count are discarded as well, if
+	 * otherwise no string would be discarded.
+	 */
+	private void prune() {
+		int[] sorted = new int[size];
+		int n = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) {
+				sorted[n++] = counts[i];
+			}
+		}
+		Arrays.sort(sorted);
+		int threshold = sorted[size / 2];
+		if (threshold == sorted[0]) {
+			// keep only strings that are more frequent than the median
+			threshold++;
+		}
+		String[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new String[oldKeys.length];
+		counts = new int[oldKeys.length];
+		size = 0;
+		int mask = keys.length - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] != null && oldCounts[j] >= threshold) {
+				int i = indexFor(oldKeys[j], mask);
+				while (keys[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				counts[i] = oldCounts[j];
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of distinct strings counted.
+	 *
+	 * @return The number of distinct strings.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void rehash(int capacity) {
+		String[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new String[capacity];
+		counts = new int[capacity];
+		int mask = capacity - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] != null) {
+				int i = indexFor(oldKeys[j], mask);
+				while (keys[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				counts[i] = oldCounts[j];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+/******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.layout;
+
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.gef.cloudio.internal.ui.Word;
+import org.eclipse.gef.cloudio.internal.ui.util.BitMatrix;
+import org.eclipse.gef.cloudio.internal.ui.util.CloudMatrix;
+import org.eclipse.gef.cloudio.internal.ui.util.RectTree;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * An {@link ILayouter} that searches the same spiral of candidate positions as
+ * the {@link DefaultLayouter}, but performs the collision tests on the packed
+ * occupancy bitmap of the {@link CloudMatrix} using the
+ * {@link RectTree#getMask() mask} of the word, so that 64 cells are tested at
+ * once. While the first candidates are tested sequentially, further candidates
+ * are tested speculatively in parallel chunks. As always the first fitting
+ * candidate (in spiral order) is chosen, the resulting layout only depends on
+ * the {@link #SEED seed} of the random number generator and not on the number
+ * of available processors.
+ */
+public class BitmapLayouter extends DefaultLayouter {
+
+	/**
+	 * The number of candidate positions that are tested sequentially within
+	 * one (parallel) chunk.
+	 */
+	private static final int CHUNK_SIZE = 64;
+
+	private final int[] candidatesX = new int[MAX_ATTEMPTS];
+
+	private final int[] candidatesY = new int[MAX_ATTEMPTS];
+
+	private final int parallelism;
+
+	/**
+	 * Creates a new {@link BitmapLayouter} that tests as many chunks of
+	 * candidate positions in parallel as there are available processors.
+	 *
+	 * @param i
+	 *            The x axis variation.
+	 * @param j
+	 *            The y axis variation.
+	 */
+	public BitmapLayouter(int i, int j) {
+		this(i, j, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new {@link BitmapLayouter} that tests up to
+	 * <code>parallelism</code> chunks of candidate positions in parallel.
+	 *
+	 * @param i
+	 *            The x axis variation.
+	 * @param j
+	 *            The y axis variation.
+	 * @param parallelism
+	 *            The number of chunks that are tested in parallel. A value of
+	 *            <code>1</code> results in a sequential search.
+	 */
+	public BitmapLayouter(int i, int j, int parallelism) {
+		super(i, j);
+		Assert.isLegal(parallelism > 0, "Parallelism must be greater than 0, but was " + parallelism);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the index of the first candidate within the given range at which
+	 * the word fits, or <code>-1</code> if it does not fit at any of them.
+	 */
+	private int findFirstFit(int from, int to, BitMatrix mask, Word word, Rectangle cloudArea, CloudMatrix mainTree) {
+		for (int i = from; i < to; i++) {
+			int x = candidatesX[i];
+			int y = candidatesY[i];
+			if (cloudArea.x <= x && cloudArea.y <= y && cloudArea.x + cloudArea.width >= x + word.width
+					&& cloudArea.y + cloudArea.height >= y + word.height && mainTree.fits(mask, x, y)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Tries to position the given word in the given area. The candidate
+	 * positions are computed as in {@link DefaultLayouter}, while the
+	 * collision tests are performed on the occupancy bitmap of the given
+	 * {@link CloudMatrix}.
+	 *
+	 * @param word
+	 * @param cloudArea
+	 * @return whether the given word could be placed in the respective cloud
+	 *         area
+	 */
+	@Override
+	public boolean layout(Point offset, final Word word, final Rectangle cloudArea, final CloudMatrix mainTree) {
+		Assert.isLegal(word != null, "Word cannot be null!");
+		Spiral spiral = new Spiral(-word.width / 2 + getRandom().nextInt(25),
+				-word.height / 2 + getRandom().nextInt(25));
+		offset.x += cloudArea.width / 2;
+		offset.y += cloudArea.height / 2;
+		final RectTree rt = word.tree;
+		if (rt == null) {
+			return false;
+		}
+		final BitMatrix mask = rt.getMask();
+		final int accuracy = mainTree.getMinResolution();
+		int generated = 0;
+		// the first chunk is tested sequentially, as most words are placed
+		// after a few attempts; afterwards, the number of chunks tested in
+		// parallel is doubled up to the configured parallelism
+		int chunks = 1;
+		while (generated < MAX_ATTEMPTS) {
+			final int from = generated;
+			final int to = Math.min(MAX_ATTEMPTS, from + chunks * CHUNK_SIZE);
+			for (; generated < to; generated++) {
+				spiral.next();
+				candidatesX[generated] = ((spiral.getX() + offset.x) / accuracy) * accuracy;
+				candidatesY[generated] = ((spiral.getY() + offset.y) / accuracy) * accuracy;
+			}
+			int fit;
+			if (chunks == 1) {
+				fit = findFirstFit(from, to, mask, word, cloudArea, mainTree);
+			} else {
+				// all chunks are evaluated against the unchanged occupancy
+				// bitmap; the minimum index preserves the sequential result
+				OptionalInt first = IntStream.range(0, (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel()
+						.map(c -> findFirstFit(from + c * CHUNK_SIZE, Math.min(to, from + (c + 1) * CHUNK_SIZE), mask,
+								word, cloudArea, mainTree))
+						.filter(i -> i >= 0).min();
+				fit = first.isPresent() ? first.getAsInt() : -1;
+			}
+			if (fit >= 0) {
+				word.x = candidatesX[fit];
+				word.y = candidatesY[fit];
+				rt.move(word.x, word.y);
+				rt.place(mainTree, word.id);
+				return true;
+			}
+			chunks = Math.min(parallelism, chunks * 2);
+		}
+		return false;
+	}
+
+}
@@ -31,6 +31,17 @@ public class DefaultLayouter implements ILayouter {
 
 	public static final String Y_AXIS_VARIATION = "yaxis";
 
+	/**
+	 * Option to set the seed (a {@link Long}) of the random number generator,
+	 * so that the layout is reproducible.
+	 */
+	public static final String SEED = "seed";
+
+	/**
+	 * The maximum number of positions that are tested when placing a word.
+	 */
+	protected static final int MAX_ATTEMPTS = 5000;
+
 	private Random random = new Random();
 
 	/**
@@ -54,6 +65,15 @@ public class DefaultLayouter implements ILayouter {
 		this.yAxisVariation = j;
 	}
 
+	/**
+	 * Returns the random number generator used by this layouter.
+	 * 
+	 * @return The {@link Random} of this layouter.
+	 */
+	protected Random getRandom() {
+		return random;
+	}
+
 	public Point getInitialOffset(Word word, Rectangle cloudArea) {
 		int xOff = 0;
 		if (xAxisVariation > 0) {
@@ -91,31 +111,14 @@ public class DefaultLayouter implements ILayouter {
 	 */
 	public boolean layout(Point offset, final Word word, final Rectangle cloudArea, CloudMatrix mainTree) {
 		Assert.isLegal(word != null, "Word cannot be null!");
-		Point next = new Point(-word.width / 2, -word.height / 2);
-		next.x += random.nextInt(25);
-		next.y += random.nextInt(25);
-		double growFactor = 1.6;
+		Spiral spiral = new Spiral(-word.width / 2 + random.nextInt(25), -word.height / 2 + random.nextInt(25));
 		offset.x += cloudArea.width / 2;
 		offset.y += cloudArea.height / 2;
 		final int accuracy = mainTree.getMinResolution();
-		for (int i = 0; i < 5000; i++) {
-			final double radius = Math.sqrt((double) (next.x * next.x + next.y * next.y)) + growFactor;
-			double atan = Math.atan2(next.y, next.x);
-			if (growFactor > 1.1) {
-				growFactor -= 0.0007;
-			}
-			if (radius < 80) {
-				atan += 0.7;
-			} else {
-				atan += 20 / radius;
-			}
-			if (growFactor < 0.0005) {
-				growFactor = 0.0005;
-			}
-			next.x = (int) (radius * Math.cos(atan));
-			next.y = (int) (radius * Math.sin(atan));
-			word.x = ((next.x + offset.x) / accuracy) * accuracy;
-			word.y = ((next.y + offset.y) / accuracy) * accuracy;
+		for (int i = 0; i < MAX_ATTEMPTS; i++) {
+			spiral.next();
+			word.x = ((spiral.getX() + offset.x) / accuracy) * accuracy;
+			word.y = ((spiral.getY() + offset.y) / accuracy) * accuracy;
 			RectTree rt = word.tree;
 			if (rt == null)
 				break;
@@ -146,6 +149,12 @@ public class DefaultLayouter implements ILayouter {
 			this.yAxisVariation = value;
 			return;
 		}
+		if (SEED.equals(optionName)) {
+			Long value = (Long) object;
+			Assert.isLegal(value != null, "Seed must not be null!");
+			this.random = new Random(value);
+			return;
+		}
 		System.err.println("Unrecognized option: " + optionName);
 	}
 
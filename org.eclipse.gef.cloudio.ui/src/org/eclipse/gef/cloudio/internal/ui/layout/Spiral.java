@@ -0,0 +1,69 @@
+/******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *     
+ *******************************************************************************/
+package org.eclipse.gef.cloudio.internal.ui.layout;
+
+/**
+ * Enumerates the candidate positions of a word, which are located on a spiral
+ * around the center of the cloud area, similar to the approach of Wordle. The
+ * positions are relative to the center.
+ */
+class Spiral {
+
+	private int x;
+
+	private int y;
+
+	private double growFactor = 1.6;
+
+	/**
+	 * Creates a new {@link Spiral} starting at the given position.
+	 * 
+	 * @param x
+	 *            The initial x coordinate.
+	 * @param y
+	 *            The initial y coordinate.
+	 */
+	Spiral(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	int getX() {
+		return x;
+	}
+
+	int getY() {
+		return y;
+	}
+
+	/**
+	 * Advances to the next position on this spiral.
+	 */
+	void next() {
+		final double radius = Math.sqrt((double) (x * x + y * y)) + growFactor;
+		double atan = Math.atan2(y, x);
+		if (growFactor > 1.1) {
+			growFactor -= 0.0007;
+		}
+		if (radius < 80) {
+			atan += 0.7;
+		} else {
+			atan += 20 / radius;
+		}
+		if (growFactor < 0.0005) {
+			growFactor = 0.0005;
+		}
+		x = (int) (radius * Math.cos(atan));
+		y = (int) (radius * Math.sin(atan));
+	}
+
+}
@@ -0,0 +1,174 @@
+/******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+
+package org.eclipse.gef.cloudio.internal.ui.util;
+
+import java.util.Arrays;
+
+/**
+ * A matrix of bits, which is stored row by row in a packed <code>long</code>
+ * array. It is used to represent the occupied cells of the drawable area (see
+ * {@link CloudMatrix}) as well as the cells covered by a single word (see
+ * {@link RectTree#getMask()}), so that collision tests can be performed on 64
+ * cells at once.
+ */
+public class BitMatrix {
+
+	private final int width;
+
+	private final int height;
+
+	private final int wordsPerRow;
+
+	private final long[] bits;
+
+	/**
+	 * Creates a new, empty {@link BitMatrix} with the given number of columns
+	 * and rows.
+	 *
+	 * @param width
+	 *            The number of columns.
+	 * @param height
+	 *            The number of rows.
+	 */
+	public BitMatrix(int width, int height) {
+		this.width = Math.max(0, width);
+		this.height = Math.max(0, height);
+		this.wordsPerRow = (this.width + 63) >>> 6;
+		this.bits = new long[wordsPerRow * this.height];
+	}
+
+	/**
+	 * Clears all bits.
+	 */
+	public void clear() {
+		Arrays.fill(bits, 0L);
+	}
+
+	/**
+	 * Returns whether the bit at the given column and row is set. Positions
+	 * outside of this matrix are reported as not set.
+	 *
+	 * @param x
+	 *            The column.
+	 * @param y
+	 *            The row.
+	 * @return <code>true</code> if the bit is set, <code>false</code> otherwise.
+	 */
+	public boolean get(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return false;
+		}
+		return (bits[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the number of columns.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Tests whether the given mask, translated by the given number of columns
+	 * and rows, intersects the bits set in this matrix. A mask that does not
+	 * fully lie within this matrix is regarded as intersecting.
+	 *
+	 * @param mask
+	 *            The {@link BitMatrix} to test.
+	 * @param x
+	 *            The column at which the mask is located.
+	 * @param y
+	 *            The row at which the mask is located.
+	 * @return <code>true</code> if any bit of the mask is set within this
+	 *         matrix or if the mask exceeds this matrix, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean intersects(BitMatrix mask, int x, int y) {
+		if (x < 0 || y < 0 || x + mask.width > width
+				|| y + mask.height > height) {
+			return true;
+		}
+		final int shift = x & 63;
+		final int firstWord = x >>> 6;
+		for (int r = 0; r < mask.height; r++) {
+			final int rowOffset = (y + r) * wordsPerRow + firstWord;
+			final int maskOffset = r * mask.wordsPerRow;
+			for (int k = 0; k < mask.wordsPerRow; k++) {
+				long m = mask.bits[maskOffset + k];
+				if (m == 0) {
+					continue;
+				}
+				if ((bits[rowOffset + k] & (m << shift)) != 0) {
+					return true;
+				}
+				if (shift != 0 && firstWord + k + 1 < wordsPerRow
+						&& (bits[rowOffset + k + 1]
+								& (m >>> (64 - shift))) != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sets the bit at the given column and row. Positions outside of this
+	 * matrix are ignored.
+	 *
+	 * @param x
+	 *            The column.
+	 * @param y
+	 *            The row.
+	 */
+	public void set(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return;
+		}
+		bits[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+	}
+
+	/**
+	 * Sets all bits within the given rectangular region. Positions outside of
+	 * this matrix are ignored.
+	 *
+	 * @param x
+	 *            The first column of the region.
+	 * @param y
+	 *            The first row of the region.
+	 * @param w
+	 *            The number of columns of the region.
+	 * @param h
+	 *            The number of rows of the region.
+	 */
+	public void set(int x, int y, int w, int h) {
+		int maxX = Math.min(width, x + w);
+		int maxY = Math.min(height, y + h);
+		for (int r = Math.max(0, y); r < maxY; r++) {
+			for (int c = Math.max(0, x); c < maxX; c++) {
+				bits[r * wordsPerRow + (c >>> 6)] |= 1L << c;
+			}
+		}
+	}
+
+}
@@ -25,6 +25,12 @@ public class CloudMatrix {
 
 	private RectTree tree;
 
+	/**
+	 * The occupied cells (of size {@link #getMinResolution()}), which is used
+	 * to perform collision tests via {@link #fits(BitMatrix, int, int)}.
+	 */
+	private BitMatrix occupied;
+
 	private final int max;
 
 	private final int minResolution;
@@ -43,6 +49,26 @@ public class CloudMatrix {
 		return tree.getRoot().getWordId(x * minResolution, y * minResolution);
 	}
 
+	/**
+	 * Tests whether a word with the given mask (see {@link RectTree#getMask()}
+	 * ) can be placed at the given position without overlapping any occupied
+	 * cell.
+	 * 
+	 * @param mask
+	 *            The mask of the word.
+	 * @param x
+	 *            The x coordinate of the word, which has to be a multiple of
+	 *            {@link #getMinResolution()}.
+	 * @param y
+	 *            The y coordinate of the word, which has to be a multiple of
+	 *            {@link #getMinResolution()}.
+	 * @return <code>true</code> if the word fits at the given position,
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean fits(BitMatrix mask, int x, int y) {
+		return !occupied.intersects(mask, x / minResolution, y / minResolution);
+	}
+
 	public boolean isEmpty(int x, int y) {
 		short id = tree.getRoot().getWordId(x * minResolution, y * minResolution);
 		return id == RectTree.EMPTY;
@@ -51,6 +77,12 @@ public class CloudMatrix {
 	public void reset() {
 		SmallRect root = new SmallRect(0, 0, max, max);
 		tree = new RectTree(root, minResolution);
+		int cells = (max + minResolution - 1) / minResolution;
+		if (occupied == null || occupied.getWidth() != cells) {
+			occupied = new BitMatrix(cells, cells);
+		} else {
+			occupied.clear();
+		}
 	}
 
 	public void set(RectNode node, short id, short xOffset, short yOffset, int minResolution) {
@@ -58,6 +90,10 @@ public class CloudMatrix {
 		int cleanY = ((yOffset + node.rect.y) / minResolution) * minResolution;
 		SmallRect rect = new SmallRect(cleanX, cleanY, minResolution, minResolution);
 		tree.insert(rect, id);
+		// leaves of the background may span multiple cells
+		occupied.set(cleanX / minResolution, cleanY / minResolution,
+				Math.max(1, node.rect.width / minResolution),
+				Math.max(1, node.rect.height / minResolution));
 	}
 
 }
@@ -36,6 +36,8 @@ public class RectTree {
 
 	private LinkedList<RectNode> leaves;
 
+	private BitMatrix mask;
+
 	public static short EMPTY = -3, MISC = -2, BACKGROUND = -1;
 
 	class RectNode {
@@ -205,6 +207,33 @@ public class RectTree {
 		}
 	}
 
+	/**
+	 * Returns a {@link BitMatrix} in which each filled cell (of size
+	 * <code>minResolution</code>) of this tree is set. The mask is computed
+	 * once and cached afterwards.
+	 * 
+	 * @return The {@link BitMatrix} representing the filled cells of this
+	 *         tree.
+	 */
+	public BitMatrix getMask() {
+		if (mask == null) {
+			Collection<RectNode> leaves = getLeaves();
+			int width = 0;
+			int height = 0;
+			for (RectNode node : leaves) {
+				width = Math.max(width, (node.rect.x + node.rect.width) / minResolution);
+				height = Math.max(height, (node.rect.y + node.rect.height) / minResolution);
+			}
+			BitMatrix bits = new BitMatrix(width, height);
+			for (RectNode node : leaves) {
+				bits.set(node.rect.x / minResolution, node.rect.y / minResolution,
+						Math.max(1, node.rect.width / minResolution), Math.max(1, node.rect.height / minResolution));
+			}
+			mask = bits;
+		}
+		return mask;
+	}
+
 	public void place(final CloudMatrix mainTree, short id) {
 		Collection<RectNode> leaves = getLeaves();
 		for (RectNode node : leaves) {
@@ -20,6 +20,7 @@ import java.util.List;
 import org.eclipse.gef.cloudio.internal.ui.TagCloud;
 import org.eclipse.gef.cloudio.internal.ui.TagCloudViewer;
 import org.eclipse.gef.cloudio.internal.ui.data.Type;
+import org.eclipse.gef.cloudio.internal.ui.layout.BitmapLayouter;
 import org.eclipse.gef.cloudio.internal.ui.layout.DefaultLayouter;
 import org.eclipse.gef.cloudio.internal.ui.layout.ILayouter;
 import org.eclipse.jface.dialogs.ProgressMonitorDialog;
@@ -71,7 +72,7 @@ public class TagCloudView extends ViewPart {
 		cloud.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
 		viewer = new TagCloudViewer(cloud);
 
-		layouter = new DefaultLayouter(20, 10);
+		layouter = new BitmapLayouter(20, 10);
 		// layouter = new CharacterLayouter(20,10);
 		viewer.setLayouter(layouter);
 		labelProvider = new TypeLabelProvider();
@@ -247,11 +247,10 @@ public class ObservableListTests {
 				assertEquals(expectedString.toString(), change.toString());
 			}
 
-			// check previous value of change (only in case of JavaFX change)
-			if (!(change instanceof AtomicChange)) {
-				assertEquals(previousValue,
-						CollectionUtils.getPreviousContents(change));
-			}
+			// check previous value of change (which is reconstructed lazily in
+			// case of atomic change)
+			assertEquals(previousValue,
+					CollectionUtils.getPreviousContents(change));
 		}
 	}
 
@@ -438,6 +437,61 @@ public class ObservableListTests {
 		checkListeners();
 	}
 
+	@Test
+	public void batch() {
+		assumeTrue(
+				"Skip for all except ObservableListWrapperEx, SimpleListPropertyEx, or ReadOnlyListWrapperEx",
+				observable.getClass().getSimpleName()
+						.equals("ObservableListWrapperEx")
+						|| observable instanceof SimpleListPropertyEx
+						|| observable instanceof ReadOnlyListWrapperEx);
+
+		// prepare backup list
+		List<Integer> backupList = new ArrayList<>();
+		check(observable, backupList);
+
+		observable.addAll(Arrays.asList(1, 2));
+		backupList.addAll(Arrays.asList(1, 2));
+
+		// register listeners
+		registerListeners();
+
+		// successive additions are coalesced, other changes are reported as
+		// separate elementary changes within a single atomic change
+		invalidationListener.expect(1);
+		listChangeListener.addAtomicExpectation();
+		listChangeListener.addElementaryExpectation(null,
+				Arrays.asList(3, 4, 5), null, 2, 5);
+		listChangeListener.addElementaryExpectation(
+				Collections.<Integer> singletonList(1), null, null, 0, 0);
+		CollectionUtils.batch(observable, new Runnable() {
+			@Override
+			public void run() {
+				observable.add(3);
+				// nested batch updates are notified by the outermost one
+				CollectionUtils.batch(observable, new Runnable() {
+					@Override
+					public void run() {
+						observable.addAll(4, 5);
+					}
+				});
+				observable.remove(0);
+			}
+		});
+		backupList.addAll(Arrays.asList(3, 4, 5));
+		backupList.remove(0);
+		check(observable, backupList);
+		checkListeners();
+
+		// empty batch update (no notifications expected)
+		CollectionUtils.batch(observable, new Runnable() {
+			@Override
+			public void run() {
+			}
+		});
+		checkListeners();
+	}
+
 	@Before
 	public void before() {
 		observable = observableProvider.get();
@@ -1026,6 +1080,42 @@ public class ObservableListTests {
 		observable.addListener(listChangeListener);
 	}
 
+	@Test
+	public void previousContentsWithNestedChange() {
+		assumeTrue(
+				"Skip for all except ObservableListWrapperEx, SimpleListPropertyEx, or ReadOnlyListWrapperEx",
+				observable.getClass().getSimpleName()
+						.equals("ObservableListWrapperEx")
+						|| observable instanceof SimpleListPropertyEx
+						|| observable instanceof ReadOnlyListWrapperEx);
+
+		final List<List<Integer>> previousContents = new ArrayList<>();
+		observable.addListener(new ListChangeListener<Integer>() {
+			@Override
+			public void onChanged(
+					ListChangeListener.Change<? extends Integer> change) {
+				// change list while notification is in progress
+				if (observable.size() == 1) {
+					observable.add(2);
+				}
+			}
+		});
+		observable.addListener(new ListChangeListener<Integer>() {
+			@Override
+			public void onChanged(
+					ListChangeListener.Change<? extends Integer> change) {
+				previousContents.add(new ArrayList<>(
+						CollectionUtils.getPreviousContents(change)));
+			}
+		});
+		observable.add(1);
+		assertEquals(Arrays.asList(1, 2), observable);
+		assertEquals(2, previousContents.size());
+		// nested change is notified first
+		assertEquals(Collections.singletonList(1), previousContents.get(0));
+		assertEquals(Collections.emptyList(), previousContents.get(1));
+	}
+
 	@Test
 	public void remove() {
 		// initialize list with some values
@@ -26,6 +26,7 @@ import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.SetMultimap;
 
+import javafx.beans.value.ObservableListValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ListChangeListener.Change;
@@ -43,6 +44,36 @@ import javafx.collections.ObservableList;
  */
 public class CollectionUtils {
 
+	/**
+	 * Performs the given update on the given {@link ObservableList}, so that
+	 * all changes applied to it during the update are reported to listeners by
+	 * a single, batched change notification after the update has been
+	 * performed. In case an {@link ObservableListValue} (e.g. a list property)
+	 * is passed in, its current value is updated. Batched notifications are
+	 * only supported for lists created via {@link #observableArrayList()} or
+	 * {@link #observableList(List)}; for other lists the update is performed
+	 * directly, so that listeners are notified about each individual change.
+	 *
+	 * @param <E>
+	 *            The element type of the {@link ObservableList}.
+	 * @param observableList
+	 *            The {@link ObservableList} to update.
+	 * @param update
+	 *            The {@link Runnable} that changes the {@link ObservableList}.
+	 */
+	public static <E> void batch(ObservableList<E> observableList,
+			Runnable update) {
+		ObservableList<E> list = observableList;
+		if (list instanceof ObservableListValue) {
+			list = ((ObservableListValue<E>) list).get();
+		}
+		if (list instanceof ObservableListWrapperEx) {
+			((ObservableListWrapperEx<E>) list).batch(update);
+		} else {
+			update.run();
+		}
+	}
+
 	/**
 	 * Returns an empty, unmodifiable {@link ObservableMultiset}.
 	 *
@@ -120,47 +151,12 @@ public class CollectionUtils {
 			return ((AtomicChange<E>) change).getPreviousContents();
 		}
 
-		ObservableList<E> currentList = change.getList();
-		ObservableList<E> previousList = FXCollections
-				.observableArrayList(currentList);
-
-		// walk over elementary changes and record them in a list
+		// walk over elementary changes and undo them in reverse order
 		change.reset();
 		List<ElementarySubChange<E>> changes = ListListenerHelperEx
 				.getElementaryChanges(change);
-
-		// undo the changes in reverse order
-		for (int i = changes.size() - 1; i >= 0; i--) {
-			ElementarySubChange<E> c = changes.get(i);
-			int from = c.getFrom();
-			int to = c.getTo();
-			if (ElementarySubChange.Kind.ADD.equals(c.getKind())
-					|| ElementarySubChange.Kind.REPLACE.equals(c.getKind())) {
-				// remove added elements
-				for (int j = to - 1; j >= from; j--) {
-					previousList.remove(j);
-				}
-			}
-			if (ElementarySubChange.Kind.REMOVE.equals(c.getKind())
-					|| ElementarySubChange.Kind.REPLACE.equals(c.getKind())) {
-				// add removed elements
-				List<E> removed = c.getRemoved();
-				previousList.addAll(from, removed);
-			}
-			if (ElementarySubChange.Kind.PERMUTATE.equals(c.getKind())) {
-				// create sub list with old permutation
-				int[] permutation = c.getPermutation();
-				List<E> subList = new ArrayList<>(to - from);
-				for (int j = from; j < to; j++) {
-					int k = permutation[j - from];
-					subList.add(currentList.get(k));
-				}
-				// insert sub list at correct position
-				previousList.remove(from, to);
-				previousList.addAll(from, subList);
-			}
-		}
-		return previousList;
+		return ListListenerHelperEx.computePreviousContents(change.getList(),
+				changes);
 	}
 
 	/**
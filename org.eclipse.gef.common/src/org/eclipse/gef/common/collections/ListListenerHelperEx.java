@@ -48,7 +48,32 @@ public class ListListenerHelperEx<E> {
 		private int cursor = -1;
 		private ElementarySubChange<E>[] elementarySubChanges;
 
+		// lazily computed in case it is not provided
 		private List<E> previousContents;
+		private AtomicChange<? extends E> previousContentsDelegate;
+
+		/**
+		 * Creates a new {@link ListListenerHelperEx.AtomicChange} that
+		 * represents a change comprising a single elementary sub-change. The
+		 * previous contents of the source {@link ObservableList} are not
+		 * copied, but reconstructed from the current contents and the
+		 * elementary sub-change when {@link #getPreviousContents()} is first
+		 * called. This is only valid as long as the source
+		 * {@link ObservableList} has not been changed again.
+		 *
+		 * @param source
+		 *            The source {@link ObservableList} from which the change
+		 *            originated.
+		 * @param elementarySubChange
+		 *            The elementary sub-change that has been applied.
+		 */
+		@SuppressWarnings("unchecked")
+		public AtomicChange(ObservableList<E> source,
+				ElementarySubChange<E> elementarySubChange) {
+			super(source);
+			ElementarySubChange<?>[] subChanges = { elementarySubChange };
+			this.elementarySubChanges = (ElementarySubChange<E>[]) subChanges;
+		}
 
 		/**
 		 * Creates a new {@link ListListenerHelperEx.AtomicChange} that
@@ -86,13 +111,36 @@ public class ListListenerHelperEx<E> {
 		 *            The elementary sub-changes that have been applied as part
 		 *            of this change.
 		 */
-		@SuppressWarnings("unchecked")
 		public AtomicChange(ObservableList<E> source, List<E> previousContents,
 				List<ElementarySubChange<E>> elementarySubChanges) {
-			super(source);
+			this(source, elementarySubChanges);
 			this.previousContents = previousContents;
-			this.elementarySubChanges = elementarySubChanges
-					.toArray(new ElementarySubChange[] {});
+		}
+
+		/**
+		 * Creates a new {@link ListListenerHelperEx.AtomicChange} that
+		 * represents a change comprising multiple elementary sub-changes. The
+		 * previous contents of the source {@link ObservableList} are not
+		 * copied, but reconstructed from the current contents and the
+		 * elementary sub-changes when {@link #getPreviousContents()} is first
+		 * called. This is only valid as long as the source
+		 * {@link ObservableList} has not been changed again.
+		 *
+		 * @param source
+		 *            The source {@link ObservableList} from which the change
+		 *            originated.
+		 * @param elementarySubChanges
+		 *            The elementary sub-changes that have been applied as part
+		 *            of this change.
+		 */
+		@SuppressWarnings("unchecked")
+		public AtomicChange(ObservableList<E> source,
+				List<ElementarySubChange<E>> elementarySubChanges) {
+			super(source);
+			ElementarySubChange<?>[] subChanges = elementarySubChanges
+					.toArray(new ElementarySubChange<?>[elementarySubChanges
+							.size()]);
+			this.elementarySubChanges = (ElementarySubChange<E>[]) subChanges;
 		}
 
 		/**
@@ -115,9 +163,14 @@ public class ListListenerHelperEx<E> {
 				ListChangeListener.Change<? extends E> change) {
 			super(source);
 
-			// copy previous contents
-			this.previousContents = new ArrayList<>(
-					CollectionUtils.getPreviousContents(change));
+			if (change instanceof AtomicChange) {
+				// previous contents are computed lazily by the passed in change
+				this.previousContentsDelegate = (AtomicChange<? extends E>) change;
+			} else {
+				// copy previous contents
+				this.previousContents = new ArrayList<>(
+						CollectionUtils.getPreviousContents(change));
+			}
 
 			// retrieve elementary sub-changes by iterating them
 			// TODO: we could introduce an initialized field inside Change
@@ -187,6 +240,14 @@ public class ListListenerHelperEx<E> {
 		 *         list.
 		 */
 		public List<E> getPreviousContents() {
+			if (previousContents == null) {
+				if (previousContentsDelegate != null) {
+					return Collections.unmodifiableList(
+							previousContentsDelegate.getPreviousContents());
+				}
+				previousContents = computePreviousContents(getList(),
+						Arrays.asList(elementarySubChanges));
+			}
 			return Collections.unmodifiableList(previousContents);
 		}
 
@@ -503,6 +564,24 @@ public class ListListenerHelperEx<E> {
 			return to;
 		}
 
+		/**
+		 * Appends the given elements to the elements that were added by this
+		 * change, which has to be an addition. Used to coalesce successive
+		 * additions into a single elementary change.
+		 *
+		 * @param elements
+		 *            The elements that were added directly behind the
+		 *            elements already added by this change.
+		 */
+		void appendAdded(List<? extends E> elements) {
+			if (!Kind.ADD.equals(kind)) {
+				throw new IllegalStateException(
+						"Can only append to an addition.");
+			}
+			added.addAll(elements);
+			to += elements.size();
+		}
+
 		@Override
 		public String toString() {
 			if (Kind.REPLACE.equals(kind)) {
@@ -520,6 +599,56 @@ public class ListListenerHelperEx<E> {
 		}
 	}
 
+	/**
+	 * Reconstructs the contents of a {@link List} before the given elementary
+	 * changes were (successively) applied to it, by undoing them in reverse
+	 * order.
+	 *
+	 * @param <E>
+	 *            The element type of the {@link List}.
+	 * @param currentContents
+	 *            The contents of the {@link List} after the changes were
+	 *            applied.
+	 * @param elementarySubChanges
+	 *            The elementary changes that were applied.
+	 * @return A newly created {@link List} that resembles the contents before
+	 *         the changes were applied.
+	 */
+	protected static <E> List<E> computePreviousContents(
+			List<? extends E> currentContents,
+			List<ElementarySubChange<E>> elementarySubChanges) {
+		List<E> previousContents = new ArrayList<>(currentContents);
+		for (int i = elementarySubChanges.size() - 1; i >= 0; i--) {
+			ElementarySubChange<E> c = elementarySubChanges.get(i);
+			int from = c.getFrom();
+			int to = c.getTo();
+			if (ElementarySubChange.Kind.ADD.equals(c.getKind())
+					|| ElementarySubChange.Kind.REPLACE.equals(c.getKind())) {
+				// remove added elements
+				previousContents.subList(from, to).clear();
+			}
+			if (ElementarySubChange.Kind.REMOVE.equals(c.getKind())
+					|| ElementarySubChange.Kind.REPLACE.equals(c.getKind())) {
+				// add removed elements
+				previousContents.addAll(from, c.getRemoved());
+			}
+			if (ElementarySubChange.Kind.PERMUTATE.equals(c.getKind())) {
+				// create sub list with old permutation
+				int[] permutation = c.getPermutation();
+				List<E> subList = new ArrayList<>(to - from);
+				for (int j = from; j < to; j++) {
+					int k = permutation[j - from];
+					subList.add(previousContents.get(k));
+				}
+				// replace sub list at correct position
+				for (int j = from; j < to; j++) {
+					previousContents.set(j, subList.get(j - from));
+				}
+			}
+		}
+		return previousContents;
+	}
+
 	/**
 	 * Infers the elementary changes constituting the change of the
 	 * {@link ObservableList}.
@@ -48,6 +48,12 @@ import javafx.collections.ObservableList;
  * (https://bugs.openjdk.java.net/browse/JDK-8092504): fixed by using
  * {@link ListListenerHelperEx} as a replacement for ListListenerHelper.</li>
  * </ul>
+ * The previous contents of the list are not copied upon each change, but
+ * reconstructed from the elementary sub-changes in case a listener requests
+ * them (within its notification), so that the costs of a change are
+ * proportional to its size rather than to the size of the list. Multiple
+ * changes may be combined into a single (batched) change notification via
+ * {@link #batch(Runnable)}.
  *
  * @author anyssen
  * @param <E>
@@ -60,6 +66,13 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 	private ListListenerHelperEx<E> helper = new ListListenerHelperEx<>(this);
 	private List<E> backingList;
 
+	// changes whose notification is in progress
+	private List<ListListenerHelperEx.AtomicChange<E>> notifiedChanges = new ArrayList<>();
+
+	// elementary changes that are recorded during a batch update
+	private int batchDepth = 0;
+	private List<ElementarySubChange<E>> batchedChanges = new ArrayList<>();
+
 	/**
 	 * Creates a new {@link ObservableList} wrapping the given {@link List}.
 	 *
@@ -73,40 +86,32 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public boolean add(E element) {
-		List<E> previousContents = delegateCopy();
+		prepareChange();
+		int size = size();
 		boolean result = super.add(element);
 		if (result) {
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents,
-							ListListenerHelperEx.ElementarySubChange.added(
-									Collections.singletonList(element),
-									previousContents.size(),
-									previousContents.size() + 1)));
+			fireChange(ListListenerHelperEx.ElementarySubChange.added(
+					Collections.singletonList(element), size, size + 1));
 		}
 		return result;
 	}
 
 	@Override
 	public void add(int index, E element) {
-		List<E> previousContents = delegateCopy();
+		prepareChange();
 		super.add(index, element);
-		helper.fireValueChangedEvent(
-				new ListListenerHelperEx.AtomicChange<>(this, previousContents,
-						ListListenerHelperEx.ElementarySubChange.added(
-								Collections.singletonList(element), index,
-								index + 1)));
+		fireChange(ListListenerHelperEx.ElementarySubChange.added(
+				Collections.singletonList(element), index, index + 1));
 	}
 
 	@Override
 	public boolean addAll(Collection<? extends E> collection) {
-		List<E> previousContents = delegateCopy();
-		boolean result = super.addAll(collection);
-		helper.fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(
-				this, previousContents,
-				ListListenerHelperEx.ElementarySubChange.added(
-						new ArrayList<>(collection), previousContents.size(),
-						previousContents.size() + collection.size())));
+		prepareChange();
+		int size = size();
+		List<E> added = new ArrayList<>(collection);
+		boolean result = super.addAll(added);
+		fireChange(ListListenerHelperEx.ElementarySubChange.added(added, size,
+				size + added.size()));
 		return result;
 	}
 
@@ -118,16 +123,39 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public boolean addAll(int index, Collection<? extends E> elements) {
-		List<E> previousContents = delegateCopy();
-		boolean result = super.addAll(index, elements);
-		helper.fireValueChangedEvent(
-				new ListListenerHelperEx.AtomicChange<>(this, previousContents,
-						ListListenerHelperEx.ElementarySubChange.added(
-								new ArrayList<>(elements), index,
-								index + elements.size())));
+		prepareChange();
+		List<E> added = new ArrayList<>(elements);
+		boolean result = super.addAll(index, added);
+		fireChange(ListListenerHelperEx.ElementarySubChange.added(added, index,
+				index + added.size()));
 		return result;
 	}
 
+	/**
+	 * Performs the given update, so that all changes applied to this
+	 * {@link ObservableListWrapperEx} during the update are reported to
+	 * listeners by a single change notification after the update has been
+	 * performed. Batch updates may be nested, in which case the notification
+	 * is fired after the outermost update has been performed.
+	 *
+	 * @param update
+	 *            The {@link Runnable} that changes this list.
+	 */
+	public void batch(Runnable update) {
+		prepareChange();
+		batchDepth++;
+		try {
+			update.run();
+		} finally {
+			batchDepth--;
+			if (batchDepth == 0 && !batchedChanges.isEmpty()) {
+				List<ElementarySubChange<E>> changes = batchedChanges;
+				batchedChanges = new ArrayList<>();
+				fireChange(null, changes);
+			}
+		}
+	}
+
 	@Override
 	public void addListener(InvalidationListener listener) {
 		helper.addListener(listener);
@@ -140,17 +168,63 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public void clear() {
+		prepareChange();
 		List<E> previousContents = delegateCopy();
 		super.clear();
 		if (!previousContents.isEmpty()) {
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents,
+			fireChange(previousContents,
+					Collections.singletonList(
 							ListListenerHelperEx.ElementarySubChange
 									.removed(previousContents, 0, 0)));
 		}
 	}
 
+	/**
+	 * Computes the elementary changes that correspond to the removal of all
+	 * elements of the previous contents that are (or are not) contained in the
+	 * given {@link Collection}. Continuous removed elements are combined into
+	 * a single elementary change, and the index of each elementary change is
+	 * adjusted by the count of elements that have already been removed by
+	 * preceding elementary changes.
+	 *
+	 * @param previousContents
+	 *            The previous contents of this list.
+	 * @param collection
+	 *            The {@link Collection} to test the elements against.
+	 * @param removeContained
+	 *            <code>true</code> if the contained elements were removed,
+	 *            <code>false</code> if the not contained elements were
+	 *            removed.
+	 * @return The elementary changes representing the removal.
+	 */
+	private List<ElementarySubChange<E>> getRemovals(List<E> previousContents,
+			Collection<?> collection, boolean removeContained) {
+		List<ElementarySubChange<E>> elementaryChanges = new ArrayList<>();
+		List<E> removed = null;
+		int from = -1;
+		int removeCount = 0;
+		for (int i = 0; i < previousContents.size(); i++) {
+			E e = previousContents.get(i);
+			if (collection.contains(e) == removeContained) {
+				if (removed == null) {
+					removed = new ArrayList<>();
+					from = i - removeCount;
+				}
+				removed.add(e);
+			} else if (removed != null) {
+				elementaryChanges.add(
+						ElementarySubChange.removed(removed, from, from));
+				removeCount += removed.size();
+				removed = null;
+			}
+		}
+		if (removed != null) {
+			elementaryChanges
+					.add(ElementarySubChange.removed(removed, from, from));
+		}
+		return elementaryChanges;
+	}
+
 	@Override
 	protected List<E> delegate() {
 		return backingList;
@@ -166,43 +240,97 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 		return new ArrayList<>(backingList);
 	}
 
+	/**
+	 * Notifies listeners about the given elementary change, or records it in
+	 * case a batch update is in progress.
+	 *
+	 * @param elementarySubChange
+	 *            The elementary change that was applied.
+	 */
+	private void fireChange(ElementarySubChange<E> elementarySubChange) {
+		fireChange(null, Collections.singletonList(elementarySubChange));
+	}
+
+	/**
+	 * Notifies listeners about the given elementary changes, or records them
+	 * in case a batch update is in progress.
+	 *
+	 * @param previousContents
+	 *            The previous contents of this list, or <code>null</code> if
+	 *            they are to be reconstructed on demand.
+	 * @param elementarySubChanges
+	 *            The elementary changes that were applied.
+	 */
+	private void fireChange(List<E> previousContents,
+			List<ElementarySubChange<E>> elementarySubChanges) {
+		if (batchDepth > 0) {
+			for (ElementarySubChange<E> c : elementarySubChanges) {
+				ElementarySubChange<E> last = batchedChanges.isEmpty() ? null
+						: batchedChanges.get(batchedChanges.size() - 1);
+				if (last != null
+						&& ElementarySubChange.Kind.ADD.equals(last.getKind())
+						&& ElementarySubChange.Kind.ADD.equals(c.getKind())
+						&& last.getTo() == c.getFrom()) {
+					// coalesce successive additions
+					last.appendAdded(c.getAdded());
+				} else {
+					batchedChanges.add(c);
+				}
+			}
+			return;
+		}
+		ListListenerHelperEx.AtomicChange<E> change = previousContents == null
+				? new ListListenerHelperEx.AtomicChange<>(this,
+						elementarySubChanges)
+				: new ListListenerHelperEx.AtomicChange<>(this,
+						previousContents, elementarySubChanges);
+		notifiedChanges.add(change);
+		try {
+			helper.fireValueChangedEvent(change);
+		} finally {
+			notifiedChanges.remove(notifiedChanges.size() - 1);
+		}
+	}
+
+	/**
+	 * Has to be called before this list is changed. In case this list is
+	 * changed by a listener (i.e. while a change notification is in
+	 * progress), ensures the previous contents of the change that is notified
+	 * are computed before they can no longer be reconstructed.
+	 */
+	private void prepareChange() {
+		for (ListListenerHelperEx.AtomicChange<E> change : notifiedChanges) {
+			change.getPreviousContents();
+		}
+	}
+
 	@Override
 	public E remove(int index) {
-		List<E> previousContents = delegateCopy();
+		prepareChange();
 		E result = super.remove(index);
-		helper.fireValueChangedEvent(
-				new ListListenerHelperEx.AtomicChange<>(this, previousContents,
-						ListListenerHelperEx.ElementarySubChange.removed(
-								Collections.singletonList(result), index,
-								index)));
+		fireChange(ListListenerHelperEx.ElementarySubChange
+				.removed(Collections.singletonList(result), index, index));
 		return result;
 	}
 
 	@Override
 	public void remove(int from, int to) {
-		List<E> previousContents = delegateCopy();
-		List<E> removed = new ArrayList<>();
-		for (int i = to - 1; i >= from; i--) {
-			removed.add(0, super.remove(i));
-		}
-		helper.fireValueChangedEvent(new ListListenerHelperEx.AtomicChange<>(
-				this, previousContents, ListListenerHelperEx.ElementarySubChange
-						.removed(removed, from, from)));
+		prepareChange();
+		List<E> subList = delegate().subList(from, to);
+		List<E> removed = new ArrayList<>(subList);
+		subList.clear();
+		fireChange(ListListenerHelperEx.ElementarySubChange.removed(removed,
+				from, from));
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public boolean remove(Object object) {
-		List<E> previousContents = delegateCopy();
-		if (super.remove(object)) {
-			// XXX: if remove was successful, its safe to cast here
-			int index = previousContents.indexOf(object);
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents,
-							ListListenerHelperEx.ElementarySubChange.removed(
-									Collections.singletonList((E) object),
-									index, index)));
+		prepareChange();
+		int index = indexOf(object);
+		if (index >= 0) {
+			E removed = super.remove(index);
+			fireChange(ListListenerHelperEx.ElementarySubChange
+					.removed(Collections.singletonList(removed), index, index));
 			return true;
 		}
 		return false;
@@ -210,48 +338,11 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public boolean removeAll(Collection<?> collection) {
+		prepareChange();
 		List<E> previousContents = delegateCopy();
 		if (super.removeAll(collection)) {
-			// check which have been removed
-			List<ElementarySubChange<E>> elementaryChanges = new ArrayList<>();
-			ElementarySubChange<E> currentElementaryChange = null;
-			int removeCount = 0;
-			for (E e : previousContents) {
-				if (collection.contains(e)) {
-					// create a new elementary change, if elements are not
-					// 'continuous' (ensure that the count of elements that have
-					// already been deleted by preceding elementary changes is
-					// subtracted from the index)
-					if (currentElementaryChange == null
-							|| previousContents.indexOf(e)
-									- currentElementaryChange.getFrom() > 1) {
-						if (currentElementaryChange != null) {
-							removeCount += currentElementaryChange.getRemoved()
-									.size();
-						}
-						int index = previousContents.indexOf(e) - removeCount;
-						currentElementaryChange = ElementarySubChange.removed(
-								Collections.singletonList(e), index, index);
-						elementaryChanges.add(currentElementaryChange);
-					} else {
-						// replace current elementary change (i.e. append the
-						// removed element)
-						List<E> removed = new ArrayList<>(
-								currentElementaryChange.getRemoved());
-						removed.add(e);
-						int index = currentElementaryChange.getFrom();
-						elementaryChanges.remove(currentElementaryChange);
-						currentElementaryChange = ElementarySubChange
-								.removed(removed, index, index);
-						elementaryChanges.add(currentElementaryChange);
-					}
-				}
-			}
-			// determine lowest index that was removed (will be used as from and
-			// to index)
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents, elementaryChanges));
+			fireChange(previousContents,
+					getRemovals(previousContents, collection, true));
 			return true;
 		}
 		return false;
@@ -275,48 +366,11 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public boolean retainAll(Collection<?> collection) {
+		prepareChange();
 		List<E> previousContents = delegateCopy();
 		if (super.retainAll(collection)) {
-			// check which have been removed
-			List<ElementarySubChange<E>> elementaryChanges = new ArrayList<>();
-			ElementarySubChange<E> currentElementaryChange = null;
-			int removeCount = 0;
-			for (E e : previousContents) {
-				if (!collection.contains(e)) {
-					// create a new elementary change, if elements are not
-					// 'continuous' (ensure that the count of elements that have
-					// already been deleted by preceding elementary changes is
-					// subtracted from the index)
-					if (currentElementaryChange == null
-							|| previousContents.indexOf(e)
-									- currentElementaryChange.getFrom() > 1) {
-						if (currentElementaryChange != null) {
-							removeCount += currentElementaryChange.getRemoved()
-									.size();
-						}
-						int index = previousContents.indexOf(e) - removeCount;
-						currentElementaryChange = ElementarySubChange.removed(
-								Collections.singletonList(e), index, index);
-						elementaryChanges.add(currentElementaryChange);
-					} else {
-						// replace current elementary change (i.e. append the
-						// removed element)
-						List<E> removed = new ArrayList<>(
-								currentElementaryChange.getRemoved());
-						removed.add(e);
-						int index = currentElementaryChange.getFrom();
-						elementaryChanges.remove(currentElementaryChange);
-						currentElementaryChange = ElementarySubChange
-								.removed(removed, index, index);
-						elementaryChanges.add(currentElementaryChange);
-					}
-				}
-			}
-			// determine lowest index that was removed (will be used as from and
-			// to index)
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents, elementaryChanges));
+			fireChange(previousContents,
+					getRemovals(previousContents, collection, false));
 			return true;
 		}
 		return false;
@@ -330,17 +384,12 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public E set(int index, E element) {
-		List<E> previousContents = delegateCopy();
+		prepareChange();
 		if (get(index) != element) {
-			E result = super.remove(index);
-			super.add(index, element);
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents,
-							ElementarySubChange.replaced(
-									Collections.singletonList(result),
-									Collections.singletonList(element), index,
-									index + 1)));
+			E result = delegate().set(index, element);
+			fireChange(ElementarySubChange.replaced(
+					Collections.singletonList(result),
+					Collections.singletonList(element), index, index + 1));
 			return result;
 		}
 		return element;
@@ -348,14 +397,14 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 
 	@Override
 	public boolean setAll(Collection<? extends E> collection) {
+		prepareChange();
 		List<E> previousContents = delegateCopy();
 		if (!previousContents.equals(collection)) {
 			delegate().clear();
 			delegate().addAll(collection);
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents, ElementarySubChange.replaced(
-									previousContents, delegate(), 0, size())));
+			fireChange(previousContents,
+					Collections.singletonList(ElementarySubChange.replaced(
+							previousContents, delegate(), 0, size())));
 			return true;
 		}
 		return false;
@@ -389,6 +438,7 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 		// need to iterate over the complete list to compute the previous
 		// indexes (so we can properly handle elements with multiple
 		// occurrences).
+		prepareChange();
 		List<E> previousContents = delegateCopy();
 		SetMultimap<E, Integer> previousIndexes = HashMultimap.create();
 		for (int i = 0; i < previousContents.size(); i++) {
@@ -418,9 +468,8 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 			previousIndexIterator.remove();
 		}
 		if (changed) {
-			helper.fireValueChangedEvent(
-					new ListListenerHelperEx.AtomicChange<>(this,
-							previousContents,
+			fireChange(previousContents,
+					Collections.singletonList(
 							ListListenerHelperEx.ElementarySubChange
 									.<E> permutated(permutation, 0, a.length)));
 		}
@@ -27,12 +27,14 @@ import org.junit.runners.Suite.SuiteClasses;
 		DotAttributesTests.class, DotBSplineInterpolatorTests.class,
 		DotColorListLexerTests.class, DotColorListTests.class,
 		DotColorUtilTests.class, DotEscStringTests.class,
-		DotExecutableUtilsTests.class, DotExportTests.class,
-		DotExtractorTests.class, DotFormatterTests.class,
+		DotExecutableUtilsStubTests.class, DotExecutableUtilsTests.class,
+		DotExportTests.class, DotExtractorTests.class,
+		DotFormatterTests.class,
 		DotHtmlLabelFormatterTests.class, DotHtmlLabelLexerTests.class,
 		DotHtmlLabelParserTests.class, DotHtmlLabelValidatorTests.class,
 		DotImportTests.class, DotLexerTests.class, DotParserTests.class,
-		DotPortPosTests.class, DotRecordLabelTests.class, DotStyleTests.class,
+		DotPortPosTests.class, DotRecordLabelTests.class,
+		DotStreamingImportTests.class, DotStyleTests.class,
 		DotValidatorTests.class,
 
 		// JUnit Plug-in Tests
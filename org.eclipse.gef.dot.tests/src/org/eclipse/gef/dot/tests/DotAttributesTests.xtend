@@ -3059,6 +3059,36 @@ class DotAttributesTests {
 		)
 	}
 
+	@Test def parse_cache() {
+		clearParseCaches
+		val n1 = new Node.Builder().buildNode
+		val n2 = new Node.Builder().buildNode
+		n1.pos = "47, 11"
+		n2.pos = "47, 11"
+
+		// equal raw values are parsed only once
+		val pos1 = n1.posParsed
+		val pos2 = n2.posParsed
+		EcoreUtil.equals(pos1, pos2).assertTrue
+		1L.assertEquals(parseCacheMisses)
+		1L.assertEquals(parseCacheHits)
+
+		// cached values are copied, so that modifications do not affect other
+		// elements
+		(pos1 !== pos2).assertTrue
+		pos2.x = 12
+		47.0.assertEquals(n1.posParsed.x, 0.0)
+
+		// writing an attribute invalidates the parsed value
+		n1.pos = "12, 47"
+		12.0.assertEquals(n1.posParsed.x, 0.0)
+		2L.assertEquals(parseCacheMisses)
+
+		clearParseCaches
+		0L.assertEquals(parseCacheHits)
+		0L.assertEquals(parseCacheMisses)
+	}
+
 	private def invalidValue(()=>void setter, String expectedMessage) {
 		try {
 			setter.apply
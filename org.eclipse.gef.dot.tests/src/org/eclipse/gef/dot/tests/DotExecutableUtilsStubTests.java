@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.dot.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.gef.dot.internal.DotExecutableUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the process handling and caching of {@link DotExecutableUtils},
+ * using a shell script that echoes its input instead of the Graphviz 'dot'
+ * executable.
+ */
+public class DotExecutableUtilsStubTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File cacheDirectory;
+	private long cacheLimit;
+	private File dot;
+	private File log;
+
+	@Before
+	public void setUp() throws IOException {
+		Assume.assumeFalse(System.getProperty("os.name").toLowerCase()
+				.startsWith("windows"));
+		dot = folder.newFile("dot");
+		log = new File(dot.getPath() + ".log");
+		Files.write(dot.toPath(), ("#!/bin/sh\n" //
+				+ "echo \"$@\" >> \"$0.log\"\n" //
+				+ "if [ \"$1\" = \"-T?\" ]; then\n" //
+				+ "  echo 'Format: \"?\" not recognized. Use one of: png svg xdot' >&2\n"
+				+ "  exit 1\n" //
+				+ "fi\n" //
+				// record the number of running processes
+				+ "if [ \"$1\" = \"-Tslow\" ]; then\n" //
+				+ "  touch \"$0.running.$$\"\n" //
+				+ "  ls \"$0\".running.* | wc -l >> \"$0.running\"\n" //
+				+ "  sleep 0.2\n" //
+				+ "  rm \"$0.running.$$\"\n" //
+				+ "fi\n" //
+				+ "cat\n").getBytes(StandardCharsets.UTF_8));
+		dot.setExecutable(true);
+		cacheDirectory = DotExecutableUtils.getCacheDirectory();
+		cacheLimit = DotExecutableUtils.getCacheLimit();
+		DotExecutableUtils.setCacheDirectory(folder.newFolder("cache"));
+	}
+
+	@After
+	public void tearDown() {
+		// the set up is skipped on Windows
+		if (dot != null) {
+			DotExecutableUtils.clearCache();
+			DotExecutableUtils.setCacheDirectory(cacheDirectory);
+			DotExecutableUtils.setCacheLimit(cacheLimit);
+		}
+	}
+
+	@Test
+	public void cached_results() throws IOException {
+		String dotInput = "graph { 1 -- 2 }";
+		for (int i = 0; i < 3; i++) {
+			String[] result = DotExecutableUtils.executeDot(dot, true,
+					dotInput, "xdot");
+			assertEquals(dotInput, result[0].trim());
+			assertEquals("", result[1]);
+		}
+		assertEquals(1, calls());
+
+		// changed input or arguments result in a new call
+		DotExecutableUtils.executeDot(dot, false, dotInput, "xdot");
+		DotExecutableUtils.executeDot(dot, false, "graph { 1 }", "xdot");
+		assertEquals(3, calls());
+
+		// the cache can be disabled
+		DotExecutableUtils.setCacheDirectory(null);
+		DotExecutableUtils.executeDot(dot, true, dotInput, "xdot");
+		assertEquals(4, calls());
+	}
+
+	@Test
+	public void concurrent_calls() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String[]>> results = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				final String dotInput = "graph { " + i + " }";
+				results.add(executor.submit(new Callable<String[]>() {
+					@Override
+					public String[] call() {
+						return DotExecutableUtils.executeDot(dot, false,
+								dotInput, null);
+					}
+				}));
+			}
+			for (int i = 0; i < 32; i++) {
+				assertEquals("graph { " + i + " }",
+						results.get(i).get()[0].trim());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(32, calls());
+	}
+
+	@Test
+	public void bounded_processes() throws Exception {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int count = 2 * processors + 2;
+		ExecutorService executor = Executors.newFixedThreadPool(count);
+		try {
+			List<Future<String[]>> results = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				final String dotInput = "graph { " + i + " }";
+				results.add(executor.submit(new Callable<String[]>() {
+					@Override
+					public String[] call() {
+						return DotExecutableUtils.executeDot(dot, false,
+								dotInput, "slow");
+					}
+				}));
+			}
+			for (int i = 0; i < count; i++) {
+				assertEquals("graph { " + i + " }",
+						results.get(i).get()[0].trim());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(count, calls());
+
+		// at most one process per processor runs at once
+		List<String> running = Files.readAllLines(
+				new File(dot.getPath() + ".running").toPath());
+		assertEquals(count, running.size());
+		for (String line : running) {
+			int processes = Integer.parseInt(line.trim());
+			assertTrue(processes >= 1 && processes <= processors);
+		}
+	}
+
+	@Test
+	public void disabled_by_default() {
+		// the directory that was set before the test is the default one
+		assertNull(cacheDirectory);
+	}
+
+	@Test
+	public void evicted_results() throws Exception {
+		// each result occupies the length of its (echoed) input
+		DotExecutableUtils.setCacheLimit(2 * "graph { 1 }".length());
+		DotExecutableUtils.executeDot(dot, false, "graph { 1 }", "xdot");
+		Thread.sleep(20);
+		DotExecutableUtils.executeDot(dot, false, "graph { 2 }", "xdot");
+		Thread.sleep(20);
+		DotExecutableUtils.executeDot(dot, false, "graph { 1 }", "xdot");
+		assertEquals(2, calls());
+
+		// the least recently used result is evicted
+		Thread.sleep(20);
+		DotExecutableUtils.executeDot(dot, false, "graph { 3 }", "xdot");
+		assertEquals(3, calls());
+		DotExecutableUtils.executeDot(dot, false, "graph { 1 }", "xdot");
+		assertEquals(3, calls());
+		DotExecutableUtils.executeDot(dot, false, "graph { 2 }", "xdot");
+		assertEquals(4, calls());
+
+		// lowering the limit evicts results immediately
+		DotExecutableUtils.setCacheLimit(0);
+		assertEquals(0,
+				DotExecutableUtils.getCacheDirectory().listFiles().length);
+	}
+
+	@Test
+	public void output_file() throws IOException {
+		File input = folder.newFile("input.dot");
+		Files.write(input.toPath(),
+				"digraph { 1 -> 2 }".getBytes(StandardCharsets.UTF_8));
+		File output = new File(folder.getRoot(), "output.svg");
+		String[] outputs = new String[2];
+		DotExecutableUtils.renderImage(dot, input, "svg", output, outputs);
+		assertEquals("", outputs[0]);
+		assertEquals("digraph { 1 -> 2 }", new String(
+				Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8));
+
+		// cached results are written to the output file as well
+		output.delete();
+		DotExecutableUtils.renderImage(dot, input, "svg", output, outputs);
+		assertEquals(1, calls());
+		assertEquals("digraph { 1 -> 2 }", new String(
+				Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void supported_export_formats() throws IOException {
+		String[] expected = { "png", "svg", "xdot" };
+		assertArrayEquals(expected,
+				DotExecutableUtils.getSupportedExportFormats(dot.getPath()));
+		assertArrayEquals(expected,
+				DotExecutableUtils.getSupportedExportFormats(dot.getPath()));
+		assertEquals(1, calls());
+	}
+
+	@Test
+	public void unsupported_export_formats() throws IOException {
+		// an executable that fails without output
+		File broken = folder.newFile("broken");
+		Files.write(broken.toPath(), ("#!/bin/sh\n" //
+				+ "echo \"$@\" >> \"$0.log\"\n" //
+				+ "exit 1\n").getBytes(StandardCharsets.UTF_8));
+		broken.setExecutable(true);
+		File brokenLog = new File(broken.getPath() + ".log");
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, DotExecutableUtils
+					.getSupportedExportFormats(broken.getPath()).length);
+		}
+		assertEquals(1, Files.readAllLines(brokenLog.toPath()).size());
+
+		// a missing executable is not probed again either
+		File missing = new File(folder.getRoot(), "missing");
+		assertEquals(0, DotExecutableUtils
+				.getSupportedExportFormats(missing.getPath()).length);
+		assertEquals(0, DotExecutableUtils
+				.getSupportedExportFormats(missing.getPath()).length);
+	}
+
+	private int calls() throws IOException {
+		return log.exists() ? Files.readAllLines(log.toPath()).size() : 0;
+	}
+
+}
@@ -14,6 +14,7 @@
  *******************************************************************************/
 package org.eclipse.gef.dot.tests
 
+import java.io.StringWriter
 import java.util.Scanner
 import org.eclipse.gef.dot.internal.DotExport
 import org.eclipse.gef.graph.Graph
@@ -61,6 +62,7 @@ class DotExportTests {
 		
 		graph.exportDot.assertResult(expected)
 		graph.exportDotToFile.assertResult(expected)
+		graph.exportDotToWriter.assertResult(expected)
 	}
 
 	private def assertResult(String actual, String expected) {
@@ -77,6 +79,12 @@ class DotExportTests {
 		outputFile.read
 	}
 
+	private def exportDotToWriter(Graph graph) {
+		val writer = new StringWriter
+		graph.exportDot(writer)
+		writer.toString
+	}
+
 	private def hasNoBlankLines(String dot) {
 		val scanner = new Scanner(dot)
 		while (scanner.hasNextLine) {
@@ -15,9 +15,11 @@
  *******************************************************************************/
 package org.eclipse.gef.dot.tests
 
+import com.google.inject.Inject
 import java.io.File
 import org.eclipse.gef.dot.internal.DotImport
 import org.eclipse.gef.dot.internal.language.DotInjectorProvider
+import org.eclipse.gef.dot.internal.language.dot.DotAst
 import org.eclipse.gef.dot.internal.language.dot.GraphType
 import org.eclipse.gef.dot.internal.language.layout.Layout
 import org.eclipse.gef.dot.internal.language.rankdir.Rankdir
@@ -28,6 +30,7 @@ import org.eclipse.gef.graph.Graph
 import org.eclipse.gef.graph.Node
 import org.eclipse.xtext.junit4.InjectWith
 import org.eclipse.xtext.junit4.XtextRunner
+import org.eclipse.xtext.junit4.util.ParseHelper
 import org.junit.Assert
 import org.junit.Ignore
 import org.junit.Rule
@@ -52,6 +55,8 @@ class DotImportTests {
 	val dotImport = new DotImport
 	val prettyPrinter = new DotGraphPrettyPrinter
 
+	@Inject ParseHelper<DotAst> parseHelper
+
 	/**
 	 * Test valid graphs can be imported without exceptions.
 	 */
@@ -1745,6 +1750,48 @@ class DotImportTests {
 		"red".assertEquals(c.fillcolor)
 	}
 
+	@Test def parallel_import() {
+		val graphs = dotImport.importDot('''
+			«FOR i : 0 ..< 8»
+				graph G«i» {
+					node[shape=box]
+					subgraph cluster1 { «FOR j : 0 ..< 64»a«j» «ENDFOR»}
+					subgraph cluster2 { «FOR j : 0 ..< 64»b«j» -- b«(j + 1) % 64» «ENDFOR»}
+					c
+				}
+			«ENDFOR»
+		''')
+		8.assertEquals(graphs.size)
+		for (i : 0 ..< 8) {
+			val graph = graphs.get(i)
+			("G" + i).assertEquals(graph._getName)
+			3.assertEquals(graph.nodes.size)
+			"cluster1".assertEquals(graph.nodes.get(0).nestedGraph._getName)
+			"cluster2".assertEquals(graph.nodes.get(1).nestedGraph._getName)
+			graph.assertEquals(graph.nodes.get(0).nestedGraph.nestingNode.graph)
+			64.assertEquals(graph.nodes.get(0).nestedGraph.nodes.size)
+			64.assertEquals(graph.nodes.get(1).nestedGraph.nodes.size)
+			64.assertEquals(graph.nodes.get(1).nestedGraph.edges.size)
+			"a0".assertEquals(graph.nodes.get(0).nestedGraph.nodes.head._getName)
+			"box".assertEquals(graph.nodes.get(1).nestedGraph.nodes.last.shape)
+			"c".assertEquals(graph.nodes.get(2)._getName)
+		}
+	}
+
+	@Test def parallel_validation() {
+		val dotAst = parseHelper.parse('''
+			graph {
+				1[height=foo]
+				2[height=1]
+				3[height=-1]
+			}
+		''')
+		val diagnostics = dotImport.validateDot(dotAst)
+		2.assertEquals(diagnostics.size)
+		Assert.assertTrue(diagnostics.get(0).message.contains("'foo'"))
+		Assert.assertTrue(diagnostics.get(1).message.contains("'-1'"))
+	}
+
 	private def Node[] createNodes() {
 		#[
 			new Node.Builder().attr([p1,p2|p1._setName(p2)], "1").buildNode,
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.dot.tests
+
+import java.io.StringReader
+import org.eclipse.gef.dot.internal.DotImport
+import org.eclipse.gef.dot.internal.DotStreamingImport
+import org.eclipse.gef.dot.internal.language.DotInjectorProvider
+import org.eclipse.gef.dot.internal.language.terminals.ID
+import org.eclipse.xtext.junit4.InjectWith
+import org.eclipse.xtext.junit4.XtextRunner
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+import static extension org.eclipse.gef.dot.internal.DotAttributes.*
+import static extension org.eclipse.gef.dot.tests.DotTestUtils.file
+import static extension org.junit.Assert.assertEquals
+import static extension org.junit.Assert.assertSame
+
+/**
+ * Tests for the {@link DotStreamingImport} class.
+ */
+@RunWith(XtextRunner)
+@InjectWith(DotInjectorProvider)
+class DotStreamingImportTests {
+
+	@Rule public val rule = new DotSubgrammarPackagesRegistrationRule
+
+	val dotImport = new DotImport
+	val dotStreamingImport = new DotStreamingImport
+	val prettyPrinter = new DotGraphPrettyPrinter
+
+	@Test def void same_as_dot_import() {
+		#[
+			DotTestGraphs.EMPTY_STRICT_DIRECTED,
+			DotTestGraphs.EMPTY_WITH_COMMENTS,
+			DotTestGraphs.TWO_NODES_AND_THREE_EDGES,
+			DotTestGraphs.EMPTY_EDGE_ATTRIBUTE_LIST,
+			DotTestGraphs.ESCAPED_QUOTES_LABEL,
+			DotTestGraphs.MULTILINE_QUOTED_IDS,
+			DotTestGraphs.FULLY_QUOTED_IDS,
+			DotTestGraphs.GLOBAL_EDGE_LABEL_AD_HOC_NODES,
+			DotTestGraphs.GLOBAL_NODE_LABEL_AD_HOC_NODES,
+			DotTestGraphs.HEADER_COMMENT,
+			DotTestGraphs.MULTI_EDGE_STATEMENTS_GLOBAL,
+			DotTestGraphs.MULTI_EDGE_STATEMENTS_LOCAL,
+			DotTestGraphs.MULTI_EDGE_STATEMENTS_OVERRIDE,
+			DotTestGraphs.NODES_AFTER_EDGES,
+			DotTestGraphs.NODES_BEFORE_EDGES_WITH_ATTRIBUTES,
+			DotTestGraphs.DIRECTED_STYLED_GRAPH,
+			DotTestGraphs.NODE_GROUPS,
+			DotTestGraphs.KEYWORDS,
+			DotTestGraphs.PORTS,
+			DotTestGraphs.COMPASS_POINTS_AS_NODE_NAMES,
+			DotTestGraphs.GLOBAL_EDGE_NODE_COLORSCHEME,
+			DotTestGraphs.GRAPH_RANKDIR_LR
+		].forEach[assertSameAsDotImport]
+	}
+
+	@Test def void same_as_dot_import_files() {
+		#["simple_graph.dot", "simple_digraph.dot", "labeled_graph.dot", "styled_graph.dot", "clustered_graph.dot"].forEach [
+			val expected = dotImport.importDot(file)
+			val actual = dotStreamingImport.importDot(file)
+			expected.size.assertEquals(actual.size)
+			for (i : 0 ..< expected.size) {
+				prettyPrinter.prettyPrint(expected.get(i)).assertEquals(prettyPrinter.prettyPrint(actual.get(i)))
+			}
+		]
+	}
+
+	@Test def void raw_values_are_shared() {
+		val graph = dotStreamingImport.importDot(new StringReader('''
+			graph {
+				1[color=red]
+				2[color=red]
+			}
+		''')).head
+		val ID color = graph.nodes.head.colorRaw
+		color.assertSame(graph.nodes.last.colorRaw)
+		"red".assertEquals(graph.nodes.last.color)
+	}
+
+	@Test def void multiple_graphs() {
+		2.assertEquals(dotStreamingImport.importDot('''
+			graph { 1 }
+			digraph { 1 -> 2 }
+		''').size)
+	}
+
+	@Test(expected=IllegalArgumentException) def void invalid_graph() {
+		dotStreamingImport.importDot('''
+			graph Sample {
+		''')
+	}
+
+	private def assertSameAsDotImport(CharSequence dot) {
+		val expected = dotImport.importDot(dot.toString)
+		val actual = dotStreamingImport.importDot(dot.toString)
+		expected.size.assertEquals(actual.size)
+		for (i : 0 ..< expected.size) {
+			prettyPrinter.prettyPrint(expected.get(i)).assertEquals(prettyPrinter.prettyPrint(actual.get(i)))
+		}
+	}
+}
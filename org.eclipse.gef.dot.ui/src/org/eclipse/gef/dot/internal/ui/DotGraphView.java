@@ -434,10 +434,8 @@ public class DotGraphView extends ZestFxUiView implements IShowInTarget {
 		boolean isEmbeddedDotFile = !currentFile.getName()
 				.endsWith("." + EXTENSION); //$NON-NLS-1$
 
-		DotExtractor dotExtractor = null;
 		if (isEmbeddedDotFile) {
-			dotExtractor = new DotExtractor(currentFile);
-			currentDot = dotExtractor.getDotString();
+			currentDot = new DotExtractor(currentFile).getDotString();
 		} else {
 			currentDot = DotFileUtils.read(currentFile);
 		}
@@ -447,21 +445,9 @@ public class DotGraphView extends ZestFxUiView implements IShowInTarget {
 		// algorithms.
 		if (isNativeMode()) {
 			// System.out.println("[DOT Input] [" + currentDot + "]");
-			String[] result;
-			if (isEmbeddedDotFile) {
-				File tempDotFile = dotExtractor.getDotTempFile();
-				if (tempDotFile == null) {
-					return false;
-				}
-				result = DotExecutableUtils.executeDot(
-						new File(GraphvizPreferencePage.getDotExecutablePath()),
-						true, tempDotFile, null, null);
-				tempDotFile.delete();
-			} else {
-				result = DotExecutableUtils.executeDot(
-						new File(GraphvizPreferencePage.getDotExecutablePath()),
-						true, file, null, null);
-			}
+			String[] result = DotExecutableUtils.executeDot(
+					new File(GraphvizPreferencePage.getDotExecutablePath()),
+					true, currentDot, null);
 			currentDot = result[0];
 			// System.out.println("[DOT Output] [" + currentDot + "]");
 		}
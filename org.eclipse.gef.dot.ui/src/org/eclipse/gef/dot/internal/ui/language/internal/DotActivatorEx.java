@@ -8,9 +8,11 @@
  *
  * Contributors:
  *    Tamas Miklossy (itemis AG) - initial API and implementation
+ *    itemis AG                  - render cache within the state location
  *******************************************************************************/
 package org.eclipse.gef.dot.internal.ui.language.internal;
 
+import org.eclipse.gef.dot.internal.DotExecutableUtils;
 import org.eclipse.gef.dot.internal.language.color.DotColors;
 import org.eclipse.jface.resource.ImageRegistry;
 import org.eclipse.swt.SWT;
@@ -18,15 +20,34 @@ import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
+import org.osgi.framework.BundleContext;
 
 /**
  * This class extends the DotActivator class generated by the Xtext framework to
- * add additional functionality (e.g: Image Registry initializaiton). The
- * DotActivatorEx class should be registered in the MANIFEST.MF file as the
- * activator of the <i>org.eclipse.gef.dot.ui</i> plugin.
+ * add additional functionality (e.g: Image Registry initializaiton, enabling
+ * the render cache of {@link DotExecutableUtils}). The DotActivatorEx class
+ * should be registered in the MANIFEST.MF file as the activator of the
+ * <i>org.eclipse.gef.dot.ui</i> plugin.
  */
 public class DotActivatorEx extends DotActivator {
 
+	private static final String RENDER_CACHE_DIRECTORY = "renderCache"; //$NON-NLS-1$
+
+	@Override
+	public void start(BundleContext context) throws Exception {
+		super.start(context);
+		// cache the results of 'dot' within the (per user and workspace)
+		// state location of this plugin
+		DotExecutableUtils.setCacheDirectory(getStateLocation()
+				.append(RENDER_CACHE_DIRECTORY).toFile());
+	}
+
+	@Override
+	public void stop(BundleContext context) throws Exception {
+		DotExecutableUtils.setCacheDirectory(null);
+		super.stop(context);
+	}
+
 	@Override
 	protected void initializeImageRegistry(ImageRegistry reg) {
 		for (String colorScheme : DotColors.getColorSchemes()) {
@@ -18,12 +18,14 @@ import com.google.inject.Injector
 import java.io.StringReader
 import java.util.Collections
 import java.util.Iterator
+import java.util.LinkedHashMap
 import java.util.List
 import java.util.Map
 import org.eclipse.emf.common.util.BasicDiagnostic
 import org.eclipse.emf.common.util.Diagnostic
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.emf.ecore.EStructuralFeature
+import org.eclipse.emf.ecore.util.EcoreUtil
 import org.eclipse.gef.common.reflect.ReflectionUtils
 import org.eclipse.gef.dot.internal.generator.DotAttribute
 import org.eclipse.gef.dot.internal.language.DotArrowTypeStandaloneSetup
@@ -319,7 +321,44 @@ class DotAttributes {
 	 *         parsed.
 	 */
 	private static def <T> T parseAttributeValue(IAttributeValueParser<T> parser, String attributeValue) {
-		if (attributeValue === null) null else parser.parse(attributeValue).parsedValue
+		if (attributeValue === null) {
+			null
+		} else if (parser instanceof EObjectParser<?>) {
+			(parser as EObjectParser<?>).parseCached(attributeValue).parsedValue as T
+		} else {
+			parser.parse(attributeValue).parsedValue
+		}
+	}
+
+	/**
+	 * Returns the number of parsed attribute values that were retrieved from
+	 * the parse caches of the attribute grammars (e.g. of <code>pos</code>,
+	 * <code>color</code>, or <code>style</code>) since the caches were last
+	 * cleared.
+	 * 
+	 * @return The number of parse cache hits.
+	 */
+	static def long getParseCacheHits() {
+		EObjectParser.hits
+	}
+
+	/**
+	 * Returns the number of attribute values that had to be parsed because
+	 * they were not contained in the parse caches of the attribute grammars,
+	 * since the caches were last cleared.
+	 * 
+	 * @return The number of parse cache misses.
+	 */
+	static def long getParseCacheMisses() {
+		EObjectParser.misses
+	}
+
+	/**
+	 * Clears the parse caches of all attribute grammars and resets the
+	 * hit/miss statistics.
+	 */
+	static def void clearParseCaches() {
+		EObjectParser.clearCaches
 	}
 
 	// TODO: separate validation from parsing
@@ -562,14 +601,98 @@ class DotAttributes {
 		}
 	}
 
+	/**
+	 * Parses attribute values using an Xtext grammar. The results of
+	 * {@link #parseCached(String)} are memoized per grammar in a bounded
+	 * (least recently used) cache, keyed by the raw attribute value, so that
+	 * identical values (e.g. the same <code>color</code> used by many nodes)
+	 * are only parsed once. As the key is the raw value, writing an attribute
+	 * implicitly invalidates the parsed value that was retrieved for it.
+	 * 
+	 * @param <T>
+	 *            The type of the parsed values.
+	 */
 	private static class EObjectParser<T extends EObject> implements IAttributeValueParser<T> {
 
+		static val CACHE_SIZE = 4096
+		static val List<EObjectParser<?>> INSTANCES = newArrayList
+		static var long hits
+		static var long misses
+
 		val Injector injector
 		var IParser xtextParser
 		var Class<T> parsedType
+		val cache = new LinkedHashMap<String, IAttributeValueParser.ParseResult<T>>(16, 0.75f, true)
 
 		new(Injector injector) {
 			this.injector = injector
+			synchronized (INSTANCES) {
+				INSTANCES.add(this)
+			}
+		}
+
+		static def synchronized long getHits() {
+			hits
+		}
+
+		static def synchronized long getMisses() {
+			misses
+		}
+
+		static def void clearCaches() {
+			synchronized (INSTANCES) {
+				for (parser : INSTANCES) {
+					synchronized (parser.cache) {
+						parser.cache.clear
+					}
+				}
+			}
+			synchronized (EObjectParser) {
+				hits = 0
+				misses = 0
+			}
+		}
+
+		static def synchronized void count(boolean hit) {
+			if (hit) hits++ else misses++
+		}
+
+		/**
+		 * Parses the given attribute value, reusing the result of a previous
+		 * parse of an equal value if available. As parsed values may be
+		 * modified by clients, a copy of the cached value is returned. In
+		 * contrast to {@link #parse(String)}, the returned value is not
+		 * associated with an Xtext node model, so it should not be used for
+		 * validation.
+		 * 
+		 * @param attributeValue
+		 *            The attribute value to parse.
+		 * @return The {@link IAttributeValueParser.ParseResult}.
+		 */
+		def IAttributeValueParser.ParseResult<T> parseCached(String attributeValue) {
+			var IAttributeValueParser.ParseResult<T> result
+			synchronized (cache) {
+				result = cache.get(attributeValue)
+			}
+			count(result !== null)
+			if (result === null) {
+				result = parse(attributeValue)
+				val IAttributeValueParser.ParseResult<T> detached = if (result.hasSyntaxErrors) result else new IAttributeValueParser.ParseResult<T>(
+						EcoreUtil.copy(result.parsedValue))
+				synchronized (cache) {
+					cache.put(attributeValue, detached)
+					if (cache.size > CACHE_SIZE) {
+						val Iterator<String> eldest = cache.keySet.iterator
+						eldest.next
+						eldest.remove
+					}
+				}
+				return result
+			}
+			if (result.hasSyntaxErrors || result.parsedValue === null) {
+				return result
+			}
+			return new IAttributeValueParser.ParseResult<T>(EcoreUtil.copy(result.parsedValue))
 		}
 
 		@SuppressWarnings("unchecked")
@@ -696,7 +819,9 @@ class DotAttributes {
 
 		val Injector injector
 		var Class<? extends AbstractDeclarativeValidator> validatorClass
-		var AbstractDeclarativeValidator validator
+
+		// the message acceptor is set per validation, so that each thread needs its own validator
+		val ThreadLocal<AbstractDeclarativeValidator> validator = ThreadLocal.withInitial[injector.getInstance(validatorClass)]
 
 		new(Injector injector, Class<? extends AbstractDeclarativeValidator> validatorClass) {
 			this.injector = injector
@@ -704,11 +829,7 @@ class DotAttributes {
 		}
 
 		protected def AbstractDeclarativeValidator getValidator() {
-			if (validator === null) {
-				validator = injector.getInstance(validatorClass)
-			}
-			
-			validator
+			validator.get
 		}
 
 		override List<Diagnostic> validate(Context attributeContext, T attributeValue) {
@@ -1,5 +1,5 @@
 /********************************************************************************************
- * Copyright (c) 2009, 2017 Fabian Steeg, and others.
+ * Copyright (c) 2009, 2018 Fabian Steeg, and others.
  * 
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -15,19 +15,47 @@
  *     Darius Jockel (itemis AG)    - Fixed problems when calling dot on windows with large 
  *                                    files (#492395)
  *     Matthias Wienand (itemis AG) - Remove sysouts and return exception message (#521230)
+ *     itemis AG                    - Bounded process pool, opt-in render cache, and
+ *                                    memoized export formats
  *
  *********************************************************************************************/
 package org.eclipse.gef.dot.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
 /**
  * Class for drawing dot graphs by calling the dot executable.
+ * <p>
+ * The DOT input is passed to 'dot' via its standard input, and the results
+ * are read from its standard output. The number of concurrently running 'dot'
+ * processes is limited to the number of available processors, so that
+ * concurrent renders do not oversubscribe the machine. Optionally, successful
+ * results are cached on disk (see {@link #setCacheDirectory(File)}), keyed by
+ * a hash of the executable, the arguments, and the DOT input, so that repeated
+ * renders of unchanged DOT input do not call 'dot' again. The size of the cache
+ * is limited (see {@link #setCacheLimit(long)}), evicting the least recently
+ * used results. The supported export formats are determined once per
+ * executable.
  * 
  * @author Fabian Steeg (fsteeg)
  * @author Alexander Nyßen (anyssen)
@@ -36,10 +64,94 @@ import java.util.List;
  */
 final public class DotExecutableUtils {
 
+	private static final Semaphore PROCESSES = new Semaphore(
+			Runtime.getRuntime().availableProcessors(), true);
+
+	private static final Map<String, String[]> SUPPORTED_EXPORT_FORMATS = new ConcurrentHashMap<>();
+
+	/**
+	 * The default maximum size of the cached results in bytes.
+	 */
+	public static final long DEFAULT_CACHE_LIMIT = 64 << 20;
+
+	private static final String SUPPORTED_FORMATS_PREFIX = "Use one of:"; //$NON-NLS-1$
+
+	private static final String OUTPUT_EXTENSION = ".out"; //$NON-NLS-1$
+	private static final String ERRORS_EXTENSION = ".err"; //$NON-NLS-1$
+	private static final String TEMP_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+	private static final Object EVICTION_LOCK = new Object();
+
+	private static volatile File cacheDirectory = null;
+	private static volatile long cacheLimit = DEFAULT_CACHE_LIMIT;
+
 	private DotExecutableUtils() {
 		// should not be instantiated by clients
 	}
 
+	/**
+	 * Removes all cached 'dot' results and forgets the memoized export
+	 * formats.
+	 */
+	public static void clearCache() {
+		SUPPORTED_EXPORT_FORMATS.clear();
+		synchronized (EVICTION_LOCK) {
+			for (File entry : listCacheFiles(cacheDirectory, true)) {
+				entry.delete();
+			}
+		}
+	}
+
+	/**
+	 * Returns the directory in which the results of 'dot' are cached, or
+	 * <code>null</code> if caching is disabled. By default, caching is
+	 * disabled.
+	 * 
+	 * @return The cache directory, or <code>null</code>.
+	 */
+	public static File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	/**
+	 * Returns the maximum size of the cached results in bytes.
+	 * 
+	 * @return The maximum size of the cached results in bytes.
+	 */
+	public static long getCacheLimit() {
+		return cacheLimit;
+	}
+
+	/**
+	 * Sets the directory in which the results of 'dot' are cached. If
+	 * <code>null</code> is passed in, results are not cached. As the cached
+	 * results reveal the rendered DOT input, the directory should only be
+	 * accessible by the current user (e.g. the state location of a plug-in).
+	 * 
+	 * @param directory
+	 *            The new cache directory, or <code>null</code> to disable
+	 *            caching.
+	 */
+	public static void setCacheDirectory(File directory) {
+		cacheDirectory = directory;
+	}
+
+	/**
+	 * Sets the maximum size of the cached results in bytes. When it is
+	 * exceeded, the least recently used results are evicted.
+	 * 
+	 * @param limit
+	 *            The new maximum size of the cached results in bytes.
+	 */
+	public static void setCacheLimit(long limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException(
+					"The cache limit must not be negative."); //$NON-NLS-1$
+		}
+		cacheLimit = limit;
+		evict(cacheDirectory);
+	}
+
 	/**
 	 * @param dotExecutablePath
 	 *            The path of the local Graphviz 'dot' executable, e.g.
@@ -89,7 +201,7 @@ final public class DotExecutableUtils {
 	 * @param dotInputFile
 	 *            The input file to pass to 'dot'.
 	 * @param outputFile
-	 *            The output file to pass to 'dot' via the -o option. May be
+	 *            The output file to write the result of 'dot' to. May be
 	 *            <code>null</code>.
 	 * @param outputFormat
 	 *            The output format to pass to 'dot' via the -T option. May be
@@ -101,43 +213,134 @@ final public class DotExecutableUtils {
 	public static String[] executeDot(final File dotExecutablePath,
 			final boolean invertYAxis, final File dotInputFile,
 			final File outputFile, final String outputFormat) {
-		File buffer = null;
-		boolean hasBuffer = false;
+		byte[] dotInput;
+		try {
+			dotInput = Files.readAllBytes(dotInputFile.toPath());
+		} catch (IOException e) {
+			return new String[] { "", //$NON-NLS-1$
+					"Cannot read input file: " + e.getMessage() }; //$NON-NLS-1$
+		}
+		return executeDot(dotExecutablePath, invertYAxis, dotInput, outputFile,
+				outputFormat);
+	}
+
+	/**
+	 * Calls the Graphviz 'dot' executable for the given DOT input.
+	 * 
+	 * @param dotExecutablePath
+	 *            The path of the local Graphviz 'dot' executable, e.g.
+	 *            "C:\\Program Files (x86)\\Graphviz2.38\\bin\\dot.exe"
+	 * @param invertYAxis
+	 *            Whether to invert the y-axis or not.
+	 * @param dotInput
+	 *            The DOT input to pass to 'dot'.
+	 * @param outputFormat
+	 *            The output format to pass to 'dot' via the -T option. May be
+	 *            <code>null</code>.
+	 * @return A String array with two Strings, where the first contains the
+	 *         output of the input stream and the second contains the output of
+	 *         the error stream.
+	 */
+	public static String[] executeDot(final File dotExecutablePath,
+			final boolean invertYAxis, final String dotInput,
+			final String outputFormat) {
+		return executeDot(dotExecutablePath, invertYAxis,
+				dotInput.getBytes(StandardCharsets.UTF_8), null, outputFormat);
+	}
+
+	private static String[] executeDot(final File dotExecutablePath,
+			final boolean invertYAxis, final byte[] dotInput,
+			final File outputFile, final String outputFormat) {
 		List<String> commands = new ArrayList<>();
 		commands.add(dotExecutablePath.getAbsolutePath());
 		if (invertYAxis) {
-			commands.add("-y");
+			commands.add("-y"); //$NON-NLS-1$
 		}
 		if (outputFormat != null) {
-			commands.add("-T" + outputFormat);
+			commands.add("-T" + outputFormat); //$NON-NLS-1$
 		}
-		if (outputFile != null) {
-			buffer = outputFile;
-		} else {
+
+		// look up the cache first
+		String key = getCacheKey(dotExecutablePath, commands, dotInput);
+		File directory = cacheDirectory;
+		File cachedOutput = null;
+		File cachedErrors = null;
+		if (key != null && directory != null) {
+			cachedOutput = new File(directory, key + OUTPUT_EXTENSION);
+			cachedErrors = new File(directory, key + ERRORS_EXTENSION);
+			if (cachedOutput.exists() && cachedErrors.exists()) {
+				try {
+					byte[] output = Files.readAllBytes(cachedOutput.toPath());
+					byte[] errors = Files.readAllBytes(cachedErrors.toPath());
+					// mark the result as recently used
+					long now = System.currentTimeMillis();
+					cachedOutput.setLastModified(now);
+					cachedErrors.setLastModified(now);
+					return toResult(output, errors, outputFile);
+				} catch (IOException e) {
+					// fall back to calling dot
+				}
+			}
+		}
+
+		byte[][] call = call(commands.toArray(new String[] {}), dotInput);
+		String[] result = toResult(call[0], call[1], outputFile);
+		if (call[2] != null && cachedOutput != null) {
+			// only successful calls are cached
 			try {
-				buffer = File.createTempFile("tmpResult", ".dot");
-				hasBuffer = true;
+				directory.mkdirs();
+				store(call[0], cachedOutput);
+				store(call[1], cachedErrors);
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
+			evict(directory);
 		}
-		commands.add("-o" + buffer.toPath().toString());
-		commands.add(dotInputFile.toPath().toString());
-		String[] call = call(commands.toArray(new String[] {}));
-		if (hasBuffer) {
-			FileInputStream input;
-			try {
-				input = new FileInputStream(buffer);
-				call[0] = read(input);
-				input.close();
-			} catch (Exception e) {
-				System.out.println("failed to read temp dot file");
-			} finally {
-				buffer.delete();
+		return result;
+	}
+
+	/**
+	 * Removes the least recently used results from the given cache directory
+	 * until the size of the remaining results does not exceed the cache
+	 * limit.
+	 */
+	private static void evict(File directory) {
+		synchronized (EVICTION_LOCK) {
+			List<File> entries = listCacheFiles(directory, false);
+			long size = 0;
+			for (File entry : entries) {
+				size += entry.length();
+			}
+			if (size <= cacheLimit) {
+				return;
+			}
+			final Map<File, Long> lastModified = new HashMap<>();
+			for (File entry : entries) {
+				lastModified.put(entry, entry.lastModified());
+			}
+			Collections.sort(entries, new Comparator<File>() {
+				@Override
+				public int compare(File f1, File f2) {
+					return Long.compare(lastModified.get(f1),
+							lastModified.get(f2));
+				}
+			});
+			for (File entry : entries) {
+				if (size <= cacheLimit) {
+					break;
+				}
+				// remove both files of a result at once
+				String name = entry.getName();
+				String key = name.substring(0, name.lastIndexOf('.'));
+				for (File file : new File[] {
+						new File(directory, key + OUTPUT_EXTENSION),
+						new File(directory, key + ERRORS_EXTENSION) }) {
+					long length = file.length();
+					if (file.delete()) {
+						size -= length;
+					}
+				}
 			}
-			return call;
-		} else {
-			return call;
 		}
 	}
 
@@ -147,58 +350,193 @@ final public class DotExecutableUtils {
 	 * @return String array of the supported export formats
 	 */
 	public static String[] getSupportedExportFormats(String dotExecutable) {
-		String[] commands = { dotExecutable, "-T?" };
-		String[] outputs = call(commands);
-		String output = outputs[1];
-		if (!output.isEmpty()) {
-			String supportedFormats = output
-					.substring(output.lastIndexOf(": ") + 2);
-			supportedFormats = supportedFormats.trim();
-			return supportedFormats.split(" ");
-		} else {
-			return new String[] {};
+		File executable = new File(dotExecutable);
+		String key = executable.getAbsolutePath() + ":" //$NON-NLS-1$
+				+ executable.lastModified();
+		String[] supportedFormats = SUPPORTED_EXPORT_FORMATS.get(key);
+		if (supportedFormats == null) {
+			String[] commands = { dotExecutable, "-T?" }; //$NON-NLS-1$
+			byte[][] outputs = call(commands, new byte[0]);
+			// 'dot' answers: Format: "?" not recognized. Use one of: ...
+			String output = read(outputs[1]);
+			int formats = output.lastIndexOf(SUPPORTED_FORMATS_PREFIX);
+			// a failed probe is memoized as well, so that a missing or
+			// misconfigured executable is not called over and over again
+			supportedFormats = formats < 0 ? new String[] {}
+					: output.substring(
+							formats + SUPPORTED_FORMATS_PREFIX.length())
+							.trim().split(" "); //$NON-NLS-1$
+			SUPPORTED_EXPORT_FORMATS.put(key, supportedFormats);
 		}
+		return supportedFormats.clone();
 	}
 
 	/***
 	 * @param commands
 	 *            commands to be executed
-	 * @return String array with two Strings The first String contains the
-	 *         output of the input stream The second String contains the output
-	 *         of the error stream
+	 * @param input
+	 *            The input to pass to the standard input of the process.
+	 * @return An array with three elements: the output of the input stream,
+	 *         the output of the error stream, and a non-<code>null</code>
+	 *         value if the process terminated normally (exit value 0).
 	 */
-	private static String[] call(final String[] commands) {
-		// System.out.print("Calling '" + Arrays.asList(commands) + "'");
-		// //$NON-NLS-1$ //$NON-NLS-2$
-		String[] outputs = { "", "" };
-		Runtime runtime = Runtime.getRuntime();
+	private static byte[][] call(final String[] commands, final byte[] input) {
+		byte[][] outputs = { new byte[0], new byte[0], null };
 		Process p = null;
 		try {
-			p = runtime.exec(commands);
-			p.waitFor();
+			PROCESSES.acquire();
+			try {
+				p = new ProcessBuilder(commands).start();
+				final Process process = p;
+
+				// stdin and stderr are handled by separate threads, so that
+				// none of the pipes can block the process
+				final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+				Thread errorReader = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						copy(process.getErrorStream(), errors);
+					}
+				}, "dot stderr reader"); //$NON-NLS-1$
+				Thread inputWriter = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try (OutputStream stdin = process.getOutputStream()) {
+							stdin.write(input);
+						} catch (IOException e) {
+							// process terminated without reading its input
+						}
+					}
+				}, "dot stdin writer"); //$NON-NLS-1$
+				errorReader.start();
+				inputWriter.start();
+				ByteArrayOutputStream output = new ByteArrayOutputStream();
+				copy(p.getInputStream(), output);
+				inputWriter.join();
+				errorReader.join();
+				int exitValue = p.waitFor();
+				outputs[0] = output.toByteArray();
+				outputs[1] = errors.toByteArray();
+				if (exitValue == 0) {
+					outputs[2] = new byte[0];
+				}
+			} finally {
+				PROCESSES.release();
+			}
 		} catch (Throwable e) {
-			String exitValue = p != null ? Integer.toString(p.exitValue())
-					: "?";
-			String errorMessage = e.getMessage();
-			outputs[1] = "Cannot execute program: " + exitValue + ": "
-					+ errorMessage;
-		}
-		// handle input and error stream only if process succeeded.
-		if (p != null) {
-			String output = read(p.getInputStream());
-			outputs[0] = output;
-			String errors = read(p.getErrorStream());
-			outputs[1] = errors;
+			String exitValue = "?"; //$NON-NLS-1$
+			if (p != null) {
+				try {
+					exitValue = Integer.toString(p.exitValue());
+				} catch (IllegalThreadStateException ex) {
+					p.destroy();
+				}
+			}
+			outputs[1] = ("Cannot execute program: " + exitValue + ": " //$NON-NLS-1$ //$NON-NLS-2$
+					+ e.getMessage()).getBytes(StandardCharsets.UTF_8);
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
 		}
 		return outputs;
 	}
 
-	private static String read(InputStream is) {
+	private static void copy(InputStream is, OutputStream os) {
+		byte[] buffer = new byte[8192];
 		try {
-			return DotFileUtils.read(is);
+			int read = is.read(buffer);
+			while (read >= 0) {
+				os.write(buffer, 0, read);
+				read = is.read(buffer);
+			}
+			is.close();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		return "";
+	}
+
+	private static String getCacheKey(File dotExecutablePath,
+			List<String> commands, byte[] dotInput) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			// a changed executable invalidates its results
+			StringBuilder header = new StringBuilder();
+			header.append(dotExecutablePath.lastModified()).append('\n')
+					.append(dotExecutablePath.length()).append('\n');
+			for (String command : commands) {
+				header.append(command).append('\n');
+			}
+			digest.update(header.toString().getBytes(StandardCharsets.UTF_8));
+			digest.update(dotInput);
+			StringBuilder key = new StringBuilder();
+			for (byte b : digest.digest()) {
+				key.append(String.format("%02x", b)); //$NON-NLS-1$
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the files of the cached results within the given directory,
+	 * optionally including the temporary files of results that are currently
+	 * stored.
+	 */
+	private static List<File> listCacheFiles(File directory,
+			final boolean includeTemporary) {
+		File[] files = directory == null ? null
+				: directory.listFiles(new FileFilter() {
+					@Override
+					public boolean accept(File file) {
+						String name = file.getName();
+						return file.isFile() && (name.endsWith(OUTPUT_EXTENSION)
+								|| name.endsWith(ERRORS_EXTENSION)
+								|| includeTemporary
+										&& name.endsWith(TEMP_EXTENSION));
+					}
+				});
+		List<File> entries = new ArrayList<>();
+		if (files != null) {
+			Collections.addAll(entries, files);
+		}
+		return entries;
+	}
+
+	private static String read(byte[] bytes) {
+		if (bytes.length == 0) {
+			return ""; //$NON-NLS-1$
+		}
+		try {
+			return DotFileUtils.read(new ByteArrayInputStream(bytes));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return ""; //$NON-NLS-1$
+	}
+
+	private static void store(byte[] bytes, File file) throws IOException {
+		// write to a temporary file first, so that concurrent readers never
+		// see partially written entries
+		Path temp = Files.createTempFile(file.getParentFile().toPath(),
+				file.getName(), TEMP_EXTENSION);
+		Files.write(temp, bytes);
+		Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static String[] toResult(byte[] output, byte[] errors,
+			File outputFile) {
+		String[] result = { "", read(errors) }; //$NON-NLS-1$
+		if (outputFile == null) {
+			result[0] = read(output);
+		} else {
+			try {
+				Files.write(outputFile.toPath(), output);
+			} catch (IOException e) {
+				result[1] += "Cannot write output file: " + e.getMessage(); //$NON-NLS-1$
+			}
+		}
+		return result;
 	}
 }
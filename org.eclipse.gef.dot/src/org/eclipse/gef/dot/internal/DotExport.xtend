@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2017 itemis AG and others.
+ * Copyright (c) 2016, 2018 itemis AG and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -8,14 +8,20 @@
  * Contributors:
  *     Alexander Nyßen (itemis AG) - initial API and implementation
  *     Tamas Miklossy  (itemis AG) - minor refactorings
+ *     itemis AG                   - streaming export
  * 
  *******************************************************************************/
 package org.eclipse.gef.dot.internal
 
 import java.io.File
+import java.io.IOException
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util.Comparator
 import java.util.List
+import java.util.Map
 import org.eclipse.gef.common.attributes.IAttributeStore
-import org.eclipse.gef.dot.internal.language.dot.GraphType
+import org.eclipse.gef.dot.internal.language.dot.EdgeOp
 import org.eclipse.gef.dot.internal.language.terminals.ID
 import org.eclipse.gef.graph.Edge
 import org.eclipse.gef.graph.Graph
@@ -25,6 +31,9 @@ import static extension org.eclipse.gef.dot.internal.DotAttributes.*
 
 /**
  * A serializer that creates a Graphviz DOT string or file from a {@link Graph} with {@link DotAttributes}.
+ * The DOT statements are written incrementally, so that graphs can be
+ * exported to an {@link Appendable} (e.g. a {@link java.io.Writer}) or a file
+ * without keeping the complete DOT text in memory.
  * 
  * @author anyssen
  * 
@@ -37,88 +46,210 @@ class DotExport {
 
 	def String exportDot(List<Graph> graphs) {
 		val builder = new StringBuilder
+		graphs.exportDot(builder)
+		builder.toString
+	}
+
+	/**
+	 * Writes the DOT representation of the given {@link Graph} to the given
+	 * {@link Appendable}.
+	 * 
+	 * @param graph
+	 *            The {@link Graph} to export.
+	 * @param appendable
+	 *            The {@link Appendable} to write to.
+	 * @throws IOException
+	 *             In case the given {@link Appendable} throws an
+	 *             {@link IOException}.
+	 */
+	def void exportDot(Graph graph, Appendable appendable) throws IOException {
+		newArrayList(graph).exportDot(appendable)
+	}
+
+	/**
+	 * Writes the DOT representation of the given {@link Graph}s to the given
+	 * {@link Appendable}. The statements are written incrementally, so that
+	 * the DOT text of the graphs is never held in memory as a whole.
+	 * 
+	 * @param graphs
+	 *            The {@link Graph}s to export.
+	 * @param appendable
+	 *            The {@link Appendable} to write to.
+	 * @throws IOException
+	 *             In case the given {@link Appendable} throws an
+	 *             {@link IOException}.
+	 */
+	def void exportDot(List<Graph> graphs, Appendable appendable) throws IOException {
+		val writer = new DotWriter(appendable)
 		for (graph : graphs) {
 
 			// graph type is mandatory meta-attribute
-			if (graph.type === null) {
+			if (graph._getType === null) {
 				throw new IllegalArgumentException(
 					"The " + _TYPE__G + " attribute has to be set on the input graph " + graph + ".")
 			}
 
 			// node name is mandatory meta-attribute
-			if (graph.nodes.filter[nestedGraph === null].exists[!hasName]) {
+			if (graph.nodes.filter[nestedGraph === null].exists[attributes.get(_NAME__GNE) === null]) {
 				throw new IllegalArgumentException(
 					"The " + _NAME__GNE + " attribute has to be set for all nodes of the input graph " + graph + ".")
 			}
-			builder.append(graph.print)
+			writer.print(graph)
 		}
-		builder.toString
 	}
 
 	def File exportDot(Graph graph, String pathname) {
-		DotFileUtils.write(graph.exportDot, new File(pathname))
+		newArrayList(graph).exportDot(pathname)
 	}
 
 	def File exportDot(List<Graph> graphs, String pathname) {
-		DotFileUtils.write(graphs.exportDot, new File(pathname))
+		val file = new File(pathname)
+		try {
+			val writer = Files.newBufferedWriter(file.toPath, StandardCharsets.UTF_8)
+			try {
+				graphs.exportDot(writer)
+			} finally {
+				writer.close
+			}
+			file
+		} catch (IOException e) {
+			e.printStackTrace
+			null
+		}
 	}
 
-	private def String print(Graph it) '''
-		«type» «IF hasName»«name» «ENDIF»{
-			«IF hasNonMetaAttributes»
-				«printNonMetaAttributes(";")»
-			«ENDIF»
-			«nodes.map[print].join("; ")»
-			«FOR edge : edges»
-				«edge.name»«IF edge.hasNonMetaAttributes» [«edge.printNonMetaAttributes(",")»]«ENDIF»
-			«ENDFOR»
+	/**
+	 * Writes the DOT statements of graphs to an {@link Appendable}. The
+	 * (non-meta) attributes of each element are sorted within a buffer that is
+	 * reused for all elements.
+	 */
+	private static class DotWriter {
+
+		static val INDENTATION = "\t"
+
+		// orders attributes as their 'key=value' strings would be ordered
+		static val Comparator<Map.Entry<String, Object>> ATTRIBUTE_ORDER = [ e1, e2 |
+			val k1 = e1.key
+			val k2 = e2.key
+			for (i : 0 ..< Math.min(k1.length, k2.length)) {
+				if (k1.charAt(i) != k2.charAt(i)) {
+					return Character.compare(k1.charAt(i), k2.charAt(i))
+				}
+			}
+			if (k1.length == k2.length) {
+				e1.value.toString.compareTo(e2.value.toString)
+			} else if (k1.length < k2.length) {
+				Character.compare('=', k2.charAt(k1.length))
+			} else {
+				Character.compare(k1.charAt(k2.length), '=')
+			}
+		]
+
+		val Appendable out
+		val String lineSeparator = System.lineSeparator
+		val List<Map.Entry<String, Object>> buffer = newArrayList
+
+		new(Appendable out) {
+			this.out = out
 		}
-	'''
 
-	private def isMetaAttribute(String it) {
-		startsWith("_")
-	}
+		def void print(Graph it) throws IOException {
+			out.append(_getType.toString).append(" ")
+			if (hasName) {
+				out.append(name).append(" ")
+			}
+			out.append("{").append(lineSeparator)
+			printStatements(INDENTATION)
+			out.append("}").append(lineSeparator)
+		}
+
+		private def void printStatements(Graph it, String indentation) throws IOException {
+			if (hasNonMetaAttributes) {
+				out.append(indentation)
+				printNonMetaAttributes(";")
+				out.append(lineSeparator)
+			}
+			if (!nodes.empty) {
+				out.append(indentation)
+				var first = true
+				for (node : nodes) {
+					if (!first) {
+						out.append("; ")
+					}
+					first = false
+					node.print(indentation)
+				}
+				out.append(lineSeparator)
+			}
+			for (edge : edges) {
+				out.append(indentation).append(edge.source.name).append(edge.edgeOp).append(edge.target.name)
+				if (edge.hasNonMetaAttributes) {
+					out.append(" [")
+					edge.printNonMetaAttributes(",")
+					out.append("]")
+				}
+				out.append(lineSeparator)
+			}
+		}
 
-	private def String print(Node it) {
-		if (nestedGraph !== null) {
-			'''
-			subgraph «IF nestedGraph.hasName»«nestedGraph.name» «ENDIF»{
-				«IF nestedGraph.hasNonMetaAttributes»
-					«nestedGraph.printNonMetaAttributes(";")»
-				«ENDIF»
-				«nestedGraph.nodes.map[print].join("; ")»
-				«FOR edge : nestedGraph.edges»
-					«edge.name»«IF edge.hasNonMetaAttributes» [«edge.printNonMetaAttributes(",")»]«ENDIF»
-				«ENDFOR»
-			}'''
-		} else {
-			name + if(hasNonMetaAttributes) " [" + printNonMetaAttributes(",") + "]" else ""
+		private def void print(Node it, String indentation) throws IOException {
+			if (nestedGraph !== null) {
+				out.append("subgraph ")
+				if (nestedGraph.hasName) {
+					out.append(nestedGraph.name).append(" ")
+				}
+				out.append("{").append(lineSeparator)
+				nestedGraph.printStatements(indentation + INDENTATION)
+				out.append(indentation).append("}")
+			} else {
+				out.append(name)
+				if (hasNonMetaAttributes) {
+					out.append(" [")
+					printNonMetaAttributes(",")
+					out.append("]")
+				}
+			}
 		}
-	}
 
-	private def hasName(IAttributeStore it) {
-		attributes.get(_NAME__GNE) !== null
-	}
+		private def String edgeOp(Edge it) {
+			switch graph?.rootGraph?._getType {
+				case GRAPH: EdgeOp.UNDIRECTED.literal
+				case DIGRAPH: EdgeOp.DIRECTED.literal
+			}
+		}
 
-	private def GraphType type(Graph it) {
-		_getType
-	}
+		private def isMetaAttribute(String it) {
+			startsWith("_")
+		}
 
-	private def dispatch String name(IAttributeStore it) {
-		(attributes.get(_NAME__GNE) as ID).toValue
-	}
+		private def hasName(IAttributeStore it) {
+			attributes.get(_NAME__GNE) !== null
+		}
 
-	private def dispatch String name(Edge it) {
-		_getName
-	}
+		private def String name(IAttributeStore it) {
+			(attributes.get(_NAME__GNE) as ID).toValue
+		}
 
-	private def hasNonMetaAttributes(IAttributeStore it) {
+		private def hasNonMetaAttributes(IAttributeStore it) {
 
-		// filter out properties that are prefixed with "_" as these do not match attributes
-		attributes.keySet.exists[!isMetaAttribute]
-	}
+			// filter out properties that are prefixed with "_" as these do not match attributes
+			attributes.keySet.exists[!isMetaAttribute]
+		}
 
-	private def printNonMetaAttributes(IAttributeStore it, String separator) {
-		attributes.entrySet.filter[!key.isMetaAttribute].map[key + '=' + value.toString].sort.join(separator + " ")
+		private def void printNonMetaAttributes(IAttributeStore store, String separator) throws IOException {
+			for (entry : store.attributes.entrySet) {
+				if (!entry.key.isMetaAttribute) {
+					buffer += entry
+				}
+			}
+			buffer.sortInplace(ATTRIBUTE_ORDER)
+			for (i : 0 ..< buffer.size) {
+				if (i > 0) {
+					out.append(separator).append(" ")
+				}
+				out.append(buffer.get(i).key).append("=").append(buffer.get(i).value.toString)
+			}
+			buffer.clear
+		}
 	}
 }
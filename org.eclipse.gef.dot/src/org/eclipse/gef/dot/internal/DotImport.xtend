@@ -10,6 +10,7 @@
  *     Tamas Miklossy     (itemis AG) - Merge DotInterpreter into DotImport (bug #491261)
  *                                    - Add support for all dot attributes (bug #461506)
  *     Zoey Gerrit Prigge (itemis AG) - Add support for all dot attributes (bug #461506)
+ *     itemis AG                      - Parallel import and validation
  * 
  *******************************************************************************/
 package org.eclipse.gef.dot.internal
@@ -17,8 +18,14 @@ package org.eclipse.gef.dot.internal
 import com.google.inject.Inject
 import java.io.File
 import java.io.StringReader
+import java.util.HashMap
 import java.util.List
 import java.util.Map
+import java.util.Set
+import java.util.concurrent.Callable
+import java.util.concurrent.ForkJoinTask
+import java.util.stream.Collectors
+import org.eclipse.emf.common.util.Diagnostic
 import org.eclipse.gef.dot.internal.language.DotStandaloneSetup
 import org.eclipse.gef.dot.internal.language.dot.AttrList
 import org.eclipse.gef.dot.internal.language.dot.AttrStmt
@@ -41,6 +48,7 @@ import org.eclipse.xtext.parser.IParser
 
 import static extension org.eclipse.gef.dot.internal.DotAttributes.*
 import static extension org.eclipse.gef.dot.internal.language.DotAstHelper.*
+import static extension org.eclipse.xtext.EcoreUtil2.*
 
 /**
  * A parser that creates a {@link Graph} with {@link DotAttributes} from a Graphviz DOT string or file.
@@ -48,12 +56,23 @@ import static extension org.eclipse.gef.dot.internal.language.DotAstHelper.*
  * Subgraphs (including clusters) are represented by a {@link Node} with a nested {@link Graph}, 
  * where the graph holds all attributes (like the name). If a node is used in multiple (sub-)graphs, 
  * it will be contained in the graph where it is defined (first occurrence).
+ * <p>
+ * The top-level graphs of a DOT input are imported concurrently, as are the
+ * subgraphs (including clusters) that are independent of the rest of their
+ * graph, i.e. that do not share any nodes or subgraphs with other statements.
+ * The importer may be used by multiple threads at once.
  * 
  * @author anyssen
  * 
  */
 class DotImport {
 
+	/**
+	 * The minimum number of nodes and subgraphs an independent subgraph has to
+	 * refer to, so that it is imported concurrently.
+	 */
+	static val MIN_PARALLEL_SUBGRAPH_SIZE = 64
+
 	@Inject
 	var static IParser dotParser
 	
@@ -84,7 +103,31 @@ class DotImport {
 	
 	def List<Graph> importDot(DotAst dotAst) {
 		// TODO: use validator to semantically validate
-		dotAst.graphs.map[transformDotGraph].filterNull.toList
+		if (dotAst.graphs.size < 2) {
+			return dotAst.graphs.map[new DotImport().transformDotGraph(it)].filterNull.toList
+		}
+
+		// each graph is transformed by a separate importer (with its own
+		// create caches), so that the graphs can be transformed concurrently
+		dotAst.graphs.parallelStream.map[new DotImport().transformDotGraph(it)].filter[it !== null].collect(
+			Collectors.toList)
+	}
+
+	/**
+	 * Semantically validates the values of all attributes of the given
+	 * {@link DotAst} using
+	 * {@link DotAttributes#validateAttributeRawValue(DotAttributes.Context, String, ID)}.
+	 * The attributes are validated concurrently, and the diagnostics are
+	 * returned in the order of the attributes within the {@link DotAst}.
+	 * 
+	 * @param dotAst
+	 *            The {@link DotAst} to validate.
+	 * @return The merged {@link Diagnostic}s of all attributes.
+	 */
+	def List<Diagnostic> validateDot(DotAst dotAst) {
+		dotAst.getAllContentsOfType(Attribute).parallelStream.filter[value !== null].map [
+			validateAttributeRawValue(context, name.toValue, value)
+		].flatMap[stream].collect(Collectors.toList)
 	}
 
 	private def Map<String, ID> create newHashMap globalGraphAttributes(Graph.Builder context) {
@@ -118,8 +161,26 @@ class DotImport {
 		// type (meta-attribute)
 		graphBuilder.attr(_TYPE__G, type)
 
-		// process all statements except for graph attributes, they will be processed later
-		stmts.filter[!(it instanceof Attribute)].forEach[transformStmt(graphBuilder)]
+		// process all statements except for graph attributes, they will be processed later;
+		// independent subgraphs are transformed concurrently
+		val parallelSubgraphs = independentSubgraphs
+		val List<ForkJoinTask<Graph>> subgraphTasks = newArrayList
+		val List<Node> subgraphNodes = newArrayList
+		stmts.filter[!(it instanceof Attribute)].forEach [
+			if (parallelSubgraphs.contains(it)) {
+				val subgraphNode = new Node.Builder().buildNode
+				graphBuilder.nodes(subgraphNode)
+				subgraphNodes += subgraphNode
+				subgraphTasks += forkSubgraph(it as Subgraph, graphBuilder)
+			} else {
+				transformStmt(graphBuilder)
+			}
+		]
+		for (i : 0 ..< subgraphTasks.size) {
+			val subgraph = subgraphTasks.get(i).join
+			subgraphNodes.get(i).nestedGraph = subgraph
+			subgraph.nestingNode = subgraphNodes.get(i)
+		}
 
 		// process the graph last, so we can initialize attributes of the
 		// created graph object rather than using the builder we can thus
@@ -271,20 +332,10 @@ class DotImport {
 		val subgraphBuilder = new Graph.Builder
 		val subgraphNode = if(name === null) System::identityHashCode(subgraphBuilder).toString.createSubgraph else name.toValue.createSubgraph
 
-		if (name !== null) {
-			subgraphBuilder.attr(_NAME__GNE, name)
-		}
-
 		// We evaluate global attributes from 'outer' scopes, by transferring global graph (applicable to subgraph, cluster), 
 		// node, and edge attributes as initial global attributes of the nested graph process all statements.
-		globalGraphAttributes(subgraphBuilder).putAll(globalGraphAttributes(graphBuilder))
-		globalNodeAttributes(subgraphBuilder).putAll(globalNodeAttributes(graphBuilder))
-		globalEdgeAttributes(subgraphBuilder).putAll(globalEdgeAttributes(graphBuilder))
-		
-		// process all statements
-		stmts.forEach[transformStmt(subgraphBuilder)]
-
-		val subgraph = subgraphBuilder.build
+		val subgraph = transformSubgraph(subgraphBuilder, globalGraphAttributes(graphBuilder),
+			globalNodeAttributes(graphBuilder), globalEdgeAttributes(graphBuilder))
 
 		if (!isExistingSubgraph) {
 			subgraphNode.nestedGraph = subgraph
@@ -297,6 +348,22 @@ class DotImport {
 			subgraphNode.nestedGraph.nodes.addAll(subgraph.nodes.filter[!subgraphNode.nestedGraph.nodes.contains(it)])
 			subgraphNode.nestedGraph.edges.addAll(subgraph.edges.filter[!subgraphNode.nestedGraph.nodes.contains(it)])
 		}
+	}
+
+	private def Graph transformSubgraph(Subgraph it, Graph.Builder subgraphBuilder,
+		Map<String, ID> graphAttributes, Map<String, ID> nodeAttributes, Map<String, ID> edgeAttributes) {
+		if (name !== null) {
+			subgraphBuilder.attr(_NAME__GNE, name)
+		}
+
+		globalGraphAttributes(subgraphBuilder).putAll(graphAttributes)
+		globalNodeAttributes(subgraphBuilder).putAll(nodeAttributes)
+		globalEdgeAttributes(subgraphBuilder).putAll(edgeAttributes)
+
+		// process all statements
+		stmts.forEach[transformStmt(subgraphBuilder)]
+
+		val subgraph = subgraphBuilder.build
 
 		// apply all global cluster and subgraph attributes to subgraph
 		val setter = [ String attributeName, (Graph, ID)=>void f |
@@ -317,6 +384,66 @@ class DotImport {
 		setter.apply(LABEL__GCNE, [g, value|g.setLabelRaw(value)])
 		setter.apply(RANK__S, [g, value|g.setRankRaw(value)])
 		setter.apply(TOOLTIP__CNE, [g, value|g.setTooltipRaw(value)])
+
+		subgraph
+	}
+
+	/**
+	 * Transforms the given subgraph concurrently, using a separate importer.
+	 * The global attributes of the given graph builder are copied, so that
+	 * later attribute statements do not affect the subgraph.
+	 */
+	private def ForkJoinTask<Graph> forkSubgraph(Subgraph subgraph, Graph.Builder graphBuilder) {
+		val Map<String, ID> graphAttributes = new HashMap<String, ID>(globalGraphAttributes(graphBuilder))
+		val Map<String, ID> nodeAttributes = new HashMap<String, ID>(globalNodeAttributes(graphBuilder))
+		val Map<String, ID> edgeAttributes = new HashMap<String, ID>(globalEdgeAttributes(graphBuilder))
+		ForkJoinTask.adapt([|
+			new DotImport().transformSubgraph(subgraph, new Graph.Builder, graphAttributes, nodeAttributes,
+				edgeAttributes)
+		] as Callable<Graph>).fork
+	}
+
+	/**
+	 * Determines the subgraph statements of the given graph that can be
+	 * transformed independently of all other statements, because none of the
+	 * nodes and subgraphs they refer to is referred to by another statement.
+	 */
+	private def Set<Subgraph> independentSubgraphs(DotGraph it) {
+		val subgraphs = stmts.filter(Subgraph).toList
+		if (subgraphs.size < 2) {
+			return emptySet
+		}
+
+		// count the statements that refer to each node and subgraph name
+		val Map<String, Integer> references = newHashMap
+		val Map<Stmt, Set<String>> referencedNames = newHashMap
+		for (stmt : stmts) {
+			val names = stmt.referencedNames
+			referencedNames.put(stmt, names)
+			for (name : names) {
+				val count = references.get(name)
+				references.put(name, if(count === null) 1 else count + 1)
+			}
+		}
+		subgraphs.filter [
+			val names = referencedNames.get(it)
+			names.size >= MIN_PARALLEL_SUBGRAPH_SIZE && names.forall[references.get(it) == 1]
+		].toSet
+	}
+
+	private def Set<String> referencedNames(Stmt stmt) {
+		val Set<String> names = newHashSet
+		for (nodeId : stmt.getAllContentsOfType(NodeId)) {
+			names += "node:" + nodeId.name.toValue
+		}
+		val subgraphs = stmt.getAllContentsOfType(Subgraph)
+		if (stmt instanceof Subgraph) {
+			subgraphs += stmt as Subgraph
+		}
+		for (subgraph : subgraphs.filter[name !== null]) {
+			names += "subgraph:" + subgraph.name.toValue
+		}
+		names
 	}
 
 	private def create new Node.Builder().buildNode() createSubgraph(String subgraphName) {
@@ -0,0 +1,841 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.dot.internal;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.gef.dot.internal.language.dot.GraphType;
+import org.eclipse.gef.dot.internal.language.terminals.ID;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A streaming variant of {@link DotImport}, which creates {@link Graph}s with
+ * {@link DotAttributes} from a Graphviz DOT {@link Reader}, string, or file.
+ * <p>
+ * In contrast to {@link DotImport}, the input is not parsed into an Xtext/EMF
+ * AST (including its node model). Instead, it is read through a hand-written
+ * lexer with a fixed size character buffer, and the {@link Graph},
+ * {@link Node}, and {@link Edge} objects are created directly, so that the
+ * memory consumption is proportional to the created graphs only. The
+ * attribute values are stored as raw {@link ID}s (equal values share a single
+ * instance); they are neither parsed nor validated during the import, but
+ * only when they are retrieved via the (parsed) getters of
+ * {@link DotAttributes}.
+ * <p>
+ * The created {@link Graph}s have the same structure as those created by
+ * {@link DotImport}. Like {@link DotImport}, edge statements that refer to
+ * subgraphs are not supported.
+ */
+public class DotStreamingImport {
+
+	private static final String[] GRAPH_ATTRIBUTES = {
+			DotAttributes.BB__GC, DotAttributes.BGCOLOR__GC,
+			DotAttributes.CLUSTERRANK__G, DotAttributes.FONTCOLOR__GCNE,
+			DotAttributes.FONTNAME__GCNE, DotAttributes.FONTSIZE__GCNE,
+			DotAttributes.LABEL__GCNE, DotAttributes.LAYOUT__G,
+			DotAttributes.OUTPUTORDER__G, DotAttributes.PAGEDIR__G,
+			DotAttributes.RANKDIR__G, DotAttributes.SPLINES__G };
+
+	private static final String[] SUBGRAPH_ATTRIBUTES = {
+			DotAttributes.BB__GC, DotAttributes.BGCOLOR__GC,
+			DotAttributes.FONTCOLOR__GCNE, DotAttributes.FONTNAME__GCNE,
+			DotAttributes.FONTSIZE__GCNE, DotAttributes.LABEL__GCNE,
+			DotAttributes.RANK__S, DotAttributes.TOOLTIP__CNE };
+
+	private static final String[] NODE_ATTRIBUTES = { DotAttributes.COLOR__CNE,
+			DotAttributes.COLORSCHEME__GCNE, DotAttributes.DISTORTION__N,
+			DotAttributes.FILLCOLOR__CNE, DotAttributes.FIXEDSIZE__N,
+			DotAttributes.FONTCOLOR__GCNE, DotAttributes.FONTNAME__GCNE,
+			DotAttributes.FONTSIZE__GCNE, DotAttributes.HEIGHT__N,
+			DotAttributes.ID__GCNE, DotAttributes.LABEL__GCNE,
+			DotAttributes.POS__NE, DotAttributes.SHAPE__N,
+			DotAttributes.SIDES__N, DotAttributes.SKEW__N,
+			DotAttributes.STYLE__GCNE, DotAttributes.TOOLTIP__CNE,
+			DotAttributes.WIDTH__N, DotAttributes.XLABEL__NE,
+			DotAttributes.XLP__NE };
+
+	private static final String[] EDGE_ATTRIBUTES = {
+			DotAttributes.ARROWHEAD__E, DotAttributes.ARROWSIZE__E,
+			DotAttributes.ARROWTAIL__E, DotAttributes.COLOR__CNE,
+			DotAttributes.COLORSCHEME__GCNE, DotAttributes.DIR__E,
+			DotAttributes.EDGETOOLTIP__E, DotAttributes.FILLCOLOR__CNE,
+			DotAttributes.FONTCOLOR__GCNE, DotAttributes.FONTNAME__GCNE,
+			DotAttributes.FONTSIZE__GCNE, DotAttributes.HEAD_LP__E,
+			DotAttributes.HEADLABEL__E, DotAttributes.HEADPORT__E,
+			DotAttributes.HEADTOOLTIP__E, DotAttributes.ID__GCNE,
+			DotAttributes.LABEL__GCNE, DotAttributes.LABELFONTCOLOR__E,
+			DotAttributes.LABELFONTNAME__E, DotAttributes.LABELFONTSIZE__E,
+			DotAttributes.LABELTOOLTIP__E, DotAttributes.LP__GCE,
+			DotAttributes.POS__NE, DotAttributes.STYLE__GCNE,
+			DotAttributes.TAILLABEL__E, DotAttributes.TAILPORT__E,
+			DotAttributes.TAILTOOLTIP__E, DotAttributes.TAIL_LP__E,
+			DotAttributes.TOOLTIP__CNE, DotAttributes.XLABEL__NE,
+			DotAttributes.XLP__NE };
+
+	private static final Set<String> NODE_ATTRIBUTE_NAMES = new HashSet<>(
+			Arrays.asList(NODE_ATTRIBUTES));
+
+	/**
+	 * The canonical instances of all imported attribute names, used to
+	 * discard attributes that are not imported, and to share the name strings
+	 * between all elements.
+	 */
+	private static final Map<String, String> ATTRIBUTE_NAMES = new HashMap<>();
+
+	static {
+		for (String[] names : new String[][] { GRAPH_ATTRIBUTES,
+				SUBGRAPH_ATTRIBUTES, NODE_ATTRIBUTES, EDGE_ATTRIBUTES }) {
+			for (String name : names) {
+				ATTRIBUTE_NAMES.put(name, name);
+			}
+		}
+	}
+
+	/**
+	 * Imports the graphs of the given DOT file, which is read as UTF-8.
+	 *
+	 * @param dotFile
+	 *            The DOT file to import.
+	 * @return The imported {@link Graph}s.
+	 * @throws IOException
+	 *             In case the file could not be read.
+	 * @throws IllegalArgumentException
+	 *             In case the file is not a valid DOT file.
+	 */
+	public List<Graph> importDot(File dotFile) throws IOException {
+		try (Reader reader = new InputStreamReader(
+				new BufferedInputStream(new FileInputStream(dotFile)),
+				StandardCharsets.UTF_8)) {
+			return importDot(reader);
+		}
+	}
+
+	/**
+	 * Imports the graphs of the given DOT {@link Reader}. The reader is not
+	 * closed.
+	 *
+	 * @param dotReader
+	 *            The {@link Reader} that provides the DOT input.
+	 * @return The imported {@link Graph}s.
+	 * @throws IOException
+	 *             In case the input could not be read.
+	 * @throws IllegalArgumentException
+	 *             In case the input is not valid DOT.
+	 */
+	public List<Graph> importDot(Reader dotReader) throws IOException {
+		return new Parser(dotReader).parseDotAst();
+	}
+
+	/**
+	 * Imports the graphs of the given DOT string.
+	 *
+	 * @param dotString
+	 *            The DOT string to import.
+	 * @return The imported {@link Graph}s.
+	 * @throws IllegalArgumentException
+	 *             In case the given string is not valid DOT.
+	 */
+	public List<Graph> importDot(String dotString) {
+		try {
+			return importDot(new StringReader(dotString));
+		} catch (IOException e) {
+			// cannot happen for a StringReader
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The global attributes (set via <code>graph</code>, <code>node</code>,
+	 * and <code>edge</code> attribute statements) and the graph attributes
+	 * (set via <code>name=value</code> statements) of a (sub-)graph.
+	 */
+	private static final class Scope {
+		private final Map<String, ID> attributes = new HashMap<>();
+		private final Map<String, ID> graphAttributes;
+		private final Map<String, ID> nodeAttributes;
+		private final Map<String, ID> edgeAttributes;
+
+		private Scope(Scope outer) {
+			if (outer == null) {
+				graphAttributes = new HashMap<>();
+				nodeAttributes = new HashMap<>();
+				edgeAttributes = new HashMap<>();
+			} else {
+				// global attributes of outer scopes are inherited
+				graphAttributes = new HashMap<>(outer.graphAttributes);
+				nodeAttributes = new HashMap<>(outer.nodeAttributes);
+				edgeAttributes = new HashMap<>(outer.edgeAttributes);
+			}
+		}
+
+		private void apply(String[] names, Graph.Builder graphBuilder) {
+			for (String name : names) {
+				ID value = attributes.get(name);
+				if (value == null) {
+					value = graphAttributes.get(name);
+				}
+				if (value != null) {
+					graphBuilder.attr(name, value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A recursive descent parser for the DOT language, combined with a
+	 * hand-written lexer. One instance is used per import, so that
+	 * {@link DotStreamingImport} can be used concurrently.
+	 */
+	private static final class Parser {
+
+		private static final int EOF = 0;
+		private static final int ID_TOKEN = 1;
+		private static final int LBRACE = 2;
+		private static final int RBRACE = 3;
+		private static final int LBRACKET = 4;
+		private static final int RBRACKET = 5;
+		private static final int EQUALS = 6;
+		private static final int SEMICOLON = 7;
+		private static final int COMMA = 8;
+		private static final int COLON = 9;
+		private static final int EDGE_OP = 10;
+		private static final int STRICT = 11;
+		private static final int GRAPH = 12;
+		private static final int DIGRAPH = 13;
+		private static final int SUBGRAPH = 14;
+		private static final int NODE = 15;
+		private static final int EDGE = 16;
+
+		private static final int BUFFER_SIZE = 8192;
+
+		private final Reader reader;
+		private final char[] buffer = new char[BUFFER_SIZE];
+		private int position;
+		private int limit;
+		private boolean endOfInput;
+		private int line = 1;
+
+		// the current token
+		private int token;
+		private ID.Type idType;
+		private final StringBuilder text = new StringBuilder();
+
+		// shared raw values, and the nodes and named subgraphs of the
+		// current (top-level) graph
+		private final Map<String, ID> values = new HashMap<>();
+		private final Map<String, Node> nodes = new HashMap<>();
+		private final Map<String, Node> subgraphs = new HashMap<>();
+
+		// reused for node and edge statements
+		private final Map<String, ID> localAttributes = new HashMap<>();
+		private final List<Node> edgeNodes = new ArrayList<>();
+
+		private Parser(Reader reader) {
+			this.reader = reader;
+		}
+
+		private void createEdges(Scope scope, Graph.Builder graphBuilder) {
+			Node sourceNode = null;
+			for (Node targetNode : edgeNodes) {
+				if (sourceNode != null) {
+					Edge edge = new Edge(sourceNode, targetNode);
+					Map<String, Object> attributes = edge.getAttributes();
+					for (String name : EDGE_ATTRIBUTES) {
+						ID value = localAttributes.get(name);
+						if (value == null) {
+							value = scope.edgeAttributes.get(name);
+						}
+						if (value != null) {
+							attributes.put(name, value);
+						}
+					}
+					graphBuilder.edges(edge);
+				}
+				sourceNode = targetNode;
+			}
+		}
+
+		private Node createNode(ID name, Scope scope,
+				Graph.Builder graphBuilder) {
+			String key = name.toValue();
+			Node node = nodes.get(key);
+			boolean isExistingNode = node != null;
+			if (!isExistingNode) {
+				node = new Node();
+				node.getAttributes().put(DotAttributes._NAME__GNE, name);
+				nodes.put(key, node);
+				graphBuilder.nodes(node);
+			}
+			Map<String, Object> attributes = node.getAttributes();
+			for (Map.Entry<String, ID> entry : localAttributes.entrySet()) {
+				if (NODE_ATTRIBUTE_NAMES.contains(entry.getKey())) {
+					attributes.put(entry.getKey(), entry.getValue());
+				}
+			}
+			if (!isExistingNode) {
+				// consider the global node attributes only if the node has
+				// just been created
+				for (Map.Entry<String, ID> entry : scope.nodeAttributes
+						.entrySet()) {
+					if (NODE_ATTRIBUTE_NAMES.contains(entry.getKey())
+							&& !localAttributes.containsKey(entry.getKey())) {
+						attributes.put(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+			return node;
+		}
+
+		private IllegalArgumentException error(String expected) {
+			String found;
+			switch (token) {
+			case EOF:
+				found = "end of input";
+				break;
+			default:
+				found = "'" + text + "'";
+			}
+			return new IllegalArgumentException(
+					"Given DOT string is not valid: line " + line + ": expected "
+							+ expected + " but found " + found + ".");
+		}
+
+		private void expect(int expectedToken, String expected)
+				throws IOException {
+			if (token != expectedToken) {
+				throw error(expected);
+			}
+			next();
+		}
+
+		private ID expectId() throws IOException {
+			if (token != ID_TOKEN) {
+				throw error("ID");
+			}
+			ID id = id();
+			next();
+			return id;
+		}
+
+		private boolean fill(int count) throws IOException {
+			while (limit - position < count && !endOfInput) {
+				if (position > 0) {
+					System.arraycopy(buffer, position, buffer, 0,
+							limit - position);
+					limit -= position;
+					position = 0;
+				}
+				int read = reader.read(buffer, limit, buffer.length - limit);
+				if (read < 0) {
+					endOfInput = true;
+				} else {
+					limit += read;
+				}
+			}
+			return limit - position >= count;
+		}
+
+		private ID id() {
+			String string = text.toString();
+			ID id = values.get(string);
+			if (id == null || id.getType() != idType) {
+				id = ID.fromString(string, idType);
+				values.put(string, id);
+			}
+			return id;
+		}
+
+		private static boolean isDigit(int c) {
+			return c >= '0' && c <= '9';
+		}
+
+		private static boolean isStringStart(int c) {
+			return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_'
+					|| c >= '\u0080';
+		}
+
+		private int la(int offset) throws IOException {
+			return fill(offset + 1) ? buffer[position + offset] : -1;
+		}
+
+		private void lexHtml() throws IOException {
+			int depth = 0;
+			do {
+				int c = read();
+				if (c < 0) {
+					token = EOF;
+					throw error("'>'");
+				}
+				text.append((char) c);
+				if (c == '<') {
+					depth++;
+				} else if (c == '>') {
+					depth--;
+				}
+			} while (depth > 0);
+			token = ID_TOKEN;
+			idType = ID.Type.HTML_STRING;
+		}
+
+		private void lexNumeral() throws IOException {
+			if (la(0) == '-') {
+				text.append((char) read());
+			}
+			boolean digits = false;
+			while (isDigit(la(0))) {
+				text.append((char) read());
+				digits = true;
+			}
+			if (la(0) == '.') {
+				text.append((char) read());
+				while (isDigit(la(0))) {
+					text.append((char) read());
+					digits = true;
+				}
+			}
+			if (!digits) {
+				token = ID_TOKEN;
+				throw error("numeral");
+			}
+			token = ID_TOKEN;
+			idType = ID.Type.NUMERAL;
+		}
+
+		private void lexQuotedString() throws IOException {
+			text.append((char) read());
+			while (true) {
+				int c = read();
+				if (c < 0) {
+					token = EOF;
+					throw error("'\"'");
+				}
+				text.append((char) c);
+				if (c == '"') {
+					break;
+				}
+				if (c == '\\' && la(0) == '"') {
+					text.append((char) read());
+				}
+			}
+			token = ID_TOKEN;
+			idType = ID.Type.QUOTED_STRING;
+		}
+
+		private void lexString() throws IOException {
+			int c = la(0);
+			while (isStringStart(c) || isDigit(c)) {
+				text.append((char) read());
+				c = la(0);
+			}
+			token = ID_TOKEN;
+			idType = ID.Type.STRING;
+			// keywords are case insensitive
+			switch (text.length()) {
+			case 4:
+				token = keyword("node", NODE);
+				if (token == ID_TOKEN) {
+					token = keyword("edge", EDGE);
+				}
+				break;
+			case 5:
+				token = keyword("graph", GRAPH);
+				break;
+			case 6:
+				token = keyword("strict", STRICT);
+				break;
+			case 7:
+				token = keyword("digraph", DIGRAPH);
+				break;
+			case 8:
+				token = keyword("subgraph", SUBGRAPH);
+				break;
+			default:
+			}
+		}
+
+		private int keyword(String keyword, int keywordToken) {
+			for (int i = 0; i < keyword.length(); i++) {
+				if (Character.toLowerCase(text.charAt(i)) != keyword
+						.charAt(i)) {
+					return ID_TOKEN;
+				}
+			}
+			return keywordToken;
+		}
+
+		private void next() throws IOException {
+			skipWhitespaceAndComments();
+			text.setLength(0);
+			int c = la(0);
+			switch (c) {
+			case -1:
+				token = EOF;
+				return;
+			case '{':
+				single(LBRACE);
+				return;
+			case '}':
+				single(RBRACE);
+				return;
+			case '[':
+				single(LBRACKET);
+				return;
+			case ']':
+				single(RBRACKET);
+				return;
+			case '=':
+				single(EQUALS);
+				return;
+			case ';':
+				single(SEMICOLON);
+				return;
+			case ',':
+				single(COMMA);
+				return;
+			case ':':
+				single(COLON);
+				return;
+			case '"':
+				lexQuotedString();
+				return;
+			case '<':
+				lexHtml();
+				return;
+			case '-':
+				int d = la(1);
+				if (d == '-' || d == '>') {
+					text.append((char) read()).append((char) read());
+					token = EDGE_OP;
+					return;
+				}
+				lexNumeral();
+				return;
+			default:
+			}
+			if (c == '.' || isDigit(c)) {
+				lexNumeral();
+			} else if (isStringStart(c)) {
+				lexString();
+			} else {
+				text.append((char) c);
+				token = ID_TOKEN;
+				throw error("statement");
+			}
+		}
+
+		private void parseAttrLists(Map<String, ID> attributes,
+				boolean override) throws IOException {
+			while (token == LBRACKET) {
+				next();
+				while (token != RBRACKET) {
+					String name = ATTRIBUTE_NAMES.get(expectId().toValue());
+					expect(EQUALS, "'='");
+					ID value = expectId();
+					// attributes that are not imported are discarded
+					if (name != null && (override
+							|| !attributes.containsKey(name))) {
+						attributes.put(name, value);
+					}
+					if (token == COMMA || token == SEMICOLON) {
+						next();
+					}
+				}
+				next();
+			}
+		}
+
+		private List<Graph> parseDotAst() throws IOException {
+			List<Graph> graphs = new ArrayList<>();
+			next();
+			while (token != EOF) {
+				graphs.add(parseDotGraph());
+			}
+			return graphs;
+		}
+
+		private Graph parseDotGraph() throws IOException {
+			if (token == STRICT) {
+				next();
+			}
+			GraphType type;
+			if (token == GRAPH) {
+				type = GraphType.GRAPH;
+			} else if (token == DIGRAPH) {
+				type = GraphType.DIGRAPH;
+			} else {
+				throw error("'graph' or 'digraph'");
+			}
+			next();
+
+			// nodes and subgraphs are only merged within a graph
+			nodes.clear();
+			subgraphs.clear();
+
+			Graph.Builder graphBuilder = new Graph.Builder();
+			if (token == ID_TOKEN) {
+				graphBuilder.attr(DotAttributes._NAME__GNE, expectId());
+			}
+			graphBuilder.attr(DotAttributes._TYPE__G, type);
+			expect(LBRACE, "'{'");
+			Scope scope = new Scope(null);
+			parseStmts(scope, graphBuilder);
+			next();
+			scope.apply(GRAPH_ATTRIBUTES, graphBuilder);
+			return graphBuilder.build();
+		}
+
+		private void parseEdgeStmtNode(ID sourceName, Scope scope,
+				Graph.Builder graphBuilder) throws IOException {
+			// the nodes of an edge statement do not have local attributes
+			localAttributes.clear();
+			edgeNodes.clear();
+			edgeNodes.add(createNode(sourceName, scope, graphBuilder));
+			while (token == EDGE_OP) {
+				next();
+				if (token == ID_TOKEN) {
+					ID targetName = expectId();
+					parsePort();
+					edgeNodes.add(createNode(targetName, scope, graphBuilder));
+				} else if (token == SUBGRAPH || token == LBRACE) {
+					System.err.println(
+							"DotStreamingImport cannot transform edge to subgraph in line "
+									+ line);
+					skipSubgraph();
+				} else {
+					throw error("node or subgraph");
+				}
+			}
+			parseAttrLists(localAttributes, false);
+			createEdges(scope, graphBuilder);
+		}
+
+		private void parsePort() throws IOException {
+			// ports are not imported
+			while (token == COLON) {
+				next();
+				expectId();
+			}
+		}
+
+		private void parseStmt(Scope scope, Graph.Builder graphBuilder)
+				throws IOException {
+			switch (token) {
+			case GRAPH:
+				next();
+				expectAttrList();
+				parseAttrLists(scope.graphAttributes, true);
+				break;
+			case NODE:
+				next();
+				expectAttrList();
+				parseAttrLists(scope.nodeAttributes, true);
+				break;
+			case EDGE:
+				next();
+				expectAttrList();
+				parseAttrLists(scope.edgeAttributes, true);
+				break;
+			case SUBGRAPH:
+			case LBRACE:
+				parseSubgraph(scope, graphBuilder);
+				if (token == EDGE_OP) {
+					System.err.println(
+							"DotStreamingImport cannot transform edge from subgraph in line "
+									+ line);
+					while (token == EDGE_OP) {
+						next();
+						if (token == SUBGRAPH || token == LBRACE) {
+							skipSubgraph();
+						} else {
+							expectId();
+							parsePort();
+						}
+					}
+					parseAttrLists(new HashMap<String, ID>(), false);
+				}
+				break;
+			case ID_TOKEN:
+				ID id = expectId();
+				if (token == EQUALS) {
+					next();
+					String name = ATTRIBUTE_NAMES.get(id.toValue());
+					ID value = expectId();
+					if (name != null && !scope.attributes.containsKey(name)) {
+						scope.attributes.put(name, value);
+					}
+					break;
+				}
+				parsePort();
+				if (token == EDGE_OP) {
+					parseEdgeStmtNode(id, scope, graphBuilder);
+				} else {
+					localAttributes.clear();
+					parseAttrLists(localAttributes, false);
+					createNode(id, scope, graphBuilder);
+				}
+				break;
+			default:
+				throw error("statement");
+			}
+			if (token == SEMICOLON) {
+				next();
+			}
+		}
+
+		private void parseStmts(Scope scope, Graph.Builder graphBuilder)
+				throws IOException {
+			while (token != RBRACE) {
+				if (token == EOF) {
+					throw error("'}'");
+				}
+				parseStmt(scope, graphBuilder);
+			}
+		}
+
+		private void parseSubgraph(Scope outerScope,
+				Graph.Builder outerGraphBuilder) throws IOException {
+			ID name = null;
+			if (token == SUBGRAPH) {
+				next();
+				if (token == ID_TOKEN) {
+					name = expectId();
+				}
+			}
+			expect(LBRACE, "'{'");
+
+			Graph.Builder subgraphBuilder = new Graph.Builder();
+			if (name != null) {
+				subgraphBuilder.attr(DotAttributes._NAME__GNE, name);
+			}
+			Scope scope = new Scope(outerScope);
+			parseStmts(scope, subgraphBuilder);
+			next();
+			scope.apply(SUBGRAPH_ATTRIBUTES, subgraphBuilder);
+			Graph subgraph = subgraphBuilder.build();
+
+			// anonymous subgraphs cannot be 'merged'
+			Node subgraphNode = name == null ? null
+					: subgraphs.get(name.toValue());
+			if (subgraphNode == null) {
+				subgraphNode = new Node();
+				subgraphNode.setNestedGraph(subgraph);
+				if (name != null) {
+					subgraphs.put(name.toValue(), subgraphNode);
+				}
+				outerGraphBuilder.nodes(subgraphNode);
+			} else {
+				// merge into existing subgraph
+				Graph existing = subgraphNode.getNestedGraph();
+				existing.getAttributes().putAll(subgraph.getAttributes());
+				List<Node> subgraphNodes = new ArrayList<>(
+						subgraph.getNodes());
+				List<Edge> subgraphEdges = new ArrayList<>(
+						subgraph.getEdges());
+				subgraphNodes.removeAll(existing.getNodes());
+				subgraphEdges.removeAll(existing.getEdges());
+				existing.getNodes().addAll(subgraphNodes);
+				existing.getEdges().addAll(subgraphEdges);
+			}
+		}
+
+		private void expectAttrList() {
+			if (token != LBRACKET) {
+				throw error("'['");
+			}
+		}
+
+		private int read() throws IOException {
+			if (!fill(1)) {
+				return -1;
+			}
+			char c = buffer[position++];
+			if (c == '\n') {
+				line++;
+			}
+			return c;
+		}
+
+		private void single(int singleToken) throws IOException {
+			text.append((char) read());
+			token = singleToken;
+		}
+
+		private void skipSubgraph() throws IOException {
+			if (token == SUBGRAPH) {
+				next();
+				if (token == ID_TOKEN) {
+					next();
+				}
+			}
+			if (token != LBRACE) {
+				throw error("'{'");
+			}
+			int depth = 0;
+			do {
+				if (token == LBRACE) {
+					depth++;
+				} else if (token == RBRACE) {
+					depth--;
+				} else if (token == EOF) {
+					throw error("'}'");
+				}
+				next();
+			} while (depth > 0);
+		}
+
+		private void skipWhitespaceAndComments() throws IOException {
+			while (true) {
+				int c = la(0);
+				if (c == ' ' || c == '\t' || c == '\r' || c == '\n'
+						|| c == '\f') {
+					read();
+				} else if (c == '#' || c == '/' && la(1) == '/') {
+					while (c >= 0 && c != '\n') {
+						read();
+						c = la(0);
+					}
+				} else if (c == '/' && la(1) == '*') {
+					read();
+					read();
+					while (!(la(0) == '*' && la(1) == '/')) {
+						if (read() < 0) {
+							token = EOF;
+							text.setLength(0);
+							throw error("'*/'");
+						}
+					}
+					read();
+					read();
+				} else {
+					return;
+				}
+			}
+		}
+	}
+}
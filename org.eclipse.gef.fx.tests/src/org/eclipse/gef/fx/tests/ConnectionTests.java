@@ -13,6 +13,8 @@
 package org.eclipse.gef.fx.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
@@ -20,6 +22,7 @@ import java.util.List;
 import org.eclipse.gef.fx.anchors.IAnchor;
 import org.eclipse.gef.fx.anchors.StaticAnchor;
 import org.eclipse.gef.fx.nodes.Connection;
+import org.eclipse.gef.fx.nodes.ConnectionRefreshScheduler;
 import org.eclipse.gef.fx.nodes.GeometryNode;
 import org.eclipse.gef.geometry.planar.ICurve;
 import org.eclipse.gef.geometry.planar.Point;
@@ -172,4 +175,54 @@ public class ConnectionTests {
 		assertEquals(wayPoint, points.get(1));
 		assertEquals(endPoint, points.get(2));
 	}
+
+	@Test
+	public void refreshScheduler() {
+		// pulses are triggered manually via flush()
+		ConnectionRefreshScheduler scheduler = new ConnectionRefreshScheduler() {
+			@Override
+			protected void requestPulse() {
+			}
+		};
+		Point startPoint = new Point(10, 20);
+		Point endPoint = new Point(110, 120);
+		Connection connection = new Connection();
+		connection.setStartPoint(startPoint);
+		connection.setEndPoint(endPoint);
+		connection.setRefreshScheduler(scheduler);
+
+		// several changes within one pulse are coalesced
+		for (int i = 1; i <= 5; i++) {
+			connection.getCurve().setTranslateX(i);
+			connection.getCurve().setTranslateY(2 * i);
+		}
+		assertTrue(scheduler.isDirty(connection));
+		assertEquals(10, scheduler.getRequestedRefreshes());
+		assertEquals(0, scheduler.getExecutedRefreshes());
+
+		scheduler.flush();
+		assertFalse(scheduler.isDirty(connection));
+		assertEquals(1, scheduler.getExecutedRefreshes());
+		ICurve geometry = (ICurve) ((GeometryNode<?>) connection.getCurve())
+				.getGeometry();
+		assertEquals(startPoint, geometry.getP1());
+		assertEquals(endPoint, geometry.getP2());
+		assertEquals(startPoint, connection.getStartPoint());
+		assertEquals(endPoint, connection.getEndPoint());
+
+		// explicit changes are still applied synchronously
+		connection.setEndPoint(new Point(50, 60));
+		assertFalse(scheduler.isDirty(connection));
+		assertEquals(2, scheduler.getExecutedRefreshes());
+		geometry = (ICurve) ((GeometryNode<?>) connection.getCurve())
+				.getGeometry();
+		assertEquals(new Point(50, 60), geometry.getP2());
+
+		// removing the scheduler performs a pending refresh
+		connection.getCurve().setTranslateX(0);
+		assertTrue(scheduler.isDirty(connection));
+		connection.setRefreshScheduler(null);
+		assertFalse(scheduler.isDirty(connection));
+		assertEquals(3, scheduler.getExecutedRefreshes());
+	}
 }
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.gef.fx.anchors.AnchorKey;
+import org.eclipse.gef.fx.anchors.DynamicAnchor;
+import org.eclipse.gef.fx.anchors.DynamicAnchor.AnchoredReferencePoint;
+import org.eclipse.gef.fx.nodes.GeometryNode;
+import org.eclipse.gef.fx.utils.SceneOutlineIndex;
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Line;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.junit.Test;
+
+import javafx.scene.Group;
+
+public class SceneOutlineIndexTests {
+
+	@Test
+	public void dynamicAnchorPositions() {
+		Group root = new Group();
+		Group layer = new Group();
+		root.getChildren().add(layer);
+		javafx.scene.shape.Rectangle anchorage = new javafx.scene.shape.Rectangle(
+				0, 0, 50, 50);
+		javafx.scene.shape.Rectangle anchored = new javafx.scene.shape.Rectangle(
+				200, 0, 10, 10);
+		layer.getChildren().addAll(anchorage, anchored);
+		SceneOutlineIndex index = SceneOutlineIndex.install(root);
+		assertSame(index, SceneOutlineIndex.get(anchorage));
+
+		DynamicAnchor anchor = new DynamicAnchor(anchorage);
+		AnchorKey key = new AnchorKey(anchored, "role");
+		anchor.attach(key);
+		anchor.getComputationParameter(key, AnchoredReferencePoint.class)
+				.set(new Point(125, 25));
+		assertTrue(index.isIndexed(anchorage));
+		assertEquals(new Point(50, 25), anchor.getPosition(key));
+
+		// transformations of the anchorage and of its ancestors are reflected
+		anchorage.setTranslateX(10);
+		assertEquals(new Point(60, 25), anchor.getPosition(key));
+		anchorage.setWidth(60);
+		assertEquals(new Point(70, 25), anchor.getPosition(key));
+
+		// the scene geometry is cached for further anchor keys
+		IGeometry geometryInScene = index.getGeometryInScene(anchorage,
+				anchor.getComputationParameter(
+						DynamicAnchor.AnchorageReferenceGeometry.class).get());
+		assertEquals(new Rectangle(10, 0, 60, 50),
+				geometryInScene.getBounds());
+		AnchorKey otherKey = new AnchorKey(anchored, "other");
+		anchor.attach(otherKey);
+		anchor.getComputationParameter(otherKey, AnchoredReferencePoint.class)
+				.set(new Point(40, -100));
+		assertEquals(new Point(40, 0), anchor.getPosition(otherKey));
+		assertSame(geometryInScene,
+				index.getGeometryInScene(anchorage,
+						anchor.getComputationParameter(
+								DynamicAnchor.AnchorageReferenceGeometry.class)
+								.get()));
+
+		// in-place modifications of the passed in geometry are reflected
+		Rectangle geometryInLocal = new Rectangle(0, 0, 10, 10);
+		assertEquals(new Rectangle(10, 0, 10, 10),
+				index.getGeometryInScene(anchorage, geometryInLocal)
+						.getBounds());
+		geometryInLocal.setWidth(20);
+		assertEquals(new Rectangle(10, 0, 20, 10),
+				index.getGeometryInScene(anchorage, geometryInLocal)
+						.getBounds());
+
+		// removing the anchorage from the scene graph removes its entry
+		layer.getChildren().remove(anchorage);
+		assertFalse(index.isIndexed(anchorage));
+		assertNull(SceneOutlineIndex.get(anchorage));
+
+		// adding it again re-creates the entry
+		layer.getChildren().add(anchorage);
+		assertTrue(index.isIndexed(anchorage));
+		layer.getChildren().remove(anchorage);
+		assertFalse(index.isIndexed(anchorage));
+
+		index.uninstall();
+		assertNull(SceneOutlineIndex.get(anchored));
+	}
+
+	@Test
+	public void getNodesAt() {
+		Group root = new Group();
+		Group layer = new Group();
+		root.getChildren().add(layer);
+		javafx.scene.shape.Rectangle bottom = new javafx.scene.shape.Rectangle(
+				0, 0, 100, 100);
+		javafx.scene.shape.Rectangle top = new javafx.scene.shape.Rectangle(50,
+				50, 100, 100);
+		GeometryNode<Line> curve = new GeometryNode<>(
+				new Line(0, 300, 1000, 300));
+		layer.getChildren().addAll(bottom, top, curve);
+
+		// use a small cell size, so that entries span several cells
+		SceneOutlineIndex index = new SceneOutlineIndex(root, 16);
+		index.add(bottom);
+		index.add(top);
+		index.add(curve);
+
+		assertEquals(Collections.singletonList(bottom),
+				index.getNodesAt(10, 10, 0));
+		// top-most node first
+		assertEquals(Arrays.asList(top, bottom), index.getNodesAt(75, 75, 0));
+		assertEquals(Collections.emptyList(), index.getNodesAt(200, 10, 0));
+
+		// curves are picked with a tolerance
+		assertEquals(Collections.emptyList(), index.getNodesAt(500, 303, 0));
+		assertEquals(Collections.singletonList(curve),
+				index.getNodesAt(500, 303, 5));
+
+		// changes of ancestor transformations are reflected
+		layer.setTranslateX(500);
+		assertEquals(Collections.emptyList(), index.getNodesAt(10, 10, 0));
+		assertEquals(Collections.singletonList(bottom),
+				index.getNodesAt(510, 10, 0));
+
+		// changes of the z-order are reflected
+		top.toBack();
+		assertEquals(Arrays.asList(bottom, top),
+				index.getNodesAt(575, 75, 0));
+
+		// re-parented nodes are updated (adding the node to the root
+		// implicitly removes it from the layer)
+		root.getChildren().add(top);
+		assertTrue(index.isIndexed(top));
+		assertEquals(Collections.singletonList(top),
+				index.getNodesAt(75, 75, 0));
+
+		// removed nodes are not returned
+		root.getChildren().remove(top);
+		assertFalse(index.isIndexed(top));
+		assertEquals(Collections.emptyList(), index.getNodesAt(75, 75, 0));
+
+		index.remove(curve);
+		assertEquals(Collections.emptyList(), index.getNodesAt(1000, 300, 5));
+	}
+
+}
@@ -21,6 +21,7 @@ import org.eclipse.gef.common.adapt.IAdaptable;
 import org.eclipse.gef.common.beans.property.ReadOnlyMapWrapperEx;
 import org.eclipse.gef.fx.listeners.VisualChangeListener;
 import org.eclipse.gef.fx.utils.NodeUtils;
+import org.eclipse.gef.fx.utils.SceneOutlineIndex;
 import org.eclipse.gef.geometry.planar.Point;
 
 import com.google.common.collect.HashMultimap;
@@ -215,12 +216,14 @@ public abstract class AbstractAnchor implements IAnchor {
 			@Override
 			protected void boundsInLocalChanged(Bounds oldBounds,
 					Bounds newBounds) {
+				invalidateSceneOutline(getAnchorage());
 				updatePositions(anchored);
 			}
 
 			@Override
 			protected void localToParentTransformChanged(Node observed,
 					Transform oldTransform, Transform newTransform) {
+				invalidateSceneOutline(observed);
 				updatePositions(anchored);
 			}
 
@@ -314,6 +317,34 @@ public abstract class AbstractAnchor implements IAnchor {
 		return positionsUnmodifiable;
 	}
 
+	/**
+	 * Invalidates the cached scene outline of the anchorage (see
+	 * {@link SceneOutlineIndex}) if the given {@link Node} is the anchorage or
+	 * one of its ancestors, so that positions are not computed based on an
+	 * outdated scene outline (the index might be notified about the change
+	 * only after this anchor).
+	 *
+	 * @param changed
+	 *            The {@link Node} that changed visually.
+	 */
+	private void invalidateSceneOutline(Node changed) {
+		Node anchorage = getAnchorage();
+		if (anchorage == null) {
+			return;
+		}
+		SceneOutlineIndex index = SceneOutlineIndex.get(anchorage);
+		if (index == null) {
+			return;
+		}
+		Node current = anchorage;
+		while (current != null && current != changed) {
+			current = current.getParent();
+		}
+		if (current != null) {
+			index.invalidate(anchorage);
+		}
+	}
+
 	@Override
 	public boolean isAttached(AnchorKey key) {
 		return keysByNode.containsKey(key.getAnchored())
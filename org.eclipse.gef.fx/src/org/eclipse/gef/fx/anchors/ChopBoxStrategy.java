@@ -135,8 +135,8 @@ public class ChopBoxStrategy extends ProjectionStrategy {
 					parameters);
 		}
 
-		IGeometry anchorageGeometryInScene = NodeUtils.localToScene(anchorage,
-				anchorageReferenceGeometryInLocal);
+		IGeometry anchorageGeometryInScene = getAnchorageGeometryInScene(
+				anchorage, anchorageReferenceGeometryInLocal);
 		List<ICurve> anchorageOutlinesInScene = getOutlineSegments(
 				anchorageGeometryInScene);
 
@@ -20,6 +20,7 @@ import java.util.Set;
 import org.eclipse.gef.fx.anchors.DynamicAnchor.AnchorageReferenceGeometry;
 import org.eclipse.gef.fx.anchors.DynamicAnchor.AnchoredReferencePoint;
 import org.eclipse.gef.fx.utils.NodeUtils;
+import org.eclipse.gef.fx.utils.SceneOutlineIndex;
 import org.eclipse.gef.geometry.planar.ICurve;
 import org.eclipse.gef.geometry.planar.IGeometry;
 import org.eclipse.gef.geometry.planar.IShape;
@@ -37,7 +38,9 @@ import javafx.scene.Node;
  * In detail, the computation is done as follows:
  * <ol>
  * <li>Compute the anchorage outlines (in scene) based on the anchorage
- * reference geometry,using {@link #getOutlineSegments(IGeometry)}.</li>
+ * reference geometry (see
+ * {@link #getAnchorageGeometryInScene(Node, IGeometry)}), using
+ * {@link #getOutlineSegments(IGeometry)}.</li>
  * <li>Transform the given anchored reference point to scene coordinates.</li>
  * <li>Project the anchored reference point (in scene) onto the anchorage
  * outlines.</li>
@@ -59,8 +62,8 @@ public class ProjectionStrategy implements IComputationStrategy {
 				.get(parameters, AnchoredReferencePoint.class).get();
 
 		// determine anchorage geometry in scene
-		IGeometry anchorageGeometryInScene = NodeUtils.localToScene(anchorage,
-				anchorageReferenceGeometryInLocal);
+		IGeometry anchorageGeometryInScene = getAnchorageGeometryInScene(
+				anchorage, anchorageReferenceGeometryInLocal);
 
 		// determine anchorage outlines in scene
 		List<ICurve> anchorageOutlinesInScene = getOutlineSegments(
@@ -101,6 +104,32 @@ public class ProjectionStrategy implements IComputationStrategy {
 		return Point.nearest(anchoredReferencePointInScene, projections);
 	}
 
+	/**
+	 * Transforms the given anchorage reference geometry from the local
+	 * coordinate system of the given anchorage to scene coordinates. If a
+	 * {@link SceneOutlineIndex} is installed for the scene graph of the
+	 * anchorage, the (cached) geometry is obtained from it, so that it is not
+	 * re-computed for each anchor key. Therefore, the returned geometry may
+	 * not be modified.
+	 *
+	 * @param anchorage
+	 *            The anchorage visual.
+	 * @param anchorageReferenceGeometryInLocal
+	 *            The anchorage reference geometry within the local coordinate
+	 *            system of the anchorage visual.
+	 * @return The anchorage reference geometry in scene coordinates.
+	 */
+	protected IGeometry getAnchorageGeometryInScene(Node anchorage,
+			IGeometry anchorageReferenceGeometryInLocal) {
+		SceneOutlineIndex index = SceneOutlineIndex.get(anchorage);
+		if (index != null) {
+			return index.getGeometryInScene(anchorage,
+					anchorageReferenceGeometryInLocal);
+		}
+		return NodeUtils.localToScene(anchorage,
+				anchorageReferenceGeometryInLocal);
+	}
+
 	/**
 	 * Determines the outline of the given {@link IGeometry}, represented as a
 	 * list of {@link ICurve}s.
@@ -290,7 +290,7 @@ public class Connection extends Group {
 				}
 				// refresh decoration clip in case the layout bounds of
 				// the decorations have changed
-				refresh();
+				requestRefresh();
 			}
 		};
 
@@ -312,6 +312,7 @@ public class Connection extends Group {
 		}
 	};
 	private boolean inRefresh = false;
+	private ConnectionRefreshScheduler refreshScheduler = null;
 
 	/**
 	 * Constructs a new {@link Connection} whose start and end point are set to
@@ -351,7 +352,7 @@ public class Connection extends Group {
 				public void changed(
 						ObservableValue<? extends Transform> observable,
 						Transform oldValue, Transform newValue) {
-					refresh();
+					requestRefresh();
 				}
 			};
 
@@ -360,7 +361,7 @@ public class Connection extends Group {
 				public void changed(
 						ObservableValue<? extends Bounds> observable,
 						Bounds oldValue, Bounds newValue) {
-					refresh();
+					requestRefresh();
 				}
 			};
 
@@ -582,7 +583,7 @@ public class Connection extends Group {
 						if (!points.get(getAnchorIndex(anchorKey))
 								.equals(newPoint)) {
 							points.set(getAnchorIndex(anchorKey), newPoint);
-							refresh();
+							requestRefresh();
 						}
 					}
 				}
@@ -922,6 +923,18 @@ public class Connection extends Group {
 		return FXCollections.unmodifiableObservableList(points);
 	}
 
+	/**
+	 * Returns the {@link ConnectionRefreshScheduler} of this {@link Connection}
+	 * , or <code>null</code> if this {@link Connection} is refreshed
+	 * synchronously.
+	 *
+	 * @return The {@link ConnectionRefreshScheduler} of this {@link Connection}
+	 *         , or <code>null</code>.
+	 */
+	public ConnectionRefreshScheduler getRefreshScheduler() {
+		return refreshScheduler;
+	}
+
 	/**
 	 * Returns the {@link IConnectionRouter} of this {@link Connection}.
 	 *
@@ -1234,6 +1247,10 @@ public class Connection extends Group {
 			return;
 		}
 		inRefresh = true;
+		if (refreshScheduler != null) {
+			// satisfies a pending (deferred) refresh
+			refreshScheduler.refreshed(this);
+		}
 		// System.out.println("+--- Refresh ---+");
 
 		// unregister PCLs
@@ -1516,6 +1533,24 @@ public class Connection extends Group {
 		removeAnchor(anchorKey, oldAnchor);
 	}
 
+	/**
+	 * Requests a {@link #refresh()} in response to a change of an anchor
+	 * position, or of the bounds or transformation of the curve or the
+	 * decorations. In case a {@link ConnectionRefreshScheduler} is set, this
+	 * {@link Connection} is only marked as dirty, so that it is refreshed
+	 * within the next pulse. Otherwise, it is refreshed synchronously.
+	 */
+	private void requestRefresh() {
+		if (inRefresh) {
+			return;
+		}
+		if (refreshScheduler != null) {
+			refreshScheduler.request(this);
+		} else {
+			refresh();
+		}
+	}
+
 	/**
 	 * Returns a writable property containing the {@link IConnectionRouter} of
 	 * this connection.
@@ -1826,6 +1861,27 @@ public class Connection extends Group {
 		refresh();
 	}
 
+	/**
+	 * Sets the {@link ConnectionRefreshScheduler} that is used to coalesce the
+	 * refreshes of this {@link Connection}, so that it is routed at most once
+	 * per pulse (see {@link ConnectionRefreshScheduler}). If set to
+	 * <code>null</code> (the default), this {@link Connection} is refreshed
+	 * synchronously upon each change. A refresh that is pending within the
+	 * previous {@link ConnectionRefreshScheduler} is performed immediately.
+	 *
+	 * @param refreshScheduler
+	 *            The {@link ConnectionRefreshScheduler} to use, or
+	 *            <code>null</code>.
+	 */
+	public void setRefreshScheduler(
+			ConnectionRefreshScheduler refreshScheduler) {
+		if (this.refreshScheduler != null
+				&& this.refreshScheduler.isDirty(this)) {
+			refresh();
+		}
+		this.refreshScheduler = refreshScheduler;
+	}
+
 	/**
 	 * Sets the {@link IConnectionRouter} of this {@link Connection} to the
 	 * given value.
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.nodes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Scene;
+
+/**
+ * The {@link ConnectionRefreshScheduler} coalesces the refreshes of
+ * {@link Connection}s, so that each {@link Connection} is re-routed and
+ * re-interpolated at most once per JavaFX pulse.
+ * <p>
+ * A {@link Connection} uses a {@link ConnectionRefreshScheduler} if one is set
+ * via {@link Connection#setRefreshScheduler(ConnectionRefreshScheduler)}. In
+ * this case, refreshes that result from changes of anchor positions, of the
+ * bounds or transformation of the curve, or of the bounds of decorations, do
+ * not route the {@link Connection} synchronously, but only mark it as dirty.
+ * All dirty {@link Connection}s are refreshed at the beginning of the next
+ * pulse (i.e. before layout and rendering), or when {@link #flush()} is
+ * called. Refreshes that result from changes of the anchors, the router, or
+ * the interpolator of a {@link Connection} are still performed synchronously.
+ * <p>
+ * A {@link ConnectionRefreshScheduler} can be shared by all {@link Connection}
+ * s of a {@link Scene} via {@link #get(Scene)}. It counts the refreshes that
+ * were requested and executed, so that the effect of the coalescing can be
+ * measured.
+ */
+public class ConnectionRefreshScheduler {
+
+	private static final String SCENE_PROPERTY_KEY = ConnectionRefreshScheduler.class
+			.getName();
+
+	/**
+	 * Returns the {@link ConnectionRefreshScheduler} that is shared by the
+	 * {@link Connection}s of the given {@link Scene}. It is created upon the
+	 * first call and stored within the {@link Scene#getProperties()
+	 * properties} of the {@link Scene}.
+	 *
+	 * @param scene
+	 *            The {@link Scene} for which to return the
+	 *            {@link ConnectionRefreshScheduler}.
+	 * @return The {@link ConnectionRefreshScheduler} of the given
+	 *         {@link Scene}.
+	 */
+	public static ConnectionRefreshScheduler get(Scene scene) {
+		Object scheduler = scene.getProperties().get(SCENE_PROPERTY_KEY);
+		if (!(scheduler instanceof ConnectionRefreshScheduler)) {
+			scheduler = new ConnectionRefreshScheduler();
+			scene.getProperties().put(SCENE_PROPERTY_KEY, scheduler);
+		}
+		return (ConnectionRefreshScheduler) scheduler;
+	}
+
+	private Set<Connection> dirty = new LinkedHashSet<>();
+	private AnimationTimer pulseListener;
+	private boolean pulseRequested;
+	private long requestedRefreshes;
+	private long executedRefreshes;
+
+	/**
+	 * Refreshes all dirty {@link Connection}s. Each {@link Connection} is
+	 * refreshed only once, even if refreshing another {@link Connection} marks
+	 * it as dirty again; in this case, it is refreshed within the next pulse.
+	 */
+	public void flush() {
+		Set<Connection> refreshed = new HashSet<>();
+		List<Connection> pending = new ArrayList<>(dirty);
+		while (!pending.isEmpty()) {
+			for (Connection connection : pending) {
+				// a connection may already have been refreshed synchronously
+				if (dirty.contains(connection) && refreshed.add(connection)) {
+					connection.refresh();
+				}
+			}
+			// refresh the connections that were marked as dirty by the
+			// refreshes above (and not yet refreshed)
+			pending.clear();
+			for (Connection connection : dirty) {
+				if (!refreshed.contains(connection)) {
+					pending.add(connection);
+				}
+			}
+		}
+		if (dirty.isEmpty()) {
+			stopPulse();
+		}
+	}
+
+	/**
+	 * Returns the number of refreshes that were executed, i.e. the number of
+	 * times the router and interpolator were applied to a {@link Connection}
+	 * using this {@link ConnectionRefreshScheduler}.
+	 *
+	 * @return The number of executed refreshes.
+	 */
+	public long getExecutedRefreshes() {
+		return executedRefreshes;
+	}
+
+	/**
+	 * Returns the number of refreshes that were requested, i.e. the number of
+	 * changes that would have refreshed a {@link Connection} synchronously,
+	 * had it not used this {@link ConnectionRefreshScheduler}.
+	 *
+	 * @return The number of requested refreshes.
+	 */
+	public long getRequestedRefreshes() {
+		return requestedRefreshes;
+	}
+
+	/**
+	 * Returns whether the given {@link Connection} is marked as dirty, i.e.
+	 * will be refreshed within the next pulse.
+	 *
+	 * @param connection
+	 *            The {@link Connection} to test.
+	 * @return <code>true</code> if the given {@link Connection} is dirty,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isDirty(Connection connection) {
+		return dirty.contains(connection);
+	}
+
+	/**
+	 * Called by the {@link Connection} when a refresh is executed (which
+	 * satisfies a pending request).
+	 */
+	void refreshed(Connection connection) {
+		executedRefreshes++;
+		dirty.remove(connection);
+	}
+
+	/**
+	 * Called by the {@link Connection} to mark itself as dirty.
+	 */
+	void request(Connection connection) {
+		requestedRefreshes++;
+		if (dirty.add(connection) && !pulseRequested) {
+			pulseRequested = true;
+			requestPulse();
+		}
+	}
+
+	/**
+	 * Ensures that {@link #flush()} is called within the next pulse. By
+	 * default, an {@link AnimationTimer} is started, which is stopped again
+	 * when no {@link Connection}s are dirty.
+	 */
+	protected void requestPulse() {
+		if (pulseListener == null) {
+			pulseListener = new AnimationTimer() {
+				@Override
+				public void handle(long now) {
+					flush();
+				}
+			};
+		}
+		pulseListener.start();
+	}
+
+	/**
+	 * Resets the counters of requested and executed refreshes.
+	 */
+	public void resetStatistics() {
+		requestedRefreshes = 0;
+		executedRefreshes = 0;
+	}
+
+	/**
+	 * Stops the pulse notification, because no {@link Connection}s are dirty.
+	 */
+	private void stopPulse() {
+		if (pulseRequested) {
+			pulseRequested = false;
+			if (pulseListener != null) {
+				pulseListener.stop();
+			}
+		}
+	}
+
+}
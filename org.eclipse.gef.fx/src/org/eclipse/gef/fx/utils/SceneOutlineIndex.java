@@ -0,0 +1,648 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.gef.fx.anchors.ProjectionStrategy;
+import org.eclipse.gef.fx.listeners.VisualChangeListener;
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.ICurve;
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.IShape;
+import org.eclipse.gef.geometry.planar.Path;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.transform.Transform;
+
+/**
+ * A {@link SceneOutlineIndex} is a spatial index (a uniform grid) of the
+ * outline geometries of {@link Node}s in scene coordinates. It is installed
+ * for the root {@link Parent} of a scene graph (see {@link #install(Parent)}),
+ * and can then be used for all {@link Node}s below that root:
+ * <ul>
+ * <li>{@link #getGeometryInScene(Node, IGeometry)} returns the (cached) scene
+ * geometry for an anchorage geometry. It is used by
+ * {@link ProjectionStrategy} and its sub-classes, so that the anchorage
+ * geometry is not transformed to scene coordinates for every anchor key.</li>
+ * <li>{@link #getNodesAt(double, double, double)} returns the indexed
+ * {@link Node}s whose outline is at (or near) a scene position, e.g. for
+ * picking a connection curve or determining the nodes under the mouse.</li>
+ * </ul>
+ * The index is maintained incrementally: A {@link VisualChangeListener} is
+ * registered for each indexed {@link Node}, which marks its entry as dirty
+ * upon bounds or (ancestor) transform changes. Dirty entries are re-computed
+ * lazily, i.e. upon the next query. In addition, the parent properties of the
+ * {@link Node} and its ancestors are observed, so that an entry is updated
+ * when the {@link Node} is re-parented, and removed (including its listeners)
+ * as soon as it is no longer located below the root. If a removed
+ * {@link Node} (or its removed ancestor) is added below the root again, its
+ * entry is re-created.
+ */
+public class SceneOutlineIndex {
+
+	private final class Entry {
+
+		private final Node node;
+		// the geometry in local coordinates; if not provided explicitly, it
+		// is inferred via NodeUtils#getShapeOutline(Node)
+		private IGeometry geometryInLocal;
+		private boolean geometryProvided;
+		private AffineTransform localToSceneTx;
+		private IGeometry geometryInScene;
+		private List<ICurve> outlinesInScene;
+		private Rectangle boundsInScene;
+		private boolean dirty = true;
+		// the grid cells this entry is stored in
+		private boolean inGrid;
+		private boolean oversized;
+		private int minCol;
+		private int minRow;
+		private int maxCol;
+		private int maxRow;
+		private final List<Node> observedAncestors = new ArrayList<>();
+
+		private final VisualChangeListener visualChangeListener = new VisualChangeListener() {
+			@Override
+			protected void boundsInLocalChanged(Bounds oldBounds,
+					Bounds newBounds) {
+				if (!geometryProvided) {
+					geometryInLocal = null;
+				}
+				invalidate(Entry.this);
+			}
+
+			@Override
+			protected void localToParentTransformChanged(Node observed,
+					Transform oldTransform, Transform newTransform) {
+				invalidate(Entry.this);
+			}
+		};
+
+		private final ChangeListener<Parent> parentListener = new ChangeListener<Parent>() {
+			@Override
+			public void changed(ObservableValue<? extends Parent> observable,
+					Parent oldValue, Parent newValue) {
+				reparent(Entry.this,
+						(Node) ((ReadOnlyProperty<?>) observable).getBean(),
+						newValue);
+			}
+		};
+
+		private Entry(Node node) {
+			this.node = node;
+		}
+	}
+
+	private static final String PROPERTY_KEY = SceneOutlineIndex.class
+			.getName();
+
+	/**
+	 * The default size of the (square) grid cells, in scene coordinates.
+	 */
+	public static final double DEFAULT_CELL_SIZE = 128;
+
+	// entries that span more cells are not stored within the grid
+	private static final int MAX_CELLS_PER_ENTRY = 256;
+
+	/**
+	 * Returns the {@link SceneOutlineIndex} that is installed for the root of
+	 * the scene graph that contains the given {@link Node}, or
+	 * <code>null</code> if no {@link SceneOutlineIndex} is installed.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the
+	 *            {@link SceneOutlineIndex}.
+	 * @return The {@link SceneOutlineIndex} for the given {@link Node}, or
+	 *         <code>null</code>.
+	 */
+	public static SceneOutlineIndex get(Node node) {
+		Node root = node;
+		while (root.getParent() != null) {
+			root = root.getParent();
+		}
+		if (!root.hasProperties()) {
+			return null;
+		}
+		Object index = root.getProperties().get(PROPERTY_KEY);
+		return index instanceof SceneOutlineIndex ? (SceneOutlineIndex) index
+				: null;
+	}
+
+	/**
+	 * Installs a {@link SceneOutlineIndex} for the given root {@link Parent}
+	 * (e.g. the root of a {@link Scene}), so that it is returned by
+	 * {@link #get(Node)} for all {@link Node}s below the root. If a
+	 * {@link SceneOutlineIndex} is already installed, it is returned.
+	 *
+	 * @param root
+	 *            The root {@link Parent} of the scene graph.
+	 * @return The {@link SceneOutlineIndex} of the given root.
+	 */
+	public static SceneOutlineIndex install(Parent root) {
+		Object index = root.getProperties().get(PROPERTY_KEY);
+		if (!(index instanceof SceneOutlineIndex)) {
+			index = new SceneOutlineIndex(root, DEFAULT_CELL_SIZE);
+			root.getProperties().put(PROPERTY_KEY, index);
+		}
+		return (SceneOutlineIndex) index;
+	}
+
+	private final Parent root;
+	private final double cellSize;
+	private final Map<Node, Entry> entries = new IdentityHashMap<>();
+	private final Set<Entry> dirty = new LinkedHashSet<>();
+	private final Map<Long, List<Entry>> cells = new HashMap<>();
+	private final List<Entry> oversized = new ArrayList<>();
+
+	private final ChangeListener<Transform> rootTransformListener = new ChangeListener<Transform>() {
+		@Override
+		public void changed(ObservableValue<? extends Transform> observable,
+				Transform oldValue, Transform newValue) {
+			// all scene coordinates are affected
+			for (Entry entry : entries.values()) {
+				invalidate(entry);
+			}
+		}
+	};
+
+	/**
+	 * Constructs a new {@link SceneOutlineIndex} for the given root
+	 * {@link Parent}, using the given grid cell size. The
+	 * {@link SceneOutlineIndex} is not installed, i.e. it is not returned by
+	 * {@link #get(Node)}.
+	 *
+	 * @param root
+	 *            The root {@link Parent} of the scene graph.
+	 * @param cellSize
+	 *            The size of the (square) grid cells, in scene coordinates.
+	 */
+	public SceneOutlineIndex(Parent root, double cellSize) {
+		if (root == null) {
+			throw new IllegalArgumentException("Root may not be null.");
+		}
+		if (!(cellSize > 0)) {
+			throw new IllegalArgumentException(
+					"Cell size has to be positive, but was " + cellSize + ".");
+		}
+		this.root = root;
+		this.cellSize = cellSize;
+		root.localToParentTransformProperty()
+				.addListener(rootTransformListener);
+	}
+
+	/**
+	 * Adds the given {@link Node} to this {@link SceneOutlineIndex}, so that
+	 * it can be found via {@link #getNodesAt(double, double, double)}. Its
+	 * outline is determined by {@link NodeUtils#getShapeOutline(Node)}.
+	 *
+	 * @param node
+	 *            The {@link Node} to add, which has to be located below the
+	 *            root of this {@link SceneOutlineIndex}.
+	 */
+	public void add(Node node) {
+		getEntry(node);
+	}
+
+	private long cellKey(int col, int row) {
+		return ((long) col << 32) | (row & 0xffffffffL);
+	}
+
+	private int cellIndex(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private void computeEntry(Entry entry) {
+		entry.dirty = false;
+		entry.localToSceneTx = NodeUtils.getLocalToSceneTx(entry.node);
+		if (entry.geometryInLocal == null) {
+			entry.geometryInLocal = NodeUtils.getShapeOutline(entry.node);
+		}
+		entry.geometryInScene = entry.geometryInLocal
+				.getTransformed(entry.localToSceneTx);
+		entry.outlinesInScene = null;
+		entry.boundsInScene = entry.geometryInScene.getBounds();
+		removeFromGrid(entry);
+		insertIntoGrid(entry);
+	}
+
+	private void flush() {
+		if (dirty.isEmpty()) {
+			return;
+		}
+		List<Entry> pending = new ArrayList<>(dirty);
+		dirty.clear();
+		for (Entry entry : pending) {
+			if (entry.dirty) {
+				computeEntry(entry);
+			}
+		}
+	}
+
+	private Entry getEntry(Node node) {
+		Entry entry = entries.get(node);
+		if (entry == null) {
+			if (!isBelowRoot(node)) {
+				throw new IllegalArgumentException("The given node <" + node
+						+ "> is not located below the root <" + root + ">.");
+			}
+			entry = new Entry(node);
+			entries.put(node, entry);
+			registerListeners(entry);
+			dirty.add(entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns the given anchorage geometry, transformed from the local
+	 * coordinate system of the given {@link Node} to scene coordinates. The
+	 * transformed geometry is cached until the {@link Node} or one of its
+	 * ancestors is transformed, or a different (i.e. non-equal) geometry is
+	 * passed in. The given geometry is copied, so that it may be modified in
+	 * place by the caller afterwards. The returned geometry is shared and may
+	 * not be modified by the caller.
+	 *
+	 * @param node
+	 *            The {@link Node} in whose local coordinate system the given
+	 *            geometry is specified, which has to be located below the
+	 *            root of this {@link SceneOutlineIndex}.
+	 * @param geometryInLocal
+	 *            The {@link IGeometry} to transform.
+	 * @return The given {@link IGeometry} in scene coordinates.
+	 */
+	public IGeometry getGeometryInScene(Node node, IGeometry geometryInLocal) {
+		Entry entry = getEntry(node);
+		if (!entry.geometryProvided
+				|| !geometryInLocal.equals(entry.geometryInLocal)) {
+			entry.geometryInLocal = geometryInLocal.getCopy();
+			entry.geometryProvided = true;
+			invalidate(entry);
+		}
+		if (entry.dirty) {
+			dirty.remove(entry);
+			computeEntry(entry);
+		}
+		return entry.geometryInScene;
+	}
+
+	/**
+	 * Returns a copy of the local-to-scene transformation of the given
+	 * {@link Node}, which is cached like the geometry returned by
+	 * {@link #getGeometryInScene(Node, IGeometry)}.
+	 *
+	 * @param node
+	 *            The {@link Node}, which has to be located below the root of
+	 *            this {@link SceneOutlineIndex}.
+	 * @return The local-to-scene {@link AffineTransform} of the given
+	 *         {@link Node}.
+	 */
+	public AffineTransform getLocalToSceneTx(Node node) {
+		Entry entry = getEntry(node);
+		if (entry.dirty) {
+			dirty.remove(entry);
+			computeEntry(entry);
+		}
+		return entry.localToSceneTx.getCopy();
+	}
+
+	/**
+	 * Returns the indexed {@link Node}s whose outline geometry (in scene
+	 * coordinates) contains the given scene position, or has a distance of at
+	 * most the given tolerance to it. The {@link Node}s are returned in
+	 * reverse paint order, i.e. the top-most {@link Node} is the first.
+	 *
+	 * @param sceneX
+	 *            The x-coordinate of the position, in scene coordinates.
+	 * @param sceneY
+	 *            The y-coordinate of the position, in scene coordinates.
+	 * @param tolerance
+	 *            The maximum distance between the position and the outline
+	 *            of a {@link Node}.
+	 * @return A list of the {@link Node}s at the given position.
+	 */
+	public List<Node> getNodesAt(double sceneX, double sceneY,
+			double tolerance) {
+		flush();
+		Set<Entry> candidates = new LinkedHashSet<>();
+		for (int col = cellIndex(sceneX - tolerance); col <= cellIndex(
+				sceneX + tolerance); col++) {
+			for (int row = cellIndex(sceneY - tolerance); row <= cellIndex(
+					sceneY + tolerance); row++) {
+				List<Entry> cell = cells.get(cellKey(col, row));
+				if (cell != null) {
+					candidates.addAll(cell);
+				}
+			}
+		}
+		candidates.addAll(oversized);
+
+		Point position = new Point(sceneX, sceneY);
+		List<Node> picked = new ArrayList<>();
+		for (Entry entry : candidates) {
+			Rectangle bounds = entry.boundsInScene;
+			if (sceneX < bounds.getX() - tolerance
+					|| sceneX > bounds.getX() + bounds.getWidth() + tolerance
+					|| sceneY < bounds.getY() - tolerance
+					|| sceneY > bounds.getY() + bounds.getHeight()
+							+ tolerance) {
+				continue;
+			}
+			if (entry.geometryInScene.contains(position)
+					|| tolerance > 0 && isNear(entry, position, tolerance)) {
+				picked.add(entry.node);
+			}
+		}
+		sortTopMostFirst(picked);
+		return picked;
+	}
+
+	/**
+	 * Returns the root {@link Parent} of this {@link SceneOutlineIndex}.
+	 *
+	 * @return The root {@link Parent}.
+	 */
+	public Parent getRoot() {
+		return root;
+	}
+
+	private void insertIntoGrid(Entry entry) {
+		Rectangle bounds = entry.boundsInScene;
+		double x = bounds.getX();
+		double y = bounds.getY();
+		double w = bounds.getWidth();
+		double h = bounds.getHeight();
+		if (Double.isNaN(x) || Double.isNaN(y) || Double.isInfinite(x + w)
+				|| Double.isInfinite(y + h)) {
+			// invalid bounds cannot be located
+			return;
+		}
+		entry.minCol = cellIndex(x);
+		entry.minRow = cellIndex(y);
+		entry.maxCol = cellIndex(x + w);
+		entry.maxRow = cellIndex(y + h);
+		entry.inGrid = true;
+		long cellCount = ((long) entry.maxCol - entry.minCol + 1)
+				* ((long) entry.maxRow - entry.minRow + 1);
+		if (cellCount > MAX_CELLS_PER_ENTRY) {
+			entry.oversized = true;
+			oversized.add(entry);
+			return;
+		}
+		for (int col = entry.minCol; col <= entry.maxCol; col++) {
+			for (int row = entry.minRow; row <= entry.maxRow; row++) {
+				Long key = cellKey(col, row);
+				List<Entry> cell = cells.get(key);
+				if (cell == null) {
+					cell = new ArrayList<>(4);
+					cells.put(key, cell);
+				}
+				cell.add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Marks the entry of the given {@link Node} as dirty, so that it is
+	 * re-computed upon the next query. This is done automatically upon visual
+	 * changes of the {@link Node}. However, listeners that react to the same
+	 * visual changes (and that query this {@link SceneOutlineIndex}) may be
+	 * notified before the index, and should thus invalidate the entry first.
+	 *
+	 * @param node
+	 *            The {@link Node} whose entry is to be invalidated.
+	 */
+	public void invalidate(Node node) {
+		Entry entry = entries.get(node);
+		if (entry != null) {
+			invalidate(entry);
+		}
+	}
+
+	private void invalidate(Entry entry) {
+		if (!entry.dirty) {
+			entry.dirty = true;
+			dirty.add(entry);
+		}
+	}
+
+	private boolean isBelowRoot(Node node) {
+		Node current = node;
+		while (current != null && current != root) {
+			current = current.getParent();
+		}
+		return current == root;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given {@link Node} is contained in this
+	 * {@link SceneOutlineIndex}, otherwise <code>false</code>.
+	 *
+	 * @param node
+	 *            The {@link Node} to test.
+	 * @return <code>true</code> if the given {@link Node} is indexed,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isIndexed(Node node) {
+		flush();
+		return entries.containsKey(node);
+	}
+
+	private boolean isNear(Entry entry, Point position, double tolerance) {
+		if (entry.outlinesInScene == null) {
+			IGeometry geometry = entry.geometryInScene;
+			if (geometry instanceof IShape) {
+				entry.outlinesInScene = Collections
+						.singletonList(((IShape) geometry).getOutline());
+			} else if (geometry instanceof ICurve) {
+				entry.outlinesInScene = Collections
+						.singletonList((ICurve) geometry);
+			} else if (geometry instanceof Path) {
+				entry.outlinesInScene = ((Path) geometry).getOutlines();
+			} else {
+				entry.outlinesInScene = Collections.emptyList();
+			}
+		}
+		for (ICurve outline : entry.outlinesInScene) {
+			Point projection = outline.getProjection(position);
+			if (projection != null
+					&& projection.getDistance(position) <= tolerance) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reacts to a parent change of the given (observed) {@link Node}, which is
+	 * the {@link Node} of the given {@link Entry} or one of its ancestors. If
+	 * the {@link Node} of the entry is no longer located below the root, the
+	 * entry is removed. As JavaFX temporarily sets the parent to
+	 * <code>null</code> when a {@link Node} is moved to another parent, the
+	 * observed {@link Node} is watched until it is added to a parent again,
+	 * so that the entry can be re-created then.
+	 */
+	private void reparent(final Entry entry, final Node observed,
+			Parent newParent) {
+		if (entries.get(entry.node) != entry) {
+			return;
+		}
+		if (newParent != null && isBelowRoot(entry.node)) {
+			// the ancestor chain changed
+			unregisterListeners(entry);
+			registerListeners(entry);
+			invalidate(entry);
+			return;
+		}
+		remove(entry.node);
+		if (newParent == null) {
+			observed.parentProperty().addListener(new ChangeListener<Parent>() {
+				@Override
+				public void changed(
+						ObservableValue<? extends Parent> observable,
+						Parent oldValue, Parent newValue) {
+					observable.removeListener(this);
+					if (newValue != null && isBelowRoot(entry.node)
+							&& !entries.containsKey(entry.node)) {
+						getEntry(entry.node);
+					}
+				}
+			});
+		}
+	}
+
+	private void registerListeners(Entry entry) {
+		entry.visualChangeListener.register(entry.node, root);
+		Node current = entry.node;
+		while (current != null && current != root) {
+			current.parentProperty().addListener(entry.parentListener);
+			entry.observedAncestors.add(current);
+			current = current.getParent();
+		}
+	}
+
+	/**
+	 * Removes the given {@link Node} from this {@link SceneOutlineIndex}.
+	 *
+	 * @param node
+	 *            The {@link Node} to remove.
+	 */
+	public void remove(Node node) {
+		Entry entry = entries.remove(node);
+		if (entry != null) {
+			unregisterListeners(entry);
+			removeFromGrid(entry);
+			dirty.remove(entry);
+		}
+	}
+
+	private void removeFromGrid(Entry entry) {
+		if (!entry.inGrid) {
+			return;
+		}
+		entry.inGrid = false;
+		if (entry.oversized) {
+			entry.oversized = false;
+			oversized.remove(entry);
+			return;
+		}
+		for (int col = entry.minCol; col <= entry.maxCol; col++) {
+			for (int row = entry.minRow; row <= entry.maxRow; row++) {
+				Long key = cellKey(col, row);
+				List<Entry> cell = cells.get(key);
+				if (cell != null) {
+					cell.remove(entry);
+					if (cell.isEmpty()) {
+						cells.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	private void sortTopMostFirst(List<Node> nodes) {
+		if (nodes.size() < 2) {
+			return;
+		}
+		final Map<Node, List<Integer>> paths = new IdentityHashMap<>();
+		for (Node node : nodes) {
+			// child indices from the root down to the node
+			List<Integer> path = new ArrayList<>();
+			Node current = node;
+			while (current != root && current.getParent() != null) {
+				path.add(current.getParent().getChildrenUnmodifiable()
+						.indexOf(current));
+				current = current.getParent();
+			}
+			Collections.reverse(path);
+			paths.put(node, path);
+		}
+		Collections.sort(nodes, new Comparator<Node>() {
+			@Override
+			public int compare(Node n1, Node n2) {
+				List<Integer> p1 = paths.get(n1);
+				List<Integer> p2 = paths.get(n2);
+				for (int i = 0; i < p1.size() && i < p2.size(); i++) {
+					int c = Integer.compare(p2.get(i), p1.get(i));
+					if (c != 0) {
+						return c;
+					}
+				}
+				// descendants are painted above their ancestors
+				return Integer.compare(p2.size(), p1.size());
+			}
+		});
+	}
+
+	/**
+	 * Removes all {@link Node}s from this {@link SceneOutlineIndex} and
+	 * uninstalls it from its root, so that it is no longer returned by
+	 * {@link #get(Node)}.
+	 */
+	public void uninstall() {
+		for (Node node : new ArrayList<>(entries.keySet())) {
+			remove(node);
+		}
+		root.localToParentTransformProperty()
+				.removeListener(rootTransformListener);
+		if (root.hasProperties()
+				&& root.getProperties().get(PROPERTY_KEY) == this) {
+			root.getProperties().remove(PROPERTY_KEY);
+		}
+	}
+
+	private void unregisterListeners(Entry entry) {
+		entry.visualChangeListener.unregister();
+		for (Node ancestor : entry.observedAncestors) {
+			ancestor.parentProperty().removeListener(entry.parentListener);
+		}
+		entry.observedAncestors.clear();
+	}
+
+}
@@ -20,7 +20,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ AffineTransformTests.class, AngleTests.class, ArcTests.class,
 		AWTConversionTests.class, BezierCurveTests.class, CubicCurveTests.class,
-		CurvedPolygonTests.class, CurveUtilsTests.class, DimensionTests.class,
+		CoordinateUtilsTests.class, CurvedPolygonTests.class,
+		CurveUtilsTests.class, DimensionTests.class,
 		EllipseTests.class, IGeometryTests.class, LineTests.class,
 		PathTests.class, PieTests.class, PointListUtilsTests.class,
 		PointTests.class, PolygonTests.class, PolylineTests.class,
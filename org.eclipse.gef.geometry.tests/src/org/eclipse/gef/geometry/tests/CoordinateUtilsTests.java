@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.CoordinateUtils;
+import org.eclipse.gef.geometry.planar.Line;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.junit.Test;
+
+public class CoordinateUtilsTests {
+
+	private static final long SEED = 123;
+
+	@Test
+	public void test_getBounds() {
+		double[] coordinates = new double[] { 99, 99, 3, 1, -2, 4, 5, -1 };
+		double[] bounds = new double[5];
+		// offset into both arrays
+		CoordinateUtils.getBounds(coordinates, 2, 3, bounds, 1);
+		assertArrayEquals(new double[] { 0, -2, -1, 7, 5 }, bounds, 0);
+		assertEquals(Point.getBounds(new Point(3, 1), new Point(-2, 4),
+				new Point(5, -1)),
+				new Rectangle(bounds[1], bounds[2], bounds[3], bounds[4]));
+
+		CoordinateUtils.getBounds(coordinates, 0, 0, bounds, 0);
+		assertArrayEquals(new double[] { 0, 0, 0, 0, 5 }, bounds, 0);
+	}
+
+	@Test
+	public void test_getIntersection() {
+		double[] poi = new double[2];
+		assertTrue(CoordinateUtils.getIntersection(0, 0, 4, 4, 0, 4, 4, 0,
+				poi, 0));
+		assertArrayEquals(new double[] { 2, 2 }, poi, 0);
+
+		// no intersection
+		assertFalse(CoordinateUtils.getIntersection(0, 0, 1, 1, 0, 4, 4, 3,
+				poi, 0));
+
+		// collinear segments touching at an end point
+		assertTrue(CoordinateUtils.getIntersection(0, 0, 2, 0, 2, 0, 5, 0,
+				poi, 0));
+		assertArrayEquals(new double[] { 2, 0 }, poi, 0);
+
+		// overlapping segments do not have a single intersection point
+		assertFalse(CoordinateUtils.getIntersection(0, 0, 3, 0, 2, 0, 5, 0,
+				poi, 0));
+
+		// degenerated segment
+		assertTrue(CoordinateUtils.getIntersection(1, 1, 1, 1, 0, 0, 2, 2,
+				poi, 0));
+		assertArrayEquals(new double[] { 1, 1 }, poi, 0);
+	}
+
+	@Test
+	public void test_getIntersection_line() {
+		Random rng = new Random(SEED);
+		double[] poi = new double[2];
+		for (int i = 0; i < 1000; i++) {
+			double[] c = new double[8];
+			for (int j = 0; j < c.length; j++) {
+				// small integer coordinates produce many special cases
+				c[j] = i % 2 == 0 ? rng.nextInt(4) : 10 * rng.nextDouble();
+			}
+			Point expected = new Line(c[0], c[1], c[2], c[3])
+					.getIntersection(new Line(c[4], c[5], c[6], c[7]));
+			boolean intersects = CoordinateUtils.getIntersection(c[0], c[1],
+					c[2], c[3], c[4], c[5], c[6], c[7], poi, 0);
+			assertEquals(expected != null, intersects);
+			if (intersects) {
+				assertEquals(expected, new Point(poi[0], poi[1]));
+			}
+		}
+	}
+
+	@Test
+	public void test_polygonContains() {
+		// concave polygon (a square with a notch from the top)
+		double[] coordinates = new double[] { 0, 0, 2, 0, 3, 2, 4, 0, 6, 0, 6,
+				6, 0, 6 };
+		Polygon polygon = new Polygon(coordinates);
+		assertTrue(CoordinateUtils.polygonContains(coordinates, 0, 7, 1, 1));
+		assertFalse(CoordinateUtils.polygonContains(coordinates, 0, 7, 3, 1));
+		// on the outline
+		assertTrue(CoordinateUtils.polygonContains(coordinates, 0, 7, 3, 2));
+		assertTrue(CoordinateUtils.polygonContains(coordinates, 0, 7, 6, 3));
+		assertFalse(CoordinateUtils.polygonContains(coordinates, 0, 7, 7, 3));
+
+		Random rng = new Random(SEED);
+		for (int i = 0; i < 1000; i++) {
+			double x = 8 * rng.nextDouble() - 1;
+			double y = i % 2 == 0 ? rng.nextInt(7) : 8 * rng.nextDouble() - 1;
+			assertEquals(polygon.contains(new Point(x, y)),
+					CoordinateUtils.polygonContains(coordinates, 0, 7, x, y));
+		}
+	}
+
+	@Test
+	public void test_segmentContains() {
+		assertTrue(CoordinateUtils.segmentContains(0, 0, 4, 2, 2, 1));
+		assertTrue(CoordinateUtils.segmentContains(0, 0, 4, 2, 4, 2));
+		assertFalse(CoordinateUtils.segmentContains(0, 0, 4, 2, 6, 3));
+		assertFalse(CoordinateUtils.segmentContains(0, 0, 4, 2, 2, 2));
+	}
+
+	@Test
+	public void test_transform() {
+		AffineTransform t = new AffineTransform().translate(1, 2).rotate(0.5)
+				.scale(2, 3);
+		Point[] points = new Point[] { new Point(1, 0), new Point(-3, 2),
+				new Point(0.5, 7) };
+		Point[] transformed = t.getTransformed(points);
+
+		double[] coordinates = new double[] { 1, 0, -3, 2, 0.5, 7 };
+		t.transform(coordinates, 0, coordinates, 0, 3);
+		for (int i = 0; i < points.length; i++) {
+			assertEquals(transformed[i],
+					new Point(coordinates[2 * i], coordinates[2 * i + 1]));
+			assertEquals(transformed[i], t.getTransformed(points[i]));
+		}
+	}
+
+	@Test
+	public void test_union() {
+		double[] bounds = new double[] { 0, 0, 2, 2, 1, -1, 4, 1 };
+		CoordinateUtils.union(bounds, 0, bounds, 4, bounds, 0);
+		assertArrayEquals(new double[] { 0, -1, 5, 3 },
+				new double[] { bounds[0], bounds[1], bounds[2], bounds[3] }, 0);
+		assertEquals(new Rectangle(0, 0, 2, 2).union(1, -1, 4, 1),
+				new Rectangle(bounds[0], bounds[1], bounds[2], bounds[3]));
+	}
+
+}
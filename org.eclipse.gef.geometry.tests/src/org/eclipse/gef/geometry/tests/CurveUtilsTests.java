@@ -12,10 +12,13 @@
  *******************************************************************************/
 package org.eclipse.gef.geometry.tests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Random;
 
 import org.eclipse.gef.geometry.euclidean.Angle;
@@ -23,9 +26,12 @@ import org.eclipse.gef.geometry.euclidean.Straight;
 import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
 import org.eclipse.gef.geometry.planar.BezierCurve;
 import org.eclipse.gef.geometry.planar.CubicCurve;
+import org.eclipse.gef.geometry.planar.CurvedPolygon;
+import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Line;
 import org.eclipse.gef.geometry.planar.Path;
 import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.PolyBezier;
 import org.eclipse.gef.geometry.planar.Polyline;
 import org.eclipse.gef.geometry.planar.QuadraticCurve;
 import org.eclipse.gef.geometry.planar.Rectangle;
@@ -249,6 +255,82 @@ public class CurveUtilsTests {
 		}
 	}
 
+	@Test
+	public void test_getIntersections_boundingVolumeHierarchy() {
+		Random rng = new Random(SEED);
+
+		for (int i = 0; i < 20; i++) {
+			Point[] points1 = new Point[10];
+			Point[] points2 = new Point[10];
+			for (int j = 0; j < points1.length; j++) {
+				points1[j] = new Point(100 * rng.nextDouble(),
+						100 * rng.nextDouble());
+				points2[j] = new Point(100 * rng.nextDouble(),
+						100 * rng.nextDouble());
+			}
+			PolyBezier p1 = PolyBezier.interpolateCubic(points1);
+			PolyBezier p2 = PolyBezier.interpolateCubic(points2);
+			BezierCurve[] edges = p2.toBezier();
+			edges[edges.length - 1].setP2(edges[0].getP1());
+			CurvedPolygon polygon = new CurvedPolygon(edges);
+			Path path = p1.toPath().close();
+			BezierCurve line = new Line(100 * rng.nextDouble(),
+					100 * rng.nextDouble(), 100 * rng.nextDouble(),
+					100 * rng.nextDouble());
+			Point[] queries = new Point[50];
+			for (int j = 0; j < queries.length; j++) {
+				queries[j] = new Point(120 * rng.nextDouble() - 10,
+						120 * rng.nextDouble() - 10);
+			}
+
+			Point[][] intersections = new Point[2][];
+			Point[][] lineIntersections = new Point[2][];
+			boolean[][] contained = new boolean[2][queries.length + 1];
+			boolean[][] touched = new boolean[2][queries.length];
+			try {
+				for (int k = 0; k < 2; k++) {
+					setBoundingVolumeHierarchyEnabled(k == 0);
+					intersections[k] = p1.getIntersections(p2);
+					lineIntersections[k] = line.getIntersections(p1);
+					for (int j = 0; j < queries.length; j++) {
+						contained[k][j] = polygon.contains(queries[j])
+								|| path.contains(queries[j]);
+						touched[k][j] = path.touches(
+								new Rectangle(queries[j], new Dimension(1, 1)));
+					}
+					contained[k][queries.length] = polygon.contains(line);
+				}
+			} finally {
+				setBoundingVolumeHierarchyEnabled(true);
+			}
+
+			assertPointsEqual(intersections[1], intersections[0]);
+			assertPointsEqual(lineIntersections[1], lineIntersections[0]);
+			assertArrayEquals(contained[1], contained[0]);
+			assertArrayEquals(touched[1], touched[0]);
+		}
+	}
+
+	private static void setBoundingVolumeHierarchyEnabled(boolean enabled) {
+		try {
+			Method setEnabled = Class
+					.forName(
+							"org.eclipse.gef.geometry.planar.BoundingVolumeHierarchy")
+					.getDeclaredMethod("setEnabled", boolean.class);
+			setEnabled.setAccessible(true);
+			setEnabled.invoke(null, enabled);
+		} catch (Exception x) {
+			throw new IllegalStateException(x);
+		}
+	}
+
+	private static void assertPointsEqual(Point[] expected, Point[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (Point p : expected) {
+			assertTrue(Arrays.asList(actual).contains(p));
+		}
+	}
+
 	@Test
 	public void test_getIntersections_linear() {
 		BezierCurve yAxis = new BezierCurve(new Point(0, 0), new Point(1, 0));
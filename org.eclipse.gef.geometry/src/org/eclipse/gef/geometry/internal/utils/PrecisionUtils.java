@@ -31,6 +31,22 @@ public class PrecisionUtils {
 	 */
 	private static final int DEFAULT_SCALE = 6;
 
+	/*
+	 * The fractions for shifts within [-MAX_CACHED_SHIFT, MAX_CACHED_SHIFT]
+	 * are computed once, as the comparison methods are used on hot paths.
+	 */
+	private static final int MAX_CACHED_SHIFT = 16;
+
+	private static final double[] FRACTIONS = new double[2 * MAX_CACHED_SHIFT
+			+ 1];
+
+	static {
+		for (int i = 0; i < FRACTIONS.length; i++) {
+			FRACTIONS[i] = 1
+					/ Math.pow(10, DEFAULT_SCALE + i - MAX_CACHED_SHIFT);
+		}
+	}
+
 	/**
 	 * Computes the smallest double that is yet recognizable (by comparison)
 	 * when shifting the default scale up by the given amount.
@@ -43,6 +59,9 @@ public class PrecisionUtils {
 	 *         shifted by the given amount.
 	 */
 	public static final double calculateFraction(int shift) {
+		if (shift >= -MAX_CACHED_SHIFT && shift <= MAX_CACHED_SHIFT) {
+			return FRACTIONS[shift + MAX_CACHED_SHIFT];
+		}
 		return 1 / Math.pow(10, DEFAULT_SCALE + shift);
 	}
 
@@ -19,6 +19,7 @@ import org.eclipse.gef.geometry.convert.awt.AWT2Geometry;
 import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
 import org.eclipse.gef.geometry.euclidean.Angle;
 import org.eclipse.gef.geometry.euclidean.Vector;
+import org.eclipse.gef.geometry.internal.utils.PointListUtils;
 
 /**
  * <p>
@@ -291,8 +292,9 @@ public class AffineTransform implements Cloneable {
 	 * @return a new, transformed {@link Point}
 	 */
 	public Point getTransformed(Point ptSrc) {
-		return AWT2Geometry.toPoint(
-				delegate.transform(Geometry2AWT.toAWTPoint(ptSrc), null));
+		double[] coordinates = new double[] { ptSrc.x, ptSrc.y };
+		transform(coordinates, 0, coordinates, 0, 1);
+		return new Point(coordinates[0], coordinates[1]);
 	}
 
 	/**
@@ -306,13 +308,9 @@ public class AffineTransform implements Cloneable {
 	 * @return an array of new, transformed {@link Point}s
 	 */
 	public Point[] getTransformed(Point[] points) {
-		Point[] result = new Point[points.length];
-
-		for (int i = 0; i < points.length; i++) {
-			result[i] = getTransformed(points[i]);
-		}
-
-		return result;
+		double[] coordinates = PointListUtils.toCoordinatesArray(points);
+		transform(coordinates, 0, coordinates, 0, points.length);
+		return PointListUtils.toPointsArray(coordinates);
 	}
 
 	/**
@@ -797,6 +795,32 @@ public class AffineTransform implements Cloneable {
 		return delegate.toString();
 	}
 
+	/**
+	 * Transforms an array of {@link Point}s specified by their coordinate
+	 * values with this {@link AffineTransform}. The source and destination
+	 * arrays may be identical, so that the coordinates can be transformed in
+	 * place without creating any {@link Point}s.
+	 *
+	 * @param srcPts
+	 *            the array of x and y coordinates specifying the {@link Point}s
+	 *            that are transformed
+	 * @param srcOff
+	 *            the index of the <i>srcPts</i> array where the x coordinate of
+	 *            the first {@link Point} to transform is found
+	 * @param dstPts
+	 *            the destination array of x and y coordinates for the result of
+	 *            the transformation
+	 * @param dstOff
+	 *            the index of the <i>dstPts</i> array where the x coordinate of
+	 *            the first transformed {@link Point} is stored
+	 * @param numPts
+	 *            the number of {@link Point}s to transform
+	 */
+	public void transform(double[] srcPts, int srcOff, double[] dstPts,
+			int dstOff, int numPts) {
+		delegate.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+	}
+
 	/**
 	 * Sets the translation values of the x and y coordinates of the
 	 * transformation matrix of this {@link AffineTransform}.
@@ -20,6 +20,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -2897,8 +2898,10 @@ public class BezierCurve extends AbstractGeometry
 	 */
 	Set<IntervalPair> getIntersectionIntervalPairs(BezierCurve other,
 			Set<Point> intersections) {
-		Set<IntervalPair> intervalPairs = new HashSet<>();
-		Set<IntervalPair> endPointIntervalPairs = new HashSet<>();
+		// use insertion ordered sets, as the iteration order of hash sets of
+		// interval pairs (which are hashed by identity) is not deterministic
+		Set<IntervalPair> intervalPairs = new LinkedHashSet<>();
+		Set<IntervalPair> endPointIntervalPairs = new LinkedHashSet<>();
 
 		IntervalPair ip = new IntervalPair(this, Interval.getFull(), other,
 				Interval.getFull());
@@ -2914,7 +2917,7 @@ public class BezierCurve extends AbstractGeometry
 		BezierCurve overlap = overlapIntervalPair == null ? null
 				: overlapIntervalPair.getPClipped();
 
-		Set<IntervalPair> results = new HashSet<>();
+		Set<IntervalPair> results = new LinkedHashSet<>();
 
 		for (IntervalPair epip : endPointIntervalPairs) {
 			if (overlapIntervalPair == null
@@ -2968,14 +2971,24 @@ public class BezierCurve extends AbstractGeometry
 	 *         and the given other {@link BezierCurve}
 	 */
 	public Point[] getIntersections(BezierCurve other) {
-		Set<Point> intersections = new HashSet<>();
+		Set<Point> intersections = new LinkedHashSet<>();
 		getIntersectionIntervalPairs(other, intersections);
 		return intersections.toArray(new Point[] {});
 	}
 
 	@Override
 	public final Point[] getIntersections(ICurve curve) {
-		Set<Point> intersections = new HashSet<>();
+		Set<Point> intersections = new LinkedHashSet<>();
+
+		// only intersect the segments whose bounds overlap
+		BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.get(curve);
+		if (bvh != null) {
+			for (int i : bvh.getCandidates(this)) {
+				intersections.addAll(
+						Arrays.asList(getIntersections(bvh.getSegment(i))));
+			}
+			return intersections.toArray(new Point[] {});
+		}
 
 		for (BezierCurve c : curve.toBezier()) {
 			intersections.addAll(Arrays.asList(getIntersections(c)));
@@ -0,0 +1,448 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+
+/**
+ * A bounding volume hierarchy (a tree of axis-aligned bounding boxes) over the
+ * {@link BezierCurve} segments of a {@link PolyBezier}, {@link CurvedPolygon},
+ * or {@link Path}. The leaves of the tree are formed by the control bounds of
+ * subdivisions of the segments, which (due to the convex hull property) fully
+ * contain the respective parts of the segments. It is used to determine the
+ * pairs of segments that may intersect (or the segments that may contain a
+ * {@link Point}), so that the expensive intersection computations can be
+ * skipped for all other segments.
+ * <p>
+ * As the intersection and containment computations of {@link BezierCurve}
+ * regard {@link Point}s within the imprecision of {@link PrecisionUtils} as
+ * being equal, all bounding boxes are enlarged by a multiple of that
+ * imprecision. The hierarchy can be disabled (for comparison) by setting the
+ * system property {@value #DISABLED_PROPERTY} to <code>true</code> (which is
+ * evaluated once, when this class is initialized), or via
+ * {@link #setEnabled(boolean)}.
+ */
+class BoundingVolumeHierarchy {
+
+	/**
+	 * The name of the system property that disables the use of
+	 * {@link BoundingVolumeHierarchy}s, if set to <code>true</code>.
+	 */
+	static final String DISABLED_PROPERTY = "org.eclipse.gef.geometry.planar.disableBoundingVolumeHierarchy";
+
+	/**
+	 * The number of times each segment is subdivided (in halves) to determine
+	 * the leaves of the hierarchy.
+	 */
+	private static final int SUBDIVISION_DEPTH = 2;
+
+	/**
+	 * The amount by which the bounding boxes are enlarged in each direction.
+	 */
+	private static final double PADDING = PrecisionUtils.calculateFraction(-1);
+
+	private static volatile boolean enabled = !Boolean
+			.getBoolean(DISABLED_PROPERTY);
+
+	/**
+	 * Returns the (cached) {@link BoundingVolumeHierarchy} for the given
+	 * {@link IGeometry}, or <code>null</code> if no hierarchy is maintained
+	 * for the given {@link IGeometry} or if the use of hierarchies is
+	 * disabled.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} for which to return the hierarchy.
+	 * @return The {@link BoundingVolumeHierarchy} of the given
+	 *         {@link IGeometry} or <code>null</code>.
+	 */
+	static BoundingVolumeHierarchy get(IGeometry geometry) {
+		if (!isEnabled()) {
+			return null;
+		}
+		if (geometry instanceof PolyBezier) {
+			return ((PolyBezier) geometry).getBoundingVolumeHierarchy();
+		} else if (geometry instanceof CurvedPolygon) {
+			return ((CurvedPolygon) geometry).getBoundingVolumeHierarchy();
+		} else if (geometry instanceof Path) {
+			return ((Path) geometry).getBoundingVolumeHierarchy();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether {@link BoundingVolumeHierarchy}s are used.
+	 *
+	 * @return <code>true</code> if hierarchies are used, <code>false</code>
+	 *         otherwise.
+	 */
+	static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Specifies whether {@link BoundingVolumeHierarchy}s are used. Initially,
+	 * they are used unless the system property {@value #DISABLED_PROPERTY} is
+	 * set to <code>true</code>.
+	 *
+	 * @param enabled
+	 *            <code>true</code> if hierarchies should be used,
+	 *            <code>false</code> otherwise.
+	 */
+	static void setEnabled(boolean enabled) {
+		BoundingVolumeHierarchy.enabled = enabled;
+	}
+
+	private final BezierCurve[] segments;
+
+	// bounds of the segments (min x, min y, max x, max y per segment)
+	private final double[] segmentBounds;
+
+	// bounds of the nodes (min x, min y, max x, max y per node)
+	private final double[] nodeBounds;
+
+	// children of the inner nodes (-1 for leaves)
+	private final int[] left;
+	private final int[] right;
+
+	// index of the segment of the leaves (-1 for inner nodes)
+	private final int[] segmentIndex;
+
+	private int nodeCount;
+
+	/**
+	 * Creates a new {@link BoundingVolumeHierarchy} for the given
+	 * {@link BezierCurve}s. The {@link BezierCurve}s are not copied, and hence
+	 * must not be modified afterwards.
+	 *
+	 * @param segments
+	 *            The {@link BezierCurve}s for which to build the hierarchy.
+	 */
+	BoundingVolumeHierarchy(BezierCurve... segments) {
+		this.segments = segments;
+		int leavesPerSegment = 1 << SUBDIVISION_DEPTH;
+		int leafCount = segments.length * leavesPerSegment;
+		segmentBounds = new double[4 * segments.length];
+		double[] leafBounds = new double[4 * leafCount];
+		for (int i = 0; i < segments.length; i++) {
+			BezierCurve[] parts = new BezierCurve[] { segments[i] };
+			for (int d = 0; d < SUBDIVISION_DEPTH; d++) {
+				BezierCurve[] split = new BezierCurve[parts.length * 2];
+				for (int j = 0; j < parts.length; j++) {
+					BezierCurve[] halves = parts[j].split(0.5);
+					split[2 * j] = halves[0];
+					split[2 * j + 1] = halves[1];
+				}
+				parts = split;
+			}
+			setEmpty(segmentBounds, i);
+			for (int j = 0; j < parts.length; j++) {
+				int leaf = i * leavesPerSegment + j;
+				setEmpty(leafBounds, leaf);
+				for (Point p : parts[j].getPoints()) {
+					include(leafBounds, leaf, p.x - PADDING, p.y - PADDING);
+					include(leafBounds, leaf, p.x + PADDING, p.y + PADDING);
+				}
+				include(segmentBounds, i, leafBounds[4 * leaf],
+						leafBounds[4 * leaf + 1]);
+				include(segmentBounds, i, leafBounds[4 * leaf + 2],
+						leafBounds[4 * leaf + 3]);
+			}
+		}
+
+		int maxNodes = Math.max(1, 2 * leafCount - 1);
+		nodeBounds = new double[4 * maxNodes];
+		left = new int[maxNodes];
+		right = new int[maxNodes];
+		segmentIndex = new int[maxNodes];
+		if (leafCount == 0) {
+			setEmpty(nodeBounds, 0);
+			left[0] = right[0] = segmentIndex[0] = -1;
+			nodeCount = 1;
+		} else {
+			Integer[] leaves = new Integer[leafCount];
+			for (int i = 0; i < leafCount; i++) {
+				leaves[i] = i;
+			}
+			build(leaves, 0, leafCount, leafBounds, leavesPerSegment);
+		}
+	}
+
+	/**
+	 * Builds the (sub-)tree for the given range of leaves by splitting them at
+	 * the median of their centers along the longer side of their bounds, and
+	 * returns the index of its root node.
+	 */
+	private int build(Integer[] leaves, int from, int to,
+			final double[] leafBounds, int leavesPerSegment) {
+		int node = nodeCount++;
+		setEmpty(nodeBounds, node);
+		for (int i = from; i < to; i++) {
+			int leaf = leaves[i];
+			include(nodeBounds, node, leafBounds[4 * leaf],
+					leafBounds[4 * leaf + 1]);
+			include(nodeBounds, node, leafBounds[4 * leaf + 2],
+					leafBounds[4 * leaf + 3]);
+		}
+		if (to - from == 1) {
+			left[node] = right[node] = -1;
+			segmentIndex[node] = leaves[from] / leavesPerSegment;
+			return node;
+		}
+		final int axis = nodeBounds[4 * node + 2]
+				- nodeBounds[4 * node] >= nodeBounds[4 * node + 3]
+						- nodeBounds[4 * node + 1] ? 0 : 1;
+		Arrays.sort(leaves, from, to, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer l1, Integer l2) {
+				return Double.compare(
+						leafBounds[4 * l1 + axis] + leafBounds[4 * l1 + axis + 2],
+						leafBounds[4 * l2 + axis]
+								+ leafBounds[4 * l2 + axis + 2]);
+			}
+		});
+		int mid = (from + to) >>> 1;
+		segmentIndex[node] = -1;
+		left[node] = build(leaves, from, mid, leafBounds, leavesPerSegment);
+		right[node] = build(leaves, mid, to, leafBounds, leavesPerSegment);
+		return node;
+	}
+
+	/**
+	 * Returns whether the given {@link Point} lies within the bounds of this
+	 * hierarchy, i.e. whether any of its segments may contain it.
+	 *
+	 * @param p
+	 *            The {@link Point} to test.
+	 * @return <code>false</code> if none of the segments can contain the given
+	 *         {@link Point}, <code>true</code> otherwise.
+	 */
+	boolean mayContain(Point p) {
+		return contains(nodeBounds, 0, p);
+	}
+
+	/**
+	 * Returns whether the given {@link Point} lies within the bounds of the
+	 * segment with the given index.
+	 *
+	 * @param segment
+	 *            The index of the segment.
+	 * @param p
+	 *            The {@link Point} to test.
+	 * @return <code>false</code> if the segment cannot contain the given
+	 *         {@link Point}, <code>true</code> otherwise.
+	 */
+	boolean mayContain(int segment, Point p) {
+		return contains(segmentBounds, segment, p);
+	}
+
+	/**
+	 * Returns whether the given {@link Rectangle} overlaps the bounds of this
+	 * hierarchy.
+	 *
+	 * @param r
+	 *            The {@link Rectangle} to test.
+	 * @return <code>false</code> if none of the segments can touch the given
+	 *         {@link Rectangle}, <code>true</code> otherwise.
+	 */
+	boolean mayTouch(Rectangle r) {
+		return overlaps(nodeBounds, 0, r.getX(), r.getY(),
+				r.getX() + r.getWidth(), r.getY() + r.getHeight());
+	}
+
+	/**
+	 * Returns whether the given {@link Rectangle} lies within the bounds of
+	 * this hierarchy.
+	 *
+	 * @param r
+	 *            The {@link Rectangle} to test.
+	 * @return <code>false</code> if the segments cannot enclose the given
+	 *         {@link Rectangle}, <code>true</code> otherwise.
+	 */
+	boolean mayEnclose(Rectangle r) {
+		return contains(nodeBounds, 0, r.getTopLeft())
+				&& contains(nodeBounds, 0, r.getBottomRight());
+	}
+
+	/**
+	 * Returns the indices of the segments that may intersect the given
+	 * {@link BezierCurve} in ascending order.
+	 *
+	 * @param curve
+	 *            The {@link BezierCurve} to test.
+	 * @return The indices of the segments whose bounds overlap the control
+	 *         bounds of the given {@link BezierCurve}.
+	 */
+	int[] getCandidates(BezierCurve curve) {
+		double[] bounds = new double[4];
+		setEmpty(bounds, 0);
+		for (Point p : curve.getPoints()) {
+			include(bounds, 0, p.x - PADDING, p.y - PADDING);
+			include(bounds, 0, p.x + PADDING, p.y + PADDING);
+		}
+		boolean[] candidate = new boolean[segments.length];
+		int[] stack = new int[nodeCount];
+		int size = 0;
+		stack[size++] = 0;
+		while (size > 0) {
+			int node = stack[--size];
+			if (!overlaps(nodeBounds, node, bounds[0], bounds[1], bounds[2],
+					bounds[3])) {
+				continue;
+			}
+			if (left[node] < 0) {
+				if (segmentIndex[node] >= 0) {
+					candidate[segmentIndex[node]] = true;
+				}
+			} else {
+				stack[size++] = left[node];
+				stack[size++] = right[node];
+			}
+		}
+		int count = 0;
+		for (boolean c : candidate) {
+			if (c) {
+				count++;
+			}
+		}
+		int[] candidates = new int[count];
+		count = 0;
+		for (int i = 0; i < candidate.length; i++) {
+			if (candidate[i]) {
+				candidates[count++] = i;
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Returns the pairs of segments of this and the given other hierarchy that
+	 * may intersect, encoded as <code>(i &lt;&lt; 32) | j</code> (where
+	 * <code>i</code> is the index of the segment of this hierarchy and
+	 * <code>j</code> is the index of the segment of the other hierarchy) in
+	 * ascending order.
+	 *
+	 * @param other
+	 *            The other {@link BoundingVolumeHierarchy}.
+	 * @return The encoded pairs of segments whose bounds overlap.
+	 */
+	long[] getCandidatePairs(BoundingVolumeHierarchy other) {
+		long[] pairs = new long[16];
+		int pairCount = 0;
+		int[] stack = new int[32];
+		int size = 0;
+		stack[size++] = 0;
+		stack[size++] = 0;
+		while (size > 0) {
+			int b = stack[--size];
+			int a = stack[--size];
+			if (!overlaps(nodeBounds, a, other.nodeBounds[4 * b],
+					other.nodeBounds[4 * b + 1], other.nodeBounds[4 * b + 2],
+					other.nodeBounds[4 * b + 3])) {
+				continue;
+			}
+			boolean leafA = left[a] < 0;
+			boolean leafB = other.left[b] < 0;
+			if (leafA && leafB) {
+				if (segmentIndex[a] >= 0 && other.segmentIndex[b] >= 0) {
+					if (pairCount == pairs.length) {
+						pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+					}
+					pairs[pairCount++] = ((long) segmentIndex[a] << 32)
+							| other.segmentIndex[b];
+				}
+				continue;
+			}
+			if (size + 4 > stack.length) {
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			}
+			// descend into the larger node (or into the inner node)
+			if (leafB || !leafA && area(nodeBounds, a) >= area(
+					other.nodeBounds, b)) {
+				stack[size++] = left[a];
+				stack[size++] = b;
+				stack[size++] = right[a];
+				stack[size++] = b;
+			} else {
+				stack[size++] = a;
+				stack[size++] = other.left[b];
+				stack[size++] = a;
+				stack[size++] = other.right[b];
+			}
+		}
+		// several leaves of the same segments may overlap
+		Arrays.sort(pairs, 0, pairCount);
+		int unique = 0;
+		for (int i = 0; i < pairCount; i++) {
+			if (unique == 0 || pairs[unique - 1] != pairs[i]) {
+				pairs[unique++] = pairs[i];
+			}
+		}
+		return Arrays.copyOf(pairs, unique);
+	}
+
+	/**
+	 * Returns the segment with the given index. The segment is not copied, and
+	 * hence must not be modified.
+	 *
+	 * @param index
+	 *            The index of the segment.
+	 * @return The {@link BezierCurve} at the given index.
+	 */
+	BezierCurve getSegment(int index) {
+		return segments[index];
+	}
+
+	/**
+	 * Returns the segments of this hierarchy. The segments are not copied,
+	 * and hence must not be modified.
+	 *
+	 * @return The {@link BezierCurve}s of this hierarchy.
+	 */
+	BezierCurve[] getSegments() {
+		return segments;
+	}
+
+	private static double area(double[] bounds, int i) {
+		return (bounds[4 * i + 2] - bounds[4 * i])
+				* (bounds[4 * i + 3] - bounds[4 * i + 1]);
+	}
+
+	private static boolean contains(double[] bounds, int i, Point p) {
+		return bounds[4 * i] <= p.x && p.x <= bounds[4 * i + 2]
+				&& bounds[4 * i + 1] <= p.y && p.y <= bounds[4 * i + 3];
+	}
+
+	private static void include(double[] bounds, int i, double x, double y) {
+		bounds[4 * i] = Math.min(bounds[4 * i], x);
+		bounds[4 * i + 1] = Math.min(bounds[4 * i + 1], y);
+		bounds[4 * i + 2] = Math.max(bounds[4 * i + 2], x);
+		bounds[4 * i + 3] = Math.max(bounds[4 * i + 3], y);
+	}
+
+	private static boolean overlaps(double[] bounds, int i, double minX,
+			double minY, double maxX, double maxY) {
+		return bounds[4 * i] <= maxX && minX <= bounds[4 * i + 2]
+				&& bounds[4 * i + 1] <= maxY && minY <= bounds[4 * i + 3];
+	}
+
+	private static void setEmpty(double[] bounds, int i) {
+		bounds[4 * i] = Double.POSITIVE_INFINITY;
+		bounds[4 * i + 1] = Double.POSITIVE_INFINITY;
+		bounds[4 * i + 2] = Double.NEGATIVE_INFINITY;
+		bounds[4 * i + 3] = Double.NEGATIVE_INFINITY;
+	}
+
+}
@@ -0,0 +1,469 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import org.eclipse.gef.geometry.euclidean.Straight;
+import org.eclipse.gef.geometry.euclidean.Vector;
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+
+/**
+ * The {@link CoordinateUtils} class provides low-level geometric computations
+ * on primitive coordinates, which are passed in as <code>double</code> values
+ * or as alternating sequences of x and y coordinates within
+ * <code>double</code> arrays. Results are written into caller-supplied arrays,
+ * so that the computations do not allocate any objects (apart from a single
+ * scratch buffer per polygon containment test, and temporary objects in the
+ * rare case of parallel segments) and may be used on hot paths (e.g. when
+ * routing connections during interaction).
+ * <p>
+ * The computations use the same imprecision as the corresponding methods of
+ * {@link Line}, {@link Polygon}, {@link Rectangle}, and {@link Point}, which
+ * delegate to them. Bounds are represented as four consecutive values (x, y,
+ * width, height). For transforming coordinates, see
+ * {@link AffineTransform#transform(double[], int, double[], int, int)}.
+ *
+ */
+public class CoordinateUtils {
+
+	private static final double RAD_360 = 2 * Math.PI;
+
+	private static final double PARALLEL_SINE = 1e-3;
+
+	/**
+	 * Computes the bounds of the given number of points, whose coordinates are
+	 * stored within the given array starting at the given offset. The bounds
+	 * are written as (x, y, width, height) into the given result array. In
+	 * case no points are given, the bounds are set to (0, 0, 0, 0).
+	 *
+	 * @param coordinates
+	 *            An array that alternately contains x and y coordinates.
+	 * @param offset
+	 *            The index of the x coordinate of the first point.
+	 * @param numPoints
+	 *            The number of points.
+	 * @param result
+	 *            The array to which the bounds are written.
+	 * @param resultOffset
+	 *            The index at which the bounds are written.
+	 */
+	public static void getBounds(double[] coordinates, int offset,
+			int numPoints, double[] result, int resultOffset) {
+		if (numPoints == 0) {
+			result[resultOffset] = 0;
+			result[resultOffset + 1] = 0;
+			result[resultOffset + 2] = 0;
+			result[resultOffset + 3] = 0;
+			return;
+		}
+		double minX = coordinates[offset];
+		double minY = coordinates[offset + 1];
+		double maxX = minX;
+		double maxY = minY;
+		for (int i = 1; i < numPoints; i++) {
+			double x = coordinates[offset + 2 * i];
+			double y = coordinates[offset + 2 * i + 1];
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+		}
+		result[resultOffset] = minX;
+		result[resultOffset + 1] = minY;
+		result[resultOffset + 2] = Math.abs(maxX - minX);
+		result[resultOffset + 3] = Math.abs(maxY - minY);
+	}
+
+	/**
+	 * Computes the single intersection point of the line segments (x1, y1) ->
+	 * (x2, y2) and (x3, y3) -> (x4, y4), in case it exists, and writes its
+	 * coordinates into the given result array. In case the segments overlap
+	 * in more than one point, or do not intersect, <code>false</code> is
+	 * returned and the result array is left unchanged.
+	 *
+	 * @param x1
+	 *            The x coordinate of the start point of the first segment.
+	 * @param y1
+	 *            The y coordinate of the start point of the first segment.
+	 * @param x2
+	 *            The x coordinate of the end point of the first segment.
+	 * @param y2
+	 *            The y coordinate of the end point of the first segment.
+	 * @param x3
+	 *            The x coordinate of the start point of the second segment.
+	 * @param y3
+	 *            The y coordinate of the start point of the second segment.
+	 * @param x4
+	 *            The x coordinate of the end point of the second segment.
+	 * @param y4
+	 *            The y coordinate of the end point of the second segment.
+	 * @param result
+	 *            The array to which the coordinates of the intersection point
+	 *            are written.
+	 * @param resultOffset
+	 *            The index at which the x coordinate of the intersection point
+	 *            is written.
+	 * @return <code>true</code> if the segments have a single intersection
+	 *         point, otherwise <code>false</code>.
+	 * @see Line#getIntersection(Line)
+	 */
+	public static boolean getIntersection(double x1, double y1, double x2,
+			double y2, double x3, double y3, double x4, double y4,
+			double[] result, int resultOffset) {
+		// degenerated cases
+		if (PrecisionUtils.equal(x1, x2) && PrecisionUtils.equal(y1, y2)) {
+			if (segmentContains(x3, y3, x4, y4, x1, y1)) {
+				return set(x1, y1, result, resultOffset);
+			} else if (segmentContains(x3, y3, x4, y4, x2, y2)) {
+				return set(x2, y2, result, resultOffset);
+			}
+			return false;
+		}
+		if (PrecisionUtils.equal(x3, x4) && PrecisionUtils.equal(y3, y4)) {
+			if (segmentContains(x1, y1, x2, y2, x3, y3)) {
+				return set(x3, y3, result, resultOffset);
+			} else if (segmentContains(x1, y1, x2, y2, x4, y4)) {
+				return set(x4, y4, result, resultOffset);
+			}
+			return false;
+		}
+
+		return intersect(x1, y1, x2, y2, x3, y3, x4, y4, result,
+				resultOffset);
+	}
+
+	/**
+	 * Handles the (rare) case of parallel segments, which intersect in a
+	 * single point only if they are collinear and touch at their end points.
+	 */
+	private static boolean getParallelIntersection(double x1, double y1,
+			double x2, double y2, double x3, double y3, double x4, double y4,
+			double[] result, int resultOffset) {
+		Straight s1 = new Straight(new Point(x1, y1), new Point(x2, y2));
+		Vector vlp1 = new Vector(x3, y3);
+		Vector vlp2 = new Vector(x4, y4);
+		if (s1.contains(vlp1) && s1.contains(vlp2)) {
+			// end-point-intersection? (no overlap)
+			double u1 = s1.getParameterAt(vlp1);
+			double u2 = s1.getParameterAt(vlp2);
+
+			if (PrecisionUtils.equal(u1, 0) && u2 < u1
+					|| PrecisionUtils.equal(u1, 1) && u2 > u1) {
+				return set(x3, y3, result, resultOffset);
+			} else if (PrecisionUtils.equal(u2, 0) && u1 < u2
+					|| PrecisionUtils.equal(u2, 1) && u1 > u2) {
+				return set(x4, y4, result, resultOffset);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tests whether the given direction vectors, which may not be of zero
+	 * length, are parallel (within the imprecision used by
+	 * {@link Vector#isParallelTo(Vector)}).
+	 */
+	private static boolean isParallel(double dx1, double dy1, double dx2,
+			double dy2) {
+		double length = Math.sqrt(dx1 * dx1 + dy1 * dy1)
+				* Math.sqrt(dx2 * dx2 + dy2 * dy2);
+		// quick rejection via the sine of the enclosed angle, which is far
+		// off the imprecision for non-parallel vectors (the exact test below
+		// is only performed for nearly parallel vectors)
+		if (Math.abs(dx1 * dy2 - dy1 * dx2) > length * PARALLEL_SINE) {
+			return false;
+		}
+		double cosAlpha = (dx1 * dx2 + dy1 * dy2) / length;
+		// compensate rounding effects
+		if (cosAlpha > 1) {
+			cosAlpha = 1;
+		} else if (cosAlpha < -1) {
+			cosAlpha = -1;
+		}
+		// the doubled angle is (close to) 0 or 360 degrees for parallel
+		// vectors
+		double rad = 2d * Math.acos(cosAlpha);
+		rad -= RAD_360 * Math.floor(rad / RAD_360);
+		return rad > 1.5 * Math.PI ? PrecisionUtils.equal(rad, RAD_360)
+				: PrecisionUtils.equal(rad, 0);
+	}
+
+	/**
+	 * Tests whether the point (x, y) is contained within the polygon that is
+	 * formed by the given number of points, whose coordinates are stored
+	 * within the given array starting at the given offset. Points on the
+	 * outline of the polygon are regarded to be contained.
+	 *
+	 * @param coordinates
+	 *            An array that alternately contains x and y coordinates.
+	 * @param offset
+	 *            The index of the x coordinate of the first point.
+	 * @param numPoints
+	 *            The number of points.
+	 * @param x
+	 *            The x coordinate of the point to test.
+	 * @param y
+	 *            The y coordinate of the point to test.
+	 * @return <code>true</code> if the point is contained within the polygon,
+	 *         otherwise <code>false</code>.
+	 * @see Polygon#contains(Point)
+	 */
+	public static boolean polygonContains(double[] coordinates, int offset,
+			int numPoints, double x, double y) {
+		return polygonContains(coordinates, offset, null, numPoints, x, y);
+	}
+
+	/**
+	 * Tests whether the point (x, y) is contained within the polygon that is
+	 * formed by the given points, see
+	 * {@link #polygonContains(double[], int, int, double, double)}. Used by
+	 * {@link Polygon#contains(double, double)}, so that its points do not have
+	 * to be copied into a coordinates array.
+	 */
+	static boolean polygonContains(Point[] points, double x, double y) {
+		return polygonContains(null, 0, points, points.length, x, y);
+	}
+
+	/**
+	 * Implements the containment test on either the given coordinates array
+	 * (if the given points are <code>null</code>) or the given points.
+	 */
+	private static boolean polygonContains(double[] coordinates, int offset,
+			Point[] points, int numPoints, double x, double y) {
+		if (numPoints == 0) {
+			return false;
+		} else if (numPoints == 1) {
+			return PrecisionUtils.equal(getX(coordinates, offset, points, 0), x)
+					&& PrecisionUtils
+							.equal(getY(coordinates, offset, points, 0), y);
+		} else if (numPoints == 2) {
+			return segmentContains(getX(coordinates, offset, points, 0),
+					getY(coordinates, offset, points, 0),
+					getX(coordinates, offset, points, 1),
+					getY(coordinates, offset, points, 1), x, y);
+		}
+
+		// perform a quick rejection test via the bounds
+		double minX = getX(coordinates, offset, points, 0);
+		double minY = getY(coordinates, offset, points, 0);
+		double maxX = minX;
+		double maxY = minY;
+		for (int i = 1; i < numPoints; i++) {
+			minX = Math.min(minX, getX(coordinates, offset, points, i));
+			minY = Math.min(minY, getY(coordinates, offset, points, i));
+			maxX = Math.max(maxX, getX(coordinates, offset, points, i));
+			maxY = Math.max(maxY, getY(coordinates, offset, points, i));
+		}
+		double width = Math.abs(maxX - minX);
+		double height = Math.abs(maxY - minY);
+		if (!rectangleContains(minX, minY, width, height, x, y)) {
+			return false;
+		}
+
+		// count the intersections of a horizontal test line from the given
+		// point to the right of the bounds with the sides of the polygon (see
+		// Polygon#contains(Point) for the handling of the special cases)
+		double tx = x + width + 1;
+		double[] poi = null;
+		boolean odd = false;
+		for (int i = 0; i < numPoints; i++) {
+			int j = i + 1 < numPoints ? i + 1 : 0;
+			double x1 = getX(coordinates, offset, points, i);
+			double y1 = getY(coordinates, offset, points, i);
+			double x2 = getX(coordinates, offset, points, j);
+			double y2 = getY(coordinates, offset, points, j);
+
+			if (PrecisionUtils.equal(x1, x2) && PrecisionUtils.equal(y1, y2)) {
+				if (PrecisionUtils.equal(x1, x) && PrecisionUtils.equal(y1, y)) {
+					return true;
+				}
+				continue;
+			}
+
+			if (segmentContains(x1, y1, x2, y2, x, y)) {
+				return true;
+			}
+
+			boolean p1contained = segmentContains(x, y, tx, y, x1, y1);
+			boolean p2contained = segmentContains(x, y, tx, y, x2, y2);
+			if (p1contained || p2contained) {
+				if (p1contained && y1 > y2) {
+					odd = !odd;
+				}
+				if (p2contained && y2 > y1) {
+					odd = !odd;
+				}
+				continue;
+			}
+
+			if (poi == null) {
+				poi = new double[2];
+			}
+			if (intersect(x, y, tx, y, x1, y1, x2, y2, poi, 0)
+					&& poi[0] >= x) {
+				odd = !odd;
+			}
+		}
+		return odd;
+	}
+
+	private static double getX(double[] coordinates, int offset,
+			Point[] points, int i) {
+		return points == null ? coordinates[offset + 2 * i] : points[i].x;
+	}
+
+	private static double getY(double[] coordinates, int offset,
+			Point[] points, int i) {
+		return points == null ? coordinates[offset + 2 * i + 1] : points[i].y;
+	}
+
+	/**
+	 * Computes the single intersection point of the given (non-degenerated)
+	 * segments, see
+	 * {@link #getIntersection(double, double, double, double, double, double, double, double, double[], int)}
+	 * .
+	 */
+	private static boolean intersect(double x1, double y1, double x2,
+			double y2, double x3, double y3, double x4, double y4,
+			double[] result, int resultOffset) {
+		double dx1 = x2 - x1;
+		double dy1 = y2 - y1;
+		double dx2 = x4 - x3;
+		double dy2 = y4 - y3;
+		if (isParallel(dx1, dy1, dx2, dy2)) {
+			return getParallelIntersection(x1, y1, x2, y2, x3, y3, x4, y4,
+					result, resultOffset);
+		}
+
+		// intersect the homogeneous representations of both straights
+		double ex1 = x1 + dx1;
+		double ey1 = y1 + dy1;
+		double ex2 = x3 + dx2;
+		double ey2 = y3 + dy2;
+		double l1x = y1 - ey1;
+		double l1y = ex1 - x1;
+		double l1z = x1 * ey1 - y1 * ex1;
+		double l2x = y3 - ey2;
+		double l2y = ex2 - x3;
+		double l2z = x3 * ey2 - y3 * ex2;
+		double z = l1x * l2y - l1y * l2x;
+		if (z == 0) {
+			return false;
+		}
+		double x = (l1y * l2z - l1z * l2y) / z;
+		double y = (l1z * l2x - l1x * l2z) / z;
+		if (segmentContains(x1, y1, x2, y2, x, y)
+				&& segmentContains(x3, y3, x4, y4, x, y)) {
+			return set(x, y, result, resultOffset);
+		}
+		return false;
+	}
+
+	private static boolean rectangleContains(double rx, double ry,
+			double width, double height, double x, double y) {
+		return PrecisionUtils.greaterEqual(y, ry)
+				&& PrecisionUtils.smallerEqual(y, ry + height)
+				&& PrecisionUtils.greaterEqual(x, rx)
+				&& PrecisionUtils.smallerEqual(x, rx + width);
+	}
+
+	/**
+	 * Tests whether the point (x, y) lies on the line segment (x1, y1) -> (x2,
+	 * y2).
+	 *
+	 * @param x1
+	 *            The x coordinate of the start point of the segment.
+	 * @param y1
+	 *            The y coordinate of the start point of the segment.
+	 * @param x2
+	 *            The x coordinate of the end point of the segment.
+	 * @param y2
+	 *            The y coordinate of the end point of the segment.
+	 * @param x
+	 *            The x coordinate of the point to test.
+	 * @param y
+	 *            The y coordinate of the point to test.
+	 * @return <code>true</code> if the point lies on the segment, otherwise
+	 *         <code>false</code>.
+	 * @see Line#contains(Point)
+	 */
+	public static boolean segmentContains(double x1, double y1, double x2,
+			double y2, double x, double y) {
+		if (PrecisionUtils.equal(x1, x) && PrecisionUtils.equal(y1, y)
+				|| PrecisionUtils.equal(x2, x) && PrecisionUtils.equal(y2, y)) {
+			return true;
+		}
+		// signed distance of the point to the straight through the end points
+		double ex = x1 + (x2 - x1);
+		double ey = y1 + (y2 - y1);
+		double lx = y1 - ey;
+		double ly = ex - x1;
+		double lz = x1 * ey - y1 * ex;
+		double f = Math.sqrt(lx * lx + ly * ly);
+		double distance = f == 0d ? 0d
+				: Math.abs(-((lx * x + ly * y + lz) / f));
+		return PrecisionUtils.equal(distance, 0)
+				&& rectangleContains(Math.min(x1, x2), Math.min(y1, y2),
+						Math.abs(x2 - x1), Math.abs(y2 - y1), x, y);
+	}
+
+	private static boolean set(double x, double y, double[] result,
+			int resultOffset) {
+		result[resultOffset] = x;
+		result[resultOffset + 1] = y;
+		return true;
+	}
+
+	/**
+	 * Computes the union of the given bounds, i.e. the smallest bounds that
+	 * contain both, and writes it as (x, y, width, height) into the given
+	 * result array, which may be identical to one of the input arrays.
+	 *
+	 * @param bounds1
+	 *            An array containing the first bounds as (x, y, width,
+	 *            height).
+	 * @param offset1
+	 *            The index of the x coordinate of the first bounds.
+	 * @param bounds2
+	 *            An array containing the second bounds as (x, y, width,
+	 *            height).
+	 * @param offset2
+	 *            The index of the x coordinate of the second bounds.
+	 * @param result
+	 *            The array to which the union is written.
+	 * @param resultOffset
+	 *            The index at which the union is written.
+	 * @see Rectangle#union(double, double, double, double)
+	 */
+	public static void union(double[] bounds1, int offset1, double[] bounds2,
+			int offset2, double[] result, int resultOffset) {
+		double x1 = bounds1[offset1];
+		double y1 = bounds1[offset1 + 1];
+		double x2 = bounds2[offset2];
+		double y2 = bounds2[offset2 + 1];
+		double right = Math.max(x1 + bounds1[offset1 + 2],
+				x2 + bounds2[offset2 + 2]);
+		double bottom = Math.max(y1 + bounds1[offset1 + 3],
+				y2 + bounds2[offset2 + 3]);
+		double x = Math.min(x1, x2);
+		double y = Math.min(y1, y2);
+		result[resultOffset] = x;
+		result[resultOffset + 1] = y;
+		result[resultOffset + 2] = right - x;
+		result[resultOffset + 3] = bottom - y;
+	}
+
+	private CoordinateUtils() {
+		// this class should not be instantiated by clients
+	}
+
+}
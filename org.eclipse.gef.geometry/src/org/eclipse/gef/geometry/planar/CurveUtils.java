@@ -12,8 +12,13 @@
  *******************************************************************************/
 package org.eclipse.gef.geometry.planar;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -41,7 +46,91 @@ class CurveUtils {
 	}
 
 	/**
-	 * Delegates to the {@link BezierCurve#getIntersections(ICurve)} method.
+	 * Returns the pairs of {@link BezierCurve} segments of the given
+	 * {@link IGeometry geometries} that may intersect, ordered by the segment
+	 * of the first and then by the segment of the second geometry. All other
+	 * pairs of segments are pruned using the {@link BoundingVolumeHierarchy}s
+	 * of the geometries. The segments of a {@link BoundingVolumeHierarchy} are
+	 * not copied, and hence must not be modified.
+	 *
+	 * @param segments1
+	 *            The segments of the first geometry, in case it does not
+	 *            provide a {@link BoundingVolumeHierarchy}.
+	 * @param bvh1
+	 *            The {@link BoundingVolumeHierarchy} of the first geometry or
+	 *            <code>null</code>.
+	 * @param segments2
+	 *            The segments of the second geometry, in case it does not
+	 *            provide a {@link BoundingVolumeHierarchy}.
+	 * @param bvh2
+	 *            The {@link BoundingVolumeHierarchy} of the second geometry or
+	 *            <code>null</code>.
+	 * @return A {@link List} of pairs of {@link BezierCurve}s.
+	 */
+	private static List<BezierCurve[]> getCandidatePairs(
+			BezierCurve[] segments1, BoundingVolumeHierarchy bvh1,
+			BezierCurve[] segments2, BoundingVolumeHierarchy bvh2) {
+		List<BezierCurve[]> pairs = new ArrayList<>();
+		if (bvh1 != null && bvh2 != null) {
+			for (long pair : bvh1.getCandidatePairs(bvh2)) {
+				pairs.add(new BezierCurve[] {
+						bvh1.getSegment((int) (pair >>> 32)),
+						bvh2.getSegment((int) pair) });
+			}
+		} else if (bvh1 != null) {
+			List<long[]> candidates = new ArrayList<>();
+			for (int j = 0; j < segments2.length; j++) {
+				for (int i : bvh1.getCandidates(segments2[j])) {
+					candidates.add(new long[] { i, j });
+				}
+			}
+			Collections.sort(candidates, new Comparator<long[]>() {
+				@Override
+				public int compare(long[] p1, long[] p2) {
+					return p1[0] != p2[0] ? Long.compare(p1[0], p2[0])
+							: Long.compare(p1[1], p2[1]);
+				}
+			});
+			for (long[] pair : candidates) {
+				pairs.add(new BezierCurve[] { bvh1.getSegment((int) pair[0]),
+						segments2[(int) pair[1]] });
+			}
+		} else if (bvh2 != null) {
+			for (BezierCurve segment1 : segments1) {
+				for (int j : bvh2.getCandidates(segment1)) {
+					pairs.add(
+							new BezierCurve[] { segment1, bvh2.getSegment(j) });
+				}
+			}
+		} else {
+			for (BezierCurve segment1 : segments1) {
+				for (BezierCurve segment2 : segments2) {
+					pairs.add(new BezierCurve[] { segment1, segment2 });
+				}
+			}
+		}
+		return pairs;
+	}
+
+	/**
+	 * Returns the pairs of {@link BezierCurve} segments of the given
+	 * {@link ICurve}s that may intersect.
+	 *
+	 * @see #getCandidatePairs(BezierCurve[], BoundingVolumeHierarchy,
+	 *      BezierCurve[], BoundingVolumeHierarchy)
+	 */
+	private static List<BezierCurve[]> getCandidatePairs(ICurve curve1,
+			ICurve curve2) {
+		BoundingVolumeHierarchy bvh1 = BoundingVolumeHierarchy.get(curve1);
+		BoundingVolumeHierarchy bvh2 = BoundingVolumeHierarchy.get(curve2);
+		return getCandidatePairs(bvh1 == null ? curve1.toBezier() : null, bvh1,
+				bvh2 == null ? curve2.toBezier() : null, bvh2);
+	}
+
+	/**
+	 * Computes the {@link Point}s of intersection of all pairs of
+	 * {@link BezierCurve} segments of the given {@link ICurve}s, skipping the
+	 * pairs that are pruned by their {@link BoundingVolumeHierarchy}s.
 	 *
 	 * @param curve1
 	 *            The first {@link ICurve} to intersect
@@ -50,11 +139,11 @@ class CurveUtils {
 	 * @return An array of intersection {@link Point}s
 	 */
 	public static Point[] getIntersections(ICurve curve1, ICurve curve2) {
-		Set<Point> intersections = new HashSet<>();
+		Set<Point> intersections = new LinkedHashSet<>();
 
-		for (BezierCurve bezier : curve1.toBezier()) {
+		for (BezierCurve[] pair : getCandidatePairs(curve1, curve2)) {
 			intersections
-					.addAll(Arrays.asList(bezier.getIntersections(curve2)));
+					.addAll(Arrays.asList(pair[0].getIntersections(pair[1])));
 		}
 
 		return intersections.toArray(new Point[] {});
@@ -117,6 +206,19 @@ class CurveUtils {
 	public static Point[] getIntersections(ICurve curve, IShape shape) {
 		Set<Point> intersections = new HashSet<>();
 
+		BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.get(shape);
+		if (bvh != null) {
+			BoundingVolumeHierarchy curveBvh = BoundingVolumeHierarchy
+					.get(curve);
+			for (BezierCurve[] pair : getCandidatePairs(
+					curveBvh == null ? curve.toBezier() : null, curveBvh, null,
+					bvh)) {
+				intersections.addAll(
+						Arrays.asList(pair[0].getIntersections(pair[1])));
+			}
+			return intersections.toArray(new Point[] {});
+		}
+
 		for (ICurve curve2 : shape.getOutlineSegments()) {
 			intersections
 					.addAll(Arrays.asList(getIntersections(curve, curve2)));
@@ -175,12 +277,10 @@ class CurveUtils {
 	public static ICurve[] getOverlaps(ICurve curve1, ICurve curve2) {
 		Set<ICurve> overlaps = new HashSet<>();
 
-		for (BezierCurve bezier1 : curve1.toBezier()) {
-			for (BezierCurve bezier2 : curve2.toBezier()) {
-				BezierCurve overlap = bezier1.getOverlap(bezier2);
-				if (overlap != null) {
-					overlaps.add(overlap);
-				}
+		for (BezierCurve[] pair : getCandidatePairs(curve1, curve2)) {
+			BezierCurve overlap = pair[0].getOverlap(pair[1]);
+			if (overlap != null) {
+				overlaps.add(overlap);
 			}
 		}
 
@@ -216,11 +316,9 @@ class CurveUtils {
 	 *         <code>false</code>
 	 */
 	public static boolean overlap(ICurve c1, ICurve c2) {
-		for (BezierCurve seg1 : c1.toBezier()) {
-			for (BezierCurve seg2 : c2.toBezier()) {
-				if (seg1.overlaps(seg2)) {
-					return true;
-				}
+		for (BezierCurve[] pair : getCandidatePairs(c1, c2)) {
+			if (pair[0].overlaps(pair[1])) {
+				return true;
 			}
 		}
 
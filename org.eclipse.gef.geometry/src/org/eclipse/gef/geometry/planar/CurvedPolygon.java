@@ -30,6 +30,7 @@ public class CurvedPolygon extends AbstractGeometry
 
 	private static final long serialVersionUID = 1L;
 	private BezierCurve[] edges;
+	private transient BoundingVolumeHierarchy boundingVolumeHierarchy;
 
 	/**
 	 * Constructs a new {@link CurvedPolygon} from the given {@link BezierCurve}
@@ -178,10 +179,17 @@ public class CurvedPolygon extends AbstractGeometry
 			return edges[0].contains(p);
 		}
 
+		// a Point outside of the bounds of all edges cannot be contained
+		BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.get(this);
+		if (bvh != null && !bvh.mayContain(p)) {
+			return false;
+		}
+
 		// compute the winding number for the given Point
 		int w = 0;
-		for (BezierCurve seg : edges) {
-			if (seg.contains(p)) {
+		for (int i = 0; i < edges.length; i++) {
+			BezierCurve seg = edges[i];
+			if ((bvh == null || bvh.mayContain(i, p)) && seg.contains(p)) {
 				return true;
 			}
 			w += computeWindingNumber(seg, p);
@@ -191,6 +199,21 @@ public class CurvedPolygon extends AbstractGeometry
 		return w != 0;
 	}
 
+	/**
+	 * Returns the (lazily created) {@link BoundingVolumeHierarchy} of the
+	 * edges of this {@link CurvedPolygon}.
+	 *
+	 * @return The {@link BoundingVolumeHierarchy} of this {@link CurvedPolygon}
+	 *         .
+	 */
+	BoundingVolumeHierarchy getBoundingVolumeHierarchy() {
+		if (boundingVolumeHierarchy == null) {
+			boundingVolumeHierarchy = new BoundingVolumeHierarchy(
+					CurveUtils.getCopy(edges));
+		}
+		return boundingVolumeHierarchy;
+	}
+
 	@Override
 	public Rectangle getBounds() {
 		if (edges == null || edges.length == 0) {
@@ -398,6 +421,7 @@ public class CurvedPolygon extends AbstractGeometry
 		for (BezierCurve c : edges) {
 			c.rotateCCW(angle, cx, cy);
 		}
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -446,6 +470,7 @@ public class CurvedPolygon extends AbstractGeometry
 		for (BezierCurve c : edges) {
 			c.rotateCW(angle, cx, cy);
 		}
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -485,6 +510,7 @@ public class CurvedPolygon extends AbstractGeometry
 		for (BezierCurve c : edges) {
 			c.scale(fx, fy, cx, cy);
 		}
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -521,6 +547,7 @@ public class CurvedPolygon extends AbstractGeometry
 		for (BezierCurve c : edges) {
 			c.translate(dx, dy);
 		}
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
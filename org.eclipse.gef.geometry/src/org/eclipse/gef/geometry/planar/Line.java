@@ -108,13 +108,10 @@ public class Line extends BezierCurve {
 		if (p == null) {
 			return false;
 		}
-		if (getP1().equals(p) || getP2().equals(p)) {
-			return true;
-		}
-
-		double distance = Math.abs(new Straight(getP1(), getP2())
-				.getSignedDistanceCCW(new Vector(p)));
-		return PrecisionUtils.equal(distance, 0) && getBounds().contains(p);
+		Point p1 = getP1();
+		Point p2 = getP2();
+		return CoordinateUtils.segmentContains(p1.x, p1.y, p2.x, p2.y, p.x,
+				p.y);
 	}
 
 	/**
@@ -213,56 +210,14 @@ public class Line extends BezierCurve {
 	public Point getIntersection(Line l) {
 		Point p1 = getP1();
 		Point p2 = getP2();
-
-		// degenerated case
-		if (p1.equals(p2)) {
-			if (l.contains(p1)) {
-				return p1;
-			} else if (l.contains(p2)) {
-				return p2;
-			}
-			return null;
-		}
-
 		Point lp1 = l.getP1();
 		Point lp2 = l.getP2();
-
-		// degenerated case
-		if (lp1.equals(lp2)) {
-			if (contains(lp1)) {
-				return lp1;
-			} else if (contains(lp2)) {
-				return lp2;
-			}
-			return null;
-		}
-
-		Straight s1 = new Straight(p1, p2);
-		Straight s2 = new Straight(lp1, lp2);
-
-		if (s1.isParallelTo(s2)) {
-			Vector vlp1 = new Vector(lp1);
-			Vector vlp2 = new Vector(lp2);
-			if (s1.contains(vlp1) && s1.contains(vlp2)) {
-				// end-point-intersection? (no overlap)
-				double u1 = s1.getParameterAt(vlp1);
-				double u2 = s1.getParameterAt(vlp2);
-
-				if (PrecisionUtils.equal(u1, 0) && u2 < u1
-						|| PrecisionUtils.equal(u1, 1) && u2 > u1) {
-					return lp1;
-				} else if (PrecisionUtils.equal(u2, 0) && u1 < u2
-						|| PrecisionUtils.equal(u2, 1) && u1 > u2) {
-					return lp2;
-				}
-			}
-
-			return null;
+		double[] poi = new double[2];
+		if (CoordinateUtils.getIntersection(p1.x, p1.y, p2.x, p2.y, lp1.x,
+				lp1.y, lp2.x, lp2.y, poi, 0)) {
+			return new Point(poi[0], poi[1]);
 		}
-
-		Point intersection = s1.getIntersection(s2).toPoint();
-		return contains(intersection) && l.contains(intersection) ? intersection
-				: null;
+		return null;
 	}
 
 	@Override
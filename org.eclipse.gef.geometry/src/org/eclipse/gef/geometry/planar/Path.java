@@ -314,6 +314,8 @@ public class Path extends AbstractGeometry implements IGeometry {
 
 	private List<Segment> segments = new ArrayList<>();
 
+	private transient BoundingVolumeHierarchy boundingVolumeHierarchy;
+
 	/**
 	 * Creates a new empty path with a default winding rule of
 	 * {@link #WIND_NON_ZERO}.
@@ -368,6 +370,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path add(List<Segment> segments) {
 		this.segments.addAll(segments);
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -380,6 +383,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path add(Segment... segments) {
 		this.segments.addAll(Arrays.asList(segments));
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -391,11 +395,16 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path close() {
 		segments.add(new Segment(Segment.CLOSE));
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
 	@Override
 	public boolean contains(Point p) {
+		BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.get(this);
+		if (bvh != null && !bvh.mayContain(p)) {
+			return false;
+		}
 		return Geometry2AWT.toAWTPath(this)
 				.contains(Geometry2AWT.toAWTPoint(p));
 	}
@@ -412,6 +421,10 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 *         within this {@link IGeometry}
 	 */
 	public boolean contains(Rectangle r) {
+		BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.get(this);
+		if (bvh != null && !bvh.mayEnclose(r)) {
+			return false;
+		}
 		return Geometry2AWT.toAWTPath(this)
 				.contains(Geometry2AWT.toAWTRectangle(r));
 	}
@@ -440,6 +453,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 		segments.add(
 				new Segment(Segment.CUBIC_TO, new Point(control1X, control1Y),
 						new Point(control2X, control2Y), new Point(x, y)));
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -456,6 +470,30 @@ public class Path extends AbstractGeometry implements IGeometry {
 		return false;
 	}
 
+	/**
+	 * Returns the (lazily created) {@link BoundingVolumeHierarchy} of the
+	 * outline segments of this {@link Path}, or <code>null</code> if this
+	 * {@link Path} does not start with a {@link Segment#MOVE_TO}.
+	 *
+	 * @return The {@link BoundingVolumeHierarchy} of this {@link Path} or
+	 *         <code>null</code>.
+	 */
+	BoundingVolumeHierarchy getBoundingVolumeHierarchy() {
+		if (boundingVolumeHierarchy == null) {
+			if (!segments.isEmpty()
+					&& segments.get(0).getType() != Segment.MOVE_TO) {
+				return null;
+			}
+			List<BezierCurve> beziers = new ArrayList<>();
+			for (ICurve outline : getOutlines()) {
+				beziers.addAll(Arrays.asList(outline.toBezier()));
+			}
+			boundingVolumeHierarchy = new BoundingVolumeHierarchy(
+					beziers.toArray(new BezierCurve[] {}));
+		}
+		return boundingVolumeHierarchy;
+	}
+
 	@Override
 	public Rectangle getBounds() {
 		List<ICurve> outlines = getOutlines();
@@ -575,6 +613,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path lineTo(double x, double y) {
 		segments.add(new Segment(Segment.LINE_TO, new Point(x, y)));
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -590,6 +629,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path moveTo(double x, double y) {
 		segments.add(new Segment(Segment.MOVE_TO, new Point(x, y)));
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -612,6 +652,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 			double y) {
 		segments.add(new Segment(Segment.QUAD_TO, new Point(controlX, controlY),
 				new Point(x, y)));
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -622,6 +663,7 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 */
 	public final Path reset() {
 		segments.clear();
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -662,6 +704,10 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 * @see IGeometry#touches(IGeometry)
 	 */
 	public boolean touches(Rectangle r) {
+		BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.get(this);
+		if (bvh != null && !bvh.mayTouch(r)) {
+			return false;
+		}
 		return Geometry2AWT.toAWTPath(this)
 				.intersects(Geometry2AWT.toAWTRectangle(r));
 	}
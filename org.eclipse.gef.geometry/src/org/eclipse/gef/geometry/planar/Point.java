@@ -87,14 +87,18 @@ public class Point implements Cloneable, Serializable {
 		if (points.length == 0) {
 			return new Rectangle();
 		}
-		// calculate bounds
-		Point topLeft = points[0];
-		Point bottomRight = points[0];
+		double minX = points[0].x;
+		double minY = points[0].y;
+		double maxX = minX;
+		double maxY = minY;
 		for (Point p : points) {
-			topLeft = Point.min(topLeft, p);
-			bottomRight = Point.max(bottomRight, p);
+			minX = Math.min(minX, p.x);
+			minY = Math.min(minY, p.y);
+			maxX = Math.max(maxX, p.x);
+			maxY = Math.max(maxY, p.y);
 		}
-		return new Rectangle(topLeft, bottomRight);
+		return new Rectangle(minX, minY, Math.abs(maxX - minX),
+				Math.abs(maxY - minY));
 	}
 
 	/**
@@ -199,6 +199,8 @@ public class PolyBezier extends AbstractGeometry
 
 	private BezierCurve[] beziers;
 
+	private transient BoundingVolumeHierarchy boundingVolumeHierarchy;
+
 	/**
 	 * Constructs a new {@link PolyBezier} of the given {@link BezierCurve}s.
 	 * The {@link BezierCurve}s are expected to be connected with each other.
@@ -236,6 +238,20 @@ public class PolyBezier extends AbstractGeometry
 		return bounds;
 	}
 
+	/**
+	 * Returns the (lazily created) {@link BoundingVolumeHierarchy} of the
+	 * segments of this {@link PolyBezier}.
+	 *
+	 * @return The {@link BoundingVolumeHierarchy} of this {@link PolyBezier}.
+	 */
+	BoundingVolumeHierarchy getBoundingVolumeHierarchy() {
+		if (boundingVolumeHierarchy == null) {
+			boundingVolumeHierarchy = new BoundingVolumeHierarchy(
+					copy(beziers));
+		}
+		return boundingVolumeHierarchy;
+	}
+
 	@Override
 	public PolyBezier getCopy() {
 		return new PolyBezier(beziers);
@@ -422,6 +438,7 @@ public class PolyBezier extends AbstractGeometry
 		for (BezierCurve c : beziers) {
 			c.rotateCCW(angle, cx, cy);
 		}
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -476,6 +493,7 @@ public class PolyBezier extends AbstractGeometry
 		for (BezierCurve c : beziers) {
 			c.rotateCW(angle, cx, cy);
 		}
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -519,6 +537,7 @@ public class PolyBezier extends AbstractGeometry
 		for (BezierCurve c : beziers) {
 			c.scale(fx, fy, cx, cy);
 		}
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
@@ -560,6 +579,7 @@ public class PolyBezier extends AbstractGeometry
 		for (BezierCurve c : beziers) {
 			c.translate(dx, dy);
 		}
+		boundingVolumeHierarchy = null;
 		return this;
 	}
 
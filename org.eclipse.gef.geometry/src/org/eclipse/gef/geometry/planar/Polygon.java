@@ -234,7 +234,7 @@ public class Polygon extends AbstractPointListBasedGeometry<Polygon>
 	 *         otherwise
 	 */
 	public boolean contains(double x, double y) {
-		return contains(new Point(x, y));
+		return CoordinateUtils.polygonContains(points, x, y);
 	}
 
 	@Override
@@ -306,101 +306,7 @@ public class Polygon extends AbstractPointListBasedGeometry<Polygon>
 	 */
 	@Override
 	public boolean contains(Point p) {
-		if (points.length == 0) {
-			return false;
-		} else if (points.length == 1) {
-			return points[0].equals(p);
-		} else if (points.length == 2) {
-			return new Line(points[0], points[1]).contains(p);
-		} else {
-			// perform a quick rejection test via the bounds
-			Rectangle bounds = getBounds();
-			if (!bounds.contains(p)) {
-				return false;
-			}
-
-			/*
-			 * choose a point p' outside the polygon:
-			 */
-			Point pp = new Point(p.x + bounds.getWidth() + 1, p.y);
-
-			/*
-			 * construct a line from p to p':
-			 */
-			Line testLine = new Line(p, pp);
-
-			/*
-			 * compute if there is an even or odd number of intersection of the
-			 * test line with all sides of the polygon; handle the special case
-			 * the point is located on one of the sides
-			 */
-			boolean odd = false;
-			for (int i = 0; i < points.length; i++) {
-				Point p1 = points[i];
-				Point p2 = points[i + 1 < points.length ? i + 1 : 0];
-
-				// check whether the point is located on the current side
-				if (p1.equals(p2)) {
-					if (p1.equals(p)) {
-						return true;
-					}
-					continue;
-				}
-
-				Line segment = new Line(p1, p2);
-
-				if (segment.contains(p)) {
-					return true;
-				}
-
-				/*
-				 * check if one of the two vertices of the link line is
-				 * contained by the test line. the containment test is done to
-				 * handle special cases where the intersection has to be counted
-				 * appropriately.
-				 * 
-				 * 1) if the vertex is above (greater y-component) the other
-				 * point of the line, it is counted once.
-				 * 
-				 * 2) if the vertex is below (lower y-component) or on the same
-				 * height as the other point of the line, it is omitted.
-				 */
-				boolean p1contained = testLine.contains(p1);
-				boolean p2contained = testLine.contains(p2);
-
-				// TODO: is imprecision needed for this test?
-				if (p1contained || p2contained) {
-					if (p1contained) {
-						if (p1.y > p2.y) {
-							odd = !odd;
-						}
-					}
-					if (p2contained) {
-						if (p2.y > p1.y) {
-							odd = !odd;
-						}
-					}
-					continue;
-				}
-
-				/*
-				 * check the current link for an intersection with the test
-				 * line. if there is an intersection, change state.
-				 * 
-				 * Special case error prevention: If the point in question (p)
-				 * is very near to an edge of and inside the polygon, it can
-				 * happen, that the edge.contains(p) is false, but an
-				 * intersection can be found, although p is right to the edge.
-				 * To prevent a wrong state change, the intersection has to be
-				 * right-of p.
-				 */
-				Point poi = testLine.getIntersection(segment);
-				if (poi != null && poi.x >= p.x) {
-					odd = !odd;
-				}
-			}
-			return odd;
-		}
+		return contains(p.x, p.y);
 	}
 
 	/**
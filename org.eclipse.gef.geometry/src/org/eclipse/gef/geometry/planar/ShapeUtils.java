@@ -328,14 +328,26 @@ class ShapeUtils {
 
 		Set<Double> intersectionParams = new HashSet<>();
 
-		for (ICurve segC : shape.getOutlineSegments()) {
-			for (BezierCurve seg : segC.toBezier()) {
+		// only intersect the outline segments whose bounds overlap
+		BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.get(shape);
+		if (bvh != null) {
+			for (int i : bvh.getCandidates(c)) {
 				Set<Point> inters = new HashSet<>();
-				c.getIntersectionIntervalPairs(seg, inters);
+				c.getIntersectionIntervalPairs(bvh.getSegment(i), inters);
 				for (Point poi : inters) {
 					intersectionParams.add(c.getParameterAt(poi));
 				}
 			}
+		} else {
+			for (ICurve segC : shape.getOutlineSegments()) {
+				for (BezierCurve seg : segC.toBezier()) {
+					Set<Point> inters = new HashSet<>();
+					c.getIntersectionIntervalPairs(seg, inters);
+					for (Point poi : inters) {
+						intersectionParams.add(c.getParameterAt(poi));
+					}
+				}
+			}
 		}
 
 		/*
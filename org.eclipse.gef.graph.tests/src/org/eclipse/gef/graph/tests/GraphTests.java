@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.junit.Test;
+
+import javafx.collections.ListChangeListener;
+
+public class GraphTests {
+
+	@Test
+	public void batch() {
+		final Graph graph = new Graph();
+		final List<String> notifications = new ArrayList<>();
+		graph.getNodes().addListener(new ListChangeListener<Node>() {
+			@Override
+			public void onChanged(ListChangeListener.Change<? extends Node> c) {
+				int added = 0;
+				while (c.next()) {
+					added += c.getAddedSize();
+				}
+				notifications.add("nodes " + added);
+			}
+		});
+		graph.getEdges().addListener(new ListChangeListener<Edge>() {
+			@Override
+			public void onChanged(ListChangeListener.Change<? extends Edge> c) {
+				int added = 0;
+				while (c.next()) {
+					added += c.getAddedSize();
+				}
+				notifications.add("edges " + added);
+			}
+		});
+
+		final Node[] nodes = new Node[100];
+		graph.batch(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < nodes.length; i++) {
+					nodes[i] = new Node();
+					graph.getNodes().add(nodes[i]);
+					if (i > 0) {
+						graph.getEdges().add(new Edge(nodes[i - 1], nodes[i]));
+					}
+				}
+				// nested updates are included in the outer one
+				graph.batch(new Runnable() {
+					@Override
+					public void run() {
+						graph.getEdges()
+								.add(new Edge(nodes[nodes.length - 1], nodes[0]));
+					}
+				});
+				assertTrue(notifications.isEmpty());
+			}
+		});
+
+		// one notification per list, nodes before edges
+		assertEquals(2, notifications.size());
+		assertEquals("nodes 100", notifications.get(0));
+		assertEquals("edges 100", notifications.get(1));
+		assertEquals(graph, nodes[0].getGraph());
+		assertEquals(graph, graph.getEdges().get(0).getGraph());
+		assertEquals(1, nodes[0].getIncomingEdges().size());
+		assertEquals(1, nodes[0].getOutgoingEdges().size());
+	}
+
+	@Test
+	public void incidentEdges() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Node n3 = new Node();
+		Edge e1 = new Edge(n1, n2);
+		Edge e2 = new Edge(n1, n3);
+		Graph graph = new Graph.Builder().nodes(n1, n2, n3).edges(e1, e2)
+				.build();
+
+		Set<Edge> outgoing = n1.getOutgoingEdgesView();
+		assertEquals(2, outgoing.size());
+		assertTrue(outgoing.contains(e1));
+		assertTrue(outgoing.contains(e2));
+		assertTrue(n1.getIncomingEdges().isEmpty());
+		assertEquals(1, n2.getIncomingEdges().size());
+		assertTrue(n2.getIncomingEdges().contains(e1));
+		assertEquals(2, n1.getSuccessorNodes().size());
+		assertEquals(1, n3.getPredecessorNodes().size());
+
+		// the returned views reflect changes of the graph
+		graph.getEdges().remove(e2);
+		assertEquals(1, outgoing.size());
+		assertFalse(outgoing.contains(e2));
+		assertTrue(n3.getIncomingEdges().isEmpty());
+
+		Edge e3 = new Edge(n3, n2);
+		graph.getEdges().add(e3);
+		assertEquals(2, n2.getIncomingEdges().size());
+		assertTrue(n3.getOutgoingEdges().contains(e3));
+
+		// changing source or target updates the index
+		e3.setTarget(n1);
+		assertEquals(1, n2.getIncomingEdges().size());
+		assertTrue(n1.getIncomingEdges().contains(e3));
+		e3.setSource(n2);
+		assertTrue(n3.getOutgoingEdges().isEmpty());
+		assertTrue(n2.getOutgoingEdges().contains(e3));
+		assertTrue(n1.getNeighbors().contains(n2));
+
+		// removed nodes have no incident edges
+		graph.getNodes().remove(n2);
+		assertTrue(n2.getIncomingEdges().isEmpty());
+		assertTrue(n2.getOutgoingEdges().isEmpty());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void incidentEdgesUnmodifiable() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		new Graph.Builder().nodes(n1, n2).edges(new Edge(n1, n2)).build();
+		n1.getOutgoingEdgesView().clear();
+	}
+
+	@Test
+	public void incidentEdgesSnapshot() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Edge e1 = new Edge(n1, n1);
+		Graph graph = new Graph.Builder().nodes(n1, n2).edges(e1).build();
+
+		// the graph may be changed while iterating the returned sets
+		for (Edge e : n1.getIncomingEdges()) {
+			graph.getEdges().add(new Edge(e.getSource(), e.getTarget()));
+		}
+		for (Edge e : n1.getOutgoingEdges()) {
+			graph.getEdges().add(new Edge(e.getSource(), n2));
+		}
+		assertEquals(4, graph.getEdges().size());
+		assertEquals(4, n1.getOutgoingEdges().size());
+		assertEquals(2, n1.getIncomingEdges().size());
+		assertEquals(2, n2.getIncomingEdges().size());
+
+		// the returned sets do not reflect later changes
+		Set<Edge> incoming = n2.getIncomingEdges();
+		graph.getEdges().clear();
+		assertEquals(2, incoming.size());
+		assertTrue(n2.getIncomingEdgesView().isEmpty());
+	}
+}
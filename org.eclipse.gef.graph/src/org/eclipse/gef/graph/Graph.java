@@ -17,7 +17,9 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -332,6 +334,20 @@ public final class Graph implements IAttributeStore {
 	 */
 	private Node nestingNode; // when contained as a nested graph within a node
 
+	/**
+	 * Incoming {@link Edge}s of this {@link Graph}, indexed by their
+	 * {@link Edge#getTarget() target}. Kept in sync with the
+	 * {@link #getEdges() edges}.
+	 */
+	private final Map<Node, List<Edge>> incomingEdges = new IdentityHashMap<>();
+
+	/**
+	 * Outgoing {@link Edge}s of this {@link Graph}, indexed by their
+	 * {@link Edge#getSource() source}. Kept in sync with the
+	 * {@link #getEdges() edges}.
+	 */
+	private final Map<Node, List<Edge>> outgoingEdges = new IdentityHashMap<>();
+
 	/**
 	 * Default constructor, using empty collections for attributes, nodes, and
 	 * edges.
@@ -385,12 +401,14 @@ public final class Graph implements IAttributeStore {
 			@Override
 			public void onChanged(ListChangeListener.Change<? extends Edge> c) {
 				while (c.next()) {
-					for (Edge e : c.getAddedSubList()) {
-						e.setGraph(Graph.this);
-					}
 					for (Edge e : c.getRemoved()) {
+						unindexEdge(e);
 						e.setGraph(null);
 					}
+					for (Edge e : c.getAddedSubList()) {
+						e.setGraph(Graph.this);
+						indexEdge(e);
+					}
 				}
 			}
 		});
@@ -398,11 +416,81 @@ public final class Graph implements IAttributeStore {
 		this.edgesProperty.addAll(edges);
 	}
 
+	private static void addToIndex(Map<Node, List<Edge>> index, Node node, Edge edge) {
+		if (node == null) {
+			return;
+		}
+		List<Edge> edges = index.get(node);
+		if (edges == null) {
+			edges = new ArrayList<>(2);
+			index.put(node, edges);
+		}
+		for (Edge e : edges) {
+			if (e == edge) {
+				return;
+			}
+		}
+		edges.add(edge);
+	}
+
+	private static void removeFromIndex(Map<Node, List<Edge>> index, Node node, Edge edge) {
+		if (node == null) {
+			return;
+		}
+		List<Edge> edges = index.get(node);
+		if (edges == null) {
+			return;
+		}
+		for (int i = 0; i < edges.size(); i++) {
+			if (edges.get(i) == edge) {
+				edges.remove(i);
+				break;
+			}
+		}
+		if (edges.isEmpty()) {
+			index.remove(node);
+		}
+	}
+
 	@Override
 	public ReadOnlyMapProperty<String, Object> attributesProperty() {
 		return attributesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Performs the given update on this {@link Graph}, so that all changes
+	 * applied to its {@link #getNodes() nodes} and {@link #getEdges() edges}
+	 * during the update are reported to listeners by a single, batched change
+	 * notification per list after the update has been performed (nodes are
+	 * notified before edges). Calls may be nested, in which case notification
+	 * is deferred until the outermost update has been performed.
+	 * <p>
+	 * As the association of {@link Node}s and {@link Edge}s with this
+	 * {@link Graph} is updated in response to the notifications, the
+	 * {@link Node#getGraph() graph} of added {@link Node}s (and
+	 * {@link Edge#getGraph() graph} of added {@link Edge}s), as well as the
+	 * {@link Node#getIncomingEdgesView() incoming} and
+	 * {@link Node#getOutgoingEdgesView() outgoing} edges of the {@link Node}s, are
+	 * not updated before the update has been performed.
+	 * <p>
+	 * Changes of the {@link #getAttributes() attributes} are not batched, as
+	 * an {@link ObservableMap} reports each changed key individually.
+	 *
+	 * @param update
+	 *            The {@link Runnable} that changes this {@link Graph}.
+	 */
+	public void batch(final Runnable update) {
+		// edges are batched in the outer scope, so that the nodes change is
+		// fired first (and edges are only reported when their source and
+		// target nodes are already known)
+		CollectionUtils.batch(edgesProperty, new Runnable() {
+			@Override
+			public void run() {
+				CollectionUtils.batch(nodesProperty, update);
+			}
+		});
+	}
+
 	/**
 	 * Returns a read-only list property containing the {@link Edge}s of this
 	 * {@link Graph}.
@@ -427,6 +515,25 @@ public final class Graph implements IAttributeStore {
 		return edgesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Returns the {@link Edge}s of this {@link Graph} that are incoming to
+	 * (i.e. targeted at) the given {@link Node}, or outgoing from (i.e. sourced
+	 * at) the given {@link Node}. The returned list is maintained by this
+	 * {@link Graph} and may not be modified.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the incident edges.
+	 * @param incoming
+	 *            <code>true</code> to return the incoming edges,
+	 *            <code>false</code> to return the outgoing edges.
+	 * @return The incoming or outgoing {@link Edge}s of the given {@link Node}
+	 *         .
+	 */
+	List<Edge> getIncidentEdges(Node node, boolean incoming) {
+		List<Edge> edges = (incoming ? incomingEdges : outgoingEdges).get(node);
+		return edges == null ? Collections.<Edge> emptyList() : edges;
+	}
+
 	/**
 	 * Returns the {@link Node} in which this {@link Graph} is nested. Returns
 	 * <code>null</code> when this {@link Graph} is not nested.
@@ -470,6 +577,18 @@ public final class Graph implements IAttributeStore {
 		return nodesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Adds the given {@link Edge} to the incoming and outgoing edge indexes of
+	 * this {@link Graph}.
+	 *
+	 * @param edge
+	 *            The {@link Edge} to index.
+	 */
+	void indexEdge(Edge edge) {
+		addToIndex(incomingEdges, edge.getTarget(), edge);
+		addToIndex(outgoingEdges, edge.getSource(), edge);
+	}
+
 	/**
 	 * Sets the nesting {@link Node} of this {@link Graph}.
 	 *
@@ -530,4 +649,15 @@ public final class Graph implements IAttributeStore {
 		return sb.toString();
 	}
 
+	/**
+	 * Removes the given {@link Edge} from the incoming and outgoing edge
+	 * indexes of this {@link Graph}.
+	 *
+	 * @param edge
+	 *            The {@link Edge} to remove from the indexes.
+	 */
+	void unindexEdge(Edge edge) {
+		removeFromIndex(incomingEdges, edge.getTarget(), edge);
+		removeFromIndex(outgoingEdges, edge.getSource(), edge);
+	}
 }
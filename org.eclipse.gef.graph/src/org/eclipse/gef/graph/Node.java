@@ -14,10 +14,12 @@
 package org.eclipse.gef.graph;
 
 import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -209,6 +211,46 @@ public class Node implements IAttributeStore {
 
 	}
 
+	/**
+	 * An unmodifiable {@link Set} view on the incoming or outgoing {@link Edge}
+	 * s of this {@link Node}, as indexed by the associated {@link Graph}.
+	 */
+	private class IncidentEdgesView extends AbstractSet<Edge> {
+
+		private final boolean incoming;
+
+		public IncidentEdgesView(boolean incoming) {
+			this.incoming = incoming;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			for (Edge e : getEdges()) {
+				if (e == o) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private List<Edge> getEdges() {
+			if (graph == null) {
+				return Collections.emptyList();
+			}
+			return graph.getIncidentEdges(Node.this, incoming);
+		}
+
+		@Override
+		public Iterator<Edge> iterator() {
+			return Collections.unmodifiableList(getEdges()).iterator();
+		}
+
+		@Override
+		public int size() {
+			return getEdges().size();
+		}
+	}
+
 	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
 			ATTRIBUTES_PROPERTY, FXCollections.<String, Object>observableHashMap());
 
@@ -216,6 +258,10 @@ public class Node implements IAttributeStore {
 	 * The {@link Graph} which this {@link Node} belongs to.
 	 */
 	private Graph graph; // associated graph
+
+	// read-only views on the incident edges indexed by the associated graph
+	private final Set<Edge> incomingEdges = new IncidentEdgesView(true);
+	private final Set<Edge> outgoingEdges = new IncidentEdgesView(false);
 	/**
 	 * The {@link Graph} that is nested inside of this {@link Node}.
 	 */
@@ -259,7 +305,7 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> incoming = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		incoming.addAll(getIncomingEdges());
+		incoming.addAll(incomingEdges);
 		if (graph.getNestingNode() != null) {
 			incoming.addAll(graph.getNestingNode().getAllIncomingEdges());
 		}
@@ -292,7 +338,7 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> outgoing = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		outgoing.addAll(getOutgoingEdges());
+		outgoing.addAll(outgoingEdges);
 		if (graph.getNestingNode() != null) {
 			outgoing.addAll(graph.getNestingNode().getAllOutgoingEdges());
 		}
@@ -354,7 +400,10 @@ public class Node implements IAttributeStore {
 	/**
 	 * Returns the local incoming {@link Edge}s of this {@link Node}. Only the
 	 * {@link #getGraph() associated graph} is scanned for incoming edges, and
-	 * not the whole graph hierarchy.
+	 * not the whole graph hierarchy. The returned set is a snapshot, i.e. it
+	 * does not reflect subsequent changes of the graph, so that the graph may
+	 * safely be changed while iterating it. Use {@link #getIncomingEdgesView()}
+	 * to obtain a live view without copying.
 	 *
 	 * @return The local incoming {@link Edge}s.
 	 */
@@ -363,14 +412,24 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> incoming = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		for (Edge e : graph.getEdges()) {
-			if (e.getTarget() == this) {
-				incoming.add(e);
-			}
-		}
+		incoming.addAll(incomingEdges);
 		return incoming;
 	}
 
+	/**
+	 * Returns an unmodifiable live view on the local incoming {@link Edge}s of
+	 * this {@link Node}. In contrast to {@link #getIncomingEdges()}, the
+	 * returned set is backed by an index maintained by the
+	 * {@link #getGraph() associated graph}, so it reflects subsequent changes
+	 * of the graph, and it has to be copied in case the graph is changed while
+	 * iterating it.
+	 *
+	 * @return An unmodifiable live view on the local incoming {@link Edge}s.
+	 */
+	public Set<Edge> getIncomingEdgesView() {
+		return incomingEdges;
+	}
+
 	/**
 	 * Returns all (local) neighbors of this {@link Node}, i.e. the union of the
 	 * {@link #getPredecessorNodes()} and {@link #getSuccessorNodes()} .
@@ -398,7 +457,10 @@ public class Node implements IAttributeStore {
 	/**
 	 * Returns the local outgoing {@link Edge}s of this {@link Node}. Only the
 	 * {@link #getGraph() associated graph} is scanned for outgoing edges, and
-	 * not the whole graph hierarchy.
+	 * not the whole graph hierarchy. The returned set is a snapshot, i.e. it
+	 * does not reflect subsequent changes of the graph, so that the graph may
+	 * safely be changed while iterating it. Use {@link #getOutgoingEdgesView()}
+	 * to obtain a live view without copying.
 	 *
 	 * @return The local outgoing {@link Edge}s.
 	 */
@@ -407,14 +469,24 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> outgoing = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		for (Edge e : graph.getEdges()) {
-			if (e.getSource() == this) {
-				outgoing.add(e);
-			}
-		}
+		outgoing.addAll(outgoingEdges);
 		return outgoing;
 	}
 
+	/**
+	 * Returns an unmodifiable live view on the local outgoing {@link Edge}s of
+	 * this {@link Node}. In contrast to {@link #getOutgoingEdges()}, the
+	 * returned set is backed by an index maintained by the
+	 * {@link #getGraph() associated graph}, so it reflects subsequent changes
+	 * of the graph, and it has to be copied in case the graph is changed while
+	 * iterating it.
+	 *
+	 * @return An unmodifiable live view on the local outgoing {@link Edge}s.
+	 */
+	public Set<Edge> getOutgoingEdgesView() {
+		return outgoingEdges;
+	}
+
 	/**
 	 * Returns the local predecessor {@link Node}s of this {@link Node}. Only
 	 * the {@link #getGraph() associated graph} is scanned for predecessor
@@ -424,7 +496,7 @@ public class Node implements IAttributeStore {
 	 */
 	public Set<Node> getPredecessorNodes() {
 		Set<Node> predecessors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
-		for (Edge incoming : getIncomingEdges()) {
+		for (Edge incoming : incomingEdges) {
 			predecessors.add(incoming.getSource());
 		}
 		return predecessors;
@@ -439,7 +511,7 @@ public class Node implements IAttributeStore {
 	 */
 	public Set<Node> getSuccessorNodes() {
 		Set<Node> successors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
-		for (Edge outgoing : getOutgoingEdges()) {
+		for (Edge outgoing : outgoingEdges) {
 			successors.add(outgoing.getTarget());
 		}
 		return successors;
@@ -453,9 +525,6 @@ public class Node implements IAttributeStore {
 	 *            The new {@link Graph} for this {@link Node}.
 	 */
 	void setGraph(Graph graph) {
-		if (graph != null && !graph.getNodes().contains(this)) {
-			throw new IllegalArgumentException("Node is not contained in graph " + graph);
-		}
 		this.graph = graph;
 	}
 
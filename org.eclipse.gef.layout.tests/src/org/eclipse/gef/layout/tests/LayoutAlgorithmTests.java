@@ -10,11 +10,39 @@
  *******************************************************************************/
 package org.eclipse.gef.layout.tests;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.BoxLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.CompositeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.GridLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.MultilevelLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.AdjacentExchangeCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.Direction;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.SimpleLayerProvider;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
 import org.eclipse.gef.layout.algorithms.TreeLayoutHelper;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javafx.collections.MapChangeListener;
+
 /**
  * Tests involving the {@link ILayoutAlgorithm} interface.
  *
@@ -83,4 +111,634 @@ public class LayoutAlgorithmTests {
 		Assert.assertFalse(node3.isAncestorOf(node4));
 		Assert.assertFalse(node4.isAncestorOf(node3));
 	}
+
+	private static Graph createGrid(int columns, int rows) {
+		Graph.Builder builder = new Graph.Builder();
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < columns; x++) {
+				builder.node(y * columns + x)
+						.attr(LayoutProperties.LOCATION_PROPERTY,
+								new Point(10 * x + (y % 3), 10 * y + (x % 5)))
+						.attr(LayoutProperties.SIZE_PROPERTY,
+								new Dimension(10, 10));
+				if (x > 0) {
+					builder.edge(y * columns + x - 1, y * columns + x);
+				}
+				if (y > 0) {
+					builder.edge((y - 1) * columns + x, y * columns + x);
+				}
+			}
+		}
+		Graph graph = builder
+				.attr(LayoutProperties.BOUNDS_PROPERTY,
+						new Rectangle(0, 0, 500, 500))
+				.build();
+		return graph;
+	}
+
+	private static Point[] applySpringLayout(Graph graph, double theta) {
+		return applySpringLayout(graph, theta,
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	private static Point[] applySpringLayout(Graph graph, double theta,
+			int parallelism) {
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setParallelism(parallelism);
+		algorithm.setRandom(false);
+		algorithm.setSpringTimeout(0);
+		algorithm.setIterations(20);
+		algorithm.setBarnesHutTheta(theta);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		Point[] locations = new Point[graph.getNodes().size()];
+		for (int i = 0; i < locations.length; i++) {
+			locations[i] = LayoutProperties
+					.getLocation(graph.getNodes().get(i));
+		}
+		return locations;
+	}
+
+	/**
+	 * Tests that the Barnes-Hut approximation of the
+	 * {@link SpringLayoutAlgorithm} yields the same result as the exact force
+	 * computation if the approximation threshold is small enough.
+	 */
+	@Test
+	public void testSpringLayoutBarnesHutApproximation() {
+		Point[] exact = applySpringLayout(createGrid(8, 6), 0);
+		Point[] approximated = applySpringLayout(createGrid(8, 6), 1e-9);
+		for (int i = 0; i < exact.length; i++) {
+			Assert.assertEquals(exact[i].x, approximated[i].x, 1e-6);
+			Assert.assertEquals(exact[i].y, approximated[i].y, 1e-6);
+		}
+
+		// with a coarse approximation all nodes are still placed
+		Graph graph = createGrid(30, 30);
+		Point[] coarse = applySpringLayout(graph, 1.0);
+		Rectangle bounds = LayoutProperties.getBounds(graph);
+		for (Point p : coarse) {
+			Assert.assertFalse(Double.isNaN(p.x) || Double.isNaN(p.y));
+			Assert.assertTrue(bounds.getExpanded(1, 1).contains(p));
+		}
+		for (Edge e : graph.getEdges()) {
+			Node source = e.getSource();
+			Node target = e.getTarget();
+			Assert.assertNotEquals(LayoutProperties.getLocation(source),
+					LayoutProperties.getLocation(target));
+		}
+	}
+
+	/**
+	 * Tests that the parallel force computation of the
+	 * {@link SpringLayoutAlgorithm} is reproducible and yields the same result
+	 * as the sequential force computation, independent of the parallelism.
+	 */
+	@Test
+	public void testSpringLayoutParallel() {
+		for (double theta : new double[] { 0, 0.5 }) {
+			// large enough so that the forces are computed in parallel
+			Point[] sequential = applySpringLayout(createGrid(20, 15), theta,
+					1);
+			Point[] parallel = applySpringLayout(createGrid(20, 15), theta, 4);
+			Point[] repeated = applySpringLayout(createGrid(20, 15), theta, 4);
+			Point[] oversubscribed = applySpringLayout(createGrid(20, 15),
+					theta, 64);
+			for (int i = 0; i < sequential.length; i++) {
+				Assert.assertEquals(parallel[i], repeated[i]);
+				Assert.assertEquals(sequential[i], parallel[i]);
+				Assert.assertEquals(sequential[i], oversubscribed[i]);
+			}
+		}
+	}
+
+	/**
+	 * Tests that the {@link AdjacentExchangeCrossingReducer} removes all
+	 * crossings between two layers that are connected by a (reversed)
+	 * matching.
+	 */
+	@Test
+	public void testSugiyamaAdjacentExchangeCrossingReducer() {
+		int n = 8;
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < n; i++) {
+			builder.node("s" + i).node("t" + i);
+		}
+		for (int i = 0; i < n; i++) {
+			builder.edge("s" + i, "t" + (n - 1 - i));
+		}
+		Graph graph = builder.attr(LayoutProperties.BOUNDS_PROPERTY,
+				new Rectangle(0, 0, 500, 500)).build();
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new SugiyamaLayoutAlgorithm(
+				Direction.VERTICAL, new SimpleLayerProvider(),
+				new AdjacentExchangeCrossingReducer()));
+		context.applyLayout(true);
+
+		for (Edge e1 : graph.getEdges()) {
+			for (Edge e2 : graph.getEdges()) {
+				double sourceDelta = LayoutProperties
+						.getLocation(e1.getSource()).x
+						- LayoutProperties.getLocation(e2.getSource()).x;
+				double targetDelta = LayoutProperties
+						.getLocation(e1.getTarget()).x
+						- LayoutProperties.getLocation(e2.getTarget()).x;
+				Assert.assertFalse(sourceDelta * targetDelta < 0);
+			}
+		}
+	}
+
+	private static Rectangle applyTreeLayout(Graph graph, boolean tidy) {
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		TreeLayoutAlgorithm algorithm = new TreeLayoutAlgorithm(
+				TreeLayoutAlgorithm.TOP_DOWN, new Dimension(10, 10));
+		algorithm.setTidy(tidy);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		Rectangle bounds = null;
+		for (Node node : graph.getNodes()) {
+			Point location = LayoutProperties.getLocation(node);
+			Assert.assertFalse(Double.isNaN(location.x));
+			Assert.assertFalse(Double.isNaN(location.y));
+			Rectangle r = new Rectangle(location, new Dimension());
+			bounds = bounds == null ? r : bounds.union(r);
+		}
+		return bounds;
+	}
+
+	/**
+	 * Tests that the {@link TreeLayoutAlgorithm} handles very deep trees (which
+	 * previously caused a {@link StackOverflowError}).
+	 */
+	@Test
+	public void testTreeLayoutDeepTree() {
+		int depth = 40000;
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < depth; i++) {
+			builder.node(i);
+		}
+		for (int i = 1; i < depth; i++) {
+			builder.edge(i - 1, i);
+		}
+		Graph graph = builder.attr(LayoutProperties.BOUNDS_PROPERTY,
+				new Rectangle(0, 0, 500, 500)).build();
+		for (boolean tidy : new boolean[] { false, true }) {
+			Rectangle bounds = applyTreeLayout(graph, tidy);
+			// all nodes are placed on a vertical line
+			Assert.assertEquals(0, bounds.getWidth(), 0);
+			Assert.assertEquals(10 * (depth - 1), bounds.getHeight(), 1e-6);
+		}
+	}
+
+	/**
+	 * Tests that the tidy {@link TreeLayoutAlgorithm} places sub-trees closer
+	 * to each other than the default layout, while centering parents above
+	 * their children and keeping the nodes of each layer apart.
+	 */
+	@Test
+	public void testTreeLayoutTidy() {
+		Graph.Builder builder = new Graph.Builder();
+		builder.node("r").node("a").node("a1").node("a2").node("b");
+		builder.edge("r", "a").edge("a", "a1").edge("a1", "a2").edge("r", "b");
+		for (int i = 0; i < 4; i++) {
+			builder.node("al" + i).node("bl" + i);
+			builder.edge("a2", "al" + i).edge("b", "bl" + i);
+		}
+		Graph graph = builder.attr(LayoutProperties.BOUNDS_PROPERTY,
+				new Rectangle(0, 0, 500, 500)).build();
+
+		Rectangle defaultBounds = applyTreeLayout(graph, false);
+		Rectangle tidyBounds = applyTreeLayout(graph, true);
+		// 8 leaves in separate slots vs. 4 leaves per layer
+		Assert.assertEquals(70, defaultBounds.getWidth(), 1e-6);
+		Assert.assertTrue(tidyBounds.getWidth() < defaultBounds.getWidth());
+
+		for (Node n1 : graph.getNodes()) {
+			Point p1 = LayoutProperties.getLocation(n1);
+			// parents are centered above their children
+			Node[] children = n1.getSuccessorNodes().toArray(new Node[0]);
+			if (children.length > 0) {
+				double min = Double.POSITIVE_INFINITY;
+				double max = Double.NEGATIVE_INFINITY;
+				for (Node child : children) {
+					min = Math.min(min, LayoutProperties.getLocation(child).x);
+					max = Math.max(max, LayoutProperties.getLocation(child).x);
+				}
+				Assert.assertEquals((min + max) / 2, p1.x, 1e-6);
+			}
+			// nodes on the same layer do not overlap
+			for (Node n2 : graph.getNodes()) {
+				Point p2 = LayoutProperties.getLocation(n2);
+				if (n1 != n2 && p1.y == p2.y) {
+					Assert.assertTrue(Math.abs(p1.x - p2.x) >= 10 - 1e-6);
+				}
+			}
+		}
+	}
+
+	private static Node addNode(Graph graph, Node neighbor) {
+		Node node = new Node();
+		LayoutProperties.setSize(node, new Dimension(10, 10));
+		graph.getNodes().add(node);
+		graph.getEdges().add(new Edge(neighbor, node));
+		return node;
+	}
+
+	private static Map<Node, Point> getLocations(Graph graph) {
+		Map<Node, Point> locations = new HashMap<>();
+		for (Node node : graph.getNodes()) {
+			locations.put(node, LayoutProperties.getLocation(node));
+		}
+		return locations;
+	}
+
+	private static Graph createRandomSizedNodes(int count) {
+		Random random = new Random(0);
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < count; i++) {
+			builder.node(i).attr(LayoutProperties.SIZE_PROPERTY,
+					new Dimension(5 + random.nextInt(50),
+							5 + random.nextInt(50)));
+		}
+		return builder.attr(LayoutProperties.BOUNDS_PROPERTY,
+				new Rectangle(0, 0, 800, 600)).build();
+	}
+
+	private static Rectangle getUnion(Graph graph) {
+		Rectangle union = null;
+		for (Node node : graph.getNodes()) {
+			union = union == null ? getBounds(node)
+					: union.union(getBounds(node));
+		}
+		return union;
+	}
+
+	private static Rectangle getBounds(Node node) {
+		Point location = LayoutProperties.getLocation(node);
+		Dimension size = LayoutProperties.getSize(node);
+		return new Rectangle(location.x - size.width / 2,
+				location.y - size.height / 2, size.width, size.height);
+	}
+
+	/**
+	 * Tests that a {@link CompositeLayoutAlgorithm} that applies its stages to a
+	 * shared model writes each location to the graph only once, while yielding
+	 * the same result as applying the stages in sequence.
+	 */
+	@Test
+	public void testCompositeLayoutSharedModel() {
+		Graph graph = createGrid(4, 3);
+		final int[] changes = new int[1];
+		for (Node node : graph.getNodes()) {
+			node.attributesProperty()
+					.addListener(new MapChangeListener<String, Object>() {
+						@Override
+						public void onChanged(
+								MapChangeListener.Change<? extends String, ? extends Object> change) {
+							changes[0]++;
+						}
+					});
+		}
+		// the second stage moves the nodes relative to the first one
+		ILayoutAlgorithm shift = new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				for (Node node : layoutContext.getNodes()) {
+					LayoutProperties.setLocation(node, LayoutProperties
+							.getLocation(node).getTranslated(10, 10));
+				}
+			}
+		};
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new GridLayoutAlgorithm());
+		context.applyLayout(true);
+		Map<Node, Point> gridLocations = getLocations(graph);
+		changes[0] = 0;
+
+		context.setLayoutAlgorithm(new CompositeLayoutAlgorithm(
+				new ILayoutAlgorithm[] { new GridLayoutAlgorithm(), shift,
+						shift },
+				true));
+		context.applyLayout(true);
+		// each location is written once
+		Assert.assertEquals(graph.getNodes().size(), changes[0]);
+		for (Node node : graph.getNodes()) {
+			Assert.assertEquals(gridLocations.get(node).getTranslated(20, 20),
+					LayoutProperties.getLocation(node));
+		}
+	}
+
+	/**
+	 * Tests that a {@link CompositeLayoutAlgorithm} passes the original
+	 * {@link LayoutContext} to its stages by default, so that stages may rely
+	 * on the identity of the context and its nodes.
+	 */
+	@Test
+	public void testCompositeLayoutContextIdentity() {
+		final Graph graph = createGrid(4, 3);
+		final List<LayoutContext> contexts = new ArrayList<>();
+		ILayoutAlgorithm record = new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				contexts.add(layoutContext);
+			}
+		};
+		// moves the nodes of the original graph, not those of the context
+		ILayoutAlgorithm shift = new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				contexts.add(layoutContext);
+				for (Node node : graph.getNodes()) {
+					LayoutProperties.setLocation(node, LayoutProperties
+							.getLocation(node).getTranslated(10, 10));
+				}
+			}
+		};
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new GridLayoutAlgorithm());
+		context.applyLayout(true);
+		Map<Node, Point> gridLocations = getLocations(graph);
+
+		context.setLayoutAlgorithm(new CompositeLayoutAlgorithm(
+				new ILayoutAlgorithm[] { new GridLayoutAlgorithm(), record,
+						shift }));
+		context.applyLayout(true);
+		Assert.assertEquals(Arrays.asList(context, context), contexts);
+		for (Node node : graph.getNodes()) {
+			Assert.assertEquals(gridLocations.get(node).getTranslated(10, 10),
+					LayoutProperties.getLocation(node));
+		}
+
+		// with a shared model, the stages are passed a working context
+		contexts.clear();
+		context.setLayoutAlgorithm(new CompositeLayoutAlgorithm(
+				new ILayoutAlgorithm[] { new GridLayoutAlgorithm(), record },
+				true));
+		context.applyLayout(true);
+		Assert.assertEquals(1, contexts.size());
+		Assert.assertNotSame(context, contexts.get(0));
+		Assert.assertNotSame(graph, contexts.get(0).getGraph());
+	}
+
+	/**
+	 * Tests that a packing {@link GridLayoutAlgorithm} places nodes of varying
+	 * sizes densely and without overlaps, and that repeated layout passes
+	 * yield the same result.
+	 */
+	@Test
+	public void testGridLayoutPacking() {
+		Graph graph = createRandomSizedNodes(1000);
+		GridLayoutAlgorithm algorithm = new GridLayoutAlgorithm();
+		algorithm.setPacking(true);
+		algorithm.setRowPadding(2);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		Map<Node, Point> locations = getLocations(graph);
+
+		// nodes do not overlap, and the packing is reasonably dense
+		Rectangle[] bounds = new Rectangle[graph.getNodes().size()];
+		Rectangle union = null;
+		double area = 0;
+		for (int i = 0; i < bounds.length; i++) {
+			bounds[i] = getBounds(graph.getNodes().get(i));
+			union = union == null ? bounds[i].getCopy()
+					: union.union(bounds[i]);
+			area += bounds[i].getWidth() * bounds[i].getHeight();
+		}
+		for (int i = 0; i < bounds.length; i++) {
+			for (int j = i + 1; j < bounds.length; j++) {
+				Assert.assertFalse(bounds[i].getShrinked(0.5, 0.5)
+						.touches(bounds[j].getShrinked(0.5, 0.5)));
+			}
+		}
+		Assert.assertTrue(union.getWidth() * union.getHeight() < 2 * area);
+		Assert.assertEquals(0, union.getX(), 1e-9);
+		Assert.assertEquals(0, union.getY(), 1e-9);
+
+		// the packing is stable
+		context.applyLayout(true);
+		Assert.assertEquals(locations, getLocations(graph));
+	}
+
+	/**
+	 * Tests that a packing vertical {@link BoxLayoutAlgorithm} stacks nodes of
+	 * varying sizes without gaps, in the order of the graph.
+	 */
+	@Test
+	public void testBoxLayoutPacking() {
+		Graph graph = createRandomSizedNodes(10);
+		BoxLayoutAlgorithm algorithm = new BoxLayoutAlgorithm(
+				BoxLayoutAlgorithm.VERTICAL);
+		algorithm.setPacking(true);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+
+		// nodes are stacked in the given order
+		double y = 0;
+		for (Node node : graph.getNodes()) {
+			Rectangle bounds = getBounds(node);
+			Assert.assertEquals(0, bounds.getX(), 1e-9);
+			Assert.assertEquals(y, bounds.getY(), 1e-9);
+			y += bounds.getHeight();
+		}
+	}
+
+	/**
+	 * Tests that the packing of {@link GridLayoutAlgorithm} and
+	 * {@link BoxLayoutAlgorithm} approximates the aspect ratio, if one is set.
+	 */
+	@Test
+	public void testPackingAspectRatio() {
+		Graph graph = createRandomSizedNodes(1000);
+		GridLayoutAlgorithm grid = new GridLayoutAlgorithm();
+		grid.setPacking(true);
+		grid.setAspectRatio(4);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(grid);
+		context.applyLayout(true);
+		Rectangle union = getUnion(graph);
+		double ratio = union.getWidth() / union.getHeight();
+		Assert.assertTrue(ratio > 3 && ratio < 5);
+
+		// the box is wrapped into several columns, keeping the node order
+		BoxLayoutAlgorithm box = new BoxLayoutAlgorithm(
+				BoxLayoutAlgorithm.VERTICAL);
+		box.setPacking(true);
+		box.setAspectRatio(0.5);
+		context.setLayoutAlgorithm(box);
+		context.applyLayout(true);
+		union = getUnion(graph);
+		ratio = union.getWidth() / union.getHeight();
+		Assert.assertTrue(ratio > 0.4 && ratio < 0.6);
+		Rectangle previous = null;
+		for (Node node : graph.getNodes()) {
+			Rectangle bounds = getBounds(node);
+			if (previous != null) {
+				Assert.assertTrue(bounds.getX() > previous.getX()
+						|| bounds.getX() == previous.getX()
+								&& bounds.getY() >= previous.getY()
+										+ previous.getHeight());
+			}
+			previous = bounds;
+		}
+	}
+
+	/**
+	 * Tests that an incremental {@link SpringLayoutAlgorithm} pass only places
+	 * the dirty nodes and relaxes their neighborhood, while all other nodes
+	 * keep their locations.
+	 */
+	@Test
+	public void testSpringLayoutIncremental() {
+		Graph graph = createGrid(8, 6);
+		applySpringLayout(graph, 0);
+		Map<Node, Point> locations = getLocations(graph);
+		Node neighbor = graph.getNodes().get(0);
+		Node added = addNode(graph, neighbor);
+
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setStability(1);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyIncrementalLayout(Collections.singleton(added));
+
+		// with maximal stability, all existing nodes keep their locations
+		for (Node node : locations.keySet()) {
+			Assert.assertEquals(locations.get(node),
+					LayoutProperties.getLocation(node));
+		}
+		Point location = LayoutProperties.getLocation(added);
+		Assert.assertFalse(Double.isNaN(location.x) || Double.isNaN(location.y));
+		Assert.assertNotEquals(LayoutProperties.getLocation(neighbor), location);
+
+		// with lower stability, only the neighbors of the dirty node move
+		added = addNode(graph, neighbor);
+		algorithm.setStability(0.1);
+		context.applyIncrementalLayout(Collections.singleton(added));
+		for (Node node : locations.keySet()) {
+			if (node != neighbor) {
+				Assert.assertEquals(locations.get(node),
+						LayoutProperties.getLocation(node));
+			}
+		}
+	}
+
+	/**
+	 * Tests that the {@link MultilevelLayoutAlgorithm} yields the same result
+	 * independent of its parallelism, spreads out a large grid, and keeps
+	 * non-movable nodes at their locations.
+	 */
+	@Test
+	public void testMultilevelLayout() {
+		// large enough so that the forces are computed in parallel
+		Graph sequential = createGrid(40, 30);
+		Graph parallel = createGrid(40, 30);
+		MultilevelLayoutAlgorithm algorithm = new MultilevelLayoutAlgorithm();
+		algorithm.setIterations(20);
+		LayoutContext context = new LayoutContext();
+		context.setLayoutAlgorithm(algorithm);
+		algorithm.setParallelism(1);
+		context.setGraph(sequential);
+		context.applyLayout(true);
+		algorithm.setParallelism(4);
+		context.setGraph(parallel);
+		context.applyLayout(true);
+
+		// the result does not depend on the parallelism
+		Rectangle bounds = new Rectangle(0, 0, 500, 500);
+		for (int i = 0; i < sequential.getNodes().size(); i++) {
+			Point location = LayoutProperties
+					.getLocation(sequential.getNodes().get(i));
+			Assert.assertEquals(location, LayoutProperties
+					.getLocation(parallel.getNodes().get(i)));
+			Assert.assertTrue(bounds.contains(location));
+		}
+		// opposite corners of the grid are far apart
+		Point first = LayoutProperties.getLocation(sequential.getNodes().get(0));
+		Point last = LayoutProperties.getLocation(
+				sequential.getNodes().get(sequential.getNodes().size() - 1));
+		Assert.assertTrue(first.getDistance(last) > 250);
+
+		// non-movable nodes keep their locations, and non-movable nodes
+		// without a location are not laid out
+		Graph graph = createGrid(8, 6);
+		Node fixed = graph.getNodes().get(0);
+		fixed.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY, false);
+		Point fixedLocation = LayoutProperties.getLocation(fixed);
+		Node pinned = graph.getNodes().get(1);
+		pinned.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY, false);
+		pinned.getAttributes().remove(LayoutProperties.LOCATION_PROPERTY);
+		context.setGraph(graph);
+		context.applyLayout(true);
+		Assert.assertEquals(fixedLocation, LayoutProperties.getLocation(fixed));
+		Assert.assertNull(LayoutProperties.getLocation(pinned));
+		for (Node node : graph.getNodes()) {
+			if (node == pinned) {
+				continue;
+			}
+			Point location = LayoutProperties.getLocation(node);
+			Assert.assertFalse(
+					Double.isNaN(location.x) || Double.isNaN(location.y));
+			if (node != fixed) {
+				Assert.assertNotEquals(fixedLocation, location);
+			}
+		}
+	}
+
+	/**
+	 * Tests that an incremental {@link SugiyamaLayoutAlgorithm} pass places the
+	 * dirty nodes within their layer, while all other nodes keep their
+	 * locations.
+	 */
+	@Test
+	public void testSugiyamaLayoutIncremental() {
+		Graph.Builder builder = new Graph.Builder();
+		builder.node("a").attr(LayoutProperties.SIZE_PROPERTY,
+				new Dimension(10, 10));
+		builder.node("b").attr(LayoutProperties.SIZE_PROPERTY,
+				new Dimension(10, 10));
+		builder.node("c").attr(LayoutProperties.SIZE_PROPERTY,
+				new Dimension(10, 10));
+		builder.edge("a", "b");
+		builder.edge("b", "c");
+		Graph graph = builder.attr(LayoutProperties.BOUNDS_PROPERTY,
+				new Rectangle(0, 0, 500, 500)).build();
+		SugiyamaLayoutAlgorithm algorithm = new SugiyamaLayoutAlgorithm(
+				Direction.VERTICAL);
+		algorithm.setStability(1);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		Map<Node, Point> locations = getLocations(graph);
+
+		Node b = graph.getNodes().get(1);
+		Node c = graph.getNodes().get(2);
+		Node added = addNode(graph, b);
+		context.applyIncrementalLayout(Collections.singleton(added));
+		for (Node node : locations.keySet()) {
+			Assert.assertEquals(locations.get(node),
+					LayoutProperties.getLocation(node));
+		}
+		// the new node is placed next to its sibling
+		Point location = LayoutProperties.getLocation(added);
+		Point siblingLocation = LayoutProperties.getLocation(c);
+		Assert.assertEquals(siblingLocation.y, location.y, 1e-9);
+		Assert.assertNotEquals(siblingLocation.x, location.x, 1e-9);
+	}
 }
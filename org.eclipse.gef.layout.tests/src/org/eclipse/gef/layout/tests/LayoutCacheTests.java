@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutCache;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutJob;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.CompositeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.DFSLayerProvider;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.Direction;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.GreedyCrossingReducer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LayoutCacheTests {
+
+	/**
+	 * An {@link ICacheableLayoutAlgorithm} that places the nodes on a diagonal
+	 * line, and counts how often it is applied.
+	 */
+	public static class CountingLayoutAlgorithm
+			implements ICacheableLayoutAlgorithm {
+		private int count;
+		private double spacing = 20;
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			count++;
+			Node[] nodes = layoutContext.getNodes();
+			for (int i = 0; i < nodes.length; i++) {
+				LayoutProperties.setLocation(nodes[i],
+						new Point(i * spacing, i * spacing));
+			}
+		}
+
+		@Override
+		public String getParameterKey() {
+			return "spacing=" + spacing;
+		}
+
+		public double getSpacing() {
+			return spacing;
+		}
+
+		public void setSpacing(double spacing) {
+			this.spacing = spacing;
+		}
+	}
+
+	private static Graph createGraph(int size) {
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < 4; i++) {
+			builder.node(i).attr(LayoutProperties.SIZE_PROPERTY,
+					new Dimension(size, size));
+		}
+		for (int i = 1; i < 4; i++) {
+			builder.edge(0, i);
+		}
+		Graph graph = builder.build();
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 200, 200));
+		return graph;
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private CountingLayoutAlgorithm algorithm = new CountingLayoutAlgorithm();
+
+	private LayoutContext createContext(Graph graph, LayoutCache cache) {
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.setLayoutCache(cache);
+		return context;
+	}
+
+	@Test
+	public void eviction() {
+		LayoutCache cache = new LayoutCache(1, null);
+		createContext(createGraph(10), cache).applyLayout(true);
+		createContext(createGraph(20), cache).applyLayout(true);
+		assertEquals(1, cache.size());
+		createContext(createGraph(10), cache).applyLayout(true);
+		assertEquals(3, algorithm.count);
+	}
+
+	@Test
+	public void fingerprint() {
+		LayoutCache cache = new LayoutCache();
+		Graph graph = createGraph(10);
+		LayoutContext context = createContext(graph, cache);
+		String fingerprint = cache.getFingerprint(context);
+		assertEquals(fingerprint,
+				cache.getFingerprint(createContext(createGraph(10), cache)));
+
+		// locations of movable nodes are irrelevant
+		Node node = graph.getNodes().get(0);
+		LayoutProperties.setLocation(node, new Point(5, 5));
+		assertEquals(fingerprint, cache.getFingerprint(context));
+		node.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY, false);
+		assertNotEquals(fingerprint, cache.getFingerprint(context));
+		node.getAttributes().remove(LayoutProperties.MOVABLE_PROPERTY);
+
+		// sizes, structure, and algorithm parameters are relevant
+		assertNotEquals(fingerprint,
+				cache.getFingerprint(createContext(createGraph(20), cache)));
+		graph.getEdges().remove(0);
+		String withoutEdge = cache.getFingerprint(context);
+		assertNotEquals(fingerprint, withoutEdge);
+		algorithm.setSpacing(30);
+		assertNotEquals(withoutEdge, cache.getFingerprint(context));
+
+		// values without a stable encoding prevent caching
+		node.getAttributes().put("layout_custom", new Object());
+		assertNull(cache.getFingerprint(context));
+		node.getAttributes().put("layout_custom", "custom");
+		assertNotNull(cache.getFingerprint(context));
+	}
+
+	@Test
+	public void notCacheable() {
+		LayoutCache cache = new LayoutCache();
+		LayoutContext context = createContext(createGraph(10), cache);
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				algorithm.applyLayout(layoutContext, clean);
+			}
+		});
+		assertNull(cache.getFingerprint(context));
+		context.applyLayout(true);
+		context.applyLayout(true);
+		assertEquals(2, algorithm.count);
+		assertEquals(0, cache.size());
+
+		// composite algorithms are only cached if all stages are cacheable
+		context.setLayoutAlgorithm(new CompositeLayoutAlgorithm(
+				new ILayoutAlgorithm[] { algorithm,
+						context.getLayoutAlgorithm() }));
+		assertNull(cache.getFingerprint(context));
+		context.setLayoutAlgorithm(new CompositeLayoutAlgorithm(
+				new ILayoutAlgorithm[] { algorithm, algorithm }));
+		assertNotNull(cache.getFingerprint(context));
+	}
+
+	@Test
+	public void parameterKey() {
+		LayoutCache cache = new LayoutCache();
+		Graph graph = createGraph(10);
+		LayoutContext context = createContext(graph, cache);
+
+		// differently configured instances do not share a cache entry
+		context.setLayoutAlgorithm(
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL));
+		String vertical = cache.getFingerprint(context);
+		context.applyLayout(true);
+		Point location = LayoutProperties.getLocation(graph.getNodes().get(1));
+		context.setLayoutAlgorithm(
+				new SugiyamaLayoutAlgorithm(Direction.HORIZONTAL));
+		String horizontal = cache.getFingerprint(context);
+		assertNotEquals(vertical, horizontal);
+		assertFalse(cache.restore(context, horizontal));
+		context.applyLayout(true);
+		assertNotEquals(location,
+				LayoutProperties.getLocation(graph.getNodes().get(1)));
+		assertEquals(2, cache.size());
+
+		// layer providers and crossing reducers are relevant as well
+		context.setLayoutAlgorithm(new SugiyamaLayoutAlgorithm(
+				Direction.VERTICAL, new DFSLayerProvider()));
+		assertNotEquals(vertical, cache.getFingerprint(context));
+		context.setLayoutAlgorithm(new SugiyamaLayoutAlgorithm(
+				Direction.VERTICAL, new GreedyCrossingReducer()));
+		assertNotEquals(vertical, cache.getFingerprint(context));
+
+		// equally configured instances share a cache entry
+		context.setLayoutAlgorithm(
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL));
+		assertEquals(vertical, cache.getFingerprint(context));
+		assertTrue(cache.restore(context, vertical));
+		assertEquals(location,
+				LayoutProperties.getLocation(graph.getNodes().get(1)));
+	}
+
+	@Test
+	public void persistence() throws IOException {
+		Path directory = folder.newFolder().toPath();
+		Graph graph = createGraph(10);
+		createContext(graph, new LayoutCache(4, directory)).applyLayout(true);
+		assertEquals(1, algorithm.count);
+
+		// a new cache restores the persisted result
+		Graph restored = createGraph(10);
+		LayoutCache cache = new LayoutCache(4, directory);
+		createContext(restored, cache).applyLayout(true);
+		assertEquals(1, algorithm.count);
+		for (int i = 0; i < graph.getNodes().size(); i++) {
+			assertEquals(LayoutProperties.getLocation(graph.getNodes().get(i)),
+					LayoutProperties.getLocation(restored.getNodes().get(i)));
+		}
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		createContext(createGraph(10), new LayoutCache(4, directory))
+				.applyLayout(true);
+		assertEquals(2, algorithm.count);
+	}
+
+	@Test
+	public void restore() {
+		LayoutCache cache = new LayoutCache();
+		Graph graph = createGraph(10);
+		createContext(graph, cache).applyLayout(true);
+		assertEquals(1, algorithm.count);
+
+		// a structurally equal graph is restored
+		Graph restored = createGraph(10);
+		LayoutContext context = createContext(restored, cache);
+		context.applyLayout(true);
+		assertEquals(1, algorithm.count);
+		for (int i = 0; i < graph.getNodes().size(); i++) {
+			assertEquals(LayoutProperties.getLocation(graph.getNodes().get(i)),
+					LayoutProperties.getLocation(restored.getNodes().get(i)));
+		}
+
+		// asynchronous layout passes are restored immediately
+		LayoutJob job = context.applyLayoutAsync(true, null, null);
+		assertTrue(job.isDone());
+		assertTrue(job.getResult().join());
+		assertEquals(1, algorithm.count);
+
+		// non-clean layout passes are not cached
+		context.applyLayout(false);
+		assertEquals(2, algorithm.count);
+
+		// changed parameters result in a cache miss
+		algorithm.setSpacing(30);
+		context.applyLayout(true);
+		assertEquals(3, algorithm.count);
+		assertFalse(LayoutProperties.getLocation(restored.getNodes().get(1))
+				.equals(LayoutProperties.getLocation(graph.getNodes().get(1))));
+	}
+
+}
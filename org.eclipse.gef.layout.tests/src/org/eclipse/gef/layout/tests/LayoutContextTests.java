@@ -0,0 +1,450 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutJob;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.GridLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.junit.Test;
+
+public class LayoutContextTests {
+
+	/**
+	 * An {@link Executor} that queues all commands until {@link #runAll()} is
+	 * called, so that the interleaving of layout computation and graph
+	 * changes can be controlled.
+	 */
+	private static class QueueExecutor implements Executor {
+		private final List<Runnable> commands = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable command) {
+			commands.add(command);
+		}
+
+		public void runAll() {
+			while (!commands.isEmpty()) {
+				commands.remove(0).run();
+			}
+		}
+	}
+
+	/**
+	 * An {@link ILayoutAlgorithm} that keeps the state of a layout pass in a
+	 * field, and records if it is applied concurrently.
+	 */
+	private static class StatefulLayoutAlgorithm implements ILayoutAlgorithm {
+		private final AtomicInteger active = new AtomicInteger();
+		private final AtomicInteger passes = new AtomicInteger();
+		private volatile boolean overlapped;
+		private LayoutContext context;
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			if (active.incrementAndGet() > 1) {
+				overlapped = true;
+			}
+			context = layoutContext;
+			Node[] nodes = context.getNodes();
+			for (int i = 0; i < 20 && !context.isLayoutCancelled(); i++) {
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (int j = 0; j < nodes.length; j++) {
+					LayoutProperties.setLocation(nodes[j], new Point(j, i));
+				}
+			}
+			if (context != layoutContext) {
+				overlapped = true;
+			}
+			context = null;
+			passes.incrementAndGet();
+			active.decrementAndGet();
+		}
+	}
+
+	private static Graph createGraph() {
+		Graph.Builder builder = new Graph.Builder();
+		for (int i = 0; i < 4; i++) {
+			builder.node(i).attr(LayoutProperties.SIZE_PROPERTY,
+					new Dimension(10, 10));
+		}
+		for (int i = 1; i < 4; i++) {
+			builder.edge(0, i);
+		}
+		Graph graph = builder.build();
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 200, 200));
+		return graph;
+	}
+
+	private static LayoutContext createContext(Graph graph) {
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new GridLayoutAlgorithm());
+		return context;
+	}
+
+	@Test
+	public void applyLayoutAsync() {
+		Graph expected = createGraph();
+		createContext(expected).applyLayout(true);
+
+		Graph graph = createGraph();
+		LayoutContext context = createContext(graph);
+		final int[] postLayoutCount = new int[1];
+		context.schedulePostLayoutPass(new Runnable() {
+			@Override
+			public void run() {
+				postLayoutCount[0]++;
+			}
+		});
+		QueueExecutor layoutExecutor = new QueueExecutor();
+		QueueExecutor applyExecutor = new QueueExecutor();
+		LayoutJob job = context.applyLayoutAsync(true, layoutExecutor,
+				applyExecutor);
+
+		// the graph is not changed by the layout computation
+		layoutExecutor.runAll();
+		for (Node node : graph.getNodes()) {
+			assertNull(LayoutProperties.getLocation(node));
+		}
+		assertFalse(job.isDone());
+		assertEquals(0, postLayoutCount[0]);
+
+		// the results are applied by the apply executor
+		applyExecutor.runAll();
+		assertTrue(job.isDone());
+		assertTrue(job.getResult().join());
+		assertEquals(1, job.getProgress(), 0);
+		assertEquals(1, postLayoutCount[0]);
+		for (int i = 0; i < graph.getNodes().size(); i++) {
+			Point location = LayoutProperties
+					.getLocation(graph.getNodes().get(i));
+			assertEquals(
+					LayoutProperties.getLocation(expected.getNodes().get(i)),
+					location);
+		}
+	}
+
+	@Test
+	public void applyIncrementalLayoutAsync() {
+		Graph graph = createGraph();
+		LayoutContext context = createContext(graph);
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setStability(1);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		Map<Node, Point> locations = new HashMap<>();
+		for (Node node : graph.getNodes()) {
+			locations.put(node, LayoutProperties.getLocation(node));
+		}
+		Node added = new Node();
+		LayoutProperties.setSize(added, new Dimension(10, 10));
+		graph.getNodes().add(added);
+		graph.getEdges().add(new Edge(graph.getNodes().get(0), added));
+
+		QueueExecutor layoutExecutor = new QueueExecutor();
+		QueueExecutor applyExecutor = new QueueExecutor();
+		LayoutJob job = context.applyIncrementalLayoutAsync(
+				Collections.singleton(added), layoutExecutor, applyExecutor);
+		assertNull(LayoutProperties.getLocation(added));
+		layoutExecutor.runAll();
+		applyExecutor.runAll();
+		assertTrue(job.getResult().join());
+
+		// only the dirty node is placed
+		assertNotNull(LayoutProperties.getLocation(added));
+		for (Node node : locations.keySet()) {
+			assertEquals(locations.get(node),
+					LayoutProperties.getLocation(node));
+		}
+	}
+
+	@Test
+	public void cancel() {
+		Graph graph = createGraph();
+		LayoutContext context = createContext(graph);
+		final boolean[] cancelled = new boolean[1];
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				layoutContext.setLayoutProgress(0.5);
+				cancelled[0] = layoutContext.isLayoutCancelled();
+				for (Node node : layoutContext.getNodes()) {
+					LayoutProperties.setLocation(node, new Point(1, 1));
+				}
+			}
+		});
+		QueueExecutor layoutExecutor = new QueueExecutor();
+		QueueExecutor applyExecutor = new QueueExecutor();
+
+		// cancel during the computation
+		LayoutJob job = context.applyLayoutAsync(true, layoutExecutor,
+				applyExecutor);
+		assertFalse(context.isLayoutCancelled());
+		layoutExecutor.runAll();
+		assertFalse(cancelled[0]);
+		assertEquals(0.5, job.getProgress(), 0);
+		assertTrue(job.cancel());
+		applyExecutor.runAll();
+		assertTrue(job.isCancelled());
+		assertFalse(job.getResult().join());
+		assertNull(LayoutProperties.getLocation(graph.getNodes().get(0)));
+
+		// starting another layout pass cancels the pending one
+		LayoutJob first = context.applyLayoutAsync(true, layoutExecutor,
+				applyExecutor);
+		LayoutJob second = context.applyLayoutAsync(true, layoutExecutor,
+				applyExecutor);
+		assertNotSame(first, second);
+		assertTrue(first.isCancelled());
+		layoutExecutor.runAll();
+		applyExecutor.runAll();
+		assertFalse(first.getResult().join());
+		assertTrue(second.getResult().join());
+		assertEquals(new Point(1, 1),
+				LayoutProperties.getLocation(graph.getNodes().get(0)));
+	}
+
+	@Test
+	public void discardStaleResults() {
+		Graph graph = createGraph();
+		LayoutContext context = createContext(graph);
+		QueueExecutor layoutExecutor = new QueueExecutor();
+		QueueExecutor applyExecutor = new QueueExecutor();
+
+		// change a node size during the computation
+		LayoutJob job = context.applyLayoutAsync(true, layoutExecutor,
+				applyExecutor);
+		layoutExecutor.runAll();
+		LayoutProperties.setSize(graph.getNodes().get(0),
+				new Dimension(20, 20));
+		applyExecutor.runAll();
+		assertFalse(job.getResult().join());
+		assertFalse(job.isCancelled());
+		for (Node node : graph.getNodes()) {
+			assertNull(LayoutProperties.getLocation(node));
+		}
+
+		// remove a node during the computation
+		job = context.applyLayoutAsync(true, layoutExecutor, applyExecutor);
+		layoutExecutor.runAll();
+		graph.getNodes().remove(3);
+		applyExecutor.runAll();
+		assertFalse(job.getResult().join());
+
+		// unchanged graph
+		job = context.applyLayoutAsync(true, layoutExecutor, applyExecutor);
+		layoutExecutor.runAll();
+		applyExecutor.runAll();
+		assertTrue(job.getResult().join());
+		for (Node node : graph.getNodes()) {
+			assertNotNull(LayoutProperties.getLocation(node));
+		}
+	}
+
+	@Test
+	public void keepConcurrentChanges() {
+		Graph graph = createGraph();
+		LayoutContext context = createContext(graph);
+		QueueExecutor layoutExecutor = new QueueExecutor();
+		QueueExecutor applyExecutor = new QueueExecutor();
+
+		// move a node during the computation
+		LayoutJob job = context.applyLayoutAsync(true, layoutExecutor,
+				applyExecutor);
+		layoutExecutor.runAll();
+		Node moved = graph.getNodes().get(0);
+		LayoutProperties.setLocation(moved, new Point(123, 456));
+		applyExecutor.runAll();
+		assertTrue(job.getResult().join());
+		assertEquals(new Point(123, 456), LayoutProperties.getLocation(moved));
+		for (Node node : graph.getNodes()) {
+			assertNotNull(LayoutProperties.getLocation(node));
+		}
+	}
+
+	@Test
+	public void overlappingLayoutPasses() throws InterruptedException {
+		Graph graph = createGraph();
+		LayoutContext context = createContext(graph);
+		StatefulLayoutAlgorithm algorithm = new StatefulLayoutAlgorithm();
+		context.setLayoutAlgorithm(algorithm);
+		final int[] prePostCount = new int[2];
+		context.schedulePreLayoutPass(new Runnable() {
+			@Override
+			public void run() {
+				prePostCount[0]++;
+			}
+		});
+		context.schedulePostLayoutPass(new Runnable() {
+			@Override
+			public void run() {
+				prePostCount[1]++;
+			}
+		});
+
+		// the test thread is the thread that owns the graph
+		final BlockingQueue<Runnable> applyQueue = new LinkedBlockingQueue<>();
+		Executor applyExecutor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				applyQueue.add(command);
+			}
+		};
+		ExecutorService layoutExecutor = Executors.newFixedThreadPool(4);
+		List<LayoutJob> jobs = new ArrayList<>();
+		try {
+			for (int i = 0; i < 10; i++) {
+				jobs.add(context.applyLayoutAsync(true, layoutExecutor,
+						applyExecutor));
+				if (i == 5) {
+					// a synchronous pass is deferred while a computation is
+					// running, and then superseded by the next asynchronous
+					// pass
+					context.applyLayout(true);
+				}
+				Thread.sleep(2);
+			}
+			LayoutJob last = jobs.get(jobs.size() - 1);
+			while (!last.isDone()) {
+				Runnable command = applyQueue.poll(5, TimeUnit.SECONDS);
+				assertNotNull(command);
+				command.run();
+			}
+		} finally {
+			layoutExecutor.shutdown();
+			assertTrue(layoutExecutor.awaitTermination(5, TimeUnit.SECONDS));
+		}
+		while (!applyQueue.isEmpty()) {
+			applyQueue.poll().run();
+		}
+
+		assertFalse(algorithm.overlapped);
+		assertEquals(0, algorithm.active.get());
+		assertTrue(algorithm.passes.get() >= 2);
+		// 10 asynchronous passes and 1 synchronous pass (unless deferred and
+		// superseded), each pre layout pass is paired with a post layout pass
+		assertTrue(prePostCount[0] == 10 || prePostCount[0] == 11);
+		assertEquals(prePostCount[0], prePostCount[1]);
+		for (int i = 0; i < jobs.size() - 1; i++) {
+			assertTrue(jobs.get(i).isCancelled());
+			assertFalse(jobs.get(i).getResult().join());
+		}
+		assertTrue(jobs.get(jobs.size() - 1).getResult().join());
+		assertEquals(new Point(3, 19),
+				LayoutProperties.getLocation(graph.getNodes().get(3)));
+	}
+
+	@Test
+	public void deferSynchronousLayoutPass() throws Exception {
+		final Graph graph = createGraph();
+		final LayoutContext context = createContext(graph);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final GridLayoutAlgorithm grid = new GridLayoutAlgorithm();
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				if (layoutContext != context) {
+					// block the asynchronous computation
+					started.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				grid.applyLayout(layoutContext, clean);
+			}
+		});
+		final int[] prePostCount = new int[2];
+		context.schedulePreLayoutPass(new Runnable() {
+			@Override
+			public void run() {
+				prePostCount[0]++;
+			}
+		});
+		context.schedulePostLayoutPass(new Runnable() {
+			@Override
+			public void run() {
+				prePostCount[1]++;
+			}
+		});
+
+		QueueExecutor applyExecutor = new QueueExecutor();
+		ExecutorService layoutExecutor = Executors.newSingleThreadExecutor();
+		try {
+			LayoutJob job = context.applyLayoutAsync(true, layoutExecutor,
+					applyExecutor);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			// the synchronous passes do not wait for the computation
+			context.applyLayout(true);
+			context.applyIncrementalLayout(
+					Collections.singleton(graph.getNodes().get(0)));
+			assertTrue(job.isCancelled());
+			assertEquals(1, prePostCount[0]);
+			assertNull(LayoutProperties.getLocation(graph.getNodes().get(0)));
+
+			// but are performed (once) when the computation has finished
+			release.countDown();
+			layoutExecutor.shutdown();
+			assertTrue(layoutExecutor.awaitTermination(5, TimeUnit.SECONDS));
+			applyExecutor.runAll();
+			assertFalse(job.getResult().join());
+			assertEquals(2, prePostCount[0]);
+			assertEquals(2, prePostCount[1]);
+			assertNotNull(
+					LayoutProperties.getLocation(graph.getNodes().get(0)));
+		} finally {
+			release.countDown();
+			layoutExecutor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+/**
+ * An {@link ICacheableLayoutAlgorithm} is an {@link ILayoutAlgorithm} whose
+ * results can be stored within (and restored from) a {@link LayoutCache}. It
+ * provides a key for its configuration, so that the results of differently
+ * configured instances are not mixed up. The results of other
+ * {@link ILayoutAlgorithm}s are not cached.
+ */
+public interface ICacheableLayoutAlgorithm extends ILayoutAlgorithm {
+
+	/**
+	 * Returns a key that identifies the configuration of this
+	 * {@link ICacheableLayoutAlgorithm}, i.e. that covers all parameters that
+	 * affect the layout it computes. Instances of the same class that return
+	 * equal keys have to compute the same layout for the same graph. If
+	 * <code>null</code> is returned, the results of this algorithm are not
+	 * cached (e.g. because a parameter cannot be represented within the key).
+	 *
+	 * @return A key for the configuration of this
+	 *         {@link ICacheableLayoutAlgorithm}, or <code>null</code>.
+	 */
+	public String getParameterKey();
+
+}
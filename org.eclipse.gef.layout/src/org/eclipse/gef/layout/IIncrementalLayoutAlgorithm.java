@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.Set;
+
+import org.eclipse.gef.graph.Node;
+
+/**
+ * An {@link IIncrementalLayoutAlgorithm} is an {@link ILayoutAlgorithm} that
+ * can update an existing layout, so that only a few nodes have to be placed,
+ * while the locations of all other nodes are (mostly) preserved.
+ */
+public interface IIncrementalLayoutAlgorithm extends ILayoutAlgorithm {
+
+	/**
+	 * Incrementally updates the layout of the given {@link LayoutContext}. The
+	 * current locations of the nodes are used as initial positions. The given
+	 * dirty nodes (e.g. nodes that were added or unhidden since the last
+	 * layout pass) are placed, and the nodes in their neighborhood may be
+	 * moved to integrate them, depending on the stability of the
+	 * algorithm. All other nodes keep their locations.
+	 *
+	 * @param layoutContext
+	 *            The {@link LayoutContext} that provides all relevant
+	 *            information about what to layout.
+	 * @param dirtyNodes
+	 *            The {@link Node}s that need to be placed.
+	 */
+	public void applyIncrementalLayout(LayoutContext layoutContext,
+			Set<Node> dirtyNodes);
+
+	/**
+	 * Returns the stability of this {@link IIncrementalLayoutAlgorithm}, i.e.
+	 * a weight between <code>0</code> and <code>1</code> that determines how
+	 * strongly the neighbors of dirty nodes are held at their locations during
+	 * an incremental layout pass, where <code>1</code> means that they are not
+	 * moved at all.
+	 *
+	 * @return The stability of this {@link IIncrementalLayoutAlgorithm}.
+	 */
+	public double getStability();
+
+	/**
+	 * Sets the stability of this {@link IIncrementalLayoutAlgorithm}.
+	 *
+	 * @param stability
+	 *            The new stability, between <code>0</code> and <code>1</code>.
+	 * @see #getStability()
+	 */
+	public void setStability(double stability);
+}
@@ -0,0 +1,445 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.gef.common.attributes.IAttributeStore;
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A {@link LayoutCache} stores the results of layout passes (i.e. the
+ * locations and sizes of the nodes), so that they can be restored instead of
+ * re-computing the layout of a graph that was laid out before. It can be
+ * registered at a {@link LayoutContext} via
+ * {@link LayoutContext#setLayoutCache(LayoutCache)}.
+ * <p>
+ * The layout results are keyed by a {@link #getFingerprint(LayoutContext)
+ * fingerprint}, a structural hash of the layout relevant nodes and edges (in
+ * order), their layout attributes (except for the locations of movable nodes),
+ * the layout attributes of the graph (e.g. its bounds), and the type and
+ * {@link ICacheableLayoutAlgorithm#getParameterKey() parameter key} of the
+ * layout algorithm. Only the results of {@link ICacheableLayoutAlgorithm}s are
+ * cached. Consequently, a layout algorithm that depends on the initial
+ * locations of movable nodes may yield a different layout than the restored
+ * one.
+ * <p>
+ * Only layout attribute values of known value types (i.e. {@link String},
+ * {@link Boolean}, primitive wrapper {@link Number}s, {@link Enum}s,
+ * {@link Point}, {@link Dimension}, and {@link Rectangle}) are encoded into
+ * the fingerprint. If a layout attribute has a value of another type, whose
+ * string representation is not necessarily stable across sessions, the layout
+ * is not cached.
+ * <p>
+ * The {@link LayoutCache} holds a bounded number of layout results in memory,
+ * evicting the least recently used ones. Optionally, the layout results can
+ * be persisted within a directory, so that they are available across
+ * sessions. Failures to read or write the directory are ignored, i.e. they
+ * only result in cache misses.
+ */
+public class LayoutCache {
+
+	/**
+	 * The default number of layout results that are held in memory.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private static final String FILE_EXTENSION = ".layout";
+	private static final int FILE_FORMAT_VERSION = 1;
+	private static final String LAYOUT_ATTRIBUTE_PREFIX = "layout_";
+
+	private final int capacity;
+	private final Path directory;
+	private final Map<String, double[]> entries;
+
+	/**
+	 * Creates a new {@link LayoutCache} that holds up to
+	 * {@link #DEFAULT_CAPACITY} layout results in memory, and does not persist
+	 * them.
+	 */
+	public LayoutCache() {
+		this(DEFAULT_CAPACITY, null);
+	}
+
+	/**
+	 * Creates a new {@link LayoutCache} that holds up to the given number of
+	 * layout results in memory, and optionally persists them within the given
+	 * directory.
+	 *
+	 * @param capacity
+	 *            The maximum number of layout results that are held in memory.
+	 * @param directory
+	 *            The directory in which layout results are persisted, or
+	 *            <code>null</code> if layout results should not be persisted.
+	 */
+	public LayoutCache(int capacity, Path directory) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"The capacity has to be positive.");
+		}
+		this.capacity = capacity;
+		this.directory = directory;
+		this.entries = new LinkedHashMap<String, double[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, double[]> eldest) {
+				return size() > LayoutCache.this.capacity;
+			}
+		};
+	}
+
+	private static String encode(Object value) {
+		if (value == null) {
+			return "null";
+		} else if (value instanceof String) {
+			return "String:" + value;
+		} else if (value instanceof Boolean || value instanceof Byte
+				|| value instanceof Short || value instanceof Integer
+				|| value instanceof Long || value instanceof Float
+				|| value instanceof Double) {
+			return value.getClass().getSimpleName() + ":" + value;
+		} else if (value instanceof Enum) {
+			return ((Enum<?>) value).getDeclaringClass().getName() + ":"
+					+ ((Enum<?>) value).name();
+		} else if (value instanceof Point) {
+			Point p = (Point) value;
+			return "Point:" + p.x + "," + p.y;
+		} else if (value instanceof Dimension) {
+			Dimension d = (Dimension) value;
+			return "Dimension:" + d.width + "," + d.height;
+		} else if (value instanceof Rectangle) {
+			Rectangle r = (Rectangle) value;
+			return "Rectangle:" + r.getX() + "," + r.getY() + ","
+					+ r.getWidth() + "," + r.getHeight();
+		}
+		// no stable encoding available
+		return null;
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		// terminate, so that concatenations are unambiguous
+		digest.update((byte) 0);
+	}
+
+	/**
+	 * Removes all layout results from this {@link LayoutCache}, including the
+	 * persisted ones.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		if (directory == null || !Files.isDirectory(directory)) {
+			return;
+		}
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+				"*" + FILE_EXTENSION)) {
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		} catch (IOException e) {
+			// ignore, persisted results are removed on a best effort basis
+		}
+	}
+
+	/**
+	 * Returns the maximum number of layout results that are held in memory.
+	 *
+	 * @return The capacity of this {@link LayoutCache}.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the directory in which layout results are persisted, or
+	 * <code>null</code> if layout results are not persisted.
+	 *
+	 * @return The directory in which layout results are persisted, or
+	 *         <code>null</code>.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Computes the fingerprint of the current state of the given
+	 * {@link LayoutContext}, i.e. of its layout relevant nodes and edges,
+	 * their layout attributes, the layout attributes of its graph, and its
+	 * layout algorithm. Has to be called before the layout pass, as the
+	 * layout algorithm may change the layout attributes.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} for which to compute the
+	 *            fingerprint.
+	 * @return The fingerprint of the given {@link LayoutContext}, or
+	 *         <code>null</code> if its layout algorithm is not an
+	 *         {@link ICacheableLayoutAlgorithm}, does not provide a parameter
+	 *         key, or if a layout attribute value cannot be encoded.
+	 */
+	public String getFingerprint(LayoutContext context) {
+		ILayoutAlgorithm algorithm = context.getLayoutAlgorithm();
+		if (!(algorithm instanceof ICacheableLayoutAlgorithm)) {
+			return null;
+		}
+		String parameterKey = ((ICacheableLayoutAlgorithm) algorithm)
+				.getParameterKey();
+		if (parameterKey == null) {
+			return null;
+		}
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+
+		// layout algorithm
+		update(digest, algorithm.getClass().getName());
+		update(digest, parameterKey);
+
+		// graph, nodes, and edges
+		if (!updateAttributes(digest, context.getGraph(), false)) {
+			return null;
+		}
+		Node[] nodes = context.getNodes();
+		Map<Node, Integer> indices = new IdentityHashMap<>();
+		update(digest, "nodes:" + nodes.length);
+		for (int i = 0; i < nodes.length; i++) {
+			indices.put(nodes[i], i);
+			if (!updateAttributes(digest, nodes[i],
+					LayoutProperties.isMovable(nodes[i]))) {
+				return null;
+			}
+		}
+		Edge[] edges = context.getEdges();
+		update(digest, "edges:" + edges.length);
+		for (Edge edge : edges) {
+			update(digest, indices.get(edge.getSource()) + "->"
+					+ indices.get(edge.getTarget()));
+			if (!updateAttributes(digest, edge, false)) {
+				return null;
+			}
+		}
+
+		StringBuilder fingerprint = new StringBuilder();
+		for (byte b : digest.digest()) {
+			fingerprint.append(Character.forDigit((b >> 4) & 0xf, 16));
+			fingerprint.append(Character.forDigit(b & 0xf, 16));
+		}
+		return fingerprint.toString();
+	}
+
+	private Path getFile(String fingerprint) {
+		return directory.resolve(fingerprint + FILE_EXTENSION);
+	}
+
+	private double[] read(String fingerprint) {
+		Path file = getFile(fingerprint);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (InputStream in = Files.newInputStream(file);
+				DataInputStream data = new DataInputStream(
+						new BufferedInputStream(in))) {
+			if (data.readInt() != FILE_FORMAT_VERSION) {
+				return null;
+			}
+			double[] values = new double[data.readInt()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = data.readDouble();
+			}
+			return values;
+		} catch (IOException e) {
+			// corrupt or inaccessible file, handle as a cache miss
+			return null;
+		}
+	}
+
+	/**
+	 * Restores the layout result with the given fingerprint, i.e. sets the
+	 * locations and sizes of the layout relevant nodes of the given
+	 * {@link LayoutContext}, if such a result is available.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} for which to restore the layout.
+	 * @param fingerprint
+	 *            The fingerprint of the {@link LayoutContext} (see
+	 *            {@link #getFingerprint(LayoutContext)}), or
+	 *            <code>null</code> if the layout cannot be cached.
+	 * @return <code>true</code> if the layout was restored, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean restore(LayoutContext context, String fingerprint) {
+		if (fingerprint == null) {
+			return false;
+		}
+		double[] values;
+		synchronized (this) {
+			values = entries.get(fingerprint);
+			if (values == null && directory != null) {
+				values = read(fingerprint);
+				if (values != null) {
+					entries.put(fingerprint, values);
+				}
+			}
+		}
+		Node[] nodes = context.getNodes();
+		if (values == null || values.length != 4 * nodes.length) {
+			return false;
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			if (!Double.isNaN(values[4 * i])) {
+				LayoutProperties.setLocation(nodes[i],
+						new Point(values[4 * i], values[4 * i + 1]));
+			}
+			if (!Double.isNaN(values[4 * i + 2])) {
+				LayoutProperties.setSize(nodes[i],
+						new Dimension(values[4 * i + 2], values[4 * i + 3]));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of layout results that are held in memory.
+	 *
+	 * @return The number of layout results that are held in memory.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Stores the current locations and sizes of the layout relevant nodes of
+	 * the given {@link LayoutContext} as the layout result for the given
+	 * fingerprint (which was computed before the layout pass).
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} that was laid out.
+	 * @param fingerprint
+	 *            The fingerprint of the {@link LayoutContext} before the
+	 *            layout pass (see {@link #getFingerprint(LayoutContext)}),
+	 *            or <code>null</code> if the layout cannot be cached.
+	 */
+	public void store(LayoutContext context, String fingerprint) {
+		if (fingerprint == null) {
+			return;
+		}
+		Node[] nodes = context.getNodes();
+		double[] values = new double[4 * nodes.length];
+		Arrays.fill(values, Double.NaN);
+		for (int i = 0; i < nodes.length; i++) {
+			Point location = LayoutProperties.getLocation(nodes[i]);
+			if (location != null) {
+				values[4 * i] = location.x;
+				values[4 * i + 1] = location.y;
+			}
+			Dimension size = LayoutProperties.getSize(nodes[i]);
+			if (size != null) {
+				values[4 * i + 2] = size.width;
+				values[4 * i + 3] = size.height;
+			}
+		}
+		synchronized (this) {
+			entries.put(fingerprint, values);
+			if (directory != null) {
+				write(fingerprint, values);
+			}
+		}
+	}
+
+	private boolean updateAttributes(MessageDigest digest,
+			IAttributeStore element, boolean ignoreLocation) {
+		// sort attributes by key, so that the order of insertion is irrelevant
+		Map<String, Object> attributes = new TreeMap<>();
+		for (Map.Entry<String, Object> entry : element.getAttributes()
+				.entrySet()) {
+			String key = entry.getKey();
+			if (key.startsWith(LAYOUT_ATTRIBUTE_PREFIX) && !(ignoreLocation
+					&& LayoutProperties.LOCATION_PROPERTY.equals(key))) {
+				attributes.put(key, entry.getValue());
+			}
+		}
+		update(digest, "attributes:" + attributes.size());
+		for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+			String value = encode(entry.getValue());
+			if (value == null) {
+				return false;
+			}
+			update(digest, entry.getKey());
+			update(digest, value);
+		}
+		return true;
+	}
+
+	private void write(String fingerprint, double[] values) {
+		try {
+			Files.createDirectories(directory);
+			// write to a temporary file first, so that readers never see
+			// partially written results
+			Path temporary = Files.createTempFile(directory, fingerprint,
+					".tmp");
+			try {
+				try (OutputStream out = Files.newOutputStream(temporary);
+						DataOutputStream data = new DataOutputStream(
+								new BufferedOutputStream(out))) {
+					data.writeInt(FILE_FORMAT_VERSION);
+					data.writeInt(values.length);
+					for (double value : values) {
+						data.writeDouble(value);
+					}
+				}
+				try {
+					Files.move(temporary, getFile(fingerprint),
+							StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temporary, getFile(fingerprint),
+							StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(temporary);
+			}
+		} catch (IOException e) {
+			// ignore, the result is still held in memory
+		}
+	}
+
+}
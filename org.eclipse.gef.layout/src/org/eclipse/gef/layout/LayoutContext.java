@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2017 itemis AG and others.
+ * Copyright (c) 2014, 2018 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -13,7 +13,12 @@
 package org.eclipse.gef.layout;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Graph;
@@ -28,6 +33,24 @@ import javafx.collections.ObservableList;
  * {@link Graph}. It maintains an {@link ILayoutAlgorithm} that can be applied,
  * supports the handling and execution of pre and post {@link Runnable}s, and
  * filtering of layout objects using {@link ILayoutFilter}.
+ * <p>
+ * A layout pass can either be performed synchronously, via
+ * {@link #applyLayout(boolean)}, or asynchronously, via
+ * {@link #applyLayoutAsync(boolean, Executor, Executor)}. In the latter case,
+ * the {@link ILayoutAlgorithm} operates on a snapshot of the graph within a
+ * worker thread, and the results are transferred back to the graph within one
+ * batched update. As {@link ILayoutAlgorithm}s may keep the state of a layout
+ * pass in fields, the layout passes of a {@link LayoutContext} are serialized
+ * (and an {@link ILayoutAlgorithm} should not be shared by several
+ * {@link LayoutContext}s). However, the thread that owns the graph is never
+ * blocked: a synchronous layout pass that is requested while an asynchronous
+ * computation is running is deferred until that computation has finished (or
+ * noticed its cancellation).
+ * <p>
+ * If a {@link LayoutCache} is {@link #setLayoutCache(LayoutCache) set}, the
+ * results of full layout passes are stored within it, and restored instead of
+ * re-computing the layout when the graph and the layout algorithm are
+ * structurally unchanged.
  * 
  * @author mwienand
  *
@@ -47,6 +70,20 @@ public class LayoutContext {
 	private final List<Runnable> postLayoutPass = new ArrayList<>();
 	private final List<Runnable> preLayoutPass = new ArrayList<>();
 	private final List<ILayoutFilter> layoutFilters = new ArrayList<>();
+	// the asynchronous layout pass that was started last
+	private LayoutJob currentJob;
+	private LayoutCache layoutCache;
+	// the asynchronous layout pass that operates on this context (snapshot)
+	LayoutJob job;
+	// held while the layout algorithm is applied, i.e. while its state is
+	// mutated; only acquired without blocking by the thread owning the graph
+	private final ReentrantLock layoutLock = new ReentrantLock();
+	// a synchronous layout pass that is deferred until the running
+	// asynchronous computation has finished (dirty nodes are null for a full
+	// layout pass)
+	private boolean layoutDeferred;
+	private boolean deferredClear;
+	private Set<Node> deferredDirtyNodes;
 
 	/**
 	 * Adds the given ILayoutFilter to this {@link LayoutContext}.
@@ -62,17 +99,324 @@ public class LayoutContext {
 	 * Applies the layout algorithm of this LayoutContext. The clean flag is
 	 * passed-in to the layout algorithm to indicate whether the context changed
 	 * significantly since the last layout pass.
+	 * <p>
+	 * A pending asynchronous layout pass is cancelled. If its computation is
+	 * still running, the layout pass is deferred until the computation has
+	 * finished (and performed within the apply {@link Executor} of the
+	 * asynchronous layout pass), so that the calling thread is not blocked.
 	 * 
 	 * @param clear
 	 *            <code>true</code> to indicate that the algorithm has to fully
 	 *            re-compute the layout, otherwise <code>false</code>.
 	 */
 	public void applyLayout(boolean clear) {
+		cancelCurrentJob();
 		ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
-		if (layoutAlgorithm != null) {
+		if (layoutAlgorithm == null) {
+			return;
+		}
+		if (!layoutLock.tryLock()) {
+			deferLayout(clear, null);
+			return;
+		}
+		try {
 			preLayout();
-			layoutAlgorithm.applyLayout(this, clear);
+			LayoutCache cache = clear ? layoutCache : null;
+			if (cache == null) {
+				layoutAlgorithm.applyLayout(this, clear);
+			} else {
+				String fingerprint = cache.getFingerprint(this);
+				if (!cache.restore(this, fingerprint)) {
+					layoutAlgorithm.applyLayout(this, clear);
+					cache.store(this, fingerprint);
+				}
+			}
 			postLayout();
+		} finally {
+			layoutLock.unlock();
+		}
+	}
+
+	/**
+	 * Incrementally applies the layout algorithm of this LayoutContext, so
+	 * that only the given dirty nodes are placed, while the other nodes
+	 * (mostly) keep their locations. If the layout algorithm is not an
+	 * {@link IIncrementalLayoutAlgorithm}, the layout is fully re-computed
+	 * instead (see {@link #applyLayout(boolean)}). Like a full layout pass,
+	 * an incremental layout pass is deferred while the computation of an
+	 * asynchronous layout pass is running.
+	 * 
+	 * @param dirtyNodes
+	 *            The nodes that need to be placed, e.g. because they were
+	 *            added or unhidden since the last layout pass.
+	 */
+	public void applyIncrementalLayout(Set<Node> dirtyNodes) {
+		ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
+		if (!(layoutAlgorithm instanceof IIncrementalLayoutAlgorithm)) {
+			applyLayout(true);
+			return;
+		}
+		cancelCurrentJob();
+		if (!layoutLock.tryLock()) {
+			deferLayout(false, dirtyNodes);
+			return;
+		}
+		try {
+			preLayout();
+			((IIncrementalLayoutAlgorithm) layoutAlgorithm)
+					.applyIncrementalLayout(this, dirtyNodes);
+			postLayout();
+		} finally {
+			layoutLock.unlock();
+		}
+	}
+
+	/**
+	 * Applies the layout algorithm of this LayoutContext asynchronously. The
+	 * pre layout pass is executed and a snapshot of the layout relevant nodes
+	 * and edges (including their attributes) is taken on the calling thread.
+	 * The layout algorithm is then applied to the snapshot using the given
+	 * layout {@link Executor}. Afterwards, the computed attribute values are
+	 * transferred back to the graph and the post layout pass is executed,
+	 * using the given apply {@link Executor} (e.g.
+	 * <code>Platform::runLater</code> within a JavaFX application).
+	 * <p>
+	 * The computed layout is discarded if the returned {@link LayoutJob} was
+	 * cancelled, if another layout pass was started in the meantime, or if the
+	 * graph changed in the meantime, i.e. if the graph, the layout relevant
+	 * nodes and edges, the node sizes, or the layout bounds differ from the
+	 * snapshot. Attribute values that were changed in the meantime (e.g. the
+	 * location of a node that was dragged by the user) are not overwritten.
+	 * The post layout pass is executed in any case, so that each pre layout
+	 * pass is paired with a post layout pass. Starting an asynchronous layout
+	 * pass cancels the previous one (as well as a deferred synchronous layout
+	 * pass). The computation of the new layout pass starts when the
+	 * computation of the previous one has finished. If the layout can be
+	 * restored from the {@link #getLayoutCache() layout cache}, it is applied
+	 * immediately, and the returned {@link LayoutJob} is already done.
+	 * <p>
+	 * Please note that the layout algorithm operates on copies of the nodes
+	 * and edges, so that it cannot keep track of the original elements between
+	 * layout passes.
+	 * 
+	 * @param clear
+	 *            <code>true</code> to indicate that the algorithm has to fully
+	 *            re-compute the layout, otherwise <code>false</code>.
+	 * @param layoutExecutor
+	 *            The {@link Executor} that is used to compute the layout.
+	 * @param applyExecutor
+	 *            The {@link Executor} that is used to transfer the results to
+	 *            the graph, i.e. the {@link Executor} of the thread that owns
+	 *            the graph.
+	 * @return A {@link LayoutJob} that can be used to cancel the layout pass,
+	 *         to query its progress, and to get notified about its result.
+	 */
+	public LayoutJob applyLayoutAsync(boolean clear, Executor layoutExecutor,
+			Executor applyExecutor) {
+		return startLayoutAsync(clear, null, layoutExecutor, applyExecutor);
+	}
+
+	/**
+	 * Incrementally applies the layout algorithm of this LayoutContext
+	 * asynchronously, so that only the given dirty nodes are placed (see
+	 * {@link #applyIncrementalLayout(Set)}). The layout pass is performed like
+	 * an asynchronous full layout pass (see
+	 * {@link #applyLayoutAsync(boolean, Executor, Executor)}), except that its
+	 * results are not cached. If the layout algorithm is not an
+	 * {@link IIncrementalLayoutAlgorithm}, the layout is fully re-computed
+	 * instead.
+	 * 
+	 * @param dirtyNodes
+	 *            The nodes that need to be placed, e.g. because they were
+	 *            added or unhidden since the last layout pass.
+	 * @param layoutExecutor
+	 *            The {@link Executor} that is used to compute the layout.
+	 * @param applyExecutor
+	 *            The {@link Executor} that is used to transfer the results to
+	 *            the graph, i.e. the {@link Executor} of the thread that owns
+	 *            the graph.
+	 * @return A {@link LayoutJob} that can be used to cancel the layout pass,
+	 *         to query its progress, and to get notified about its result.
+	 */
+	public LayoutJob applyIncrementalLayoutAsync(Set<Node> dirtyNodes,
+			Executor layoutExecutor, Executor applyExecutor) {
+		if (!(layoutAlgorithmProperty
+				.get() instanceof IIncrementalLayoutAlgorithm)) {
+			return startLayoutAsync(true, null, layoutExecutor,
+					applyExecutor);
+		}
+		return startLayoutAsync(false, dirtyNodes, layoutExecutor,
+				applyExecutor);
+	}
+
+	private LayoutJob startLayoutAsync(final boolean clear,
+			Set<Node> dirtyNodes, Executor layoutExecutor,
+			final Executor applyExecutor) {
+		cancelCurrentJob();
+		// a deferred synchronous layout pass is superseded
+		layoutDeferred = false;
+		deferredDirtyNodes = null;
+		final LayoutJob layoutJob = new LayoutJob();
+		final ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
+		if (layoutAlgorithm == null) {
+			layoutJob.done(false);
+			return layoutJob;
+		}
+		preLayout();
+		final LayoutCache cache = clear && dirtyNodes == null ? layoutCache
+				: null;
+		final String fingerprint = cache == null ? null
+				: cache.getFingerprint(this);
+		if (cache != null && cache.restore(this, fingerprint)) {
+			postLayout();
+			layoutJob.done(true);
+			return layoutJob;
+		}
+		currentJob = layoutJob;
+		final LayoutSnapshot snapshot = new LayoutSnapshot(this);
+		final Set<Node> copiedDirtyNodes = dirtyNodes == null ? null
+				: snapshot.getCopies(dirtyNodes);
+		layoutExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				Throwable failure = null;
+				layoutLock.lock();
+				try {
+					// the previous layout pass has finished at this point
+					if (!layoutJob.isCancelled()) {
+						LayoutContext snapshotContext = snapshot
+								.getCopyContext();
+						snapshotContext.job = layoutJob;
+						if (copiedDirtyNodes == null) {
+							layoutAlgorithm.applyLayout(snapshotContext,
+									clear);
+						} else {
+							((IIncrementalLayoutAlgorithm) layoutAlgorithm)
+									.applyIncrementalLayout(snapshotContext,
+											copiedDirtyNodes);
+						}
+					}
+				} catch (Throwable t) {
+					failure = t;
+				} finally {
+					layoutLock.unlock();
+				}
+				final Throwable layoutFailure = failure;
+				applyExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						finishLayoutAsync(layoutJob, snapshot, cache,
+								fingerprint, layoutFailure);
+					}
+				});
+			}
+		});
+		return layoutJob;
+	}
+
+	private void cancelCurrentJob() {
+		if (currentJob != null) {
+			// results of a pending asynchronous layout pass are outdated
+			currentJob.cancel();
+			currentJob = null;
+		}
+	}
+
+	/**
+	 * Records a synchronous layout pass that is performed when the running
+	 * asynchronous computation has finished. A full layout pass subsumes
+	 * incremental ones, and the dirty nodes of incremental ones are combined.
+	 */
+	private void deferLayout(boolean clear, Set<Node> dirtyNodes) {
+		if (!layoutDeferred) {
+			layoutDeferred = true;
+			deferredClear = clear;
+			deferredDirtyNodes = dirtyNodes == null ? null
+					: new HashSet<>(dirtyNodes);
+		} else if (dirtyNodes == null) {
+			deferredClear |= clear;
+			deferredDirtyNodes = null;
+		} else if (deferredDirtyNodes != null) {
+			deferredDirtyNodes.addAll(dirtyNodes);
+		}
+	}
+
+	/**
+	 * Completes an asynchronous layout pass within the thread that owns the
+	 * graph. The computed layout is transferred to the graph unless the
+	 * {@link LayoutJob} is already done (i.e. cancelled or superseded), the
+	 * snapshot is stale, or the computation failed. The post layout pass is
+	 * executed in any case.
+	 */
+	private void finishLayoutAsync(LayoutJob layoutJob, LayoutSnapshot snapshot,
+			LayoutCache cache, String fingerprint, Throwable failure) {
+		if (currentJob == layoutJob) {
+			currentJob = null;
+		}
+		boolean applied = false;
+		// discard failed, cancelled (or superseded), and stale results
+		if (failure == null && !layoutJob.isDone() && !snapshot.isStale()) {
+			snapshot.apply();
+			if (cache != null) {
+				cache.store(this, fingerprint);
+			}
+			applied = true;
+		}
+		postLayout();
+		if (failure != null) {
+			layoutJob.failed(failure);
+		} else {
+			layoutJob.done(applied);
+		}
+		if (layoutDeferred) {
+			// the computation has finished, so that the deferred layout pass
+			// can be performed (unless another computation started meanwhile,
+			// in which case it is deferred again)
+			boolean clear = deferredClear;
+			Set<Node> dirtyNodes = deferredDirtyNodes;
+			layoutDeferred = false;
+			deferredClear = false;
+			deferredDirtyNodes = null;
+			if (dirtyNodes == null) {
+				applyLayout(clear);
+			} else {
+				// ignore nodes that were removed meanwhile
+				Set<Node> remaining = new HashSet<>();
+				Collections.addAll(remaining, getNodes());
+				remaining.retainAll(dirtyNodes);
+				applyIncrementalLayout(remaining);
+			}
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the layout pass that is performed on this
+	 * {@link LayoutContext} was cancelled, otherwise <code>false</code>. Long
+	 * running {@link ILayoutAlgorithm}s should regularly check this flag and
+	 * stop their computation if it is set. Synchronous layout passes (see
+	 * {@link #applyLayout(boolean)}) cannot be cancelled.
+	 * 
+	 * @return <code>true</code> if the current layout pass was cancelled,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isLayoutCancelled() {
+		return job != null && job.isCancelled();
+	}
+
+	/**
+	 * Reports the progress of the layout pass that is performed on this
+	 * {@link LayoutContext}. Called by {@link ILayoutAlgorithm}s, the progress
+	 * is forwarded to the {@link LayoutJob} of an asynchronous layout pass
+	 * (see {@link #applyLayoutAsync(boolean, Executor, Executor)}), and
+	 * ignored for synchronous layout passes.
+	 * 
+	 * @param progress
+	 *            The progress of the layout computation, between
+	 *            <code>0</code> and <code>1</code>.
+	 */
+	public void setLayoutProgress(double progress) {
+		if (job != null) {
+			job.setProgress(progress);
 		}
 	}
 
@@ -157,6 +501,18 @@ public class LayoutContext {
 		return layoutRelevantEdges.toArray(new Edge[] {});
 	}
 
+	/**
+	 * Returns the {@link LayoutCache} that is used to store and restore the
+	 * results of full layout passes, or <code>null</code> if layout results
+	 * are not cached.
+	 * 
+	 * @return The {@link LayoutCache} of this {@link LayoutContext}, or
+	 *         <code>null</code>.
+	 */
+	public LayoutCache getLayoutCache() {
+		return layoutCache;
+	}
+
 	/**
 	 * Returns the static layout algorithm used to layout a newly initialized
 	 * graph or after heavy changes to it.
@@ -277,6 +633,18 @@ public class LayoutContext {
 		layoutAlgorithmProperty.set(algorithm);
 	}
 
+	/**
+	 * Sets the {@link LayoutCache} that is used to store and restore the
+	 * results of full layout passes. If <code>null</code> is passed in (which
+	 * is the default), layout results are not cached.
+	 * 
+	 * @param layoutCache
+	 *            The {@link LayoutCache} to use, or <code>null</code>.
+	 */
+	public void setLayoutCache(LayoutCache layoutCache) {
+		this.layoutCache = layoutCache;
+	}
+
 	/**
 	 * Removes the given {@link Runnable} from the list of runnables which are
 	 * called when this {@link LayoutContext} is asked to apply all changes made
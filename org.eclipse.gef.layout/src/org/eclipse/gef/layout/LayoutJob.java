@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link LayoutJob} represents an asynchronous layout pass, as started by
+ * {@link LayoutContext#applyLayoutAsync(boolean, Executor, Executor)}. It can
+ * be used to cancel the layout pass, to query its progress, and to get
+ * notified when the layout pass is finished.
+ * <p>
+ * The {@link #getResult() result} of a {@link LayoutJob} is completed with
+ * <code>true</code> when the computed layout was applied to the
+ * {@link LayoutContext}, and with <code>false</code> when it was discarded,
+ * either because the {@link LayoutJob} was cancelled, or because the layout
+ * became stale (i.e. the graph was changed or another layout pass was started
+ * in the meantime). If the {@link ILayoutAlgorithm} fails, the result is
+ * completed exceptionally.
+ */
+public class LayoutJob {
+
+	private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+	private volatile boolean cancelled;
+	private volatile double progress;
+
+	/**
+	 * Creates a new {@link LayoutJob}. Should only be called by the
+	 * {@link LayoutContext}.
+	 */
+	LayoutJob() {
+	}
+
+	/**
+	 * Cancels this {@link LayoutJob}. A running {@link ILayoutAlgorithm} may
+	 * stop its computation when it checks
+	 * {@link LayoutContext#isLayoutCancelled()}. In any case, the computed
+	 * layout is not applied. Has no effect if this {@link LayoutJob} is
+	 * already {@link #isDone() done}.
+	 *
+	 * @return <code>true</code> if this {@link LayoutJob} was cancelled,
+	 *         <code>false</code> if it was already done.
+	 */
+	public boolean cancel() {
+		if (result.isDone()) {
+			return false;
+		}
+		cancelled = true;
+		return result.complete(false);
+	}
+
+	/**
+	 * Marks this {@link LayoutJob} as done.
+	 *
+	 * @param applied
+	 *            <code>true</code> if the layout was applied, otherwise
+	 *            <code>false</code>.
+	 */
+	void done(boolean applied) {
+		if (applied) {
+			progress = 1;
+		}
+		result.complete(applied);
+	}
+
+	/**
+	 * Marks this {@link LayoutJob} as failed.
+	 *
+	 * @param failure
+	 *            The {@link Throwable} that was thrown by the
+	 *            {@link ILayoutAlgorithm}.
+	 */
+	void failed(Throwable failure) {
+		result.completeExceptionally(failure);
+	}
+
+	/**
+	 * Returns the progress of the layout computation, as reported by the
+	 * {@link ILayoutAlgorithm} via
+	 * {@link LayoutContext#setLayoutProgress(double)}. The progress is a value
+	 * between <code>0</code> and <code>1</code>, where <code>1</code>
+	 * indicates that the layout was applied.
+	 *
+	 * @return The progress of this {@link LayoutJob}.
+	 */
+	public double getProgress() {
+		return progress;
+	}
+
+	/**
+	 * Returns a {@link CompletableFuture} that is completed when this
+	 * {@link LayoutJob} is done. Its value indicates if the computed layout
+	 * was applied (<code>true</code>) or discarded (<code>false</code>).
+	 *
+	 * @return The result of this {@link LayoutJob}.
+	 */
+	public CompletableFuture<Boolean> getResult() {
+		return result;
+	}
+
+	/**
+	 * Returns <code>true</code> if this {@link LayoutJob} was cancelled,
+	 * otherwise <code>false</code>.
+	 *
+	 * @return <code>true</code> if this {@link LayoutJob} was cancelled,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Returns <code>true</code> if this {@link LayoutJob} is done, i.e. the
+	 * computed layout was applied or discarded, or the computation failed.
+	 *
+	 * @return <code>true</code> if this {@link LayoutJob} is done, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isDone() {
+		return result.isDone();
+	}
+
+	/**
+	 * Sets the progress of this {@link LayoutJob}.
+	 *
+	 * @param progress
+	 *            The new progress, which is clamped to <code>[0, 1]</code>.
+	 */
+	void setProgress(double progress) {
+		this.progress = Math.max(0, Math.min(1, progress));
+	}
+
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import org.eclipse.gef.graph.Graph;
+
+/**
+ * A {@link LayoutModel} is a detached working copy of the layout relevant part
+ * of the {@link Graph} of a {@link LayoutContext}, which can be shared by
+ * several {@link ILayoutAlgorithm}s that are applied in sequence (e.g. by a
+ * composite layout algorithm). The algorithms operate on the
+ * {@link #getContext() working context}, so that intermediate results do not
+ * change the original graph (and thus do not notify its observers). When all
+ * algorithms are applied, the final results are transferred to the original
+ * graph at once via {@link #commit()}.
+ * <p>
+ * Cancellation and progress of an asynchronous layout pass (see
+ * {@link LayoutContext#isLayoutCancelled()} and
+ * {@link LayoutContext#setLayoutProgress(double)}) are forwarded from the
+ * working context to the original one.
+ */
+public class LayoutModel {
+
+	private final LayoutSnapshot snapshot;
+
+	/**
+	 * Creates a new {@link LayoutModel} for the given {@link LayoutContext},
+	 * copying its layout relevant nodes and edges (including their
+	 * attributes).
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} for which to create a working copy.
+	 */
+	public LayoutModel(LayoutContext context) {
+		snapshot = new LayoutSnapshot(context);
+		snapshot.getCopyContext().job = context.job;
+	}
+
+	/**
+	 * Transfers all attribute values that were changed within the working
+	 * copy to the original graph elements, so that each changed attribute is
+	 * written only once.
+	 */
+	public void commit() {
+		snapshot.apply();
+	}
+
+	/**
+	 * Returns the {@link LayoutContext} that operates on the working copy. It
+	 * does not have any layout filters, because layout irrelevant elements are
+	 * not copied, and it does not execute any pre or post layout passes.
+	 *
+	 * @return The {@link LayoutContext} of the working copy.
+	 */
+	public LayoutContext getContext() {
+		return snapshot.getCopyContext();
+	}
+
+}
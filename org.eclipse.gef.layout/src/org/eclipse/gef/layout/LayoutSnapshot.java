@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.gef.common.attributes.IAttributeStore;
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A {@link LayoutSnapshot} is a detached copy of the layout relevant part of
+ * the {@link Graph} of a {@link LayoutContext}, on which an
+ * {@link ILayoutAlgorithm} can operate in a background thread. The copy does
+ * not share any mutable state with the original graph: attribute maps are
+ * copied, and geometric attribute values (locations, sizes, and bounds) are
+ * duplicated.
+ * <p>
+ * After the layout computation, the attribute values that were changed by the
+ * {@link ILayoutAlgorithm} are transferred back to the original elements via
+ * {@link #apply()}, provided the snapshot is not {@link #isStale() stale}.
+ * Attribute values of the original elements that were changed after the
+ * snapshot was taken (e.g. the location of a node that was dragged by the
+ * user) are not overwritten.
+ */
+class LayoutSnapshot {
+
+	private static Object copyValue(Object value) {
+		if (value instanceof Point) {
+			return ((Point) value).getCopy();
+		} else if (value instanceof Dimension) {
+			return ((Dimension) value).getCopy();
+		} else if (value instanceof Rectangle) {
+			return ((Rectangle) value).getCopy();
+		}
+		return value;
+	}
+
+	private final LayoutContext context;
+	private final Graph graph;
+	private final Node[] nodes;
+	private final Edge[] edges;
+	private final Dimension[] sizes;
+	private final Rectangle bounds;
+
+	// (copies of) the original attribute values at the time the snapshot was
+	// taken (by element), to determine changes
+	private final List<IAttributeStore> originals = new ArrayList<>();
+	private final List<IAttributeStore> copies = new ArrayList<>();
+	private final List<Map<String, Object>> originalValues = new ArrayList<>();
+	private final LayoutContext copyContext;
+	private final Map<Node, Node> nodeCopies = new IdentityHashMap<>();
+
+	/**
+	 * Creates a new {@link LayoutSnapshot} for the given {@link LayoutContext}
+	 * . Has to be called from the thread that owns the graph (i.e. the
+	 * JavaFX application thread within an application).
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} to take a snapshot of.
+	 */
+	LayoutSnapshot(LayoutContext context) {
+		this.context = context;
+		this.graph = context.getGraph();
+		this.nodes = context.getNodes();
+		this.edges = context.getEdges();
+		this.sizes = new Dimension[nodes.length];
+		Rectangle bounds = LayoutProperties.getBounds(graph);
+		this.bounds = bounds == null ? null : bounds.getCopy();
+
+		List<Node> copiedNodes = new ArrayList<>(nodes.length);
+		for (int i = 0; i < nodes.length; i++) {
+			Dimension size = LayoutProperties.getSize(nodes[i]);
+			sizes[i] = size == null ? null : size.getCopy();
+			Node copy = new Node(copyAttributes(nodes[i]));
+			nodeCopies.put(nodes[i], copy);
+			copiedNodes.add(copy);
+			register(nodes[i], copy);
+		}
+		List<Edge> copiedEdges = new ArrayList<>(edges.length);
+		for (Edge edge : edges) {
+			Node source = nodeCopies.get(edge.getSource());
+			Node target = nodeCopies.get(edge.getTarget());
+			if (source == null || target == null) {
+				// edge to a layout irrelevant node
+				continue;
+			}
+			Edge copy = new Edge(copyAttributes(edge), source, target);
+			copiedEdges.add(copy);
+			register(edge, copy);
+		}
+		Graph graphCopy = new Graph(copyAttributes(graph), copiedNodes,
+				copiedEdges);
+		register(graph, graphCopy);
+
+		copyContext = new LayoutContext();
+		copyContext.setGraph(graphCopy);
+	}
+
+	/**
+	 * Transfers all attribute values that were changed by the
+	 * {@link ILayoutAlgorithm} back to the original graph elements. Values
+	 * that were changed within the original graph since the snapshot was
+	 * taken are kept. The changes are performed within a single
+	 * {@link Graph#batch(Runnable) batched update} of the original graph. Has
+	 * to be called from the thread that owns the graph.
+	 */
+	void apply() {
+		graph.batch(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < originals.size(); i++) {
+					applyChanges(i);
+				}
+			}
+		});
+	}
+
+	private void applyChanges(int index) {
+		Map<String, Object> values = originalValues.get(index);
+		Map<String, Object> original = originals.get(index).getAttributes();
+		for (Map.Entry<String, Object> entry : copies.get(index)
+				.getAttributes().entrySet()) {
+			Object value = values.get(entry.getKey());
+			if (!Objects.equals(entry.getValue(), value)
+					&& Objects.equals(original.get(entry.getKey()), value)) {
+				original.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private Map<String, Object> copyAttributes(IAttributeStore element) {
+		Map<String, Object> attributes = new HashMap<>();
+		for (Map.Entry<String, Object> entry : element.getAttributes()
+				.entrySet()) {
+			attributes.put(entry.getKey(), copyValue(entry.getValue()));
+		}
+		return attributes;
+	}
+
+	/**
+	 * Returns the copies of the given (original) nodes. Nodes that are not
+	 * layout relevant (and thus were not copied) are ignored.
+	 *
+	 * @param originalNodes
+	 *            The original nodes for which to return the copies.
+	 * @return The copies of the given nodes.
+	 */
+	Set<Node> getCopies(Set<Node> originalNodes) {
+		Set<Node> copiedNodes = new HashSet<>();
+		for (Node node : originalNodes) {
+			Node copy = nodeCopies.get(node);
+			if (copy != null) {
+				copiedNodes.add(copy);
+			}
+		}
+		return copiedNodes;
+	}
+
+	/**
+	 * Returns the {@link LayoutContext} that operates on the copied graph. It
+	 * does not have any filters, because layout irrelevant elements are not
+	 * copied.
+	 *
+	 * @return The {@link LayoutContext} for the copied graph.
+	 */
+	LayoutContext getCopyContext() {
+		return copyContext;
+	}
+
+	/**
+	 * Returns <code>true</code> if the layout relevant state of the original
+	 * {@link LayoutContext} changed since this snapshot was taken, i.e. its
+	 * graph, the layout relevant nodes and edges, the node sizes, or the
+	 * layout bounds changed. Has to be called from the thread that owns the
+	 * graph.
+	 *
+	 * @return <code>true</code> if this snapshot is stale, otherwise
+	 *         <code>false</code>.
+	 */
+	boolean isStale() {
+		if (context.getGraph() != graph
+				|| !Objects.equals(bounds, LayoutProperties.getBounds(graph))
+				|| !Arrays.equals(nodes, context.getNodes())
+				|| !Arrays.equals(edges, context.getEdges())) {
+			return true;
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			if (!Objects.equals(sizes[i], LayoutProperties.getSize(nodes[i]))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void register(IAttributeStore original, IAttributeStore copy) {
+		originals.add(original);
+		copies.add(copy);
+		// copied, so that values that are changed in-place are detected
+		originalValues.add(copyAttributes(original));
+	}
+
+}
@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A region quad tree over a set of points, which is used to approximate the
+ * repulsive forces between all pairs of points in O(N log N) following the
+ * Barnes-Hut method. All cell data is kept in primitive arrays, which are
+ * re-used when the tree is re-built, so that no garbage is produced per
+ * iteration.
+ * <p>
+ * The repulsive force that is exerted by a point (or cell of total mass
+ * <i>m</i>) at distance <i>d</i> is <i>m * strength / max(d², minDistance²)</i>
+ * , which corresponds to the repulsion computed by the
+ * {@link SpringLayoutAlgorithm}.
+ */
+class BarnesHutQuadTree {
+
+	/**
+	 * The maximum depth of the tree. Points that cannot be separated up to
+	 * this depth (e.g. because they are coincident) are chained within the
+	 * same leaf.
+	 */
+	private static final int MAX_DEPTH = 32;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The size of a traversal stack that suffices for any tree, because at
+	 * most three siblings per level are pending during a depth-first
+	 * traversal.
+	 */
+	static final int STACK_SIZE = 4 * (MAX_DEPTH + 2);
+
+	// per cell data
+	private double[] cellX = new double[INITIAL_CAPACITY];
+	private double[] cellY = new double[INITIAL_CAPACITY];
+	private double[] cellSize = new double[INITIAL_CAPACITY];
+	private double[] mass = new double[INITIAL_CAPACITY];
+	private double[] massX = new double[INITIAL_CAPACITY];
+	private double[] massY = new double[INITIAL_CAPACITY];
+	private int[] firstChild = new int[INITIAL_CAPACITY];
+	private int[] firstPoint = new int[INITIAL_CAPACITY];
+	private int cellCount;
+
+	// per point data
+	private int[] nextPoint = new int[0];
+	private double[] pointsX;
+	private double[] pointsY;
+
+	private int[] stack = new int[STACK_SIZE];
+
+	/**
+	 * (Re-)builds this tree for the first <i>n</i> points given by the passed
+	 * in coordinate arrays. The arrays are referenced (not copied) and may not
+	 * be changed until the tree is re-built.
+	 *
+	 * @param x
+	 *            The x coordinates of the points.
+	 * @param y
+	 *            The y coordinates of the points.
+	 * @param n
+	 *            The number of points.
+	 */
+	public void build(double[] x, double[] y, int n) {
+		pointsX = x;
+		pointsY = y;
+		if (nextPoint.length < n) {
+			nextPoint = new int[n];
+		}
+		cellCount = 0;
+		if (n == 0) {
+			return;
+		}
+
+		// determine square bounds
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		double size = Math.max(maxX - minX, maxY - minY);
+		if (!(size > 0)) {
+			size = 1;
+		}
+		// enlarge slightly so that points on the max border are contained
+		size *= 1.0001;
+
+		newCell(minX, minY, size);
+		for (int i = 0; i < n; i++) {
+			insert(i);
+		}
+	}
+
+	/**
+	 * Adds the (approximated) repulsive force that is exerted onto the point
+	 * at the given index by all other points to the given force arrays.
+	 *
+	 * @param i
+	 *            The index of the point for which to compute the force.
+	 * @param theta
+	 *            The Barnes-Hut opening criterion, i.e. a cell is approximated
+	 *            by its center of mass if its size divided by its distance is
+	 *            smaller than theta.
+	 * @param strength
+	 *            The strength of the repulsion.
+	 * @param minDistance
+	 *            The minimum distance that is considered.
+	 * @param forcesX
+	 *            The array to which the x component of the force is added.
+	 * @param forcesY
+	 *            The array to which the y component of the force is added.
+	 */
+	public void accumulateRepulsion(int i, double theta, double strength,
+			double minDistance, double[] forcesX, double[] forcesY) {
+		accumulateRepulsion(i, theta, strength, minDistance, forcesX, forcesY,
+				stack);
+	}
+
+	/**
+	 * Adds the (approximated) repulsive force that is exerted onto the point
+	 * at the given index by all other points to the given force arrays, using
+	 * the given traversal stack. As the tree is not modified by this method,
+	 * it may be called concurrently for different points, provided that each
+	 * thread uses its own stack (of size {@link #STACK_SIZE}) and the force
+	 * arrays are not written at the same index concurrently.
+	 *
+	 * @param i
+	 *            The index of the point for which to compute the force.
+	 * @param theta
+	 *            The Barnes-Hut opening criterion.
+	 * @param strength
+	 *            The strength of the repulsion.
+	 * @param minDistance
+	 *            The minimum distance that is considered.
+	 * @param forcesX
+	 *            The array to which the x component of the force is added.
+	 * @param forcesY
+	 *            The array to which the y component of the force is added.
+	 * @param stack
+	 *            The traversal stack to use.
+	 */
+	public void accumulateRepulsion(int i, double theta, double strength,
+			double minDistance, double[] forcesX, double[] forcesY,
+			int[] stack) {
+		if (cellCount == 0) {
+			return;
+		}
+		double x = pointsX[i];
+		double y = pointsY[i];
+		double minDistanceSq = minDistance * minDistance;
+		double thetaSq = theta * theta;
+		double fx = 0;
+		double fy = 0;
+
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int c = stack[--top];
+			if (firstChild[c] < 0) {
+				// leaf: evaluate contained points exactly
+				for (int j = firstPoint[c]; j >= 0; j = nextPoint[j]) {
+					if (j == i) {
+						continue;
+					}
+					double dx = x - pointsX[j];
+					double dy = y - pointsY[j];
+					double distanceSq = Math.max(minDistanceSq,
+							dx * dx + dy * dy);
+					double f = strength / (distanceSq * Math.sqrt(distanceSq));
+					fx += f * dx;
+					fy += f * dy;
+				}
+				continue;
+			}
+			double m = mass[c];
+			double dx = x - massX[c] / m;
+			double dy = y - massY[c] / m;
+			double distanceSq = dx * dx + dy * dy;
+			double s = cellSize[c];
+			if (s * s < thetaSq * distanceSq && !contains(c, x, y)) {
+				// far enough away: approximate by center of mass
+				distanceSq = Math.max(minDistanceSq, distanceSq);
+				double f = m * strength
+						/ (distanceSq * Math.sqrt(distanceSq));
+				fx += f * dx;
+				fy += f * dy;
+			} else {
+				if (top + 4 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				int child = firstChild[c];
+				for (int k = 0; k < 4; k++) {
+					if (mass[child + k] > 0) {
+						stack[top++] = child + k;
+					}
+				}
+			}
+		}
+		forcesX[i] += fx;
+		forcesY[i] += fy;
+	}
+
+	private boolean contains(int c, double x, double y) {
+		double s = cellSize[c];
+		return x >= cellX[c] && x < cellX[c] + s && y >= cellY[c]
+				&& y < cellY[c] + s;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= cellX.length) {
+			return;
+		}
+		int newLength = Math.max(capacity, cellX.length * 2);
+		cellX = Arrays.copyOf(cellX, newLength);
+		cellY = Arrays.copyOf(cellY, newLength);
+		cellSize = Arrays.copyOf(cellSize, newLength);
+		mass = Arrays.copyOf(mass, newLength);
+		massX = Arrays.copyOf(massX, newLength);
+		massY = Arrays.copyOf(massY, newLength);
+		firstChild = Arrays.copyOf(firstChild, newLength);
+		firstPoint = Arrays.copyOf(firstPoint, newLength);
+	}
+
+	private void insert(int i) {
+		double x = pointsX[i];
+		double y = pointsY[i];
+		int c = 0;
+		int depth = 0;
+		while (true) {
+			mass[c] += 1;
+			massX[c] += x;
+			massY[c] += y;
+			if (firstChild[c] >= 0) {
+				c = firstChild[c] + quadrant(c, x, y);
+				depth++;
+				continue;
+			}
+			int p = firstPoint[c];
+			if (p < 0 || depth >= MAX_DEPTH) {
+				// empty leaf or maximum depth reached: chain point
+				nextPoint[i] = p;
+				firstPoint[c] = i;
+				return;
+			}
+			// occupied leaf: split and push down the contained point
+			subdivide(c);
+			firstPoint[c] = -1;
+			int q = firstChild[c] + quadrant(c, pointsX[p], pointsY[p]);
+			mass[q] = 1;
+			massX[q] = pointsX[p];
+			massY[q] = pointsY[p];
+			nextPoint[p] = -1;
+			firstPoint[q] = p;
+			c = firstChild[c] + quadrant(c, x, y);
+			depth++;
+		}
+	}
+
+	private int newCell(double x, double y, double size) {
+		ensureCapacity(cellCount + 1);
+		int c = cellCount++;
+		cellX[c] = x;
+		cellY[c] = y;
+		cellSize[c] = size;
+		mass[c] = 0;
+		massX[c] = 0;
+		massY[c] = 0;
+		firstChild[c] = -1;
+		firstPoint[c] = -1;
+		return c;
+	}
+
+	private int quadrant(int c, double x, double y) {
+		double half = cellSize[c] / 2;
+		int q = 0;
+		if (x >= cellX[c] + half) {
+			q |= 1;
+		}
+		if (y >= cellY[c] + half) {
+			q |= 2;
+		}
+		return q;
+	}
+
+	private void subdivide(int c) {
+		double half = cellSize[c] / 2;
+		double x = cellX[c];
+		double y = cellY[c];
+		// children are allocated consecutively (in quadrant order)
+		int first = newCell(x, y, half);
+		newCell(x + half, y, half);
+		newCell(x, y + half, half);
+		newCell(x + half, y + half, half);
+		firstChild[c] = first;
+	}
+}
@@ -12,9 +12,15 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import org.eclipse.gef.geometry.planar.Rectangle;
+
 /**
  * Layout algorithm that places all elements in one column or one row, depending
- * on set orientation.
+ * on set orientation. If {@link #setPacking(boolean) packing} is enabled, the
+ * elements are placed next to each other according to their actual sizes,
+ * instead of being placed in uniform cells, and the row or column is wrapped
+ * if an {@link #setAspectRatio(double) aspect ratio} other than
+ * <code>1</code> is set.
  * 
  * @author Mateusz Matela
  * @author Ian Bull
@@ -80,6 +86,67 @@ public class BoxLayoutAlgorithm extends GridLayoutAlgorithm {
 			throw new RuntimeException("Invalid orientation: " + orientation);
 	}
 
+	/**
+	 * Places the nodes next to each other (in the given order) within one row
+	 * or column, depending on the orientation, where the
+	 * {@link #setRowPadding(int) row padding} is used as the distance between
+	 * the nodes.
+	 * <p>
+	 * If an {@link #setAspectRatio(double) aspect ratio} other than
+	 * <code>1</code> is set, the row (column) is wrapped into several rows
+	 * (columns), the length of which is chosen so that the packing
+	 * approximates the aspect ratio. The nodes keep their order, and each
+	 * strip is as high (wide) as its highest (widest) node.
+	 */
+	@Override
+	protected void calculatePacking(double[] widths, double[] heights,
+			Rectangle bounds, double[] x, double[] y) {
+		boolean horizontal = orientation == HORIZONTAL;
+		int padding = getRowPadding();
+		// determine the length of the strips (along the orientation)
+		double stripLength = Double.POSITIVE_INFINITY;
+		if (getAspectRatio() != 1.0) {
+			// the strips are (about) as thick as the thickest node
+			double totalLength = 0;
+			double maxLength = 0;
+			double maxThickness = 0;
+			for (int i = 0; i < widths.length; i++) {
+				double length = horizontal ? widths[i] : heights[i];
+				totalLength += length + padding;
+				maxLength = Math.max(maxLength, length);
+				maxThickness = Math.max(maxThickness,
+						horizontal ? heights[i] : widths[i]);
+			}
+			double ratio = horizontal ? getAspectRatio()
+					: 1 / getAspectRatio();
+			stripLength = Math.max(maxLength, Math
+					.sqrt(totalLength * (maxThickness + padding) * ratio));
+		}
+		double start = horizontal ? bounds.getX() : bounds.getY();
+		double offset = start;
+		double stripOffset = horizontal ? bounds.getY() : bounds.getX();
+		double stripThickness = 0;
+		for (int i = 0; i < widths.length; i++) {
+			double length = horizontal ? widths[i] : heights[i];
+			if (offset > start && offset + length - start > stripLength) {
+				// wrap into a new strip
+				offset = start;
+				stripOffset += stripThickness + padding;
+				stripThickness = 0;
+			}
+			if (horizontal) {
+				x[i] = offset;
+				y[i] = stripOffset;
+			} else {
+				x[i] = stripOffset;
+				y[i] = offset;
+			}
+			offset += length + padding;
+			stripThickness = Math.max(stripThickness,
+					horizontal ? heights[i] : widths[i]);
+		}
+	}
+
 	protected int[] calculateNumberOfRowsAndCols(int numChildren, double boundX,
 			double boundY, double boundWidth, double boundHeight) {
 		if (orientation == HORIZONTAL)
@@ -87,4 +154,9 @@ public class BoxLayoutAlgorithm extends GridLayoutAlgorithm {
 		else
 			return new int[] { 1, numChildren };
 	}
+
+	@Override
+	public String getParameterKey() {
+		return super.getParameterKey() + ";orientation=" + orientation;
+	}
 }
@@ -12,21 +12,35 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutModel;
 
 /**
  * The {@link CompositeLayoutAlgorithm} combines multiple
  * {@link ILayoutAlgorithm}s. When doing a layout-pass, all the algorithms are
  * applied in sequence.
+ * <p>
+ * By default, all algorithms are applied to the given {@link LayoutContext}.
+ * Optionally (see {@link #isSharedModel()}), multiple algorithms can share a
+ * {@link LayoutModel}, i.e. they are applied to a detached working copy of the
+ * graph, and only the final results are transferred to the graph. Hence,
+ * intermediate results are not written to the graph, and its observers are
+ * notified only once per changed attribute. However, the algorithms are then
+ * passed the {@link LayoutModel#getContext() working context} and copies of
+ * the nodes, edges, and graph, so that this must only be enabled for
+ * algorithms that do not rely on the identity of these objects (e.g. by
+ * keeping them in maps across layout passes).
  * 
  * @author Ian Bull
  * @author Mateusz Matela
  * @author mwienand
  */
-public class CompositeLayoutAlgorithm implements ILayoutAlgorithm {
+public class CompositeLayoutAlgorithm implements ICacheableLayoutAlgorithm {
 
 	private ILayoutAlgorithm[] algorithms = null;
+	private boolean sharedModel;
 
 	/**
 	 * Constructs a new {@link CompositeLayoutAlgorithm} that combines the given
@@ -37,13 +51,78 @@ public class CompositeLayoutAlgorithm implements ILayoutAlgorithm {
 	 *            {@link CompositeLayoutAlgorithm}.
 	 */
 	public CompositeLayoutAlgorithm(ILayoutAlgorithm[] algorithms) {
+		this(algorithms, false);
+	}
+
+	/**
+	 * Constructs a new {@link CompositeLayoutAlgorithm} that combines the given
+	 * {@link ILayoutAlgorithm}s, which optionally share a {@link LayoutModel}.
+	 * 
+	 * @param algorithms
+	 *            The {@link ILayoutAlgorithm}s that are combined by this
+	 *            {@link CompositeLayoutAlgorithm}.
+	 * @param sharedModel
+	 *            <code>true</code> if the {@link ILayoutAlgorithm}s should be
+	 *            applied to a shared {@link LayoutModel}, otherwise
+	 *            <code>false</code>.
+	 */
+	public CompositeLayoutAlgorithm(ILayoutAlgorithm[] algorithms,
+			boolean sharedModel) {
 		this.algorithms = algorithms;
+		this.sharedModel = sharedModel;
 	}
 
 	public void applyLayout(LayoutContext context, boolean clean) {
+		if (!sharedModel || algorithms.length < 2) {
+			for (int i = 0; i < algorithms.length; i++) {
+				algorithms[i].applyLayout(context, clean);
+			}
+			return;
+		}
+		LayoutModel model = new LayoutModel(context);
 		for (int i = 0; i < algorithms.length; i++) {
-			algorithms[i].applyLayout(context, clean);
+			if (context.isLayoutCancelled()) {
+				return;
+			}
+			algorithms[i].applyLayout(model.getContext(), clean);
+		}
+		model.commit();
+	}
+
+	/**
+	 * Returns whether the combined {@link ILayoutAlgorithm}s are applied to a
+	 * shared {@link LayoutModel}.
+	 * 
+	 * @return <code>true</code> if the combined {@link ILayoutAlgorithm}s are
+	 *         applied to a shared {@link LayoutModel}, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isSharedModel() {
+		return sharedModel;
+	}
+
+	/**
+	 * Returns a key that combines the types and keys of all combined
+	 * algorithms, or <code>null</code> if any of them is not an
+	 * {@link ICacheableLayoutAlgorithm}.
+	 */
+	@Override
+	public String getParameterKey() {
+		StringBuilder key = new StringBuilder(
+				"sharedModel=" + sharedModel + ";");
+		for (ILayoutAlgorithm algorithm : algorithms) {
+			if (!(algorithm instanceof ICacheableLayoutAlgorithm)) {
+				return null;
+			}
+			String algorithmKey = ((ICacheableLayoutAlgorithm) algorithm)
+					.getParameterKey();
+			if (algorithmKey == null) {
+				return null;
+			}
+			key.append(algorithm.getClass().getName()).append("={")
+					.append(algorithmKey).append("};");
 		}
+		return key.toString();
 	}
 
 }
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.NodeWrapper;
+
+/**
+ * Counts the edge crossings of a layered graph and maintains the changes of
+ * the number of crossings (gains) that result from swapping two adjacent
+ * nodes of a layer.
+ * <p>
+ * Each edge is directed from its endpoint on the lower layer (the upper
+ * endpoint) to its endpoint on the higher layer (the lower endpoint). Two
+ * edges whose upper endpoints lie on one layer and whose lower endpoints lie
+ * on one layer cross if their endpoints are ordered differently on both
+ * layers. For a proper layering (where all edges connect consecutive layers),
+ * this is the number of crossings between consecutive layers. Edges between
+ * nodes of the same layer are not considered.
+ * <p>
+ * Positions and adjacencies are held in primitive arrays. The total number of
+ * crossings is computed per layer in O(E log V) using the accumulator tree of
+ * Barth, Jünger, and Mutzel ("Simple and Efficient Bilayer Cross Counting").
+ * The gain of an adjacent swap is computed in time linear in the degrees of
+ * the two nodes and cached until a swap of a neighboring node invalidates it.
+ */
+class CrossingCounter {
+
+	private final NodeWrapper[] wrappers;
+	private final int[] layerOf;
+	private final int[] position;
+	private final int[][] order;
+	private final int stride;
+
+	// adjacent nodes on lower and higher layers (sorted by layer and position)
+	private final int[][] up;
+	private final int[][] down;
+
+	// cached gains of swapping the nodes at positions i and i + 1
+	private final int[][] gains;
+	private final boolean[][] valid;
+
+	/**
+	 * Creates a new {@link CrossingCounter} for the given layers. The edges
+	 * are determined from the predecessors and successors of the
+	 * {@link NodeWrapper}s, or, in case none are assigned, from the edges of
+	 * the wrapped nodes.
+	 *
+	 * @param layers
+	 *            The layers of {@link NodeWrapper}s.
+	 */
+	CrossingCounter(List<List<NodeWrapper>> layers) {
+		int n = 0;
+		int maxWidth = 1;
+		for (List<NodeWrapper> layer : layers) {
+			n += layer.size();
+			maxWidth = Math.max(maxWidth, layer.size());
+		}
+		stride = maxWidth;
+		wrappers = new NodeWrapper[n];
+		layerOf = new int[n];
+		position = new int[n];
+		order = new int[layers.size()][];
+		gains = new int[layers.size()][];
+		valid = new boolean[layers.size()][];
+		Map<NodeWrapper, Integer> ids = new IdentityHashMap<>();
+		Map<Node, NodeWrapper> wrappersByNode = new IdentityHashMap<>();
+		boolean wrapperEdges = false;
+		int id = 0;
+		for (int l = 0; l < layers.size(); l++) {
+			List<NodeWrapper> layer = layers.get(l);
+			order[l] = new int[layer.size()];
+			gains[l] = new int[Math.max(0, layer.size() - 1)];
+			valid[l] = new boolean[gains[l].length];
+			for (int i = 0; i < layer.size(); i++) {
+				NodeWrapper nw = layer.get(i);
+				wrappers[id] = nw;
+				layerOf[id] = l;
+				position[id] = i;
+				order[l][i] = id;
+				ids.put(nw, id);
+				if (nw.node != null) {
+					wrappersByNode.put(nw.node, nw);
+				}
+				wrapperEdges |= !nw.succ.isEmpty();
+				id++;
+			}
+		}
+
+		// determine edges
+		List<List<Integer>> upLists = new ArrayList<>(n);
+		List<List<Integer>> downLists = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			upLists.add(new ArrayList<Integer>(2));
+			downLists.add(new ArrayList<Integer>(2));
+		}
+		for (int i = 0; i < n; i++) {
+			NodeWrapper nw = wrappers[i];
+			if (wrapperEdges) {
+				for (NodeWrapper successor : nw.succ) {
+					Integer j = ids.get(successor);
+					if (j != null) {
+						addEdge(i, j, upLists, downLists);
+					}
+				}
+			} else if (nw.node != null) {
+				for (Edge e : nw.node.getOutgoingEdgesView()) {
+					NodeWrapper target = wrappersByNode.get(e.getTarget());
+					if (target != null) {
+						addEdge(i, ids.get(target), upLists, downLists);
+					}
+				}
+			}
+		}
+		up = new int[n][];
+		down = new int[n][];
+		for (int i = 0; i < n; i++) {
+			up[i] = toSortedArray(upLists.get(i));
+			down[i] = toSortedArray(downLists.get(i));
+		}
+	}
+
+	private void addEdge(int a, int b, List<List<Integer>> upLists,
+			List<List<Integer>> downLists) {
+		if (layerOf[a] == layerOf[b]) {
+			return;
+		}
+		int upper = layerOf[a] < layerOf[b] ? a : b;
+		int lower = upper == a ? b : a;
+		downLists.get(upper).add(lower);
+		upLists.get(lower).add(upper);
+	}
+
+	/**
+	 * Writes the current order back into the layers that were passed in
+	 * during construction and updates the indices of the {@link NodeWrapper}
+	 * s accordingly.
+	 *
+	 * @param layers
+	 *            The layers of {@link NodeWrapper}s.
+	 */
+	void apply(List<List<NodeWrapper>> layers) {
+		for (int l = 0; l < order.length; l++) {
+			List<NodeWrapper> layer = layers.get(l);
+			for (int i = 0; i < order[l].length; i++) {
+				NodeWrapper nw = wrappers[order[l][i]];
+				layer.set(i, nw);
+				nw.index = i;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of pairs (a, b) of the given (sorted) adjacent nodes,
+	 * where a and b lie on the same layer and a is positioned after b.
+	 */
+	private int countInversions(int[] as, int[] bs) {
+		int count = 0;
+		int before = 0;
+		int layerStart = 0;
+		for (int k = 0; k < as.length; k++) {
+			int key = key(as[k]);
+			int base = layerOf[as[k]] * stride;
+			while (before < bs.length && key(bs[before]) < key) {
+				before++;
+			}
+			while (layerStart < bs.length && key(bs[layerStart]) < base) {
+				layerStart++;
+			}
+			count += before - layerStart;
+		}
+		return count;
+	}
+
+	/**
+	 * Computes the total number of crossings.
+	 *
+	 * @return The number of crossings.
+	 */
+	long getCrossings() {
+		int first = 1;
+		while (first < stride) {
+			first *= 2;
+		}
+		int[] tree = new int[2 * first - 1];
+		first -= 1;
+		long crossings = 0;
+		for (int l = 0; l < order.length; l++) {
+			// enumerate the edges by the layer and position of their lower
+			// endpoint and the position of their upper endpoint, so that the
+			// crossings per pair of layers correspond to the inversions of
+			// the lower endpoints' positions
+			int edgeCount = 0;
+			for (int u : order[l]) {
+				edgeCount += down[u].length;
+			}
+			long[] edges = new long[edgeCount];
+			int e = 0;
+			for (int u : order[l]) {
+				for (int a : down[u]) {
+					edges[e++] = ((long) layerOf[a] << 42)
+							| ((long) position[u] << 21) | position[a];
+				}
+			}
+			Arrays.sort(edges);
+			int groupStart = 0;
+			while (groupStart < edges.length) {
+				long lowerLayer = edges[groupStart] >>> 42;
+				int groupEnd = groupStart;
+				Arrays.fill(tree, 0);
+				while (groupEnd < edges.length
+						&& (edges[groupEnd] >>> 42) == lowerLayer) {
+					int index = (int) (edges[groupEnd] & 0x1FFFFF) + first;
+					tree[index]++;
+					while (index > 0) {
+						if ((index & 1) == 1) {
+							crossings += tree[index + 1];
+						}
+						index = (index - 1) / 2;
+						tree[index]++;
+					}
+					groupEnd++;
+				}
+				groupStart = groupEnd;
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * Returns the number of layers.
+	 *
+	 * @return The number of layers.
+	 */
+	int getLayerCount() {
+		return order.length;
+	}
+
+	/**
+	 * Returns the number of nodes on the given layer.
+	 *
+	 * @param layer
+	 *            The index of the layer.
+	 * @return The number of nodes on the given layer.
+	 */
+	int getLayerSize(int layer) {
+		return order[layer].length;
+	}
+
+	/**
+	 * Returns by how much the number of crossings would decrease when
+	 * swapping the nodes at positions <i>i</i> and <i>i + 1</i> of the given
+	 * layer.
+	 *
+	 * @param layer
+	 *            The index of the layer.
+	 * @param i
+	 *            The position of the first node to swap.
+	 * @return The decrease of the number of crossings, which is negative if
+	 *         the number of crossings would increase.
+	 */
+	int getSwapGain(int layer, int i) {
+		if (!valid[layer][i]) {
+			int u = order[layer][i];
+			int v = order[layer][i + 1];
+			gains[layer][i] = countInversions(down[u], down[v])
+					- countInversions(down[v], down[u])
+					+ countInversions(up[u], up[v])
+					- countInversions(up[v], up[u]);
+			valid[layer][i] = true;
+		}
+		return gains[layer][i];
+	}
+
+	private void invalidate(int node) {
+		int l = layerOf[node];
+		int p = position[node];
+		if (p > 0) {
+			valid[l][p - 1] = false;
+		}
+		if (p < valid[l].length) {
+			valid[l][p] = false;
+		}
+	}
+
+	private int key(int node) {
+		return layerOf[node] * stride + position[node];
+	}
+
+	/**
+	 * Restores the order of the given (nearly sorted) array of adjacent nodes
+	 * by insertion sort.
+	 */
+	private void resort(int[] nodes) {
+		for (int k = 1; k < nodes.length; k++) {
+			int node = nodes[k];
+			int key = key(node);
+			int j = k - 1;
+			while (j >= 0 && key(nodes[j]) > key) {
+				nodes[j + 1] = nodes[j];
+				j--;
+			}
+			nodes[j + 1] = node;
+		}
+	}
+
+	/**
+	 * Swaps the nodes at positions <i>i</i> and <i>i + 1</i> of the given
+	 * layer, and invalidates the gains that are affected by the swap.
+	 *
+	 * @param layer
+	 *            The index of the layer.
+	 * @param i
+	 *            The position of the first node to swap.
+	 */
+	void swap(int layer, int i) {
+		// the gain of swapping back is the negated gain (as it only depends
+		// on the positions of the adjacent nodes)
+		int gain = -getSwapGain(layer, i);
+		int u = order[layer][i];
+		int v = order[layer][i + 1];
+		order[layer][i] = v;
+		order[layer][i + 1] = u;
+		position[u] = i + 1;
+		position[v] = i;
+		invalidate(u);
+		invalidate(v);
+		gains[layer][i] = gain;
+		valid[layer][i] = true;
+		for (int node : new int[] { u, v }) {
+			for (int w : down[node]) {
+				resort(up[w]);
+				invalidate(w);
+			}
+			for (int w : up[node]) {
+				resort(down[w]);
+				invalidate(w);
+			}
+		}
+	}
+
+	private int[] toSortedArray(List<Integer> nodes) {
+		long[] keys = new long[nodes.size()];
+		for (int k = 0; k < keys.length; k++) {
+			int node = nodes.get(k);
+			keys[k] = ((long) key(node) << 32) | node;
+		}
+		Arrays.sort(keys);
+		int[] sorted = new int[keys.length];
+		for (int k = 0; k < keys.length; k++) {
+			sorted[k] = (int) keys[k];
+		}
+		return sorted;
+	}
+
+}
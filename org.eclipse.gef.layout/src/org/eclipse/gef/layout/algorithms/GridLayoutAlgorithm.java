@@ -12,16 +12,27 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
-import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
 
 /**
  * The {@link GridLayoutAlgorithm} lays out nodes in a grid.
+ * <p>
+ * By default, the layout bounds are divided into uniform cells, and each node
+ * is placed in its own cell. If {@link #setPacking(boolean) packing} is
+ * enabled, the nodes are instead packed according to their actual sizes (see
+ * {@link #calculatePacking(double[], double[], Rectangle, double[], double[])}
+ * ), which is more compact when the node sizes differ.
  * 
  * @author Casey Best
  * @author Ian Bull
@@ -29,7 +40,7 @@ import org.eclipse.gef.layout.LayoutProperties;
  * @author Mateusz Matela
  * @author mwienand
  */
-public class GridLayoutAlgorithm implements ILayoutAlgorithm {
+public class GridLayoutAlgorithm implements ICacheableLayoutAlgorithm {
 
 	private static final double PADDING_PERCENTAGE = 0.95;
 	private static final int MIN_ENTITY_SIZE = 5;
@@ -45,6 +56,8 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 	private int rowPadding = 0;
 
 	private boolean resize = false;
+
+	private boolean packing = false;
 	/**
 	 * The number of rows.
 	 */
@@ -91,15 +104,20 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 	public void applyLayout(LayoutContext context, boolean clean) {
 		if (!clean)
 			return;
-		numChildren = context.getNodes().length;
+		Node[] nodes = context.getNodes();
 		Rectangle bounds = LayoutProperties.getBounds(context.getGraph());
+		if (packing) {
+			applyPacking(nodes, bounds);
+			return;
+		}
+		numChildren = nodes.length;
 		calculateGrid(bounds);
 
 		int index = 0;
 		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < cols; j++) {
 				if ((i * cols + j) < numChildren) {
-					Node node = context.getNodes()[index++];
+					Node node = nodes[index++];
 					if (resize && LayoutProperties.isResizable(node))
 						LayoutProperties.setSize(node, new Dimension(
 								Math.max(childrenWidth, MIN_ENTITY_SIZE),
@@ -117,6 +135,152 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * Packs the given movable nodes according to their sizes (see
+	 * {@link #calculatePacking(double[], double[], Rectangle, double[], double[])}
+	 * ).
+	 */
+	private void applyPacking(Node[] nodes, Rectangle bounds) {
+		List<Node> movable = new ArrayList<>(nodes.length);
+		for (Node node : nodes) {
+			if (LayoutProperties.isMovable(node)) {
+				movable.add(node);
+			}
+		}
+		int n = movable.size();
+		double[] widths = new double[n];
+		double[] heights = new double[n];
+		for (int i = 0; i < n; i++) {
+			Dimension size = LayoutProperties.getSize(movable.get(i));
+			if (size != null) {
+				widths[i] = size.width;
+				heights[i] = size.height;
+			}
+		}
+		double[] x = new double[n];
+		double[] y = new double[n];
+		calculatePacking(widths, heights, bounds, x, y);
+		for (int i = 0; i < n; i++) {
+			LayoutProperties.setLocation(movable.get(i), new Point(
+					x[i] + widths[i] / 2, y[i] + heights[i] / 2));
+		}
+	}
+
+	/**
+	 * Calculates the top-left positions of the nodes with the given widths
+	 * and heights, so that they are packed without overlap, and stores them
+	 * in the given arrays.
+	 * <p>
+	 * The nodes are packed into shelves (rows) using the First-Fit
+	 * Decreasing-Height heuristic: the nodes are sorted by decreasing height
+	 * (keeping the given order for nodes of the same height, so that the
+	 * result is stable), and each node is put into the first shelf that has
+	 * enough space left, or into a new shelf below the others. The width of
+	 * the shelves is chosen so that the packing approximates the
+	 * {@link #setAspectRatio(double) aspect ratio}, or the aspect ratio of the
+	 * layout bounds if the aspect ratio is set to <code>1</code> (analogous to
+	 * {@link #calculateNumberOfRowsAndCols(int, double, double, double, double)}
+	 * ). The first shelf with enough space is determined
+	 * using a segment tree over the remaining widths of the shelves, so that
+	 * the packing runs in O(N log N). The {@link #setRowPadding(int) row
+	 * padding} is used as the distance between shelves, as well as between
+	 * the nodes within a shelf.
+	 * 
+	 * @param widths
+	 *            The widths of the nodes.
+	 * @param heights
+	 *            The heights of the nodes.
+	 * @param bounds
+	 *            The layout bounds.
+	 * @param x
+	 *            The array in which to store the horizontal positions.
+	 * @param y
+	 *            The array in which to store the vertical positions.
+	 */
+	protected void calculatePacking(final double[] widths,
+			final double[] heights, Rectangle bounds, double[] x, double[] y) {
+		int n = widths.length;
+		if (n == 0) {
+			return;
+		}
+		// sort by decreasing height (ties are broken by index)
+		Integer[] order = new Integer[n];
+		double area = 0;
+		double maxWidth = 0;
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+			area += (widths[i] + rowPadding) * (heights[i] + rowPadding);
+			maxWidth = Math.max(maxWidth, widths[i]);
+		}
+		Arrays.parallelSort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				int result = Double.compare(heights[i2], heights[i1]);
+				return result != 0 ? result : Integer.compare(i1, i2);
+			}
+		});
+
+		// determine shelf width from the aspect ratio (of the bounds)
+		double ratio = getPackingAspectRatio(bounds);
+		double shelfWidth = Math.max(maxWidth, Math.sqrt(area * ratio));
+
+		// segment tree (of the maximum remaining width) over the shelves
+		int leaves = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+		double[] remaining = new double[2 * leaves];
+		Arrays.fill(remaining, Double.NEGATIVE_INFINITY);
+		double[] shelfY = new double[n];
+		double[] shelfHeights = new double[n];
+		int shelves = 0;
+		for (int k = 0; k < n; k++) {
+			int i = order[k];
+			int shelf;
+			if (remaining[1] >= widths[i]) {
+				// descend to the first shelf with enough space
+				int node = 1;
+				while (node < leaves) {
+					node = remaining[2 * node] >= widths[i] ? 2 * node
+							: 2 * node + 1;
+				}
+				shelf = node - leaves;
+			} else {
+				// open a new shelf below the last one
+				shelf = shelves++;
+				shelfY[shelf] = shelf == 0 ? bounds.getY()
+						: shelfY[shelf - 1] + shelfHeights[shelf - 1]
+								+ rowPadding;
+				// the first node is the highest one within the shelf
+				shelfHeights[shelf] = heights[i];
+				remaining[leaves + shelf] = shelfWidth;
+			}
+			x[i] = bounds.getX() + shelfWidth - remaining[leaves + shelf];
+			y[i] = shelfY[shelf];
+			remaining[leaves + shelf] -= widths[i] + rowPadding;
+			for (int node = (leaves + shelf) / 2; node > 0; node /= 2) {
+				remaining[node] = Math.max(remaining[2 * node],
+						remaining[2 * node + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the width/height ratio that is approximated by
+	 * {@link #calculatePacking(double[], double[], Rectangle, double[], double[])}
+	 * , which is the {@link #setAspectRatio(double) aspect ratio}, or the
+	 * aspect ratio of the given layout bounds if the aspect ratio is set to
+	 * <code>1</code>.
+	 * 
+	 * @param bounds
+	 *            The layout bounds.
+	 * @return The width/height ratio of the packing.
+	 */
+	protected double getPackingAspectRatio(Rectangle bounds) {
+		if (aspectRatio != 1.0) {
+			return aspectRatio;
+		}
+		return bounds.getWidth() > 0 && bounds.getHeight() > 0
+				? bounds.getWidth() / bounds.getHeight() : 1;
+	}
+
 	/**
 	 * Calculates all the dimensions of grid that layout entities will be fit
 	 * in.
@@ -280,6 +444,15 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 		return result;
 	}
 
+	/**
+	 * Returns the padding between rows in the grid.
+	 * 
+	 * @return The padding between rows.
+	 */
+	public int getRowPadding() {
+		return rowPadding;
+	}
+
 	/**
 	 * Sets the padding between rows in the grid
 	 * 
@@ -292,6 +465,15 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * Returns the preferred aspect ratio for layout entities.
+	 * 
+	 * @return The aspect ratio.
+	 */
+	public double getAspectRatio() {
+		return aspectRatio;
+	}
+
 	/**
 	 * Sets the preferred aspect ratio for layout entities. The default aspect
 	 * ratio is 1.
@@ -305,6 +487,33 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * Returns whether the nodes are packed according to their sizes, instead
+	 * of being placed in uniform cells.
+	 * 
+	 * @return <code>true</code> if packing is enabled, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isPacking() {
+		return packing;
+	}
+
+	/**
+	 * Enables or disables packing (disabled by default). If enabled, the
+	 * nodes are packed according to their actual sizes (see
+	 * {@link #calculatePacking(double[], double[], Rectangle, double[], double[])}
+	 * ), so that the layout may exceed the layout bounds, but does not waste
+	 * space when the node sizes differ. Nodes are not resized when packing is
+	 * enabled.
+	 * 
+	 * @param packing
+	 *            <code>true</code> to enable packing, otherwise
+	 *            <code>false</code>.
+	 */
+	public void setPacking(boolean packing) {
+		this.packing = packing;
+	}
+
 	/**
 	 * 
 	 * @return true if this algorithm is set to resize elements
@@ -323,4 +532,10 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 		resize = resizing;
 	}
 
+	@Override
+	public String getParameterKey() {
+		return "aspectRatio=" + aspectRatio + ";rowPadding=" + rowPadding
+				+ ";resize=" + resize + ";packing=" + packing;
+	}
+
 }
@@ -22,7 +22,7 @@ import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
-import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
 
@@ -33,7 +33,7 @@ import org.eclipse.gef.layout.LayoutProperties;
  * @author Mateusz Matela
  * @author mwienand
  */
-public class HorizontalShiftAlgorithm implements ILayoutAlgorithm {
+public class HorizontalShiftAlgorithm implements ICacheableLayoutAlgorithm {
 
 	private static final double DELTA = 10;
 
@@ -108,4 +108,9 @@ public class HorizontalShiftAlgorithm implements ILayoutAlgorithm {
 		newRow.add(entity);
 		rowsList.add(newRow);
 	}
+
+	@Override
+	public String getParameterKey() {
+		return "";
+	}
 }
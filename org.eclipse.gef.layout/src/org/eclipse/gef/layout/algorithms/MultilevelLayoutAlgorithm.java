@@ -0,0 +1,645 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+
+/**
+ * The {@link MultilevelLayoutAlgorithm} is a force-directed layout algorithm
+ * for large graphs, following the multilevel approach of Walshaw ("A
+ * Multilevel Algorithm for Force-Directed Graph Drawing"):
+ * <ol>
+ * <li>The graph is repeatedly coarsened by collapsing a matching of adjacent
+ * nodes, until it cannot be reduced significantly any more.</li>
+ * <li>The coarsest graph is laid out from a random initial placement.</li>
+ * <li>The layout is then refined level by level: each node is initially placed
+ * at the location of the node it was collapsed into, before the forces of the
+ * finer level are relaxed.</li>
+ * </ol>
+ * At each level, the nodes are attracted by their neighbors (with a force of
+ * <i>d² / k</i>) and repelled by all other nodes (with a force of
+ * <i>k³ / d²</i>), where <i>k</i> is the natural spring length of the level.
+ * The repulsion is approximated using a Barnes-Hut quad tree, so that each
+ * iteration costs O(N log N + E). The forces of the nodes are computed
+ * independently of each other, so that they can be evaluated in parallel using
+ * the common {@link ForkJoinPool}, while the result remains deterministic.
+ * <p>
+ * Nodes that are not {@link LayoutProperties#isMovable(Node) movable} are
+ * never collapsed and keep their locations. Non-movable nodes without a
+ * location are pinned at the center of the layout bounds (or at the origin,
+ * if no bounds are specified). If all nodes are movable, the final layout is
+ * fit within the layout bounds.
+ */
+public class MultilevelLayoutAlgorithm implements ICacheableLayoutAlgorithm {
+
+	/**
+	 * A level of the multilevel hierarchy, i.e. a graph given by its
+	 * (symmetric) adjacency in compressed row storage.
+	 */
+	private static class Level {
+		int size;
+		int[] adjacencyOffsets;
+		int[] adjacencyTargets;
+		double[] adjacencyWeights;
+		boolean[] fixed;
+		// the index of the coarser node into which a node is collapsed
+		int[] coarseIndices;
+		double[] x, y;
+	}
+
+	/**
+	 * A {@link RecursiveAction} that computes the forces of a range of nodes,
+	 * splitting the range until it is small enough to be processed
+	 * sequentially.
+	 */
+	private class ForcesAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Level level;
+		private final BarnesHutQuadTree tree;
+		private final double springLength;
+		private final int from;
+		private final int to;
+
+		private final int grainSize;
+
+		ForcesAction(Level level, BarnesHutQuadTree tree, double springLength,
+				int from, int to, int grainSize) {
+			this.level = level;
+			this.tree = tree;
+			this.springLength = springLength;
+			this.from = from;
+			this.to = to;
+			this.grainSize = grainSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grainSize) {
+				computeForces(level, tree, springLength, from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(
+						new ForcesAction(level, tree, springLength, from,
+								middle, grainSize),
+						new ForcesAction(level, tree, springLength, middle,
+								to, grainSize));
+			}
+		}
+	}
+
+	/**
+	 * The minimum number of nodes that are processed by a single task.
+	 */
+	private static final int GRAIN_SIZE = 1024;
+
+	/**
+	 * The default number of iterations per level.
+	 */
+	private static final int DEFAULT_ITERATIONS = 50;
+
+	/**
+	 * The factor by which the number of iterations is increased for the
+	 * coarsest level (which is laid out from scratch).
+	 */
+	private static final int COARSEST_ITERATIONS_FACTOR = 4;
+
+	/**
+	 * The coarsening stops when a level has less than this number of nodes,
+	 * or when a level contains more than {@link #MIN_COARSENING_RATIO} of the
+	 * nodes of the finer level.
+	 */
+	private static final int MIN_LEVEL_SIZE = 2;
+
+	private static final double MIN_COARSENING_RATIO = 0.8;
+
+	/**
+	 * The natural spring length is increased by this factor per level (see
+	 * Walshaw).
+	 */
+	private static final double SPRING_LENGTH_FACTOR = Math.sqrt(7d / 4d);
+
+	/**
+	 * The factor by which the maximal displacement is decreased per
+	 * iteration.
+	 */
+	private static final double COOLING_FACTOR = 0.9;
+
+	/**
+	 * A level is considered converged when no node moves further than this
+	 * fraction of the natural spring length.
+	 */
+	private static final double CONVERGENCE_THRESHOLD = 0.01;
+
+	private static final double BARNES_HUT_THETA = 0.8;
+
+	private int iterations = DEFAULT_ITERATIONS;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private long seed = 0;
+
+	// forces (displacements) of the current level
+	private double[] forcesX, forcesY;
+
+	@Override
+	public void applyLayout(LayoutContext layoutContext, boolean clean) {
+		if (!clean) {
+			return;
+		}
+		Node[] nodes = layoutContext.getNodes();
+		if (nodes.length == 0) {
+			return;
+		}
+		Rectangle bounds = LayoutProperties
+				.getBounds(layoutContext.getGraph());
+
+		List<Level> levels = new ArrayList<>();
+		levels.add(createLevel(nodes, layoutContext.getEdges(), bounds));
+		while (true) {
+			Level level = levels.get(levels.size() - 1);
+			if (level.size < MIN_LEVEL_SIZE) {
+				break;
+			}
+			Level coarse = coarsen(level);
+			if (coarse.size > MIN_COARSENING_RATIO * level.size) {
+				level.coarseIndices = null;
+				break;
+			}
+			levels.add(coarse);
+		}
+
+		// natural spring length of the finest level
+		double maxNodeSize = 0;
+		for (Node node : nodes) {
+			Dimension size = LayoutProperties.getSize(node);
+			if (size != null) {
+				maxNodeSize = Math.max(maxNodeSize,
+						Math.max(size.width, size.height));
+			}
+		}
+		double k = 2 * Math.max(1, maxNodeSize);
+		if (bounds != null && bounds.getWidth() > 0
+				&& bounds.getHeight() > 0) {
+			k = Math.max(k, Math.sqrt(
+					bounds.getWidth() * bounds.getHeight() / nodes.length));
+		}
+
+		try {
+			// lay out the coarsest level from scratch
+			Random random = new Random(seed);
+			int coarsest = levels.size() - 1;
+			double springLength = k * Math.pow(SPRING_LENGTH_FACTOR, coarsest);
+			Level level = levels.get(coarsest);
+			double side = springLength * Math.sqrt(level.size);
+			for (int i = 0; i < level.size; i++) {
+				if (!level.fixed[i]) {
+					level.x[i] = random.nextDouble() * side;
+					level.y[i] = random.nextDouble() * side;
+				}
+			}
+			relax(layoutContext, level, springLength,
+					COARSEST_ITERATIONS_FACTOR * iterations, side / 10);
+			layoutContext.setLayoutProgress(1d / levels.size());
+
+			// refine level by level
+			for (int l = coarsest - 1; l >= 0; l--) {
+				if (layoutContext.isLayoutCancelled()) {
+					return;
+				}
+				Level fine = levels.get(l);
+				springLength /= SPRING_LENGTH_FACTOR;
+				interpolate(fine, level, springLength, random);
+				relax(layoutContext, fine, springLength, iterations,
+						springLength);
+				level = fine;
+				layoutContext.setLayoutProgress(
+						(double) (levels.size() - l) / levels.size());
+			}
+		} finally {
+			forcesX = null;
+			forcesY = null;
+		}
+		if (layoutContext.isLayoutCancelled()) {
+			return;
+		}
+
+		// store locations
+		Level finest = levels.get(0);
+		boolean allMovable = true;
+		for (int i = 0; i < nodes.length; i++) {
+			if (finest.fixed[i]) {
+				allMovable = false;
+			} else {
+				LayoutProperties.setLocation(nodes[i],
+						new Point(finest.x[i], finest.y[i]));
+			}
+		}
+		if (allMovable && bounds != null) {
+			Rectangle insetBounds = bounds.getShrinked(4, 4);
+			AlgorithmHelper.fitWithinBounds(nodes, insetBounds, false);
+		}
+	}
+
+	/**
+	 * Collapses a matching of the given {@link Level}, where each node is
+	 * matched with the lightest unmatched neighbor, visiting the nodes in
+	 * order of increasing degree. Fixed nodes are not matched.
+	 */
+	private Level coarsen(Level level) {
+		int n = level.size;
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		final int[] offsets = level.adjacencyOffsets;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Integer.compare(offsets[i1 + 1] - offsets[i1],
+						offsets[i2 + 1] - offsets[i2]);
+			}
+		});
+		// weight (number of collapsed nodes) per node
+		int[] weights = level.coarseIndices;
+		int[] match = new int[n];
+		Arrays.fill(match, -1);
+		for (int v : order) {
+			if (match[v] >= 0) {
+				continue;
+			}
+			match[v] = v;
+			if (level.fixed[v]) {
+				continue;
+			}
+			int best = -1;
+			for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+				int u = level.adjacencyTargets[a];
+				if (match[u] < 0 && !level.fixed[u]
+						&& (best < 0 || weights[u] < weights[best])) {
+					best = u;
+				}
+			}
+			if (best >= 0) {
+				match[v] = best;
+				match[best] = v;
+			}
+		}
+
+		// assign coarse indices (in order of the finer nodes)
+		int[] coarseIndices = new int[n];
+		Arrays.fill(coarseIndices, -1);
+		int coarseSize = 0;
+		for (int v = 0; v < n; v++) {
+			if (coarseIndices[v] < 0) {
+				coarseIndices[v] = coarseSize;
+				coarseIndices[match[v]] = coarseSize;
+				coarseSize++;
+			}
+		}
+		Level coarse = new Level();
+		coarse.size = coarseSize;
+		coarse.fixed = new boolean[coarseSize];
+		coarse.x = new double[coarseSize];
+		coarse.y = new double[coarseSize];
+		// the coarse indices array doubles as weight array (until replaced)
+		coarse.coarseIndices = new int[coarseSize];
+		for (int v = 0; v < n; v++) {
+			int c = coarseIndices[v];
+			coarse.coarseIndices[c] += weights[v];
+			if (level.fixed[v]) {
+				coarse.fixed[c] = true;
+				coarse.x[c] = level.x[v];
+				coarse.y[c] = level.y[v];
+			}
+		}
+
+		// build the adjacency of the coarse level, summing up weights
+		coarse.adjacencyOffsets = new int[coarseSize + 1];
+		List<Integer> targets = new ArrayList<>();
+		List<Double> edgeWeights = new ArrayList<>();
+		double[] sums = new double[coarseSize];
+		int[] touched = new int[coarseSize];
+		int v = 0;
+		for (int c = 0; c < coarseSize; c++) {
+			coarse.adjacencyOffsets[c] = targets.size();
+			int touchedCount = 0;
+			// the members of c are v and (optionally) match[v]
+			while (coarseIndices[v] != c) {
+				v++;
+			}
+			int[] members = match[v] == v ? new int[] { v }
+					: new int[] { v, match[v] };
+			for (int member : members) {
+				for (int a = offsets[member]; a < offsets[member + 1]; a++) {
+					int cu = coarseIndices[level.adjacencyTargets[a]];
+					if (cu == c) {
+						continue;
+					}
+					if (sums[cu] == 0) {
+						touched[touchedCount++] = cu;
+					}
+					sums[cu] += level.adjacencyWeights[a];
+				}
+			}
+			for (int t = 0; t < touchedCount; t++) {
+				targets.add(touched[t]);
+				edgeWeights.add(sums[touched[t]]);
+				sums[touched[t]] = 0;
+			}
+		}
+		coarse.adjacencyOffsets[coarseSize] = targets.size();
+		coarse.adjacencyTargets = new int[targets.size()];
+		coarse.adjacencyWeights = new double[targets.size()];
+		for (int a = 0; a < targets.size(); a++) {
+			coarse.adjacencyTargets[a] = targets.get(a);
+			coarse.adjacencyWeights[a] = edgeWeights.get(a);
+		}
+		level.coarseIndices = coarseIndices;
+		return coarse;
+	}
+
+	/**
+	 * Creates the finest {@link Level} for the given nodes and edges, where
+	 * non-movable nodes without a location are pinned at the center of the
+	 * given bounds (or at the origin, if no bounds are given).
+	 */
+	private Level createLevel(Node[] nodes, Edge[] edges, Rectangle bounds) {
+		int n = nodes.length;
+		Map<Node, Integer> indices = new IdentityHashMap<>(n);
+		for (int i = 0; i < n; i++) {
+			indices.put(nodes[i], i);
+		}
+		Level level = new Level();
+		level.size = n;
+		level.fixed = new boolean[n];
+		level.x = new double[n];
+		level.y = new double[n];
+		// initially, each node has a weight of 1
+		level.coarseIndices = new int[n];
+		Arrays.fill(level.coarseIndices, 1);
+		for (int i = 0; i < n; i++) {
+			level.fixed[i] = !LayoutProperties.isMovable(nodes[i]);
+			if (level.fixed[i]) {
+				Point location = LayoutProperties.getLocation(nodes[i]);
+				if (location == null) {
+					location = bounds == null ? new Point()
+							: bounds.getCenter();
+				}
+				level.x[i] = location.x;
+				level.y[i] = location.y;
+			}
+		}
+
+		int[] sources = new int[edges.length];
+		int[] targets = new int[edges.length];
+		level.adjacencyOffsets = new int[n + 1];
+		for (int e = 0; e < edges.length; e++) {
+			Integer source = indices.get(edges[e].getSource());
+			Integer target = indices.get(edges[e].getTarget());
+			if (source == null || target == null
+					|| source.intValue() == target.intValue()) {
+				sources[e] = -1;
+				continue;
+			}
+			sources[e] = source;
+			targets[e] = target;
+			level.adjacencyOffsets[source + 1]++;
+			level.adjacencyOffsets[target + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			level.adjacencyOffsets[i + 1] += level.adjacencyOffsets[i];
+		}
+		level.adjacencyTargets = new int[level.adjacencyOffsets[n]];
+		level.adjacencyWeights = new double[level.adjacencyTargets.length];
+		int[] fill = new int[n];
+		for (int e = 0; e < edges.length; e++) {
+			if (sources[e] < 0) {
+				continue;
+			}
+			double weight = LayoutProperties.getWeight(edges[e]);
+			weight = weight <= 0 ? 0.1 : weight;
+			int s = level.adjacencyOffsets[sources[e]] + fill[sources[e]]++;
+			level.adjacencyTargets[s] = targets[e];
+			level.adjacencyWeights[s] = weight;
+			int t = level.adjacencyOffsets[targets[e]] + fill[targets[e]]++;
+			level.adjacencyTargets[t] = sources[e];
+			level.adjacencyWeights[t] = weight;
+		}
+		return level;
+	}
+
+	/**
+	 * Computes the forces of the nodes within the given range.
+	 */
+	private void computeForces(Level level, BarnesHutQuadTree tree,
+			double springLength, int from, int to) {
+		double repulsion = springLength * springLength * springLength;
+		int[] stack = new int[BarnesHutQuadTree.STACK_SIZE];
+		double[] x = level.x;
+		double[] y = level.y;
+		for (int i = from; i < to; i++) {
+			forcesX[i] = 0;
+			forcesY[i] = 0;
+			if (level.fixed[i]) {
+				continue;
+			}
+			tree.accumulateRepulsion(i, BARNES_HUT_THETA, repulsion,
+					springLength / 100, forcesX, forcesY, stack);
+			for (int a = level.adjacencyOffsets[i]; a < level.adjacencyOffsets[i
+					+ 1]; a++) {
+				int j = level.adjacencyTargets[a];
+				double dx = x[j] - x[i];
+				double dy = y[j] - y[i];
+				double distance = Math.sqrt(dx * dx + dy * dy);
+				double f = distance / springLength * level.adjacencyWeights[a];
+				forcesX[i] += f * dx;
+				forcesY[i] += f * dy;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of iterations that are performed per level.
+	 *
+	 * @return The number of iterations per level.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Returns the parallelism, i.e. the (approximate) number of tasks that are
+	 * used to compute the forces in parallel.
+	 *
+	 * @return The parallelism.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Returns the seed that is used to compute the initial placement of the
+	 * coarsest level.
+	 *
+	 * @return The seed for the random initial placement.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Places the nodes of the given fine {@link Level} at the locations of the
+	 * nodes into which they were collapsed. Nodes that were collapsed together
+	 * are slightly displaced, so that they are separated by the repulsion.
+	 */
+	private void interpolate(Level fine, Level coarse, double springLength,
+			Random random) {
+		boolean[] placed = new boolean[coarse.size];
+		for (int i = 0; i < fine.size; i++) {
+			if (fine.fixed[i]) {
+				continue;
+			}
+			int c = fine.coarseIndices[i];
+			fine.x[i] = coarse.x[c];
+			fine.y[i] = coarse.y[c];
+			if (placed[c]) {
+				double angle = random.nextDouble() * 2 * Math.PI;
+				fine.x[i] += springLength / 2 * Math.cos(angle);
+				fine.y[i] += springLength / 2 * Math.sin(angle);
+			}
+			placed[c] = true;
+		}
+	}
+
+	/**
+	 * Relaxes the forces of the given {@link Level} for (at most) the given
+	 * number of iterations, where the maximal displacement per iteration
+	 * starts at the given step and is decreased by the
+	 * {@link #COOLING_FACTOR}.
+	 */
+	private void relax(LayoutContext layoutContext, Level level,
+			double springLength, int iterations, double step) {
+		int n = level.size;
+		if (forcesX == null || forcesX.length < n) {
+			forcesX = new double[n];
+			forcesY = new double[n];
+		}
+		BarnesHutQuadTree tree = new BarnesHutQuadTree();
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			if (layoutContext.isLayoutCancelled()) {
+				return;
+			}
+			tree.build(level.x, level.y, n);
+			if (parallelism > 1 && n > GRAIN_SIZE) {
+				// invoked from outside of a ForkJoinPool, the action is
+				// executed within the calling thread, and forked sub-actions
+				// are executed within the common pool; the grain size yields
+				// about as many tasks as the parallelism
+				int grainSize = Math.max(GRAIN_SIZE,
+						(n + parallelism - 1) / parallelism);
+				new ForcesAction(level, tree, springLength, 0, n, grainSize)
+						.invoke();
+			} else {
+				computeForces(level, tree, springLength, 0, n);
+			}
+
+			// move the nodes (limited by the current step)
+			double maxDisplacement = 0;
+			for (int i = 0; i < n; i++) {
+				if (level.fixed[i]) {
+					continue;
+				}
+				double length = Math.sqrt(
+						forcesX[i] * forcesX[i] + forcesY[i] * forcesY[i]);
+				if (length > step) {
+					forcesX[i] *= step / length;
+					forcesY[i] *= step / length;
+					length = step;
+				}
+				level.x[i] += forcesX[i];
+				level.y[i] += forcesY[i];
+				maxDisplacement = Math.max(maxDisplacement, length);
+			}
+			if (maxDisplacement < CONVERGENCE_THRESHOLD * springLength) {
+				break;
+			}
+			step *= COOLING_FACTOR;
+		}
+	}
+
+	/**
+	 * Sets the number of iterations that are performed per level. The
+	 * coarsest level is relaxed for four times as many iterations.
+	 *
+	 * @param iterations
+	 *            The number of iterations per level.
+	 */
+	public void setIterations(int iterations) {
+		if (iterations < 1) {
+			throw new IllegalArgumentException(
+					"The number of iterations has to be positive.");
+		}
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Sets the parallelism, i.e. the (approximate) number of tasks of the
+	 * common {@link ForkJoinPool} that are used to compute the forces in
+	 * parallel. A parallelism of <code>1</code> computes the forces within the
+	 * calling thread. By default, the number of available processors is used.
+	 * The result does not depend on the parallelism.
+	 *
+	 * @param parallelism
+	 *            The parallelism.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"The parallelism has to be positive.");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the seed that is used to compute the initial placement of the
+	 * coarsest level, so that layouts are reproducible.
+	 *
+	 * @param seed
+	 *            The seed for the random initial placement.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	@Override
+	public String getParameterKey() {
+		// the result does not depend on the parallelism
+		return "iterations=" + iterations + ";seed=" + seed;
+	}
+
+}
@@ -15,7 +15,7 @@ package org.eclipse.gef.layout.algorithms;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
-import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
 
@@ -29,7 +29,7 @@ import org.eclipse.gef.layout.LayoutProperties;
  * @author Mateusz Matela
  * @author mwienand
  */
-public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
+public class RadialLayoutAlgorithm implements ICacheableLayoutAlgorithm {
 
 	private static final double MAX_DEGREES = Math.PI * 2;
 	private double startDegree = 0;
@@ -101,6 +101,32 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 		this.endDegree = endDegree;
 	}
 
+	/**
+	 * Returns <code>true</code> if the underlying tree layout is a tidy tree
+	 * layout, otherwise <code>false</code>.
+	 * 
+	 * @return <code>true</code> if a tidy tree layout is used, otherwise
+	 *         <code>false</code>.
+	 * @see TreeLayoutAlgorithm#setTidy(boolean)
+	 */
+	public boolean isTidy() {
+		return treeLayout.isTidy();
+	}
+
+	/**
+	 * Specifies whether the underlying tree layout is a tidy tree layout
+	 * (default is <code>false</code>), which results in a more compact
+	 * distribution of the sub-trees over the angular range.
+	 * 
+	 * @param tidy
+	 *            <code>true</code> to use a tidy tree layout, otherwise
+	 *            <code>false</code>.
+	 * @see TreeLayoutAlgorithm#setTidy(boolean)
+	 */
+	public void setTidy(boolean tidy) {
+		treeLayout.setTidy(tidy);
+	}
+
 	/**
 	 * 
 	 * @return true if this algorithm is set to resize elements
@@ -119,4 +145,11 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 		resize = resizing;
 		treeLayout.setResizing(resize);
 	}
+
+	@Override
+	public String getParameterKey() {
+		return "startDegree=" + startDegree + ";endDegree=" + endDegree
+				+ ";resize=" + resize + ";treeLayout={"
+				+ treeLayout.getParameterKey() + "}";
+	}
 }
@@ -25,7 +25,7 @@ import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
-import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
 import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
@@ -43,7 +43,7 @@ import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
  * @author Mateusz Matela
  * @author mwienand
  */
-public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
+public class SpaceTreeLayoutAlgorithm implements ICacheableLayoutAlgorithm {
 
 	/**
 	 * Tree direction constant for which root is placed at the top and branches
@@ -1122,4 +1122,10 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 			}
 		}
 	}
+
+	@Override
+	public String getParameterKey() {
+		return "direction=" + direction + ";leafGap=" + leafGap
+				+ ";branchGap=" + branchGap + ";layerGap=" + layerGap;
+	}
 }
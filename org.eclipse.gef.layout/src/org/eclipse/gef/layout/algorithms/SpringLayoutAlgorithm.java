@@ -14,14 +14,19 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Node;
-import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
+import org.eclipse.gef.layout.IIncrementalLayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
 
@@ -37,7 +42,62 @@ import org.eclipse.gef.layout.LayoutProperties;
  * @author Mateusz Matela
  * @author mwienand
  */
-public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
+public class SpringLayoutAlgorithm
+		implements IIncrementalLayoutAlgorithm, ICacheableLayoutAlgorithm {
+
+	/**
+	 * A {@link RecursiveAction} that processes a range of blocks, either
+	 * computing the forces of the nodes within each block (into the
+	 * accumulators of the block), or merging the accumulators of all blocks
+	 * for the nodes within each block. The range is split until it contains
+	 * at most the given number of blocks, which are processed sequentially.
+	 */
+	private class BlockAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int fromBlock;
+		private final int toBlock;
+		private final int blocksPerTask;
+		private final boolean merge;
+		private final double[] locationsX, locationsY;
+		private final double[] forcesX, forcesY;
+
+		BlockAction(int fromBlock, int toBlock, int blocksPerTask,
+				boolean merge, double[] locationsX, double[] locationsY,
+				double[] forcesX, double[] forcesY) {
+			this.fromBlock = fromBlock;
+			this.toBlock = toBlock;
+			this.blocksPerTask = blocksPerTask;
+			this.merge = merge;
+			this.locationsX = locationsX;
+			this.locationsY = locationsY;
+			this.forcesX = forcesX;
+			this.forcesY = forcesY;
+		}
+
+		@Override
+		protected void compute() {
+			if (toBlock - fromBlock > blocksPerTask) {
+				int middle = (fromBlock + toBlock) >>> 1;
+				invokeAll(
+						new BlockAction(fromBlock, middle, blocksPerTask,
+								merge, locationsX, locationsY, forcesX,
+								forcesY),
+						new BlockAction(middle, toBlock, blocksPerTask, merge,
+								locationsX, locationsY, forcesX, forcesY));
+				return;
+			}
+			for (int block = fromBlock; block < toBlock; block++) {
+				if (merge) {
+					mergeBlockForces(block, forcesX, forcesY);
+				} else {
+					Arrays.fill(blockForcesX[block], 0);
+					Arrays.fill(blockForcesY[block], 0);
+					computeBlockForces(block, locationsX, locationsY,
+							blockForcesX[block], blockForcesY[block]);
+				}
+			}
+		}
+	}
 
 	/**
 	 * The default value for the spring layout number of iterations.
@@ -79,6 +139,42 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private static final double MIN_DISTANCE = 1.0d;
 
+	/**
+	 * The default value for the Barnes-Hut approximation threshold (disabled).
+	 */
+	private static final double DEFAULT_BARNES_HUT_THETA = 0.0d;
+
+	/**
+	 * The default value for the stability of incremental layout passes.
+	 */
+	private static final double DEFAULT_STABILITY = 0.5d;
+
+	/**
+	 * The number of iterations that are performed by an incremental layout
+	 * pass.
+	 */
+	private static final int INCREMENTAL_ITERATIONS = 100;
+
+	/**
+	 * The golden angle, used to distribute dirty nodes around their neighbors
+	 * during an incremental layout pass.
+	 */
+	private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
+	/**
+	 * The minimum number of nodes for which the forces are computed in
+	 * parallel.
+	 */
+	private static final int MIN_PARALLEL_NODES = 256;
+
+	/**
+	 * The number of blocks into which the nodes are partitioned if there are
+	 * at least {@link #MIN_PARALLEL_NODES} nodes. It does not depend on the
+	 * parallelism, so that the layout does not depend on the number of
+	 * processors.
+	 */
+	private static final int PARALLEL_BLOCKS = 8;
+
 	/**
 	 * The variable can be customized to set the number of iterations used.
 	 */
@@ -117,17 +213,53 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private double sprGravitation = DEFAULT_SPRING_GRAVITATION;
 
+	/**
+	 * The variable can be customized to approximate the repulsive forces
+	 * using a Barnes-Hut quad tree.
+	 */
+	private double barnesHutTheta = DEFAULT_BARNES_HUT_THETA;
+
+	/**
+	 * The variable can be customized to set how strongly the neighbors of
+	 * dirty nodes are held at their locations by an incremental layout pass.
+	 */
+	private double stability = DEFAULT_STABILITY;
+
+	/**
+	 * The variable can be customized to set the number of threads that are
+	 * used to compute the forces.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
 	/**
 	 * Variable indicating whether the algorithm should resize elements.
 	 */
 	private boolean resize = false;
 
 	private int iteration;
-	private double[][] srcDestToSumOfWeights;
+	// sparse (symmetric) adjacency, in compressed row storage
+	private int[] adjacencyOffsets;
+	private int[] adjacencyTargets;
+	private double[] adjacencyWeights;
+	private BarnesHutQuadTree quadTree;
+	private double[] normalizedX, normalizedY;
 	private Node[] entities;
 	private double[] forcesX, forcesY;
 	private double[] locationsX, locationsY;
+	// buffers of computeForces(), reused across iterations
+	private double[][] stepForcesX, stepForcesY;
+	private double[] stepLocationsX, stepLocationsY;
+	// the nodes are partitioned into blocks, which are processed in parallel;
+	// each block has its own force accumulators (unless there is only one
+	// block), scratch row (used to sum up the weights of parallel edges), and
+	// quad tree traversal stack, all of which are reused across iterations
+	private int[] blockOffsets;
+	private double[][] blockForcesX, blockForcesY;
+	private double[][] blockSumOfWeights;
+	private int[][] blockStacks;
 	private double[] sizeW, sizeH;
+	// nodes that are not moved (during an incremental layout pass)
+	private boolean[] pinned;
 	private Rectangle bounds;
 	private double boundsScaleX = 0.2;
 	private double boundsScaleY = 0.2;
@@ -146,7 +278,11 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		while (performAnotherNonContinuousIteration()) {
+			if (layoutContext.isLayoutCancelled()) {
+				return;
+			}
 			computeOneIteration();
+			layoutContext.setLayoutProgress((double) iteration / sprIterations);
 		}
 
 		saveLocations();
@@ -164,6 +300,145 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * Incrementally updates the layout. The dirty nodes are initially placed
+	 * around their (already placed) neighbors, or at the center of the layout
+	 * bounds if they do not have any placed neighbors. Afterwards, the forces
+	 * are relaxed for a fixed number of iterations, where only the dirty nodes
+	 * and their direct neighbors are moved. The neighbors are pulled back
+	 * towards their original locations according to the
+	 * {@link #getStability() stability}. All other nodes keep their locations.
+	 */
+	@Override
+	public void applyIncrementalLayout(LayoutContext layoutContext,
+			Set<Node> dirtyNodes) {
+		this.layoutContext = layoutContext;
+		initModel(layoutContext);
+		int n = entities.length;
+		boolean[] dirty = new boolean[n];
+		pinned = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			dirty[i] = dirtyNodes.contains(entities[i])
+					|| Double.isNaN(locationsX[i])
+					|| Double.isNaN(locationsY[i]);
+			pinned[i] = !dirty[i];
+		}
+		for (int i = 0; i < n; i++) {
+			if (dirty[i]) {
+				// relax the neighborhood of the dirty node
+				for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i
+						+ 1]; a++) {
+					pinned[adjacencyTargets[a]] = false;
+				}
+			}
+		}
+		placeDirtyNodes(dirty);
+
+		double[] anchorX = locationsX.clone();
+		double[] anchorY = locationsY.clone();
+		for (int k = 0; k < INCREMENTAL_ITERATIONS; k++) {
+			if (layoutContext.isLayoutCancelled()) {
+				pinned = null;
+				return;
+			}
+			computeForces();
+			computePositions();
+			for (int i = 0; i < n; i++) {
+				if (!dirty[i] && !pinned[i]) {
+					locationsX[i] += stability * (anchorX[i] - locationsX[i]);
+					locationsY[i] += stability * (anchorY[i] - locationsY[i]);
+				}
+			}
+			layoutContext.setLayoutProgress(
+					(double) (k + 1) / INCREMENTAL_ITERATIONS);
+		}
+
+		// only store the locations of the nodes that could be moved
+		for (int i = 0; i < n; i++) {
+			if (!pinned[i]) {
+				LayoutProperties.setLocation(entities[i],
+						new Point(locationsX[i], locationsY[i]));
+			}
+		}
+		pinned = null;
+	}
+
+	/**
+	 * Places the given dirty nodes around their neighbors that are already
+	 * placed. Dirty nodes that are only connected to other dirty nodes are
+	 * placed after these, and dirty nodes without placed neighbors are placed
+	 * around the center of the layout bounds.
+	 */
+	private void placeDirtyNodes(boolean[] dirty) {
+		int n = entities.length;
+		boolean[] placed = new boolean[n];
+		int[] placedAround = new int[n];
+		int placedAroundCenter = 0;
+		int remaining = 0;
+		for (int i = 0; i < n; i++) {
+			placed[i] = !dirty[i];
+			if (dirty[i]) {
+				remaining++;
+			}
+		}
+		while (remaining > 0) {
+			boolean progress = false;
+			for (int i = 0; i < n; i++) {
+				if (placed[i]) {
+					continue;
+				}
+				double x = 0;
+				double y = 0;
+				int count = 0;
+				int nearest = -1;
+				for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i
+						+ 1]; a++) {
+					int j = adjacencyTargets[a];
+					if (placed[j]) {
+						x += locationsX[j];
+						y += locationsY[j];
+						count++;
+						nearest = j;
+					}
+				}
+				if (count == 0) {
+					continue;
+				}
+				placeAround(i, x / count, y / count, placedAround[nearest]++,
+						sizeW[nearest], sizeH[nearest]);
+				placed[i] = true;
+				remaining--;
+				progress = true;
+			}
+			if (!progress) {
+				// place the first unconnected dirty node at the center
+				for (int i = 0; i < n; i++) {
+					if (!placed[i]) {
+						placeAround(i,
+								bounds.getX() + bounds.getWidth() / 2,
+								bounds.getY() + bounds.getHeight() / 2,
+								placedAroundCenter++, 0, 0);
+						placed[i] = true;
+						remaining--;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Places the node at the given index on a spiral around the given center,
+	 * so that subsequent nodes placed around the same center do not overlap.
+	 */
+	private void placeAround(int i, double centerX, double centerY, int k,
+			double width, double height) {
+		double radius = Math.max(Math.max(width, height),
+				Math.max(sizeW[i], sizeH[i])) * Math.sqrt(k + 1);
+		locationsX[i] = centerX + radius * Math.cos(k * GOLDEN_ANGLE);
+		locationsY[i] = centerY + radius * Math.sin(k * GOLDEN_ANGLE);
+	}
+
 	/**
 	 * Performs the given number of iterations.
 	 * 
@@ -319,6 +594,87 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		return sprGravitation;
 	}
 
+	@Override
+	public double getStability() {
+		return stability;
+	}
+
+	@Override
+	public void setStability(double stability) {
+		if (stability < 0 || stability > 1) {
+			throw new IllegalArgumentException(
+					"The stability has to be between 0 and 1.");
+		}
+		this.stability = stability;
+	}
+
+	/**
+	 * Sets the Barnes-Hut approximation threshold that is used to compute the
+	 * repulsive forces between nodes. If the threshold is greater than
+	 * <code>0</code>, the nodes are organized within a quad tree, and the
+	 * repulsion of a cell whose size divided by its distance is smaller than
+	 * the threshold is approximated by its center of mass, so that each
+	 * iteration costs O(N log N + E) instead of O(N²). Typical values are
+	 * between <code>0.5</code> and <code>1.0</code>, where greater values are
+	 * faster but less accurate. A value of <code>0</code> (the default)
+	 * disables the approximation, so that the exact pairwise repulsion is
+	 * computed.
+	 * 
+	 * @param theta
+	 *            The Barnes-Hut approximation threshold, or <code>0</code> to
+	 *            compute the exact repulsion.
+	 */
+	public void setBarnesHutTheta(double theta) {
+		if (theta < 0) {
+			throw new IllegalArgumentException(
+					"The Barnes-Hut threshold may not be negative.");
+		}
+		barnesHutTheta = theta;
+	}
+
+	/**
+	 * Returns the Barnes-Hut approximation threshold of this
+	 * {@link SpringLayoutAlgorithm}.
+	 * 
+	 * @return The Barnes-Hut approximation threshold, or <code>0</code> if the
+	 *         exact repulsion is computed.
+	 * @see #setBarnesHutTheta(double)
+	 */
+	public double getBarnesHutTheta() {
+		return barnesHutTheta;
+	}
+
+	/**
+	 * Sets the number of threads that are used to compute the forces. If
+	 * there are sufficiently many nodes, the nodes are partitioned into a
+	 * fixed number of blocks, the forces of which are computed by (at most)
+	 * that many tasks of the common {@link ForkJoinPool} in parallel. The
+	 * forces of the blocks are merged in a fixed order, so that the layout
+	 * does not depend on the parallelism. A parallelism of <code>1</code>
+	 * computes the forces within the calling thread. By default, the number of
+	 * available processors is used.
+	 * 
+	 * @param parallelism
+	 *            The number of threads that are used to compute the forces.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"The parallelism has to be positive.");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the number of threads that are used to compute the forces.
+	 * 
+	 * @return The parallelism of this {@link SpringLayoutAlgorithm}.
+	 * @see #setParallelism(int)
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
 	/**
 	 * Sets the number of iterations to be used.
 	 * 
@@ -363,37 +719,64 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	private long startTime = 0;
 
 	private void initLayout(LayoutContext context) {
+		initModel(context);
+
+		if (sprRandom)
+			placeRandomly(); // put vertices in random places
+
+		iteration = 1;
+
+		startTime = System.currentTimeMillis();
+	}
+
+	private void initModel(LayoutContext context) {
 		entities = context.getNodes();
 		bounds = LayoutProperties.getBounds(context.getGraph());
 		loadLocations();
 
-		srcDestToSumOfWeights = new double[entities.length][entities.length];
 		HashMap<Node, Integer> entityToPosition = new HashMap<>();
 		for (int i = 0; i < entities.length; i++) {
 			entityToPosition.put(entities[i], new Integer(i));
 		}
 
+		// build sparse adjacency (in both directions, ignoring self-loops)
 		Edge[] connections = context.getEdges();
+		int[] sources = new int[connections.length];
+		int[] targets = new int[connections.length];
+		adjacencyOffsets = new int[entities.length + 1];
 		for (int i = 0; i < connections.length; i++) {
 			Edge connection = connections[i];
 			Integer source = entityToPosition.get(connection.getSource());
 			Integer target = entityToPosition.get(connection.getTarget());
-			if (source == null || target == null)
+			if (source == null || target == null
+					|| source.intValue() == target.intValue()) {
+				sources[i] = -1;
 				continue;
-			double weight = LayoutProperties.getWeight(connection);
+			}
+			sources[i] = source.intValue();
+			targets[i] = target.intValue();
+			adjacencyOffsets[sources[i] + 1]++;
+			adjacencyOffsets[targets[i] + 1]++;
+		}
+		for (int i = 0; i < entities.length; i++) {
+			adjacencyOffsets[i + 1] += adjacencyOffsets[i];
+		}
+		adjacencyTargets = new int[adjacencyOffsets[entities.length]];
+		adjacencyWeights = new double[adjacencyTargets.length];
+		int[] fill = new int[entities.length];
+		for (int i = 0; i < connections.length; i++) {
+			if (sources[i] < 0) {
+				continue;
+			}
+			double weight = LayoutProperties.getWeight(connections[i]);
 			weight = (weight <= 0 ? 0.1 : weight);
-			srcDestToSumOfWeights[source.intValue()][target
-					.intValue()] += weight;
-			srcDestToSumOfWeights[target.intValue()][source
-					.intValue()] += weight;
+			int s = adjacencyOffsets[sources[i]] + fill[sources[i]]++;
+			adjacencyTargets[s] = targets[i];
+			adjacencyWeights[s] = weight;
+			int t = adjacencyOffsets[targets[i]] + fill[targets[i]]++;
+			adjacencyTargets[t] = sources[i];
+			adjacencyWeights[t] = weight;
 		}
-
-		if (sprRandom)
-			placeRandomly(); // put vertices in random places
-
-		iteration = 1;
-
-		startTime = System.currentTimeMillis();
 	}
 
 	private void loadLocations() {
@@ -405,11 +788,15 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			sizeH = new double[length];
 			forcesX = new double[length];
 			forcesY = new double[length];
+			stepForcesX = new double[2][length];
+			stepForcesY = new double[2][length];
+			stepLocationsX = new double[length];
+			stepLocationsY = new double[length];
 		}
 		for (int i = 0; i < entities.length; i++) {
 			Point location = LayoutProperties.getLocation(entities[i]);
-			locationsX[i] = location.x;
-			locationsY[i] = location.y;
+			locationsX[i] = location == null ? Double.NaN : location.x;
+			locationsY[i] = location == null ? Double.NaN : location.y;
 			Dimension size = LayoutProperties.getSize(entities[i]);
 			sizeW[i] = size.width;
 			sizeH[i] = size.height;
@@ -526,65 +913,23 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	protected void computeForces() {
 
-		double forcesX[][] = new double[2][this.forcesX.length];
-		double forcesY[][] = new double[2][this.forcesX.length];
-		double locationsX[] = new double[this.forcesX.length];
-		double locationsY[] = new double[this.forcesX.length];
+		double forcesX[][] = stepForcesX;
+		double forcesY[][] = stepForcesY;
+		double locationsX[] = stepLocationsX;
+		double locationsY[] = stepLocationsY;
 
 		// // initialize all forces to zero
 		for (int j = 0; j < 2; j++) {
-			for (int i = 0; i < this.forcesX.length; i++) {
-				forcesX[j][i] = 0;
-				forcesY[j][i] = 0;
-				locationsX[i] = this.locationsX[i];
-				locationsY[i] = this.locationsY[i];
-			}
+			Arrays.fill(forcesX[j], 0);
+			Arrays.fill(forcesY[j], 0);
 		}
-		// TODO: Again really really slow!
-
+		System.arraycopy(this.locationsX, 0, locationsX, 0, locationsX.length);
+		System.arraycopy(this.locationsY, 0, locationsY, 0, locationsY.length);
 		for (int k = 0; k < 2; k++) {
-			for (int i = 0; i < this.locationsX.length; i++) {
-
-				for (int j = i + 1; j < locationsX.length; j++) {
-					double dx = (locationsX[i] - locationsX[j])
-							/ bounds.getWidth() / boundsScaleX;
-					double dy = (locationsY[i] - locationsY[j])
-							/ bounds.getHeight() / boundsScaleY;
-					double distance_sq = dx * dx + dy * dy;
-					// make sure distance and distance squared not too small
-					distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
-							distance_sq);
-					double distance = Math.sqrt(distance_sq);
-
-					// If there are relationships between srcObj and destObj
-					// then decrease force on srcObj (a pull) in direction of
-					// destObj
-					// If no relation between srcObj and destObj then increase
-					// force on srcObj (a push) from direction of destObj.
-					double sumOfWeights = srcDestToSumOfWeights[i][j];
-
-					double f;
-					if (sumOfWeights > 0) {
-						// nodes are pulled towards each other
-						f = -sprStrain * Math.log(distance / sprLength)
-								* sumOfWeights;
-					} else {
-						// nodes are repelled from each other
-						f = sprGravitation / (distance_sq);
-					}
-					double dfx = f * dx / distance;
-					double dfy = f * dy / distance;
-
-					forcesX[k][i] += dfx;
-					forcesY[k][i] += dfy;
-
-					forcesX[k][j] -= dfx;
-					forcesY[k][j] -= dfy;
-				}
-			}
+			computeForces(locationsX, locationsY, forcesX[k], forcesY[k]);
 
 			for (int i = 0; i < entities.length; i++) {
-				if (LayoutProperties.isMovable(entities[i])) {
+				if (isMovable(i)) {
 					double deltaX = sprMove * forcesX[k][i];
 					double deltaY = sprMove * forcesY[k][i];
 
@@ -622,6 +967,250 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * Computes the forces for the given locations. The nodes are partitioned
+	 * into {@link #PARALLEL_BLOCKS} blocks, the forces of which are computed
+	 * by (at most) {@link #getParallelism() parallelism} tasks into separate
+	 * accumulators. Afterwards, the accumulators are merged in block order, so
+	 * that the result does not depend on the scheduling of the blocks.
+	 */
+	private void computeForces(double[] locationsX, double[] locationsY,
+			double[] forcesX, double[] forcesY) {
+		int n = locationsX.length;
+		if (barnesHutTheta > 0) {
+			buildQuadTree(locationsX, locationsY);
+		}
+		int blocks = n >= MIN_PARALLEL_NODES ? PARALLEL_BLOCKS : 1;
+		initBlocks(blocks, n);
+		if (blocks == 1) {
+			computeBlockForces(0, locationsX, locationsY, forcesX, forcesY);
+			return;
+		}
+		// invoked from outside of a ForkJoinPool, the actions are executed
+		// within the calling thread, and forked sub-actions are executed
+		// within the common pool
+		int blocksPerTask = (blocks + parallelism - 1) / parallelism;
+		new BlockAction(0, blocks, blocksPerTask, false, locationsX,
+				locationsY, forcesX, forcesY).invoke();
+		new BlockAction(0, blocks, blocksPerTask, true, locationsX, locationsY,
+				forcesX, forcesY).invoke();
+	}
+
+	/**
+	 * Computes the forces of the nodes within the given block. The exact
+	 * forces are computed per pair of nodes, so that a block is responsible
+	 * for all pairs whose first node lies within the block. The approximated
+	 * forces are computed per node (repulsion) and per edge (attraction).
+	 */
+	private void computeBlockForces(int block, double[] locationsX,
+			double[] locationsY, double[] forcesX, double[] forcesY) {
+		int from = blockOffsets[block];
+		int to = blockOffsets[block + 1];
+		if (barnesHutTheta > 0) {
+			computeApproximatedForces(from, to, forcesX, forcesY,
+					blockSumOfWeights[block], blockStacks[block]);
+		} else {
+			computeExactForces(from, to, locationsX, locationsY, forcesX,
+					forcesY, blockSumOfWeights[block]);
+		}
+	}
+
+	/**
+	 * Computes the forces between the pairs of nodes within the given range
+	 * and all nodes with a greater index in O(N²), where nodes that are
+	 * connected are pulled towards each other, while nodes that are not
+	 * connected are repelled from each other.
+	 */
+	private void computeExactForces(int from, int to, double[] locationsX,
+			double[] locationsY, double[] forcesX, double[] forcesY,
+			double[] sumOfWeights) {
+		for (int i = from; i < to; i++) {
+			scatterWeights(i, sumOfWeights);
+			for (int j = i + 1; j < locationsX.length; j++) {
+				double dx = (locationsX[i] - locationsX[j]) / bounds.getWidth()
+						/ boundsScaleX;
+				double dy = (locationsY[i] - locationsY[j])
+						/ bounds.getHeight() / boundsScaleY;
+				double distance_sq = dx * dx + dy * dy;
+				// make sure distance and distance squared not too small
+				distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+						distance_sq);
+				double distance = Math.sqrt(distance_sq);
+
+				// If there are relationships between srcObj and destObj
+				// then decrease force on srcObj (a pull) in direction of
+				// destObj
+				// If no relation between srcObj and destObj then increase
+				// force on srcObj (a push) from direction of destObj.
+				double sumOfWeight = sumOfWeights[j];
+
+				double f;
+				if (sumOfWeight > 0) {
+					// nodes are pulled towards each other
+					f = -sprStrain * Math.log(distance / sprLength)
+							* sumOfWeight;
+				} else {
+					// nodes are repelled from each other
+					f = sprGravitation / (distance_sq);
+				}
+				double dfx = f * dx / distance;
+				double dfy = f * dy / distance;
+
+				forcesX[i] += dfx;
+				forcesY[i] += dfy;
+
+				forcesX[j] -= dfx;
+				forcesY[j] -= dfy;
+			}
+			clearWeights(i, sumOfWeights);
+		}
+	}
+
+	/**
+	 * Approximates the repulsive forces of the nodes within the given range
+	 * using the Barnes-Hut quad tree in O(N log N), and corrects the forces
+	 * between connected nodes (which are pulled towards each other instead of
+	 * being repelled) based on the sparse adjacency in O(E).
+	 */
+	private void computeApproximatedForces(int from, int to,
+			double[] forcesX, double[] forcesY, double[] sumOfWeights,
+			int[] stack) {
+		for (int i = from; i < to; i++) {
+			quadTree.accumulateRepulsion(i, barnesHutTheta, sprGravitation,
+					MIN_DISTANCE, forcesX, forcesY, stack);
+		}
+
+		for (int i = from; i < to; i++) {
+			scatterWeights(i, sumOfWeights);
+			for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i
+					+ 1]; a++) {
+				int j = adjacencyTargets[a];
+				double sumOfWeight = sumOfWeights[j];
+				if (j <= i || sumOfWeight == 0) {
+					// handle each connected pair only once
+					continue;
+				}
+				sumOfWeights[j] = 0;
+				double dx = normalizedX[i] - normalizedX[j];
+				double dy = normalizedY[i] - normalizedY[j];
+				double distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+						dx * dx + dy * dy);
+				double distance = Math.sqrt(distance_sq);
+				// replace the repulsion by the attraction
+				double f = -sprStrain * Math.log(distance / sprLength)
+						* sumOfWeight - sprGravitation / distance_sq;
+				double dfx = f * dx / distance;
+				double dfy = f * dy / distance;
+
+				forcesX[i] += dfx;
+				forcesY[i] += dfy;
+
+				forcesX[j] -= dfx;
+				forcesY[j] -= dfy;
+			}
+			clearWeights(i, sumOfWeights);
+		}
+	}
+
+	/**
+	 * Normalizes the given locations and organizes them within the Barnes-Hut
+	 * quad tree.
+	 */
+	private void buildQuadTree(double[] locationsX, double[] locationsY) {
+		int n = locationsX.length;
+		if (normalizedX == null || normalizedX.length != n) {
+			normalizedX = new double[n];
+			normalizedY = new double[n];
+		}
+		for (int i = 0; i < n; i++) {
+			normalizedX[i] = locationsX[i] / bounds.getWidth() / boundsScaleX;
+			normalizedY[i] = locationsY[i] / bounds.getHeight()
+					/ boundsScaleY;
+		}
+		if (quadTree == null) {
+			quadTree = new BarnesHutQuadTree();
+		}
+		quadTree.build(normalizedX, normalizedY, n);
+	}
+
+	/**
+	 * Partitions the given number of nodes into the given number of blocks,
+	 * and (re-)allocates the per-block buffers if necessary. For the exact
+	 * forces, the blocks are balanced by the number of pairs, as the first
+	 * node of a pair is always the one with the smaller index.
+	 */
+	private void initBlocks(int blocks, int n) {
+		if (blockSumOfWeights == null || blockSumOfWeights.length != blocks
+				|| blockSumOfWeights[0].length != n) {
+			blockOffsets = new int[blocks + 1];
+			blockSumOfWeights = new double[blocks][n];
+			blockStacks = new int[blocks][BarnesHutQuadTree.STACK_SIZE];
+			blockForcesX = blocks > 1 ? new double[blocks][n] : null;
+			blockForcesY = blocks > 1 ? new double[blocks][n] : null;
+		}
+		double pairs = (double) n * (n - 1) / 2;
+		for (int b = 1; b < blocks; b++) {
+			if (barnesHutTheta > 0) {
+				blockOffsets[b] = (int) ((long) n * b / blocks);
+			} else {
+				// solve i * (2n - i - 1) / 2 = pairs * b / blocks for i
+				double c = 2 * n - 1;
+				double i = (c - Math.sqrt(c * c - 8 * pairs * b / blocks)) / 2;
+				blockOffsets[b] = Math.max(blockOffsets[b - 1],
+						Math.min(n, (int) Math.round(i)));
+			}
+		}
+		blockOffsets[blocks] = n;
+	}
+
+	/**
+	 * Merges the force accumulators of all blocks (in block order) for the
+	 * nodes within the given block.
+	 */
+	private void mergeBlockForces(int block, double[] forcesX,
+			double[] forcesY) {
+		int from = (int) ((long) forcesX.length * block / blockForcesX.length);
+		int to = (int) ((long) forcesX.length * (block + 1)
+				/ blockForcesX.length);
+		for (int b = 0; b < blockForcesX.length; b++) {
+			double[] blockX = blockForcesX[b];
+			double[] blockY = blockForcesY[b];
+			for (int i = from; i < to; i++) {
+				forcesX[i] += blockX[i];
+				forcesY[i] += blockY[i];
+			}
+		}
+	}
+
+	/**
+	 * Sums up the weights of the edges between the node at the given index
+	 * and each of its neighbors into the given scratch row.
+	 */
+	private void scatterWeights(int i, double[] sumOfWeights) {
+		for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i + 1]; a++) {
+			sumOfWeights[adjacencyTargets[a]] += adjacencyWeights[a];
+		}
+	}
+
+	/**
+	 * Resets the given scratch row for all neighbors of the node at the given
+	 * index.
+	 */
+	private void clearWeights(int i, double[] sumOfWeights) {
+		for (int a = adjacencyOffsets[i]; a < adjacencyOffsets[i + 1]; a++) {
+			sumOfWeights[adjacencyTargets[a]] = 0;
+		}
+	}
+
+	/**
+	 * Returns whether the node at the given index may be moved, i.e. it is
+	 * movable and not pinned by an incremental layout pass.
+	 */
+	private boolean isMovable(int i) {
+		return (pinned == null || !pinned[i])
+				&& LayoutProperties.isMovable(entities[i]);
+	}
+
 	/**
 	 * Computes the position for each node in this SpringLayoutAlgorithm. The
 	 * computed position will be stored in the data repository. position =
@@ -629,7 +1218,7 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	protected void computePositions() {
 		for (int i = 0; i < entities.length; i++) {
-			if (LayoutProperties.isMovable(entities[i])) {
+			if (isMovable(i)) {
 				double deltaX = sprMove * forcesX[i];
 				double deltaY = sprMove * forcesY[i];
 
@@ -696,4 +1285,15 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			locationsY[i] -= moveY;
 		}
 	}
+
+	@Override
+	public String getParameterKey() {
+		// the stability only affects incremental layout passes, which are not
+		// cached, and the result does not depend on the parallelism
+		return "iterations=" + sprIterations + ";timeout=" + maxTimeMS
+				+ ";random=" + sprRandom + ";move=" + sprMove + ";strain="
+				+ sprStrain + ";length=" + sprLength + ";gravitation="
+				+ sprGravitation + ";theta=" + barnesHutTheta + ";resize="
+				+ resize;
+	}
 }
@@ -35,7 +35,8 @@ import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Node;
-import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
+import org.eclipse.gef.layout.IIncrementalLayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
 
@@ -58,7 +59,8 @@ import org.eclipse.gef.layout.LayoutProperties;
  * @author Adam Kovacs
  * @author mwienand
  */
-public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
+public class SugiyamaLayoutAlgorithm
+		implements IIncrementalLayoutAlgorithm, ICacheableLayoutAlgorithm {
 
 	/**
 	 * Specifies the direction for the {@link SugiyamaLayoutAlgorithm}.
@@ -634,6 +636,42 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * Implements the CrossingReducer interface. This algorithm repeatedly
+	 * sweeps over all layers and swaps adjacent nodes whenever this decreases
+	 * the total number of edge crossings, until no such swap remains (or a
+	 * maximum number of sweeps has been performed).
+	 * <p>
+	 * In contrast to the {@link GreedyCrossingReducer}, the layer positions
+	 * are kept in primitive arrays, and the change of the number of crossings
+	 * that results from a swap is computed in time linear in the degrees of
+	 * the swapped nodes and cached until it is affected by another swap.
+	 */
+	public static class AdjacentExchangeCrossingReducer
+			implements CrossingReducer {
+
+		private static final int MAX_SWEEPS = 100;
+
+		public void crossReduction(List<List<NodeWrapper>> nodes) {
+			CrossingCounter counter = new CrossingCounter(nodes);
+			for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+				boolean change = false;
+				for (int l = 0; l < counter.getLayerCount(); l++) {
+					for (int i = 0; i < counter.getLayerSize(l) - 1; i++) {
+						if (counter.getSwapGain(l, i) > 0) {
+							counter.swap(l, i);
+							change = true;
+						}
+					}
+				}
+				if (!change) {
+					break;
+				}
+			}
+			counter.apply(nodes);
+		}
+	}
+
 	/**
 	 * Structure to store nodes and their positions in the layers. Furthermore
 	 * predecessors and successors can be assigned to the nodes.
@@ -892,18 +930,18 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 			for (Node node : nodes) {
 				// directed edges
-				if (node.getIncomingEdges().size() == 0)
+				if (node.getIncomingEdgesView().size() == 0)
 					res.add(node);
 				else {
 					int sizeOfIntersect = intersectOfConnections(
-							node.getIncomingEdges(), node.getOutgoingEdges())
+							node.getIncomingEdgesView(), node.getOutgoingEdgesView())
 									.size();
 					// there are more outgoing edges, besides the bidirectionals
-					if (node.getOutgoingEdges().size() > sizeOfIntersect)
+					if (node.getOutgoingEdgesView().size() > sizeOfIntersect)
 						res.add(node);
 					// only bidirectional edges, no incoming directed edges
-					if (node.getIncomingEdges().size() == sizeOfIntersect
-							&& node.getOutgoingEdges()
+					if (node.getIncomingEdgesView().size() == sizeOfIntersect
+							&& node.getOutgoingEdgesView()
 									.size() == sizeOfIntersect)
 						res.add(node);
 				}
@@ -980,7 +1018,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 				Set<Node> closedList) {
 			ArrayList<Node> res = new ArrayList<>();
 
-			for (Edge e : toUnfold.getOutgoingEdges()) {
+			for (Edge e : toUnfold.getOutgoingEdgesView()) {
 				Node endPoint = e.getTarget();
 				if (endPoint.equals(toUnfold))
 					endPoint = e.getSource();
@@ -989,7 +1027,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 						&& !res.contains(endPoint))
 					res.add(endPoint);
 			}
-			for (Edge e : toUnfold.getIncomingEdges()) {
+			for (Edge e : toUnfold.getIncomingEdgesView()) {
 				Node endPoint = e.getTarget();
 				if (endPoint.equals(toUnfold))
 					endPoint = e.getSource();
@@ -1220,6 +1258,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 	private LayerProvider layerProvider;
 	private CrossingReducer crossingReducer;
+	private double stability = 0.5d;
 
 	/**
 	 * Constructs a tree-like, layered layout of a directed graph.
@@ -1333,17 +1372,195 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
 		if (!clean)
 			return;
+		if (computeLayers(layoutContext)) {
+			calculatePositions(layoutContext);
+		}
+	}
+
+	/**
+	 * Incrementally updates the layout. The layers and the order of the nodes
+	 * within the layers are computed as for a full layout pass. However, only
+	 * the dirty nodes are placed: within their layer, they are placed between
+	 * their non-dirty predecessor and successor (or next to them, if they are
+	 * the first or last nodes of the layer). Afterwards, the non-dirty
+	 * neighbors of the dirty nodes are moved towards the barycenter of their
+	 * neighbors (within their layer and without changing their order),
+	 * according to the {@link #getStability() stability}. All other nodes keep
+	 * their locations.
+	 */
+	@Override
+	public void applyIncrementalLayout(LayoutContext layoutContext,
+			Set<Node> dirtyNodes) {
+		if (!computeLayers(layoutContext)) {
+			return;
+		}
+		Rectangle boundary = getBoundary(layoutContext);
+		boolean horizontal = direction == Direction.HORIZONTAL;
+		// distance of the slots within a layer and of the layers
+		double indexSpacing = horizontal ? boundary.getHeight() / (last + 1)
+				: boundary.getWidth() / layers.size();
+		double layerSpacing = horizontal ? boundary.getWidth() / layers.size()
+				: boundary.getHeight() / (last + 1);
+
+		// the (non-dummy) nodes of each layer, in order
+		List<List<Node>> layerNodes = new ArrayList<>();
+		List<double[]> layerCoordinates = new ArrayList<>();
+		Map<Node, Integer> layerIndices = new IdentityHashMap<>();
+		Map<Node, Integer> positions = new IdentityHashMap<>();
+		for (List<NodeWrapper> layer : layers) {
+			List<NodeWrapper> wrappers = new ArrayList<>();
+			for (NodeWrapper nw : layer) {
+				if (nw.node != null) {
+					wrappers.add(nw);
+				}
+			}
+			Collections.sort(wrappers, new Comparator<NodeWrapper>() {
+				@Override
+				public int compare(NodeWrapper nw1, NodeWrapper nw2) {
+					return Integer.compare(nw1.index, nw2.index);
+				}
+			});
+			int m = wrappers.size();
+			List<Node> nodes = new ArrayList<>(m);
+			double[] coordinates = new double[m];
+			boolean[] fixed = new boolean[m];
+			double layerCoordinate = 0;
+			int fixedCount = 0;
+			for (int k = 0; k < m; k++) {
+				Node node = wrappers.get(k).node;
+				nodes.add(node);
+				layerIndices.put(node, layerNodes.size());
+				positions.put(node, k);
+				Point location = LayoutProperties.getLocation(node);
+				fixed[k] = location != null && !dirtyNodes.contains(node);
+				if (fixed[k]) {
+					coordinates[k] = horizontal ? location.y : location.x;
+					layerCoordinate += horizontal ? location.x : location.y;
+					fixedCount++;
+				}
+			}
+			layerCoordinate = fixedCount > 0 ? layerCoordinate / fixedCount
+					: (layerNodes.size() + 0.5d) * layerSpacing;
+
+			// distribute runs of dirty nodes between their fixed neighbors
+			int k = 0;
+			while (k < m) {
+				if (fixed[k]) {
+					k++;
+					continue;
+				}
+				int end = k;
+				while (end < m && !fixed[end]) {
+					end++;
+				}
+				int count = end - k;
+				for (int j = 0; j < count; j++) {
+					if (k > 0 && end < m) {
+						coordinates[k + j] = coordinates[k - 1]
+								+ (coordinates[end] - coordinates[k - 1])
+										* (j + 1) / (count + 1);
+					} else if (k > 0) {
+						coordinates[k + j] = coordinates[k - 1]
+								+ (j + 1) * indexSpacing;
+					} else if (end < m) {
+						coordinates[k + j] = coordinates[end]
+								- (count - j) * indexSpacing;
+					} else {
+						coordinates[k + j] = (wrappers.get(k + j).index + 0.5d)
+								* indexSpacing;
+					}
+					setLocation(nodes.get(k + j), layerCoordinate,
+							coordinates[k + j]);
+				}
+				k = end;
+			}
+			layerNodes.add(nodes);
+			layerCoordinates.add(coordinates);
+		}
+
+		// relax the non-dirty neighbors of the dirty nodes
+		Map<Node, List<Node>> neighbors = new IdentityHashMap<>();
+		for (Edge edge : layoutContext.getEdges()) {
+			Node source = edge.getSource();
+			Node target = edge.getTarget();
+			if (!positions.containsKey(source)
+					|| !positions.containsKey(target)) {
+				continue;
+			}
+			if (!neighbors.containsKey(source)) {
+				neighbors.put(source, new ArrayList<Node>());
+			}
+			if (!neighbors.containsKey(target)) {
+				neighbors.put(target, new ArrayList<Node>());
+			}
+			neighbors.get(source).add(target);
+			neighbors.get(target).add(source);
+		}
+		List<Node> relaxed = new ArrayList<>();
+		for (Node node : layoutContext.getNodes()) {
+			if (dirtyNodes.contains(node) || !neighbors.containsKey(node)
+					|| LayoutProperties.getLocation(node) == null
+					|| !LayoutProperties.isMovable(node)) {
+				continue;
+			}
+			for (Node neighbor : neighbors.get(node)) {
+				if (dirtyNodes.contains(neighbor)) {
+					relaxed.add(node);
+					break;
+				}
+			}
+		}
+		for (Node node : relaxed) {
+			double barycenter = 0;
+			for (Node neighbor : neighbors.get(node)) {
+				barycenter += layerCoordinates
+						.get(layerIndices.get(neighbor))[positions
+								.get(neighbor)];
+			}
+			barycenter /= neighbors.get(node).size();
+			double[] coordinates = layerCoordinates
+					.get(layerIndices.get(node));
+			int k = positions.get(node);
+			double coordinate = stability * coordinates[k]
+					+ (1 - stability) * barycenter;
+			// keep the order within the layer
+			if (k > 0) {
+				coordinate = Math.max(coordinate, coordinates[k - 1]);
+			}
+			if (k < coordinates.length - 1) {
+				coordinate = Math.min(coordinate, coordinates[k + 1]);
+			}
+			coordinates[k] = coordinate;
+			Point location = LayoutProperties.getLocation(node);
+			setLocation(node, horizontal ? location.x : location.y,
+					coordinate);
+		}
+	}
+
+	/**
+	 * Computes the layers and reduces the crossings between them.
+	 *
+	 * @return <code>true</code> if the layers were computed,
+	 *         <code>false</code> if the layout pass was cancelled.
+	 */
+	private boolean computeLayers(LayoutContext layoutContext) {
 		layers.clear();
 		map.clear();
 
 		ArrayList<Node> nodes = new ArrayList<>();
-		ArrayList<Node> nodes2 = new ArrayList<>();
 		for (Node node : layoutContext.getNodes()) {
 			nodes.add(node);
-			nodes2.add(node);
 		}
 		layers = layerProvider.calculateLayers(nodes);
+		if (layoutContext.isLayoutCancelled()) {
+			return false;
+		}
+		layoutContext.setLayoutProgress(0.25);
 		crossingReducer.crossReduction(layers);
+		if (layoutContext.isLayoutCancelled()) {
+			return false;
+		}
+		layoutContext.setLayoutProgress(0.75);
 
 		for (List<NodeWrapper> layer : layers) {
 			if (layer.size() > last)
@@ -1352,14 +1569,19 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 				map.put(nw.node, nw);
 			}
 		}
-		calculatePositions(layoutContext);
+		return true;
 	}
 
-	private void calculatePositions(LayoutContext context) {
+	private Rectangle getBoundary(LayoutContext context) {
 		Rectangle boundary = LayoutProperties.getBounds(context.getGraph());
 		if (dimension != null)
 			boundary = new Rectangle(0, 0, dimension.getWidth(),
 					dimension.getHeight());
+		return boundary;
+	}
+
+	private void calculatePositions(LayoutContext context) {
+		Rectangle boundary = getBoundary(context);
 		double dx = boundary.getWidth() / layers.size();
 		double dy = boundary.getHeight() / (last + 1);
 		if (direction == Direction.HORIZONTAL)
@@ -1376,4 +1598,40 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 			}
 	}
 
-}
\ No newline at end of file
+	@Override
+	public double getStability() {
+		return stability;
+	}
+
+	/**
+	 * Sets the location of the given {@link Node} from its layer coordinate
+	 * (i.e. the y-coordinate for {@link Direction#VERTICAL}) and its
+	 * coordinate within the layer.
+	 */
+	private void setLocation(Node node, double layerCoordinate,
+			double coordinate) {
+		LayoutProperties.setLocation(node,
+				direction == Direction.HORIZONTAL
+						? new Point(layerCoordinate, coordinate)
+						: new Point(coordinate, layerCoordinate));
+	}
+
+	@Override
+	public void setStability(double stability) {
+		if (stability < 0 || stability > 1) {
+			throw new IllegalArgumentException(
+					"The stability has to be between 0 and 1.");
+		}
+		this.stability = stability;
+	}
+
+	@Override
+	public String getParameterKey() {
+		// the stability only affects incremental layout passes, which are not
+		// cached
+		return "direction=" + direction + ";dimension=" + dimension
+				+ ";layerProvider=" + layerProvider.getClass().getName()
+				+ ";crossingReducer=" + crossingReducer.getClass().getName();
+	}
+
+}
@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * Copyright (c) 2018 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
+
+/**
+ * An iterative, linear-time implementation of the tidy tree drawing algorithm
+ * of Reingold and Tilford, in the formulation of Walker with the improvements
+ * of Buchheim, Jünger and Leipert ("Improving Walker's Algorithm to Run in
+ * Linear Time"). It computes the breadth positions (i.e. the x-coordinates of
+ * a top-down tree) of the nodes, so that sub-trees are placed as close to each
+ * other as possible, parents are centered above their children, and isomorphic
+ * sub-trees are drawn identically.
+ * <p>
+ * The tree is specified by index: Node <code>0</code> is the root, and the
+ * children of node <code>v</code> are
+ * <code>children[childOffsets[v]] ... children[childOffsets[v + 1] - 1]</code>
+ * . All data is kept within primitive arrays, and all traversals are
+ * performed without recursion, so that even very deep trees can be processed.
+ */
+class TidyTree {
+
+	/**
+	 * Creates a {@link TidyTree} for the sub-tree of the given {@link TreeNode}
+	 * , where each node occupies one unit of space (i.e. one leaf slot), and
+	 * adjacent nodes are not separated by an additional gap. The nodes are
+	 * indexed in pre-order, i.e. the given {@link TreeNode} has index
+	 * <code>0</code>.
+	 *
+	 * @param root
+	 *            The root {@link TreeNode}.
+	 * @param nodes
+	 *            A list to which the {@link TreeNode}s are added in index
+	 *            order.
+	 * @return A new {@link TidyTree}.
+	 */
+	static TidyTree create(TreeNode root, List<TreeNode> nodes) {
+		// collect nodes in pre-order
+		List<TreeNode> stack = new ArrayList<>();
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			TreeNode node = stack.remove(stack.size() - 1);
+			nodes.add(node);
+			for (int i = node.children.size() - 1; i >= 0; i--) {
+				stack.add(node.children.get(i));
+			}
+		}
+		int n = nodes.size();
+		Map<TreeNode, Integer> indices = new IdentityHashMap<>(n);
+		for (int i = 0; i < n; i++) {
+			indices.put(nodes.get(i), i);
+		}
+		int[] childOffsets = new int[n + 1];
+		int[] children = new int[Math.max(0, n - 1)];
+		int c = 0;
+		for (int i = 0; i < n; i++) {
+			childOffsets[i] = c;
+			for (TreeNode child : nodes.get(i).children) {
+				children[c++] = indices.get(child);
+			}
+		}
+		childOffsets[n] = c;
+		double[] sizes = new double[n];
+		Arrays.fill(sizes, 1);
+		return new TidyTree(childOffsets, children, sizes, 0);
+	}
+
+	private final int n;
+	private final int[] childOffsets;
+	private final int[] children;
+	private final double[] sizes;
+	private final double separation;
+
+	// tree structure
+	private final int[] parent;
+	private final int[] number;
+
+	// Walker/Buchheim state
+	private final double[] prelim;
+	private final double[] mod;
+	private final double[] shift;
+	private final double[] change;
+	private final int[] thread;
+	private final int[] ancestor;
+
+	private final double[] x;
+
+	/**
+	 * Creates a new {@link TidyTree}.
+	 *
+	 * @param childOffsets
+	 *            The offsets of the children of each node within the children
+	 *            array (of length <code>n + 1</code>).
+	 * @param children
+	 *            The children of all nodes, ordered by parent.
+	 * @param sizes
+	 *            The breadth of each node.
+	 * @param separation
+	 *            The minimum gap between adjacent nodes on the same layer.
+	 */
+	TidyTree(int[] childOffsets, int[] children, double[] sizes,
+			double separation) {
+		this.n = childOffsets.length - 1;
+		this.childOffsets = childOffsets;
+		this.children = children;
+		this.sizes = sizes;
+		this.separation = separation;
+		parent = new int[n];
+		number = new int[n];
+		prelim = new double[n];
+		mod = new double[n];
+		shift = new double[n];
+		change = new double[n];
+		thread = new int[n];
+		ancestor = new int[n];
+		x = new double[n];
+	}
+
+	private int apportion(int v, int defaultAncestor) {
+		int w = leftSibling(v);
+		if (w < 0) {
+			return defaultAncestor;
+		}
+		// inner/outer contours of the right (p) and left (m) sub-trees
+		int vip = v;
+		int vop = v;
+		int vim = w;
+		int vom = children[childOffsets[parent[v]]];
+		double sip = mod[vip];
+		double sop = mod[vop];
+		double sim = mod[vim];
+		double som = mod[vom];
+		int nextRightVim = nextRight(vim);
+		int nextLeftVip = nextLeft(vip);
+		while (nextRightVim >= 0 && nextLeftVip >= 0) {
+			vim = nextRightVim;
+			vip = nextLeftVip;
+			vom = nextLeft(vom);
+			vop = nextRight(vop);
+			ancestor[vop] = v;
+			double s = (prelim[vim] + sim) - (prelim[vip] + sip)
+					+ distance(vim, vip);
+			if (s > 0) {
+				moveSubtree(greatestDistinctAncestor(vim, v, defaultAncestor),
+						v, s);
+				sip += s;
+				sop += s;
+			}
+			sim += mod[vim];
+			sip += mod[vip];
+			som += mod[vom];
+			sop += mod[vop];
+			nextRightVim = nextRight(vim);
+			nextLeftVip = nextLeft(vip);
+		}
+		if (nextRightVim >= 0 && nextRight(vop) < 0) {
+			thread[vop] = nextRightVim;
+			mod[vop] += sim - sop;
+		}
+		if (nextLeftVip >= 0 && nextLeft(vom) < 0) {
+			thread[vom] = nextLeftVip;
+			mod[vom] += sip - som;
+			defaultAncestor = v;
+		}
+		return defaultAncestor;
+	}
+
+	/**
+	 * Computes the breadth positions (centers) of all nodes. The left-most
+	 * extent of the tree is located at <code>0</code>.
+	 *
+	 * @return The breadth positions of the nodes, by index.
+	 */
+	double[] computePositions() {
+		if (n == 0) {
+			return x;
+		}
+		parent[0] = -1;
+		for (int v = 0; v < n; v++) {
+			thread[v] = -1;
+			ancestor[v] = v;
+			for (int i = childOffsets[v]; i < childOffsets[v + 1]; i++) {
+				parent[children[i]] = v;
+				number[children[i]] = i - childOffsets[v];
+			}
+		}
+
+		// first walk (post-order), using the default ancestor of each parent
+		int[] defaultAncestor = new int[n];
+		int[] stack = new int[n];
+		int[] nextChild = new int[n];
+		int top = 0;
+		stack[0] = 0;
+		nextChild[0] = childOffsets[0];
+		while (top >= 0) {
+			int v = stack[top];
+			if (nextChild[v] < childOffsets[v + 1]) {
+				int w = children[nextChild[v]++];
+				if (w == children[childOffsets[v]]) {
+					defaultAncestor[v] = w;
+				}
+				stack[++top] = w;
+				nextChild[w] = childOffsets[w];
+				continue;
+			}
+			top--;
+			firstWalk(v);
+			if (parent[v] >= 0) {
+				defaultAncestor[parent[v]] = apportion(v,
+						defaultAncestor[parent[v]]);
+			}
+		}
+
+		// second walk (pre-order), accumulating modifiers
+		double[] modSum = new double[n];
+		double min = Double.POSITIVE_INFINITY;
+		top = 0;
+		stack[0] = 0;
+		modSum[0] = 0;
+		while (top >= 0) {
+			int v = stack[top--];
+			x[v] = prelim[v] + modSum[v];
+			min = Math.min(min, x[v] - sizes[v] / 2);
+			for (int i = childOffsets[v]; i < childOffsets[v + 1]; i++) {
+				int w = children[i];
+				modSum[w] = modSum[v] + mod[v];
+				stack[++top] = w;
+			}
+		}
+		for (int v = 0; v < n; v++) {
+			x[v] -= min;
+		}
+		return x;
+	}
+
+	private double distance(int v, int w) {
+		return (sizes[v] + sizes[w]) / 2 + separation;
+	}
+
+	private void executeShifts(int v) {
+		double s = 0;
+		double c = 0;
+		for (int i = childOffsets[v + 1] - 1; i >= childOffsets[v]; i--) {
+			int w = children[i];
+			prelim[w] += s;
+			mod[w] += s;
+			c += change[w];
+			s += shift[w] + c;
+		}
+	}
+
+	private void firstWalk(int v) {
+		int w = leftSibling(v);
+		if (childOffsets[v] == childOffsets[v + 1]) {
+			// leaf
+			prelim[v] = w < 0 ? 0 : prelim[w] + distance(w, v);
+		} else {
+			executeShifts(v);
+			int first = children[childOffsets[v]];
+			int last = children[childOffsets[v + 1] - 1];
+			double midpoint = (prelim[first] + prelim[last]) / 2;
+			if (w < 0) {
+				prelim[v] = midpoint;
+			} else {
+				prelim[v] = prelim[w] + distance(w, v);
+				mod[v] = prelim[v] - midpoint;
+			}
+		}
+	}
+
+	private int greatestDistinctAncestor(int vim, int v, int defaultAncestor) {
+		return parent[ancestor[vim]] == parent[v] ? ancestor[vim]
+				: defaultAncestor;
+	}
+
+	private int leftSibling(int v) {
+		return parent[v] < 0 || number[v] == 0 ? -1
+				: children[childOffsets[parent[v]] + number[v] - 1];
+	}
+
+	private void moveSubtree(int wm, int wp, double s) {
+		int subtrees = number[wp] - number[wm];
+		change[wp] -= s / subtrees;
+		shift[wp] += s;
+		change[wm] += s / subtrees;
+		prelim[wp] += s;
+		mod[wp] += s;
+	}
+
+	private int nextLeft(int v) {
+		return childOffsets[v] < childOffsets[v + 1]
+				? children[childOffsets[v]] : thread[v];
+	}
+
+	private int nextRight(int v) {
+		return childOffsets[v] < childOffsets[v + 1]
+				? children[childOffsets[v + 1] - 1] : thread[v];
+	}
+
+}
@@ -14,13 +14,14 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
-import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ICacheableLayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
 import org.eclipse.gef.layout.LayoutProperties;
 import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
@@ -37,7 +38,7 @@ import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
  * @author Miles Parker
  * @author mwienand
  */
-public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
+public class TreeLayoutAlgorithm implements ICacheableLayoutAlgorithm {
 
 	/**
 	 * Tree direction constant for which root is placed at the top and branches
@@ -67,6 +68,8 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 
 	private boolean resize = false;
 
+	private boolean tidy = false;
+
 	private Rectangle bounds;
 
 	private double leafSize, layerSize;
@@ -147,6 +150,37 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 					"Invalid direction: " + direction);
 	}
 
+	/**
+	 * Returns <code>true</code> if this {@link TreeLayoutAlgorithm} computes a
+	 * tidy (compact) tree layout, otherwise <code>false</code>.
+	 * 
+	 * @return <code>true</code> if a tidy tree layout is computed, otherwise
+	 *         <code>false</code>.
+	 * @see #setTidy(boolean)
+	 */
+	public boolean isTidy() {
+		return tidy;
+	}
+
+	/**
+	 * Specifies whether this {@link TreeLayoutAlgorithm} computes a tidy tree
+	 * layout (default is <code>false</code>).
+	 * <p>
+	 * By default, each leaf is assigned a slot of its own, and each parent is
+	 * centered within the slots of its leaves. A tidy tree layout (as proposed
+	 * by Reingold and Tilford) is more compact: Sub-trees are placed as close
+	 * to each other as possible (so that leaves on different layers may share
+	 * a slot), while parents are still centered above their children. It is
+	 * computed in linear time.
+	 * 
+	 * @param tidy
+	 *            <code>true</code> to compute a tidy tree layout, otherwise
+	 *            <code>false</code>.
+	 */
+	public void setTidy(boolean tidy) {
+		this.tidy = tidy;
+	}
+
 	/**
 	 * 
 	 * @return true if this algorithm is set to resize elements
@@ -203,17 +237,58 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 
 		TreeNode superRoot = treeObserver.getSuperRoot();
 		bounds = LayoutProperties.getBounds(context.getGraph());
-		updateLeafAndLayerSizes();
-		int leafCountSoFar = 0;
-		for (Iterator<TreeNode> iterator = superRoot.getChildren()
-				.iterator(); iterator.hasNext();) {
-			TreeNode rootInfo = iterator.next();
-			computePositionRecursively(rootInfo, leafCountSoFar);
-			leafCountSoFar = leafCountSoFar + rootInfo.numOfLeaves;
+
+		// determine the breadth position (in leaf slots) of each node
+		List<TreeNode> treeNodes = new ArrayList<>();
+		double[] breadthPositions;
+		double breadth;
+		if (tidy) {
+			breadthPositions = TidyTree.create(superRoot, treeNodes)
+					.computePositions();
+			// the super root is not laid out
+			breadth = 0;
+			for (int i = 1; i < breadthPositions.length; i++) {
+				breadth = Math.max(breadth, breadthPositions[i] + 0.5);
+			}
+		} else {
+			collectTreeNodes(superRoot, treeNodes);
+			breadthPositions = new double[treeNodes.size()];
+			for (int i = 0; i < breadthPositions.length; i++) {
+				// the order of a node is the number of leaves to its left
+				TreeNode treeNode = treeNodes.get(i);
+				breadthPositions[i] = treeNode.order
+						+ treeNode.numOfLeaves / 2.0;
+			}
+			breadth = superRoot.numOfLeaves;
+		}
+
+		updateLeafAndLayerSizes(breadth);
+		for (int i = 0; i < treeNodes.size(); i++) {
+			TreeNode treeNode = treeNodes.get(i);
+			if (treeNode != superRoot) {
+				computePosition(treeNode, breadthPositions[i]);
+			}
+		}
+	}
+
+	/**
+	 * Collects the given {@link TreeNode} and its descendants in pre-order,
+	 * without recursion.
+	 */
+	private void collectTreeNodes(TreeNode root, List<TreeNode> treeNodes) {
+		List<TreeNode> stack = new ArrayList<>();
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			TreeNode treeNode = stack.remove(stack.size() - 1);
+			treeNodes.add(treeNode);
+			List<TreeNode> children = treeNode.getChildren();
+			for (int i = children.size() - 1; i >= 0; i--) {
+				stack.add(children.get(i));
+			}
 		}
 	}
 
-	private void updateLeafAndLayerSizes() {
+	private void updateLeafAndLayerSizes(double breadth) {
 		if (nodeSpace != null) {
 			if (getDirection() == TOP_DOWN || getDirection() == BOTTOM_UP) {
 				leafSize = nodeSpace.getWidth();
@@ -225,22 +300,20 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 		} else {
 			TreeNode superRoot = treeObserver.getSuperRoot();
 			if (direction == TOP_DOWN || direction == BOTTOM_UP) {
-				leafSize = bounds.getWidth() / superRoot.numOfLeaves;
+				leafSize = bounds.getWidth() / breadth;
 				layerSize = bounds.getHeight() / superRoot.height;
 			} else {
-				leafSize = bounds.getHeight() / superRoot.numOfLeaves;
+				leafSize = bounds.getHeight() / breadth;
 				layerSize = bounds.getWidth() / superRoot.height;
 			}
 		}
 	}
 
 	/**
-	 * Computes positions recursively until the leaf nodes are reached.
+	 * Computes the position of the given {@link TreeNode} from its breadth
+	 * position (in leaf slots) and its depth.
 	 */
-	private void computePositionRecursively(TreeNode entityInfo,
-			int relativePosition) {
-		double breadthPosition = relativePosition
-				+ entityInfo.numOfLeaves / 2.0;
+	private void computePosition(TreeNode entityInfo, double breadthPosition) {
 		double depthPosition = (entityInfo.depth + 0.5);
 
 		switch (direction) {
@@ -263,13 +336,6 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 							breadthPosition * leafSize));
 			break;
 		}
-
-		for (Iterator<TreeNode> iterator = entityInfo.children
-				.iterator(); iterator.hasNext();) {
-			TreeNode childInfo = iterator.next();
-			computePositionRecursively(childInfo, relativePosition);
-			relativePosition += childInfo.numOfLeaves;
-		}
 	}
 
 	@Override
@@ -291,8 +357,15 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 			break;
 		}
 		sb.append(", resize : " + resize);
+		sb.append(", tidy : " + tidy);
 		sb.append(" }");
 		// TODO: include node space??
 		return sb.toString();
 	}
+
+	@Override
+	public String getParameterKey() {
+		return "direction=" + direction + ";resize=" + resize + ";tidy=" + tidy
+				+ ";nodeSpace=" + nodeSpace;
+	}
 }
@@ -17,9 +17,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Set;
 
 import org.eclipse.gef.graph.Node;
@@ -245,29 +245,53 @@ public class TreeLayoutHelper {
 		/**
 		 * Performs a DFS on the tree structure and calculates all parameters of
 		 * its nodes. Should be called on {@link TreeLayoutHelper#getSuperRoot()
-		 * Super Root}. Uses recurrence to go through all the nodes.
+		 * Super Root}. The tree is traversed iteratively (using an explicit
+		 * stack), so that arbitrarily deep trees can be processed.
 		 */
 		protected void precomputeTree() {
-			if (children.isEmpty()) {
-				height = 0;
-				numOfLeaves = 1;
-				numOfDescendants = 0;
-			} else {
-				height = 0;
-				numOfLeaves = 0;
-				numOfDescendants = 0;
-				for (ListIterator<TreeNode> iterator = children
-						.listIterator(); iterator.hasNext();) {
-					TreeNode child = iterator.next();
-					child.depth = this.depth + 1;
-					child.order = this.order + this.numOfLeaves;
-					child.precomputeTree();
-					child.firstChild = (this.numOfLeaves == 0);
-					child.lastChild = !iterator.hasNext();
-
-					this.height = Math.max(this.height, child.height + 1);
-					this.numOfLeaves += child.numOfLeaves;
-					this.numOfDescendants += child.numOfDescendants + 1;
+			// collect the nodes of this sub-tree in pre-order, assigning the
+			// depth top-down
+			List<TreeNode> preOrder = new ArrayList<>();
+			List<TreeNode> stack = new ArrayList<>();
+			stack.add(this);
+			while (!stack.isEmpty()) {
+				TreeNode current = stack.remove(stack.size() - 1);
+				preOrder.add(current);
+				for (int i = current.children.size() - 1; i >= 0; i--) {
+					TreeNode child = current.children.get(i);
+					child.depth = current.depth + 1;
+					stack.add(child);
+				}
+			}
+			// compute height, number of leaves, and number of descendants
+			// bottom-up
+			for (int i = preOrder.size() - 1; i >= 0; i--) {
+				TreeNode current = preOrder.get(i);
+				if (current.children.isEmpty()) {
+					current.height = 0;
+					current.numOfLeaves = 1;
+					current.numOfDescendants = 0;
+				} else {
+					current.height = 0;
+					current.numOfLeaves = 0;
+					current.numOfDescendants = 0;
+					for (TreeNode child : current.children) {
+						current.height = Math.max(current.height,
+								child.height + 1);
+						current.numOfLeaves += child.numOfLeaves;
+						current.numOfDescendants += child.numOfDescendants + 1;
+					}
+				}
+			}
+			// compute order and first/last child flags top-down
+			for (TreeNode current : preOrder) {
+				int leavesSoFar = 0;
+				for (int i = 0; i < current.children.size(); i++) {
+					TreeNode child = current.children.get(i);
+					child.order = current.order + leavesSoFar;
+					child.firstChild = i == 0;
+					child.lastChild = i == current.children.size() - 1;
+					leavesSoFar += child.numOfLeaves;
 				}
 			}
 		}
@@ -279,13 +303,12 @@ public class TreeLayoutHelper {
 		protected void findNewParent() {
 			if (parent != null)
 				parent.children.remove(this);
-			Node[] predecessingNodes = node.getAllPredecessorNodes()
-					.toArray(new Node[] {});
 			parent = null;
-			for (int i = 0; i < predecessingNodes.length; i++) {
-				TreeNode potentialParent = owner.layoutToTree
-						.get(predecessingNodes[i]);
-				if (!children.contains(potentialParent)
+			for (Node predecessor : node.getAllPredecessorNodes()) {
+				TreeNode potentialParent = owner.layoutToTree.get(predecessor);
+				// a child of this node cannot become its parent (the parent
+				// of each child is kept in sync with the children list)
+				if (potentialParent != null && potentialParent.parent != this
 						&& isBetterParent(potentialParent))
 					parent = potentialParent;
 			}
@@ -458,9 +481,10 @@ public class TreeLayoutHelper {
 	 */
 	private void createTrees(Node[] nodes) {
 		HashSet<Node> alreadyVisited = new HashSet<>();
+		HashSet<Node> alreadyWalked = new HashSet<>();
 		LinkedList<Object[]> nodesToAdd = new LinkedList<>();
 		for (int i = 0; i < nodes.length; i++) {
-			Node root = findRoot(nodes[i], alreadyVisited);
+			Node root = findRoot(nodes[i], alreadyVisited, alreadyWalked);
 			if (root != null) {
 				alreadyVisited.add(root);
 				nodesToAdd.addLast(new Object[] { root, superRoot });
@@ -493,29 +517,44 @@ public class TreeLayoutHelper {
 	 * in alreadyVisited set, it returns null. If it detects a cycle, it returns
 	 * the first found node of that cycle. If it reaches a node that has no
 	 * predecessors, it returns that node.
+	 * <p>
+	 * As the path from a node to its root is unique, a search can stop (and
+	 * return null) as soon as it reaches a node that was walked by a previous
+	 * search, because the root of that node was already found (and is
+	 * contained in the alreadyVisited set). This keeps the overall effort
+	 * linear in the number of nodes, even for very deep trees.
 	 * 
 	 * @param nodeLayout
 	 *            starting node
 	 * @param alreadyVisited
 	 *            set of nodes that can't lay on path to the root (if one does,
 	 *            method stops and returns null).
+	 * @param alreadyWalked
+	 *            set of nodes that were walked by previous searches, to which
+	 *            the nodes walked by this search are added.
 	 * @return
 	 */
-	private Node findRoot(Node nodeLayout, Set<Node> alreadyVisited) {
+	private Node findRoot(Node nodeLayout, Set<Node> alreadyVisited,
+			Set<Node> alreadyWalked) {
 		HashSet<Node> alreadyVisitedRoot = new HashSet<>();
-		while (true) {
-			if (alreadyVisited.contains(nodeLayout))
-				return null;
-			if (alreadyVisitedRoot.contains(nodeLayout))
-				return nodeLayout;
-			alreadyVisitedRoot.add(nodeLayout);
-			Node[] predecessingNodes = nodeLayout.getAllPredecessorNodes()
-					.toArray(new Node[] {});
-			if (predecessingNodes.length > 0) {
-				nodeLayout = predecessingNodes[0];
-			} else {
-				return nodeLayout;
+		try {
+			while (true) {
+				if (alreadyVisited.contains(nodeLayout)
+						|| alreadyWalked.contains(nodeLayout))
+					return null;
+				if (alreadyVisitedRoot.contains(nodeLayout))
+					return nodeLayout;
+				alreadyVisitedRoot.add(nodeLayout);
+				Iterator<Node> predecessingNodes = nodeLayout
+						.getAllPredecessorNodes().iterator();
+				if (predecessingNodes.hasNext()) {
+					nodeLayout = predecessingNodes.next();
+				} else {
+					return nodeLayout;
+				}
 			}
+		} finally {
+			alreadyWalked.addAll(alreadyVisitedRoot);
 		}
 	}
 }
@@ -12,16 +12,23 @@
  *******************************************************************************/
 package org.eclipse.gef.zest.fx.behaviors;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.eclipse.gef.fx.nodes.InfiniteCanvas;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.layout.IIncrementalLayoutAlgorithm;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.ILayoutFilter;
+import org.eclipse.gef.layout.LayoutCache;
 import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutJob;
 import org.eclipse.gef.layout.LayoutProperties;
 import org.eclipse.gef.mvc.fx.parts.IContentPart;
 import org.eclipse.gef.mvc.fx.parts.IVisualPart;
@@ -35,6 +42,7 @@ import org.eclipse.gef.zest.fx.models.NavigationModel.ViewportState;
 import org.eclipse.gef.zest.fx.parts.GraphPart;
 import org.eclipse.gef.zest.fx.parts.NodePart;
 
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
@@ -46,6 +54,28 @@ import javafx.scene.Parent;
 /**
  * The {@link GraphLayoutBehavior} is responsible for initiating layout passes.
  * It is only applicable to {@link GraphPart}.
+ * <p>
+ * By default, layout passes are performed synchronously on the JavaFX
+ * application thread. If a {@link #setLayoutExecutor(Executor) layout
+ * executor} is set, layout passes are computed asynchronously using that
+ * {@link Executor} (see
+ * {@link LayoutContext#applyLayoutAsync(boolean, Executor, Executor)}), and
+ * their results are applied on the JavaFX application thread.
+ * <p>
+ * If {@link #setIncremental(boolean) incremental} layout is enabled and the
+ * layout algorithm is an {@link IIncrementalLayoutAlgorithm}, changes of the
+ * children and of the hidden nodes do not re-compute the whole layout.
+ * Instead, only the nodes that were added or unhidden since the last layout
+ * pass (and the nodes of added edges) are placed, while the other nodes
+ * (mostly) keep their locations. If nodes or edges were removed (or hidden),
+ * or if the layout bounds changed, the whole layout is re-computed.
+ * Incremental layout passes are computed asynchronously as well if a layout
+ * executor is set.
+ * <p>
+ * If a {@link LayoutCache} is registered as an adapter of the viewer, the
+ * results of full layout passes are cached, so that re-opening or navigating
+ * into a previously laid out graph restores the layout instead of
+ * re-computing it.
  *
  * @author mwienand
  *
@@ -88,25 +118,41 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 	private ListChangeListener<IVisualPart<? extends Node>> childrenObserver = new ListChangeListener<IVisualPart<? extends Node>>() {
 		@Override
 		public void onChanged(ListChangeListener.Change<? extends IVisualPart<? extends Node>> c) {
-			applyLayout(true, null);
+			applyLayout(false, null);
 		}
 	};
 
 	private SetChangeListener<org.eclipse.gef.graph.Node> hidingModelObserver = new SetChangeListener<org.eclipse.gef.graph.Node>() {
 		@Override
 		public void onChanged(SetChangeListener.Change<? extends org.eclipse.gef.graph.Node> change) {
-			applyLayout(true, null);
+			applyLayout(false, null);
 		}
 	};
 
 	private boolean skipNextLayout;
 
+	private Executor layoutExecutor;
+
+	private LayoutJob layoutJob;
+
+	private boolean incremental;
+
+	// the layout relevant nodes and edges, and the layout bounds of the last
+	// layout pass
+	private Set<org.eclipse.gef.graph.Node> laidOutNodes;
+	private Set<Edge> laidOutEdges;
+	private Rectangle laidOutBounds;
+
 	/**
 	 * Performs one layout pass using the static layout algorithm that is
 	 * configured for the layout context.
 	 *
 	 * @param clean
-	 *            Whether to fully re-compute the layout or not.
+	 *            Whether to fully re-compute the layout or not. If
+	 *            <code>false</code> and {@link #isIncremental() incremental}
+	 *            layout is enabled, only the nodes that were added or unhidden
+	 *            since the last layout pass are placed (provided that the
+	 *            layout algorithm is an {@link IIncrementalLayoutAlgorithm}).
 	 * @param extra
 	 *            An extra {@link Object} that is passed-on to the
 	 *            {@link ILayoutAlgorithm}.
@@ -151,8 +197,54 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 			layoutContext.setGraph(graph);
 		}
 
+		// update the layout cache (shared by all graphs of the viewer)
+		LayoutCache layoutCache = getHost().getRoot().getViewer().getAdapter(LayoutCache.class);
+		if (layoutContext.getLayoutCache() != layoutCache) {
+			layoutContext.setLayoutCache(layoutCache);
+		}
+
+		// incrementally place new nodes
+		Set<org.eclipse.gef.graph.Node> previousNodes = laidOutNodes;
+		Set<Edge> previousEdges = laidOutEdges;
+		Rectangle previousBounds = laidOutBounds;
+		laidOutNodes = new HashSet<>(Arrays.asList(layoutContext.getNodes()));
+		laidOutEdges = new HashSet<>(Arrays.asList(layoutContext.getEdges()));
+		Rectangle bounds = LayoutProperties.getBounds(graph);
+		laidOutBounds = bounds == null ? null : bounds.getCopy();
+		// removed nodes or edges, and changed bounds require a full layout
+		if (!clean && incremental && previousNodes != null && layoutAlgorithm instanceof IIncrementalLayoutAlgorithm
+				&& laidOutNodes.containsAll(previousNodes) && laidOutEdges.containsAll(previousEdges)
+				&& (previousBounds == null ? laidOutBounds == null : previousBounds.equals(laidOutBounds))) {
+			// place added nodes, as well as the nodes of added edges
+			Set<org.eclipse.gef.graph.Node> dirtyNodes = new HashSet<>(laidOutNodes);
+			dirtyNodes.removeAll(previousNodes);
+			for (Edge edge : laidOutEdges) {
+				if (!previousEdges.contains(edge)) {
+					dirtyNodes.add(edge.getSource());
+					dirtyNodes.add(edge.getTarget());
+				}
+			}
+			dirtyNodes.retainAll(laidOutNodes);
+			if (dirtyNodes.isEmpty()) {
+				// nothing layout relevant changed
+				return;
+			}
+			if (layoutExecutor != null) {
+				layoutJob = layoutContext.applyIncrementalLayoutAsync(dirtyNodes, layoutExecutor, Platform::runLater);
+			} else {
+				layoutJob = null;
+				layoutContext.applyIncrementalLayout(dirtyNodes);
+			}
+			return;
+		}
+
 		// apply layout (if no algorithm is set, will be a no-op)
-		layoutContext.applyLayout(true);
+		if (layoutExecutor != null) {
+			layoutJob = layoutContext.applyLayoutAsync(true, layoutExecutor, Platform::runLater);
+		} else {
+			layoutJob = null;
+			layoutContext.applyLayout(true);
+		}
 	}
 
 	/**
@@ -264,6 +356,13 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 
 	@Override
 	protected void doDeactivate() {
+		if (layoutJob != null) {
+			layoutJob.cancel();
+			layoutJob = null;
+		}
+		laidOutNodes = null;
+		laidOutEdges = null;
+		laidOutBounds = null;
 		getHost().getChildrenUnmodifiable().removeListener(childrenObserver);
 
 		final HidingModel hidingModel = getHost().getRoot().getViewer().getAdapter(HidingModel.class);
@@ -305,6 +404,42 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		return getHost().getAdapter(LayoutContext.class);
 	}
 
+	/**
+	 * Returns the {@link Executor} that is used to compute layout passes
+	 * asynchronously, or <code>null</code> if layout passes are performed
+	 * synchronously.
+	 *
+	 * @return The {@link Executor} that is used to compute layout passes, or
+	 *         <code>null</code>.
+	 */
+	public Executor getLayoutExecutor() {
+		return layoutExecutor;
+	}
+
+	/**
+	 * Returns the {@link LayoutJob} of the last asynchronous layout pass, or
+	 * <code>null</code> if the last layout pass was performed synchronously.
+	 * It can be used to cancel the layout pass or to query its progress.
+	 *
+	 * @return The {@link LayoutJob} of the last asynchronous layout pass, or
+	 *         <code>null</code>.
+	 */
+	public LayoutJob getLayoutJob() {
+		return layoutJob;
+	}
+
+	/**
+	 * Returns whether incremental layout is enabled, i.e. if only added or
+	 * unhidden nodes are placed when the children or the hidden nodes
+	 * change.
+	 *
+	 * @return <code>true</code> if incremental layout is enabled, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
 	/**
 	 * Returns the {@link NodePart} that contains the nested graph to which the
 	 * behavior corresponds, if this behavior is related to a nested graph.
@@ -351,6 +486,37 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		}
 	}
 
+	/**
+	 * Enables or disables incremental layout (disabled by default). If
+	 * enabled, and the layout algorithm is an
+	 * {@link IIncrementalLayoutAlgorithm}, changes of the children and of the
+	 * hidden nodes only place the nodes that were added or unhidden since the
+	 * last layout pass, instead of re-computing the whole layout (unless nodes
+	 * or edges were removed, or the layout bounds changed). The stability of the existing layout can be configured
+	 * via {@link IIncrementalLayoutAlgorithm#setStability(double)}.
+	 *
+	 * @param incremental
+	 *            <code>true</code> to enable incremental layout, otherwise
+	 *            <code>false</code>.
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Sets the {@link Executor} that is used to compute layout passes
+	 * asynchronously. If <code>null</code> is passed in, layout passes are
+	 * performed synchronously on the JavaFX application thread (which is the
+	 * default).
+	 *
+	 * @param layoutExecutor
+	 *            The {@link Executor} that is used to compute layout passes,
+	 *            or <code>null</code>.
+	 */
+	public void setLayoutExecutor(Executor layoutExecutor) {
+		this.layoutExecutor = layoutExecutor;
+	}
+
 	/**
 	 * Updates the bounds property from the visual (viewport or nesting node)
 	 */
@@ -364,7 +530,7 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		Rectangle oldBounds = LayoutProperties.getBounds(getHost().getContent());
 		if (oldBounds != newBounds && (oldBounds == null || !oldBounds.equals(newBounds))) {
 			LayoutProperties.setBounds(getHost().getContent(), newBounds);
-			applyLayout(true, null);
+			applyLayout(false, null);
 		}
 	}
 }